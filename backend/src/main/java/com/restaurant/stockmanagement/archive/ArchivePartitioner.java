@@ -0,0 +1,95 @@
+package com.restaurant.stockmanagement.archive;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Optional MySQL range partitioning of the archive tables, one partition per month plus a
+ * catch-all {@code pmax}, so date-bounded archive reads only touch the months they cover and an
+ * old month can be dropped or exported as a whole. New months are split off {@code pmax} before
+ * rows are moved into them. Partitioning DDL commits implicitly, so this runs outside any
+ * transaction. Other databases are left alone.
+ */
+@Component
+class ArchivePartitioner {
+
+    private static final DateTimeFormatter PARTITION_NAME = DateTimeFormatter.ofPattern("'p'uuuuMM");
+
+    private static final List<PartitionedTable> TABLES = List.of(
+            new PartitionedTable("sales_archive", "sale_date", "sales", "sale_date"),
+            new PartitionedTable("sale_items_archive", "sale_date", "sales", "sale_date"),
+            new PartitionedTable("stock_transactions_archive", "created_at", "stock_transactions", "created_at"));
+
+    private final JdbcTemplate jdbcTemplate;
+    private final boolean enabled;
+
+    ArchivePartitioner(JdbcTemplate jdbcTemplate,
+                       @Value("${app.archive.partitioning.enabled:false}") boolean enabled) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.enabled = enabled;
+    }
+
+    /**
+     * Adds the monthly partitions the rows about to be archived need, up to {@code lastMonth}.
+     */
+    void ensureMonthlyPartitions(YearMonth lastMonth) {
+        if (!enabled || !isMySql()) {
+            return;
+        }
+        for (PartitionedTable table : TABLES) {
+            List<String> existing = jdbcTemplate.queryForList(
+                    "SELECT partition_name FROM information_schema.partitions " +
+                    "WHERE table_schema = DATABASE() AND table_name = ? AND partition_name IS NOT NULL " +
+                    "ORDER BY partition_ordinal_position", String.class, table.name());
+
+            YearMonth firstMonth;
+            if (existing.size() > 1) {
+                // Earlier rows land in the first partition; ranges can only be split off pmax
+                String newest = existing.get(existing.size() - 2);
+                firstMonth = YearMonth.parse(newest, PARTITION_NAME).plusMonths(1);
+            } else {
+                LocalDateTime oldest = jdbcTemplate.queryForObject(
+                        "SELECT MIN(" + table.sourceColumn() + ") FROM " + table.source(), LocalDateTime.class);
+                if (oldest == null) {
+                    continue;
+                }
+                firstMonth = YearMonth.from(oldest);
+            }
+
+            List<String> partitions = new ArrayList<>();
+            for (YearMonth month = firstMonth; !month.isAfter(lastMonth); month = month.plusMonths(1)) {
+                partitions.add("PARTITION " + PARTITION_NAME.format(month) +
+                        " VALUES LESS THAN ('" + month.plusMonths(1).atDay(1) + "')");
+            }
+            if (partitions.isEmpty()) {
+                continue;
+            }
+            partitions.add("PARTITION pmax VALUES LESS THAN (MAXVALUE)");
+            String definitions = String.join(", ", partitions);
+            if (existing.isEmpty()) {
+                jdbcTemplate.execute("ALTER TABLE " + table.name() +
+                        " PARTITION BY RANGE COLUMNS(" + table.column() + ") (" + definitions + ")");
+            } else {
+                jdbcTemplate.execute("ALTER TABLE " + table.name() +
+                        " REORGANIZE PARTITION pmax INTO (" + definitions + ")");
+            }
+        }
+    }
+
+    private boolean isMySql() {
+        String product = jdbcTemplate.execute(
+                (ConnectionCallback<String>) connection -> connection.getMetaData().getDatabaseProductName());
+        return "MySQL".equalsIgnoreCase(product);
+    }
+
+    private record PartitionedTable(String name, String column, String source, String sourceColumn) {
+    }
+}
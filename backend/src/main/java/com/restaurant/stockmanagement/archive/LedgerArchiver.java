@@ -0,0 +1,192 @@
+package com.restaurant.stockmanagement.archive;
+
+import com.restaurant.stockmanagement.datasource.ShardFanOut;
+import com.restaurant.stockmanagement.dto.ArchiveRunDTO;
+import com.restaurant.stockmanagement.exception.ArchiveInProgressException;
+import com.restaurant.stockmanagement.model.ArchiveRun;
+import com.restaurant.stockmanagement.repository.ArchiveRunRepository;
+import com.restaurant.stockmanagement.repository.SaleItemRepository;
+import com.restaurant.stockmanagement.repository.SaleRepository;
+import com.restaurant.stockmanagement.repository.StockTransactionRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Retention for the ledger tables. Whole months older than {@code app.archive.hot-months} (not
+ * counting the current one) of sales with their items and of stock transactions are moved to
+ * the {@code *_archive} tables, together with soft-deleted rows last updated more than
+ * {@code app.archive.deleted-grace} ago. Rows move in batches of {@code app.archive.batch-size},
+ * each copied and deleted in one transaction, so an interrupted run loses nothing and the next
+ * run picks up where it stopped.
+ *
+ * <p>Every run records its cutoff before moving anything. Reports, analytics and rollup rebuilds
+ * whose range starts before the newest cutoff (see {@link #reachesArchive}) read the archive as
+ * well and combine it with the live rows; listings and lookups by id only see live rows.
+ */
+@Service
+public class LedgerArchiver {
+
+    private static final Logger log = LoggerFactory.getLogger(LedgerArchiver.class);
+
+    private final SaleRepository saleRepository;
+    private final SaleItemRepository saleItemRepository;
+    private final StockTransactionRepository stockTransactionRepository;
+    private final ArchiveRunRepository archiveRunRepository;
+    private final ArchivePartitioner partitioner;
+    private final ShardFanOut shardFanOut;
+    private final TransactionTemplate requiresNewTransaction;
+    private final int hotMonths;
+    private final Duration deletedGrace;
+    private final int batchSize;
+    private final ReentrantLock running = new ReentrantLock();
+
+    public LedgerArchiver(SaleRepository saleRepository,
+                          SaleItemRepository saleItemRepository,
+                          StockTransactionRepository stockTransactionRepository,
+                          ArchiveRunRepository archiveRunRepository,
+                          ArchivePartitioner partitioner,
+                          ShardFanOut shardFanOut,
+                          PlatformTransactionManager transactionManager,
+                          @Value("${app.archive.hot-months:3}") int hotMonths,
+                          @Value("${app.archive.deleted-grace:30d}") Duration deletedGrace,
+                          @Value("${app.archive.batch-size:1000}") int batchSize) {
+        this.saleRepository = saleRepository;
+        this.saleItemRepository = saleItemRepository;
+        this.stockTransactionRepository = stockTransactionRepository;
+        this.archiveRunRepository = archiveRunRepository;
+        this.partitioner = partitioner;
+        this.shardFanOut = shardFanOut;
+        this.requiresNewTransaction = new TransactionTemplate(transactionManager);
+        this.requiresNewTransaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        this.hotMonths = hotMonths;
+        this.deletedGrace = deletedGrace;
+        this.batchSize = batchSize;
+    }
+
+    /**
+     * True when rows dated at or after {@code from} may have been archived on the current
+     * database, i.e. a range starting there has to read the archive tables too.
+     */
+    public boolean reachesArchive(LocalDateTime from) {
+        LocalDateTime horizon = archiveRunRepository.findArchiveHorizon();
+        return horizon != null && from.isBefore(horizon);
+    }
+
+    /**
+     * Archives every database, one after the other, and returns the run recorded on each.
+     */
+    public List<ArchiveRunDTO> archive() {
+        if (!running.tryLock()) {
+            throw new ArchiveInProgressException("An archive run is already in progress");
+        }
+        try {
+            List<ArchiveRunDTO> runs = new ArrayList<>();
+            shardFanOut.forEachShard(() -> runs.add(mapToDTO(archiveCurrentShard())));
+            return runs;
+        } finally {
+            running.unlock();
+        }
+    }
+
+    /**
+     * The latest runs of every database, newest first.
+     */
+    public List<ArchiveRunDTO> getRecentRuns() {
+        List<ArchiveRunDTO> runs = shardFanOut.queryAll(() -> archiveRunRepository
+                .findTop20ByDeletedFalseOrderByCreatedAtDesc().stream()
+                .map(this::mapToDTO)
+                .toList());
+        runs.sort(Comparator.comparing(ArchiveRunDTO::getStartedAt).reversed());
+        return runs;
+    }
+
+    private ArchiveRun archiveCurrentShard() {
+        LocalDateTime now = LocalDateTime.now();
+        YearMonth firstHotMonth = YearMonth.from(now).minusMonths(hotMonths);
+        LocalDateTime cutoff = firstHotMonth.atDay(1).atStartOfDay();
+        LocalDateTime deletedBefore = now.minus(deletedGrace);
+
+        ArchiveRun run = requiresNewTransaction.execute(status ->
+                archiveRunRepository.save(new ArchiveRun(cutoff, deletedBefore)));
+        partitioner.ensureMonthlyPartitions(firstHotMonth.minusMonths(1));
+
+        Pageable batch = PageRequest.of(0, batchSize);
+        long sales = 0;
+        long saleItems = 0;
+        long[] moved;
+        do {
+            moved = requiresNewTransaction.execute(status -> moveSales(cutoff, deletedBefore, batch));
+            sales += moved[0];
+            saleItems += moved[1];
+        } while (moved[0] > 0);
+
+        long transactions = 0;
+        int movedTransactions;
+        do {
+            movedTransactions = requiresNewTransaction.execute(status -> moveStockTransactions(cutoff, deletedBefore, batch));
+            transactions += movedTransactions;
+        } while (movedTransactions > 0);
+
+        run.setSalesArchived(sales);
+        run.setSaleItemsArchived(saleItems);
+        run.setStockTransactionsArchived(transactions);
+        run.setCompletedAt(LocalDateTime.now());
+        ArchiveRun completed = requiresNewTransaction.execute(status -> archiveRunRepository.save(run));
+        log.info("Archived {} sales, {} sale items and {} stock transactions before {}",
+                sales, saleItems, transactions, cutoff);
+        return completed;
+    }
+
+    /**
+     * Moves one batch of sales with their items; returns the number of sales and items moved.
+     */
+    private long[] moveSales(LocalDateTime cutoff, LocalDateTime deletedBefore, Pageable batch) {
+        List<Long> saleIds = saleRepository.findIdsToArchive(cutoff, deletedBefore, batch);
+        if (saleIds.isEmpty()) {
+            return new long[2];
+        }
+        LocalDateTime archivedAt = LocalDateTime.now();
+        saleRepository.copyToArchive(saleIds, archivedAt);
+        int items = saleItemRepository.copyToArchive(saleIds, archivedAt);
+        saleItemRepository.deleteArchived(saleIds);
+        int sales = saleRepository.deleteArchived(saleIds);
+        return new long[]{sales, items};
+    }
+
+    private int moveStockTransactions(LocalDateTime cutoff, LocalDateTime deletedBefore, Pageable batch) {
+        List<Long> ids = stockTransactionRepository.findIdsToArchive(cutoff, deletedBefore, batch);
+        if (ids.isEmpty()) {
+            return 0;
+        }
+        stockTransactionRepository.copyToArchive(ids, LocalDateTime.now());
+        return stockTransactionRepository.deleteArchived(ids);
+    }
+
+    private ArchiveRunDTO mapToDTO(ArchiveRun run) {
+        ArchiveRunDTO dto = new ArchiveRunDTO();
+        dto.setId(run.getId());
+        dto.setCutoff(run.getCutoff());
+        dto.setDeletedBefore(run.getDeletedBefore());
+        dto.setSalesArchived(run.getSalesArchived());
+        dto.setSaleItemsArchived(run.getSaleItemsArchived());
+        dto.setStockTransactionsArchived(run.getStockTransactionsArchived());
+        dto.setStartedAt(run.getCreatedAt());
+        dto.setCompletedAt(run.getCompletedAt());
+        return dto;
+    }
+}
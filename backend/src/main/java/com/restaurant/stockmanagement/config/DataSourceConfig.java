@@ -0,0 +1,136 @@
+package com.restaurant.stockmanagement.config;
+
+import com.restaurant.stockmanagement.datasource.BranchRoutingDataSource;
+import com.restaurant.stockmanagement.datasource.ConnectionLimitingDataSource;
+import com.restaurant.stockmanagement.datasource.ShardingProperties;
+import com.zaxxer.hikari.HikariDataSource;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.flywaydb.core.Flyway;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnExpression;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.flyway.FlywayMigrationStrategy;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.boot.jdbc.DataSourceBuilder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.core.env.Environment;
+
+import javax.sql.DataSource;
+import java.util.*;
+
+@Configuration(proxyBeanMethods = false)
+@EnableConfigurationProperties(ShardingProperties.class)
+public class DataSourceConfig {
+
+    /**
+     * Puts the connection semaphore in front of each pool when
+     * {@code app.datasource.max-concurrency} is set (the virtual-threads profile does).
+     */
+    @Bean
+    @ConditionalOnExpression("${app.datasource.max-concurrency:0} > 0")
+    static BeanPostProcessor connectionLimitingDataSourcePostProcessor(Environment environment) {
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String beanName) {
+                if (bean instanceof DataSource dataSource
+                        && !(bean instanceof ConnectionLimitingDataSource)
+                        && !(bean instanceof BranchRoutingDataSource)) {
+                    return limit(dataSource, environment);
+                }
+                return bean;
+            }
+        };
+    }
+
+    private static DataSource limit(DataSource dataSource, Environment environment) {
+        int maxConcurrency = environment.getProperty("app.datasource.max-concurrency", Integer.class, 0);
+        if (maxConcurrency <= 0) {
+            return dataSource;
+        }
+        long timeoutMillis = environment.getProperty("spring.datasource.hikari.connection-timeout", Long.class, 30_000L);
+        return new ConnectionLimitingDataSource(dataSource, maxConcurrency, timeoutMillis);
+    }
+
+    /**
+     * Branch sharding: the default database from {@code spring.datasource} plus one pool per
+     * {@code app.sharding.shards} entry behind a routing data source. Flyway migrates every
+     * database, giving each its own entity id range.
+     */
+    @Configuration(proxyBeanMethods = false)
+    @ConditionalOnProperty(prefix = "app.sharding", name = "enabled", havingValue = "true")
+    static class Sharding {
+
+        static final String ID_OFFSET_PLACEHOLDER = "id_offset";
+
+        @Bean
+        @ConfigurationProperties("spring.datasource.hikari")
+        HikariDataSource defaultShardDataSource(DataSourceProperties properties) {
+            return properties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+        }
+
+        @Bean
+        @Primary
+        BranchRoutingDataSource dataSource(@Qualifier("defaultShardDataSource") DataSource defaultShardDataSource,
+                                           ShardingProperties sharding,
+                                           Environment environment,
+                                           ObjectProvider<MeterRegistry> meterRegistry) {
+            validate(sharding);
+            Map<String, DataSource> shards = new LinkedHashMap<>();
+            sharding.getShards().forEach((name, shard) -> {
+                HikariDataSource pool = DataSourceBuilder.create()
+                        .type(HikariDataSource.class)
+                        .url(shard.getUrl())
+                        .username(shard.getUsername())
+                        .password(shard.getPassword())
+                        .driverClassName(shard.getDriverClassName())
+                        .build();
+                pool.setPoolName("shard-" + name);
+                pool.setMaximumPoolSize(shard.getMaximumPoolSize());
+                // Not a bean of its own, so the actuator's pool metrics would not see it
+                meterRegistry.ifAvailable(pool::setMetricRegistry);
+                shards.put(name, limit(pool, environment));
+            });
+            return new BranchRoutingDataSource(defaultShardDataSource, shards);
+        }
+
+        @Bean
+        FlywayMigrationStrategy shardMigrationStrategy(BranchRoutingDataSource dataSource, ShardingProperties sharding) {
+            return flyway -> {
+                flyway.migrate();
+                sharding.getShards().forEach((name, shard) -> {
+                    Map<String, String> placeholders = new HashMap<>(flyway.getConfiguration().getPlaceholders());
+                    placeholders.put(ID_OFFSET_PLACEHOLDER, Long.toString(shard.getIdOffset()));
+                    Flyway.configure(flyway.getConfiguration().getClassLoader())
+                            .configuration(flyway.getConfiguration())
+                            .dataSource(dataSource.getShards().get(name))
+                            .placeholders(placeholders)
+                            .load()
+                            .migrate();
+                });
+            };
+        }
+
+        private static void validate(ShardingProperties sharding) {
+            Set<Long> offsets = new HashSet<>();
+            sharding.getShards().forEach((name, shard) -> {
+                if (BranchRoutingDataSource.DEFAULT_SHARD.equals(name)) {
+                    throw new IllegalStateException("Shard name '" + name + "' is reserved for spring.datasource");
+                }
+                if (shard.getIdOffset() <= 0 || !offsets.add(shard.getIdOffset())) {
+                    throw new IllegalStateException("Shard '" + name + "' needs a positive id-offset of its own");
+                }
+            });
+            sharding.getBranches().forEach((branchId, name) -> {
+                if (!sharding.getShards().containsKey(name)) {
+                    throw new IllegalStateException("Branch " + branchId + " is mapped to unknown shard '" + name + "'");
+                }
+            });
+        }
+    }
+}
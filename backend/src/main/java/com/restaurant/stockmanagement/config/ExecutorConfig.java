@@ -0,0 +1,172 @@
+package com.restaurant.stockmanagement.config;
+
+import com.restaurant.stockmanagement.datasource.BranchContext;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnThreading;
+import org.springframework.boot.autoconfigure.thread.Threading;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.task.AsyncTaskExecutor;
+import org.springframework.core.task.SimpleAsyncTaskExecutor;
+import org.springframework.scheduling.annotation.EnableAsync;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+
+import java.util.concurrent.RejectedExecutionHandler;
+import java.util.concurrent.ThreadPoolExecutor;
+
+/**
+ * Bulkheads: one bounded executor per workload, so a burst in one cannot take the threads (and
+ * with them the database connections) of another.
+ * <ul>
+ *   <li>{@code pos} runs work triggered by sales after they commit, such as recomputing
+ *       sellable portions; when full, the committing request does the work itself.</li>
+ *   <li>{@code reporting} streams report exports (it is the MVC async executor, see
+ *       {@link WebMvcConfig}); when full, new exports are refused with 503.</li>
+ *   <li>{@code alerting} evaluates stock alerts; when full, the caller does the work itself
+ *       so no alert is lost.</li>
+ *   <li>{@code import} processes bulk uploads in the background; when full, new imports are
+ *       refused with 503.</li>
+ *   <li>{@code fan-out} runs the per-database legs of cross-branch queries
+ *       (see {@link com.restaurant.stockmanagement.datasource.ShardFanOut}); when full, the
+ *       caller runs the leg itself.</li>
+ *   <li>{@code push} writes server-sent events to subscribed clients (see
+ *       {@link com.restaurant.stockmanagement.push.StockEventBroadcaster}); when full, the
+ *       client that could not be served is disconnected.</li>
+ *   <li>{@code notification} sends alert digest emails (see
+ *       {@link com.restaurant.stockmanagement.notification.AlertEmailNotifier}); when full, the
+ *       digest is retried later like a failed send.</li>
+ * </ul>
+ * Tasks keep the branch database selected by the thread that submitted them.
+ * On platform threads each bulkhead is a fixed pool with a bounded queue. With
+ * {@code spring.threads.virtual.enabled} on Java 21 it is a virtual-thread executor whose
+ * concurrency limit blocks submitters instead, since waiting is cheap there. Reporting and
+ * import keep their platform pools even then: a virtual thread is only taken off its carrier
+ * when it blocks, so a long CPU-bound export or import would hold a carrier for seconds and
+ * stall the request threads queued behind it. Platform threads get time-sliced by the OS.
+ */
+@Configuration
+@EnableAsync
+public class ExecutorConfig {
+
+    public static final String POS_EXECUTOR = "posExecutor";
+    public static final String REPORTING_EXECUTOR = "reportingExecutor";
+    public static final String ALERTING_EXECUTOR = "alertingExecutor";
+    public static final String FAN_OUT_EXECUTOR = "fanOutExecutor";
+    public static final String IMPORT_EXECUTOR = "importExecutor";
+    public static final String PUSH_EXECUTOR = "pushExecutor";
+    public static final String NOTIFICATION_EXECUTOR = "notificationExecutor";
+
+    @Configuration(proxyBeanMethods = false)
+    @ConditionalOnThreading(Threading.PLATFORM)
+    static class PlatformThreadExecutors {
+
+        @Bean(name = POS_EXECUTOR)
+        AsyncTaskExecutor posExecutor(@Value("${app.bulkheads.pos.concurrency:4}") int concurrency,
+                                      @Value("${app.bulkheads.pos.queue-capacity:500}") int queueCapacity) {
+            return pool("pos-", concurrency, queueCapacity, new ThreadPoolExecutor.CallerRunsPolicy());
+        }
+
+        @Bean(name = REPORTING_EXECUTOR)
+        AsyncTaskExecutor reportingExecutor(@Value("${app.bulkheads.reporting.concurrency:3}") int concurrency,
+                                            @Value("${app.bulkheads.reporting.queue-capacity:10}") int queueCapacity) {
+            return pool("reporting-", concurrency, queueCapacity, new ThreadPoolExecutor.AbortPolicy());
+        }
+
+        @Bean(name = ALERTING_EXECUTOR)
+        AsyncTaskExecutor alertingExecutor(@Value("${app.bulkheads.alerting.concurrency:2}") int concurrency,
+                                           @Value("${app.bulkheads.alerting.queue-capacity:1000}") int queueCapacity) {
+            return pool("alerting-", concurrency, queueCapacity, new ThreadPoolExecutor.CallerRunsPolicy());
+        }
+
+        @Bean(name = FAN_OUT_EXECUTOR)
+        AsyncTaskExecutor fanOutExecutor(@Value("${app.bulkheads.fan-out.concurrency:8}") int concurrency,
+                                         @Value("${app.bulkheads.fan-out.queue-capacity:100}") int queueCapacity) {
+            return pool("fan-out-", concurrency, queueCapacity, new ThreadPoolExecutor.CallerRunsPolicy());
+        }
+
+        @Bean(name = IMPORT_EXECUTOR)
+        AsyncTaskExecutor importExecutor(@Value("${app.bulkheads.import.concurrency:1}") int concurrency,
+                                         @Value("${app.bulkheads.import.queue-capacity:5}") int queueCapacity) {
+            return pool("import-", concurrency, queueCapacity, new ThreadPoolExecutor.AbortPolicy());
+        }
+
+        @Bean(name = PUSH_EXECUTOR)
+        AsyncTaskExecutor pushExecutor(@Value("${app.bulkheads.push.concurrency:4}") int concurrency,
+                                       @Value("${app.bulkheads.push.queue-capacity:1000}") int queueCapacity) {
+            return pool("push-", concurrency, queueCapacity, new ThreadPoolExecutor.AbortPolicy());
+        }
+
+        @Bean(name = NOTIFICATION_EXECUTOR)
+        AsyncTaskExecutor notificationExecutor(@Value("${app.bulkheads.notification.concurrency:1}") int concurrency,
+                                               @Value("${app.bulkheads.notification.queue-capacity:100}") int queueCapacity) {
+            return pool("notification-", concurrency, queueCapacity, new ThreadPoolExecutor.AbortPolicy());
+        }
+
+        private static ThreadPoolTaskExecutor pool(String prefix, int concurrency, int queueCapacity,
+                                                   RejectedExecutionHandler rejectionPolicy) {
+            ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+            executor.setThreadNamePrefix(prefix);
+            executor.setCorePoolSize(concurrency);
+            executor.setMaxPoolSize(concurrency);
+            executor.setQueueCapacity(queueCapacity);
+            executor.setRejectedExecutionHandler(rejectionPolicy);
+            executor.setTaskDecorator(BranchContext::wrap);
+            executor.setWaitForTasksToCompleteOnShutdown(true);
+            executor.setAwaitTerminationSeconds(30);
+            return executor;
+        }
+    }
+
+    @Configuration(proxyBeanMethods = false)
+    @ConditionalOnThreading(Threading.VIRTUAL)
+    static class VirtualThreadExecutors {
+
+        @Bean(name = POS_EXECUTOR)
+        AsyncTaskExecutor posExecutor(@Value("${app.bulkheads.pos.concurrency:4}") int concurrency) {
+            return virtual("pos-", concurrency);
+        }
+
+        @Bean(name = REPORTING_EXECUTOR)
+        AsyncTaskExecutor reportingExecutor(@Value("${app.bulkheads.reporting.concurrency:3}") int concurrency,
+                                            @Value("${app.bulkheads.reporting.queue-capacity:10}") int queueCapacity) {
+            return PlatformThreadExecutors.pool("reporting-", concurrency, queueCapacity,
+                    new ThreadPoolExecutor.AbortPolicy());
+        }
+
+        @Bean(name = ALERTING_EXECUTOR)
+        AsyncTaskExecutor alertingExecutor(@Value("${app.bulkheads.alerting.concurrency:2}") int concurrency) {
+            return virtual("alerting-", concurrency);
+        }
+
+        @Bean(name = FAN_OUT_EXECUTOR)
+        AsyncTaskExecutor fanOutExecutor(@Value("${app.bulkheads.fan-out.concurrency:8}") int concurrency) {
+            return virtual("fan-out-", concurrency);
+        }
+
+        @Bean(name = IMPORT_EXECUTOR)
+        AsyncTaskExecutor importExecutor(@Value("${app.bulkheads.import.concurrency:1}") int concurrency,
+                                         @Value("${app.bulkheads.import.queue-capacity:5}") int queueCapacity) {
+            return PlatformThreadExecutors.pool("import-", concurrency, queueCapacity,
+                    new ThreadPoolExecutor.AbortPolicy());
+        }
+
+        @Bean(name = PUSH_EXECUTOR)
+        AsyncTaskExecutor pushExecutor(@Value("${app.bulkheads.push.concurrency:4}") int concurrency) {
+            return virtual("push-", concurrency);
+        }
+
+        @Bean(name = NOTIFICATION_EXECUTOR)
+        AsyncTaskExecutor notificationExecutor(@Value("${app.bulkheads.notification.concurrency:1}") int concurrency) {
+            return virtual("notification-", concurrency);
+        }
+
+        private static SimpleAsyncTaskExecutor virtual(String prefix, int concurrency) {
+            SimpleAsyncTaskExecutor executor = new SimpleAsyncTaskExecutor(prefix);
+            executor.setVirtualThreads(true);
+            executor.setTaskDecorator(BranchContext::wrap);
+            executor.setConcurrencyLimit(concurrency);
+            executor.setTaskTerminationTimeout(30_000);
+            return executor;
+        }
+    }
+}
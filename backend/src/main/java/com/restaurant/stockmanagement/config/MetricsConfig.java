@@ -0,0 +1,99 @@
+package com.restaurant.stockmanagement.config;
+
+import com.restaurant.stockmanagement.ledger.StockLedger;
+import com.restaurant.stockmanagement.metrics.SqlStatementCounter;
+import com.restaurant.stockmanagement.notification.AlertEmailNotifier;
+import com.restaurant.stockmanagement.push.StockEventBroadcaster;
+import com.restaurant.stockmanagement.security.CustomUserDetailsService;
+import com.restaurant.stockmanagement.security.MemoizingPasswordEncoder;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.hibernate.cfg.AvailableSettings;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+/**
+ * Meters the actuator does not bind on its own. Repository timings
+ * ({@code spring.data.repository.invocations}), HTTP timings, Hikari pools, executors and the
+ * Spring caches are bound by the actuator; see {@code management.*} in application.yml.
+ */
+@Configuration(proxyBeanMethods = false)
+public class MetricsConfig {
+
+    @Bean
+    HibernatePropertiesCustomizer sqlStatementCounter() {
+        return properties -> properties.put(AvailableSettings.STATEMENT_INSPECTOR, new SqlStatementCounter());
+    }
+
+    @Bean
+    MeterBinder stockLedgerMetrics(StockLedger stockLedger) {
+        return registry -> {
+            Gauge.builder("stock.ledger.queue.depth", stockLedger, StockLedger::getQueueDepth)
+                    .description("Stock transactions waiting for the write-behind flusher")
+                    .register(registry);
+            FunctionCounter.builder("stock.ledger.flushed", stockLedger, StockLedger::getFlushedCount)
+                    .description("Stock transactions written by the write-behind flusher")
+                    .register(registry);
+            Gauge.builder("stock.ledger.flush.latency", stockLedger, StockLedger::getLastFlushLatencyMs)
+                    .description("Duration of the last write-behind flush")
+                    .baseUnit("milliseconds")
+                    .register(registry);
+        };
+    }
+
+    @Bean
+    MeterBinder stockEventPushMetrics(StockEventBroadcaster broadcaster) {
+        return registry -> {
+            Gauge.builder("push.subscribers", broadcaster, StockEventBroadcaster::getSubscriberCount)
+                    .description("Clients connected to the stock event stream")
+                    .register(registry);
+            FunctionCounter.builder("push.dropped", broadcaster, StockEventBroadcaster::getDroppedCount)
+                    .description("Event stream clients disconnected for falling behind")
+                    .register(registry);
+        };
+    }
+
+    @Bean
+    MeterBinder alertEmailMetrics(AlertEmailNotifier notifier) {
+        return registry -> {
+            Gauge.builder("notifications.email.queue.depth", notifier, AlertEmailNotifier::getQueueDepth)
+                    .description("Alerts waiting for the next digest email")
+                    .register(registry);
+            FunctionCounter.builder("notifications.email.sent", notifier, AlertEmailNotifier::getSentCount)
+                    .description("Alert digest emails sent")
+                    .register(registry);
+            FunctionCounter.builder("notifications.email.failed", notifier, AlertEmailNotifier::getFailedCount)
+                    .description("Alert digest emails given up on after every retry failed")
+                    .register(registry);
+            FunctionCounter.builder("notifications.email.dropped", notifier, AlertEmailNotifier::getDroppedCount)
+                    .description("Alerts not mailed because the queue was full")
+                    .register(registry);
+        };
+    }
+
+    @Bean
+    MeterBinder authenticationCacheMetrics(CustomUserDetailsService userDetailsService,
+                                           PasswordEncoder passwordEncoder) {
+        return registry -> {
+            CaffeineCacheMetrics.monitor(registry, userDetailsService.getCache(), "users",
+                    cacheTags("users"));
+            if (passwordEncoder instanceof MemoizingPasswordEncoder memoizing) {
+                CaffeineCacheMetrics.monitor(registry, memoizing.getCache(), "password-checks",
+                        cacheTags("password-checks"));
+            }
+        };
+    }
+
+    /**
+     * Prometheus needs every meter of a name to have the same tag keys, so these mirror the tags
+     * the actuator puts on the Spring caches.
+     */
+    private static Tags cacheTags(String name) {
+        return Tags.of("cache.manager", "authentication", "name", name);
+    }
+}
@@ -1,6 +1,13 @@
 package com.restaurant.stockmanagement.config;
 
+import com.restaurant.stockmanagement.security.AuthTokenFilter;
+import com.restaurant.stockmanagement.security.AuthTokenService;
 import com.restaurant.stockmanagement.security.CustomUserDetailsService;
+import com.restaurant.stockmanagement.security.MemoizingPasswordEncoder;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.actuate.autoconfigure.security.servlet.EndpointRequest;
+import org.springframework.boot.actuate.health.HealthEndpoint;
+import org.springframework.boot.actuate.metrics.export.prometheus.PrometheusScrapeEndpoint;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.security.authentication.AuthenticationManager;
@@ -12,11 +19,13 @@ import org.springframework.security.config.annotation.web.configuration.EnableWe
 import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.security.web.SecurityFilterChain;
+import org.springframework.security.web.authentication.UsernamePasswordAuthenticationFilter;
 import org.springframework.security.web.csrf.CookieCsrfTokenRepository;
 import org.springframework.web.cors.CorsConfiguration;
 import org.springframework.web.cors.CorsConfigurationSource;
 import org.springframework.web.cors.UrlBasedCorsConfigurationSource;
 
+import java.time.Duration;
 import java.util.Arrays;
 import java.util.List;
 
@@ -26,9 +35,24 @@ import java.util.List;
 public class SecurityConfig {
 
     private final CustomUserDetailsService userDetailsService;
+    private final AuthTokenService authTokenService;
+    private final int bcryptStrength;
+    private final long userCacheMaxSize;
+    private final long userCacheTtlSeconds;
+    private final boolean rememberPasswordChecks;
 
-    public SecurityConfig(CustomUserDetailsService userDetailsService) {
+    public SecurityConfig(CustomUserDetailsService userDetailsService,
+                          AuthTokenService authTokenService,
+                          @Value("${app.security.bcrypt-strength:10}") int bcryptStrength,
+                          @Value("${app.security.user-cache.max-size:1000}") long userCacheMaxSize,
+                          @Value("${app.security.user-cache.ttl:300}") long userCacheTtlSeconds,
+                          @Value("${app.security.remember-password-checks:false}") boolean rememberPasswordChecks) {
         this.userDetailsService = userDetailsService;
+        this.authTokenService = authTokenService;
+        this.bcryptStrength = bcryptStrength;
+        this.userCacheMaxSize = userCacheMaxSize;
+        this.userCacheTtlSeconds = userCacheTtlSeconds;
+        this.rememberPasswordChecks = rememberPasswordChecks;
     }
 
     @Bean
@@ -37,9 +61,16 @@ public class SecurityConfig {
             .cors(cors -> cors.configurationSource(corsConfigurationSource()))
             .csrf(csrf -> csrf
                 .csrfTokenRepository(CookieCsrfTokenRepository.withHttpOnlyFalse())
+                // Bearer tokens are never sent automatically by the browser, so they cannot be forged
+                // cross-site, and /auth/token sets no cookie: its response is useless to another origin
+                .ignoringRequestMatchers(AuthTokenFilter::hasBearerToken)
+                .ignoringRequestMatchers("/auth/token")
             )
             .authorizeHttpRequests(auth -> auth
                 .requestMatchers("/auth/**", "/swagger-ui/**", "/api-docs/**", "/v3/api-docs/**").permitAll()
+                // The management port only listens on localhost (management.server.address)
+                .requestMatchers(EndpointRequest.to(HealthEndpoint.class, PrometheusScrapeEndpoint.class)).permitAll()
+                .requestMatchers(EndpointRequest.toAnyEndpoint()).hasRole("OWNER")
                 .requestMatchers("/admin/**").hasAnyRole("OWNER", "BRANCH_MANAGER")
                 .requestMatchers("/cashier/**").hasRole("CASHIER")
                 .requestMatchers("/chef/**").hasRole("CHEF")
@@ -57,6 +88,10 @@ public class SecurityConfig {
                 })
             );
 
+        if (authTokenService.isEnabled()) {
+            http.addFilterBefore(new AuthTokenFilter(authTokenService), UsernamePasswordAuthenticationFilter.class);
+        }
+
         return http.build();
     }
 
@@ -75,7 +110,12 @@ public class SecurityConfig {
 
     @Bean
     public PasswordEncoder passwordEncoder() {
-        return new BCryptPasswordEncoder();
+        // Existing hashes keep the cost they were created with; the strength applies to new ones
+        PasswordEncoder bcrypt = new BCryptPasswordEncoder(bcryptStrength);
+        if (!rememberPasswordChecks) {
+            return bcrypt;
+        }
+        return new MemoizingPasswordEncoder(bcrypt, userCacheMaxSize, Duration.ofSeconds(userCacheTtlSeconds));
     }
 
     @Bean
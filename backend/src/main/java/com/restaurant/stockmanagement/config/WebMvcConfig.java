@@ -0,0 +1,46 @@
+package com.restaurant.stockmanagement.config;
+
+import com.restaurant.stockmanagement.datasource.BranchRoutingInterceptor;
+import com.restaurant.stockmanagement.datasource.ShardingProperties;
+import com.restaurant.stockmanagement.metrics.SqlStatementMetricsInterceptor;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.task.AsyncTaskExecutor;
+import org.springframework.web.servlet.config.annotation.AsyncSupportConfigurer;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+/**
+ * Streamed report exports are the only asynchronous MVC responses, so they run on the
+ * reporting bulkhead rather than on the shared application executor. With branch sharding,
+ * every request is routed to the database of the user's branch. Every request's SQL statements
+ * are counted for the N+1 metrics.
+ */
+@Configuration
+public class WebMvcConfig implements WebMvcConfigurer {
+
+    private final AsyncTaskExecutor reportingExecutor;
+    private final ShardingProperties sharding;
+    private final SqlStatementMetricsInterceptor sqlStatementMetricsInterceptor;
+
+    public WebMvcConfig(@Qualifier(ExecutorConfig.REPORTING_EXECUTOR) AsyncTaskExecutor reportingExecutor,
+                        ShardingProperties sharding,
+                        SqlStatementMetricsInterceptor sqlStatementMetricsInterceptor) {
+        this.reportingExecutor = reportingExecutor;
+        this.sharding = sharding;
+        this.sqlStatementMetricsInterceptor = sqlStatementMetricsInterceptor;
+    }
+
+    @Override
+    public void configureAsyncSupport(AsyncSupportConfigurer configurer) {
+        configurer.setTaskExecutor(reportingExecutor);
+    }
+
+    @Override
+    public void addInterceptors(InterceptorRegistry registry) {
+        registry.addInterceptor(sqlStatementMetricsInterceptor);
+        if (sharding.isEnabled()) {
+            registry.addInterceptor(new BranchRoutingInterceptor(sharding));
+        }
+    }
+}
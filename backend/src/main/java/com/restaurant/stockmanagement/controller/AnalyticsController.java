@@ -0,0 +1,94 @@
+package com.restaurant.stockmanagement.controller;
+
+import com.restaurant.stockmanagement.dto.ApiResponse;
+import com.restaurant.stockmanagement.dto.RestockRecommendationDTO;
+import com.restaurant.stockmanagement.forecast.DemandForecastService;
+import com.restaurant.stockmanagement.service.AnalyticsService;
+import com.restaurant.stockmanagement.service.RollupService;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.security.SecurityRequirement;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.*;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+
+@RestController
+@RequestMapping("/analytics")
+@Tag(name = "Analytics", description = "Analytics and insights endpoints")
+@SecurityRequirement(name = "session")
+@PreAuthorize("hasAnyRole('OWNER', 'BRANCH_MANAGER', 'STOCK_MANAGER')")
+public class AnalyticsController {
+
+    private final AnalyticsService analyticsService;
+    private final RollupService rollupService;
+    private final DemandForecastService demandForecastService;
+
+    public AnalyticsController(AnalyticsService analyticsService, RollupService rollupService,
+                               DemandForecastService demandForecastService) {
+        this.analyticsService = analyticsService;
+        this.rollupService = rollupService;
+        this.demandForecastService = demandForecastService;
+    }
+
+    @GetMapping("/most-used-ingredients")
+    @Operation(summary = "Get most used ingredients in specified period")
+    public ResponseEntity<ApiResponse> getMostUsedIngredients(
+            @RequestParam(defaultValue = "30") int days) {
+
+        Map<String, Object> analytics = analyticsService.getMostUsedIngredients(days);
+        return ResponseEntity.ok(ApiResponse.success("Analytics retrieved successfully", analytics));
+    }
+
+    @GetMapping("/most-sold-foods")
+    @Operation(summary = "Get most sold food items in specified period")
+    public ResponseEntity<ApiResponse> getMostSoldFoods(
+            @RequestParam(defaultValue = "30") int days) {
+
+        Map<String, Object> analytics = analyticsService.getMostSoldFoods(days);
+        return ResponseEntity.ok(ApiResponse.success("Analytics retrieved successfully", analytics));
+    }
+
+    @GetMapping("/sales-total")
+    @Operation(summary = "Get total sales amount for date range")
+    public ResponseEntity<ApiResponse> getTotalSales(
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime startDate,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime endDate) {
+
+        Double total = analyticsService.getTotalSalesBetweenDates(startDate, endDate);
+        return ResponseEntity.ok(ApiResponse.success("Total sales calculated", total));
+    }
+
+    @PostMapping("/rollups/rebuild")
+    @PreAuthorize("hasRole('OWNER')")
+    @Operation(summary = "Back-fill daily rollups from raw sales and stock transactions")
+    public ResponseEntity<ApiResponse> rebuildRollups(
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate fromDate,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate toDate) {
+
+        rollupService.rebuild(fromDate, toDate);
+        return ResponseEntity.ok(ApiResponse.success("Rollups rebuilt successfully"));
+    }
+
+    @GetMapping("/restock-recommendations")
+    @Operation(summary = "Get forecast usage, days until stockout and suggested order quantities per ingredient")
+    public ResponseEntity<ApiResponse> getRestockRecommendations(
+            @RequestParam(required = false) Long branchId) {
+
+        List<RestockRecommendationDTO> recommendations = demandForecastService.getRestockRecommendations(branchId);
+        return ResponseEntity.ok(ApiResponse.success("Restock recommendations retrieved", recommendations));
+    }
+
+    @PostMapping("/forecast/rebuild")
+    @PreAuthorize("hasRole('OWNER')")
+    @Operation(summary = "Rebuild the demand forecast from the daily rollups")
+    public ResponseEntity<ApiResponse> rebuildForecast() {
+        demandForecastService.rebuild();
+        return ResponseEntity.ok(ApiResponse.success("Demand forecast rebuilt successfully"));
+    }
+}
@@ -0,0 +1,44 @@
+package com.restaurant.stockmanagement.controller;
+
+import com.restaurant.stockmanagement.archive.LedgerArchiver;
+import com.restaurant.stockmanagement.dto.ApiResponse;
+import com.restaurant.stockmanagement.dto.ArchiveRunDTO;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.security.SecurityRequirement;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.List;
+
+@RestController
+@RequestMapping("/admin/archive")
+@Tag(name = "Archive", description = "Ledger retention and archival")
+@SecurityRequirement(name = "session")
+@PreAuthorize("hasRole('OWNER')")
+public class ArchiveController {
+
+    private final LedgerArchiver ledgerArchiver;
+
+    public ArchiveController(LedgerArchiver ledgerArchiver) {
+        this.ledgerArchiver = ledgerArchiver;
+    }
+
+    @GetMapping("/runs")
+    @Operation(summary = "Get the latest archive runs of every database")
+    public ResponseEntity<ApiResponse> getRuns() {
+        List<ArchiveRunDTO> runs = ledgerArchiver.getRecentRuns();
+        return ResponseEntity.ok(ApiResponse.success("Archive runs retrieved", runs));
+    }
+
+    @PostMapping("/runs")
+    @Operation(summary = "Archive closed months and expired soft-deleted rows now")
+    public ResponseEntity<ApiResponse> runArchive() {
+        List<ArchiveRunDTO> runs = ledgerArchiver.archive();
+        return ResponseEntity.ok(ApiResponse.success("Archive run completed", runs));
+    }
+}
@@ -0,0 +1,58 @@
+package com.restaurant.stockmanagement.controller;
+
+import com.restaurant.stockmanagement.datasource.GlobalData;
+import com.restaurant.stockmanagement.dto.ApiResponse;
+import com.restaurant.stockmanagement.dto.AuthTokenResponse;
+import com.restaurant.stockmanagement.dto.LoginRequest;
+import com.restaurant.stockmanagement.dto.UserResponse;
+import com.restaurant.stockmanagement.security.AuthTokenService;
+import com.restaurant.stockmanagement.service.AuthService;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.validation.Valid;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+@RestController
+@GlobalData
+@RequestMapping("/auth")
+@Tag(name = "Authentication", description = "Authentication endpoints")
+public class AuthController {
+
+    private final AuthService authService;
+    private final AuthTokenService authTokenService;
+
+    public AuthController(AuthService authService, AuthTokenService authTokenService) {
+        this.authService = authService;
+        this.authTokenService = authTokenService;
+    }
+
+    @PostMapping("/login")
+    @Operation(summary = "User login")
+    public ResponseEntity<ApiResponse> login(@Valid @RequestBody LoginRequest request,
+                                             HttpServletRequest httpRequest) {
+        UserResponse user = authService.login(request, httpRequest);
+        return ResponseEntity.ok(ApiResponse.success("Login successful", user));
+    }
+
+    @PostMapping("/token")
+    @Operation(summary = "Issue a signed bearer token instead of a session")
+    public ResponseEntity<ApiResponse> token(@Valid @RequestBody LoginRequest request) {
+        if (!authTokenService.isEnabled()) {
+            return ResponseEntity
+                    .status(HttpStatus.NOT_FOUND)
+                    .body(ApiResponse.error("Token authentication is disabled"));
+        }
+        AuthTokenResponse token = authService.issueToken(request);
+        return ResponseEntity.ok(ApiResponse.success("Token issued", token));
+    }
+
+    @GetMapping("/me")
+    @Operation(summary = "Get current user information")
+    public ResponseEntity<ApiResponse> getCurrentUser() {
+        UserResponse user = authService.getCurrentUser();
+        return ResponseEntity.ok(ApiResponse.success("User retrieved successfully", user));
+    }
+}
@@ -0,0 +1,72 @@
+package com.restaurant.stockmanagement.controller;
+
+import com.restaurant.stockmanagement.dto.ApiResponse;
+import com.restaurant.stockmanagement.dto.FoodDTO;
+import com.restaurant.stockmanagement.dto.RecipeIngredientDTO;
+import com.restaurant.stockmanagement.dto.SellablePortionsDTO;
+import com.restaurant.stockmanagement.service.FoodService;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.security.SecurityRequirement;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.List;
+
+@RestController
+@RequestMapping("/foods")
+@Tag(name = "Foods", description = "Food menu management endpoints")
+@SecurityRequirement(name = "session")
+public class FoodController {
+
+    private final FoodService foodService;
+
+    public FoodController(FoodService foodService) {
+        this.foodService = foodService;
+    }
+
+    @GetMapping("/{id}")
+    @Operation(summary = "Get food by ID")
+    public ResponseEntity<ApiResponse> getFoodById(@PathVariable Long id) {
+        FoodDTO food = foodService.getFoodById(id);
+        return ResponseEntity.ok(ApiResponse.success("Food retrieved successfully", food));
+    }
+
+    @GetMapping("/available")
+    @Operation(summary = "Get available foods for the POS menu")
+    public ResponseEntity<ApiResponse> getAvailableFoods(@RequestParam(required = false) Long branchId) {
+        List<FoodDTO> foods = foodService.getAvailableFoods(branchId);
+        return ResponseEntity.ok(ApiResponse.success("Available foods retrieved", foods));
+    }
+
+    @GetMapping("/sellable")
+    @Operation(summary = "Get the number of portions sellable right now per food")
+    public ResponseEntity<ApiResponse> getSellablePortions(@RequestParam(required = false) Long branchId) {
+        List<SellablePortionsDTO> portions = foodService.getSellablePortions(branchId);
+        return ResponseEntity.ok(ApiResponse.success("Sellable portions retrieved", portions));
+    }
+
+    @GetMapping("/{id}/recipe")
+    @Operation(summary = "Get the recipe of a food")
+    public ResponseEntity<ApiResponse> getRecipe(@PathVariable Long id) {
+        List<RecipeIngredientDTO> recipe = foodService.getRecipe(id);
+        return ResponseEntity.ok(ApiResponse.success("Recipe retrieved", recipe));
+    }
+
+    @GetMapping("/search")
+    @Operation(summary = "Search foods")
+    public ResponseEntity<ApiResponse> searchFoods(
+            @RequestParam String query,
+            @RequestParam(required = false) Long branchId,
+            @RequestParam(defaultValue = "0") int page,
+            @RequestParam(defaultValue = "10") int size) {
+        
+        Pageable pageable = PageRequest.of(page, size);
+        Page<FoodDTO> foods = foodService.searchFoods(query, branchId, pageable);
+        
+        return ResponseEntity.ok(ApiResponse.success("Search results retrieved", foods));
+    }
+}
@@ -0,0 +1,96 @@
+package com.restaurant.stockmanagement.controller;
+
+import com.restaurant.stockmanagement.dto.ApiResponse;
+import com.restaurant.stockmanagement.dto.ImportJobDTO;
+import com.restaurant.stockmanagement.importer.ImportFormat;
+import com.restaurant.stockmanagement.importer.ImportKind;
+import com.restaurant.stockmanagement.service.ImportService;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.security.SecurityRequirement;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.servlet.http.HttpServletRequest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.io.IOException;
+
+/**
+ * Uploads are sent as the raw request body (not multipart), so they are not subject to the
+ * multipart size limit and are streamed to disk instead of being buffered.
+ */
+@RestController
+@RequestMapping("/imports")
+@Tag(name = "Imports", description = "Bulk ingredient, food and recipe import endpoints")
+@SecurityRequirement(name = "session")
+@PreAuthorize("hasAnyRole('OWNER', 'BRANCH_MANAGER', 'STOCK_MANAGER')")
+public class ImportController {
+
+    private final ImportService importService;
+
+    public ImportController(ImportService importService) {
+        this.importService = importService;
+    }
+
+    @PostMapping("/ingredients")
+    @Operation(summary = "Create or update ingredients (matched by branch and name) from a CSV or XLSX body")
+    public ResponseEntity<ApiResponse> importIngredients(
+            @RequestParam(required = false) ImportFormat format,
+            @RequestParam(required = false) Long branchId,
+            HttpServletRequest request) throws IOException {
+        return start(ImportKind.INGREDIENTS, format, branchId, request);
+    }
+
+    @PostMapping("/foods")
+    @Operation(summary = "Create or update foods (matched by branch and name) from a CSV or XLSX body")
+    public ResponseEntity<ApiResponse> importFoods(
+            @RequestParam(required = false) ImportFormat format,
+            @RequestParam(required = false) Long branchId,
+            HttpServletRequest request) throws IOException {
+        return start(ImportKind.FOODS, format, branchId, request);
+    }
+
+    @PostMapping("/recipes")
+    @Operation(summary = "Create or update recipe lines (food and ingredient by name) from a CSV or XLSX body")
+    public ResponseEntity<ApiResponse> importRecipes(
+            @RequestParam(required = false) ImportFormat format,
+            @RequestParam(required = false) Long branchId,
+            HttpServletRequest request) throws IOException {
+        return start(ImportKind.RECIPES, format, branchId, request);
+    }
+
+    @GetMapping("/{jobId}")
+    @Operation(summary = "Get the progress of an import")
+    public ResponseEntity<ApiResponse> getImport(@PathVariable String jobId) {
+        ImportJobDTO job = importService.getJob(jobId);
+        return ResponseEntity.ok(ApiResponse.success("Import retrieved successfully", job));
+    }
+
+    @GetMapping("/{jobId}/errors")
+    @Operation(summary = "Download the rejected rows of an import as CSV")
+    public ResponseEntity<StreamingResponseBody> getImportErrors(@PathVariable String jobId) {
+        importService.getJob(jobId);
+        HttpHeaders headers = new HttpHeaders();
+        headers.setContentType(MediaType.parseMediaType(ImportFormat.CSV.getContentType()));
+        headers.setContentDispositionFormData("attachment", "import-" + jobId + "-errors.csv");
+
+        return ResponseEntity.ok()
+                .headers(headers)
+                .body(out -> importService.writeErrors(jobId, out));
+    }
+
+    private ResponseEntity<ApiResponse> start(ImportKind kind, ImportFormat format, Long branchId,
+                                              HttpServletRequest request) throws IOException {
+        if (format == null) {
+            format = ImportFormat.fromContentType(request.getContentType());
+        }
+        ImportJobDTO job = importService.start(kind, format, branchId, request.getInputStream());
+        return ResponseEntity
+                .status(HttpStatus.ACCEPTED)
+                .body(ApiResponse.success("Import queued", job));
+    }
+}
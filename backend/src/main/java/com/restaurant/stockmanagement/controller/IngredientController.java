@@ -0,0 +1,40 @@
+package com.restaurant.stockmanagement.controller;
+
+import com.restaurant.stockmanagement.dto.ApiResponse;
+import com.restaurant.stockmanagement.dto.IngredientDTO;
+import com.restaurant.stockmanagement.service.IngredientService;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.security.SecurityRequirement;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+@RestController
+@RequestMapping("/ingredients")
+@Tag(name = "Ingredients", description = "Ingredient inventory management endpoints")
+@SecurityRequirement(name = "session")
+public class IngredientController {
+
+    private final IngredientService ingredientService;
+
+    public IngredientController(IngredientService ingredientService) {
+        this.ingredientService = ingredientService;
+    }
+
+    @GetMapping("/search")
+    @Operation(summary = "Search ingredients")
+    public ResponseEntity<ApiResponse> searchIngredients(
+            @RequestParam String query,
+            @RequestParam(required = false) Long branchId,
+            @RequestParam(defaultValue = "0") int page,
+            @RequestParam(defaultValue = "10") int size) {
+        
+        Pageable pageable = PageRequest.of(page, size);
+        Page<IngredientDTO> ingredients = ingredientService.searchIngredients(query, branchId, pageable);
+        
+        return ResponseEntity.ok(ApiResponse.success("Search results retrieved", ingredients));
+    }
+}
@@ -0,0 +1,74 @@
+package com.restaurant.stockmanagement.controller;
+
+import com.restaurant.stockmanagement.report.ReportFormat;
+import com.restaurant.stockmanagement.service.ReportService;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.security.SecurityRequirement;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.time.LocalDateTime;
+
+@RestController
+@RequestMapping("/reports")
+@Tag(name = "Reports", description = "Report generation and export endpoints")
+@SecurityRequirement(name = "session")
+@PreAuthorize("hasAnyRole('OWNER', 'BRANCH_MANAGER', 'STOCK_MANAGER')")
+public class ReportController {
+
+    private final ReportService reportService;
+
+    public ReportController(ReportService reportService) {
+        this.reportService = reportService;
+    }
+
+    @GetMapping("/sales")
+    @Operation(summary = "Export sales report as CSV, XLSX or PDF")
+    public ResponseEntity<StreamingResponseBody> exportSalesReport(
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime startDate,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime endDate,
+            @RequestParam(defaultValue = "CSV") ReportFormat format) {
+
+        return stream("sales-report", format,
+                out -> reportService.exportSales(startDate, endDate, format, out));
+    }
+
+    @GetMapping("/sale-items")
+    @Operation(summary = "Export sale items report as CSV, XLSX or PDF")
+    public ResponseEntity<StreamingResponseBody> exportSaleItemsReport(
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime startDate,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime endDate,
+            @RequestParam(defaultValue = "CSV") ReportFormat format) {
+
+        return stream("sale-items-report", format,
+                out -> reportService.exportSaleItems(startDate, endDate, format, out));
+    }
+
+    @GetMapping("/stock-transactions")
+    @Operation(summary = "Export stock transactions report as CSV, XLSX or PDF")
+    public ResponseEntity<StreamingResponseBody> exportStockTransactionsReport(
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime startDate,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime endDate,
+            @RequestParam(defaultValue = "CSV") ReportFormat format) {
+
+        return stream("stock-transactions-report", format,
+                out -> reportService.exportStockTransactions(startDate, endDate, format, out));
+    }
+
+    private ResponseEntity<StreamingResponseBody> stream(String fileName, ReportFormat format,
+                                                         StreamingResponseBody body) {
+        HttpHeaders headers = new HttpHeaders();
+        headers.setContentType(MediaType.parseMediaType(format.getContentType()));
+        headers.setContentDispositionFormData("attachment", fileName + "." + format.getExtension());
+
+        return ResponseEntity.ok()
+                .headers(headers)
+                .body(body);
+    }
+}
@@ -0,0 +1,62 @@
+package com.restaurant.stockmanagement.controller;
+
+import com.restaurant.stockmanagement.dto.ApiResponse;
+import com.restaurant.stockmanagement.dto.BulkSaleRequest;
+import com.restaurant.stockmanagement.dto.BulkSaleResponse;
+import com.restaurant.stockmanagement.dto.CursorPage;
+import com.restaurant.stockmanagement.dto.SaleRequest;
+import com.restaurant.stockmanagement.dto.SaleResponse;
+import com.restaurant.stockmanagement.service.SaleIngestionService;
+import com.restaurant.stockmanagement.service.SaleService;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.security.SecurityRequirement;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.validation.Valid;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.*;
+
+@RestController
+@RequestMapping("/sales")
+@Tag(name = "Sales", description = "Sales and POS endpoints")
+@SecurityRequirement(name = "session")
+public class SaleController {
+
+    private final SaleService saleService;
+    private final SaleIngestionService saleIngestionService;
+
+    public SaleController(SaleService saleService, SaleIngestionService saleIngestionService) {
+        this.saleService = saleService;
+        this.saleIngestionService = saleIngestionService;
+    }
+
+    @PostMapping
+    @PreAuthorize("hasRole('CASHIER')")
+    @Operation(summary = "Create new sale (automatically deducts stock)")
+    public ResponseEntity<ApiResponse> createSale(@Valid @RequestBody SaleRequest request) {
+        SaleResponse sale = saleService.createSale(request);
+        return ResponseEntity
+                .status(HttpStatus.CREATED)
+                .body(ApiResponse.success("Sale completed successfully", sale));
+    }
+
+    @PostMapping("/bulk")
+    @PreAuthorize("hasRole('CASHIER')")
+    @Operation(summary = "Post sales recorded offline (idempotent per idempotencyKey); returns a result per sale")
+    public ResponseEntity<ApiResponse> ingestSales(@Valid @RequestBody BulkSaleRequest request) {
+        BulkSaleResponse result = saleIngestionService.ingest(request);
+        return ResponseEntity.ok(ApiResponse.success(String.format("%d created, %d duplicates, %d rejected",
+                result.getCreated(), result.getDuplicates(), result.getRejected()), result));
+    }
+
+    @GetMapping("/scroll")
+    @PreAuthorize("hasAnyRole('OWNER', 'BRANCH_MANAGER', 'CASHIER')")
+    @Operation(summary = "List sales newest first using an opaque cursor (no total count)")
+    public ResponseEntity<ApiResponse> scrollSales(
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "20") int size) {
+        CursorPage<SaleResponse> sales = saleService.scrollSales(cursor, size);
+        return ResponseEntity.ok(ApiResponse.success("Sales retrieved successfully", sales));
+    }
+}
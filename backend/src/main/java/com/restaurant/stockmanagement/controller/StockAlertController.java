@@ -0,0 +1,68 @@
+package com.restaurant.stockmanagement.controller;
+
+import com.restaurant.stockmanagement.dto.ApiResponse;
+import com.restaurant.stockmanagement.dto.CursorPage;
+import com.restaurant.stockmanagement.dto.StockAlertDTO;
+import com.restaurant.stockmanagement.service.StockAlertService;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.security.SecurityRequirement;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.List;
+
+@RestController
+@RequestMapping("/alerts")
+@Tag(name = "Stock Alerts", description = "Stock alert management endpoints")
+@SecurityRequirement(name = "session")
+@PreAuthorize("hasAnyRole('OWNER', 'BRANCH_MANAGER', 'STOCK_MANAGER')")
+public class StockAlertController {
+
+    private final StockAlertService alertService;
+
+    public StockAlertController(StockAlertService alertService) {
+        this.alertService = alertService;
+    }
+
+    @GetMapping
+    @Operation(summary = "Get all alerts with pagination")
+    public ResponseEntity<ApiResponse> getAllAlerts(
+            @RequestParam(defaultValue = "0") int page,
+            @RequestParam(defaultValue = "20") int size) {
+
+        Sort sort = Sort.by("createdAt").descending();
+        Pageable pageable = PageRequest.of(page, size, sort);
+        Page<StockAlertDTO> alerts = alertService.getAllAlerts(pageable);
+
+        return ResponseEntity.ok(ApiResponse.success("Alerts retrieved successfully", alerts));
+    }
+
+    @GetMapping("/scroll")
+    @Operation(summary = "List alerts newest first using an opaque cursor (no total count)")
+    public ResponseEntity<ApiResponse> scrollAlerts(
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "20") int size) {
+        CursorPage<StockAlertDTO> alerts = alertService.scrollAlerts(cursor, size);
+        return ResponseEntity.ok(ApiResponse.success("Alerts retrieved successfully", alerts));
+    }
+
+    @GetMapping("/unacknowledged")
+    @Operation(summary = "Get unacknowledged alerts")
+    public ResponseEntity<ApiResponse> getUnacknowledgedAlerts() {
+        List<StockAlertDTO> alerts = alertService.getUnacknowledgedAlerts();
+        return ResponseEntity.ok(ApiResponse.success("Unacknowledged alerts retrieved", alerts));
+    }
+
+    @PutMapping("/{id}/acknowledge")
+    @Operation(summary = "Acknowledge an alert")
+    public ResponseEntity<ApiResponse> acknowledgeAlert(@PathVariable Long id) {
+        StockAlertDTO alert = alertService.acknowledgeAlert(id);
+        return ResponseEntity.ok(ApiResponse.success("Alert acknowledged successfully", alert));
+    }
+}
@@ -0,0 +1,30 @@
+package com.restaurant.stockmanagement.controller;
+
+import com.restaurant.stockmanagement.dto.ApiResponse;
+import com.restaurant.stockmanagement.ledger.StockLedger;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.security.SecurityRequirement;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+@RestController
+@RequestMapping("/admin/stock-ledger")
+@Tag(name = "Stock Ledger", description = "Stock ledger write-behind status")
+@SecurityRequirement(name = "session")
+public class StockLedgerController {
+
+    private final StockLedger stockLedger;
+
+    public StockLedgerController(StockLedger stockLedger) {
+        this.stockLedger = stockLedger;
+    }
+
+    @GetMapping("/stats")
+    @Operation(summary = "Get ledger queue depth and flush latency")
+    public ResponseEntity<ApiResponse> getStats() {
+        return ResponseEntity.ok(ApiResponse.success("Ledger stats retrieved", stockLedger.getStats()));
+    }
+}
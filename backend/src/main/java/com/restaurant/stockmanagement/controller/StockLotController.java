@@ -0,0 +1,69 @@
+package com.restaurant.stockmanagement.controller;
+
+import com.restaurant.stockmanagement.dto.ApiResponse;
+import com.restaurant.stockmanagement.dto.StockLotDTO;
+import com.restaurant.stockmanagement.dto.StockLotReceiptRequest;
+import com.restaurant.stockmanagement.dto.StockTransactionDTO;
+import com.restaurant.stockmanagement.dto.StockWasteRequest;
+import com.restaurant.stockmanagement.service.StockLotService;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.security.SecurityRequirement;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.validation.Valid;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.List;
+
+@RestController
+@RequestMapping("/stock-lots")
+@Tag(name = "Stock Lots", description = "Deliveries, waste and lot expiry endpoints")
+@SecurityRequirement(name = "session")
+public class StockLotController {
+
+    private final StockLotService stockLotService;
+
+    public StockLotController(StockLotService stockLotService) {
+        this.stockLotService = stockLotService;
+    }
+
+    @PostMapping
+    @PreAuthorize("hasAnyRole('OWNER', 'BRANCH_MANAGER', 'STOCK_MANAGER')")
+    @Operation(summary = "Receive a delivery as a new lot")
+    public ResponseEntity<ApiResponse> receiveLot(@Valid @RequestBody StockLotReceiptRequest request) {
+        StockLotDTO lot = stockLotService.receive(request);
+        return ResponseEntity
+                .status(HttpStatus.CREATED)
+                .body(ApiResponse.success("Lot received successfully", lot));
+    }
+
+    @PostMapping("/waste")
+    @PreAuthorize("hasAnyRole('OWNER', 'BRANCH_MANAGER', 'STOCK_MANAGER', 'CHEF')")
+    @Operation(summary = "Write off stock, taken from the first-expiring lots")
+    public ResponseEntity<ApiResponse> recordWaste(@Valid @RequestBody StockWasteRequest request) {
+        StockTransactionDTO transaction = stockLotService.waste(request);
+        return ResponseEntity
+                .status(HttpStatus.CREATED)
+                .body(ApiResponse.success("Waste recorded successfully", transaction));
+    }
+
+    @GetMapping
+    @PreAuthorize("hasAnyRole('OWNER', 'BRANCH_MANAGER', 'STOCK_MANAGER', 'CHEF')")
+    @Operation(summary = "Open lots of an ingredient, first-expiring first")
+    public ResponseEntity<ApiResponse> getOpenLots(@RequestParam Long ingredientId) {
+        List<StockLotDTO> lots = stockLotService.getOpenLots(ingredientId);
+        return ResponseEntity.ok(ApiResponse.success("Lots retrieved successfully", lots));
+    }
+
+    @GetMapping("/expiring")
+    @PreAuthorize("hasAnyRole('OWNER', 'BRANCH_MANAGER', 'STOCK_MANAGER', 'CHEF')")
+    @Operation(summary = "Open lots expiring within the given days, expired ones included")
+    public ResponseEntity<ApiResponse> getExpiringLots(
+            @RequestParam(defaultValue = "7") int days,
+            @RequestParam(required = false) Long branchId) {
+        List<StockLotDTO> lots = stockLotService.getExpiringLots(days, branchId);
+        return ResponseEntity.ok(ApiResponse.success("Expiring lots retrieved successfully", lots));
+    }
+}
@@ -0,0 +1,52 @@
+package com.restaurant.stockmanagement.controller;
+
+import com.restaurant.stockmanagement.model.Role;
+import com.restaurant.stockmanagement.push.StockEventBroadcaster;
+import com.restaurant.stockmanagement.security.BranchUserDetails;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.security.SecurityRequirement;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import org.springframework.http.MediaType;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.util.Set;
+import java.util.stream.Collectors;
+
+@RestController
+@RequestMapping("/stream")
+@Tag(name = "Event Stream", description = "Server-sent events for stock levels, alerts and food availability")
+@SecurityRequirement(name = "session")
+public class StockStreamController {
+
+    private static final Set<String> STOCK_ROLES = Set.of(
+            Role.ROLE_OWNER.name(), Role.ROLE_BRANCH_MANAGER.name(), Role.ROLE_STOCK_MANAGER.name());
+
+    private final StockEventBroadcaster broadcaster;
+
+    public StockStreamController(StockEventBroadcaster broadcaster) {
+        this.broadcaster = broadcaster;
+    }
+
+    @GetMapping(produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    @Operation(summary = "Stream stock, alert and availability events of the user's branch; " +
+                         "owners get every branch unless they pick one")
+    public SseEmitter subscribe(Authentication authentication,
+                                @RequestParam(required = false) Long branchId) {
+        BranchUserDetails user = (BranchUserDetails) authentication.getPrincipal();
+        Set<String> roles = authentication.getAuthorities().stream()
+                .map(GrantedAuthority::getAuthority)
+                .collect(Collectors.toSet());
+        boolean stockAccess = roles.stream().anyMatch(STOCK_ROLES::contains);
+
+        if (roles.contains(Role.ROLE_OWNER.name()) && user.getBranchId() == null) {
+            return broadcaster.subscribe(branchId, branchId == null, stockAccess);
+        }
+        return broadcaster.subscribe(user.getBranchId(), false, stockAccess);
+    }
+}
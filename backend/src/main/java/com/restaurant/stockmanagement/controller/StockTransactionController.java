@@ -0,0 +1,37 @@
+package com.restaurant.stockmanagement.controller;
+
+import com.restaurant.stockmanagement.dto.ApiResponse;
+import com.restaurant.stockmanagement.dto.CursorPage;
+import com.restaurant.stockmanagement.dto.StockTransactionDTO;
+import com.restaurant.stockmanagement.service.StockTransactionService;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.security.SecurityRequirement;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.*;
+
+@RestController
+@RequestMapping("/stock-transactions")
+@Tag(name = "Stock Transactions", description = "Stock movement history endpoints")
+@SecurityRequirement(name = "session")
+@PreAuthorize("hasAnyRole('OWNER', 'BRANCH_MANAGER', 'STOCK_MANAGER')")
+public class StockTransactionController {
+
+    private final StockTransactionService stockTransactionService;
+
+    public StockTransactionController(StockTransactionService stockTransactionService) {
+        this.stockTransactionService = stockTransactionService;
+    }
+
+    @GetMapping("/scroll")
+    @Operation(summary = "List stock transactions newest first using an opaque cursor (no total count)")
+    public ResponseEntity<ApiResponse> scrollTransactions(
+            @RequestParam(required = false) Long ingredientId,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "20") int size) {
+        CursorPage<StockTransactionDTO> transactions =
+                stockTransactionService.scrollTransactions(ingredientId, cursor, size);
+        return ResponseEntity.ok(ApiResponse.success("Stock transactions retrieved successfully", transactions));
+    }
+}
@@ -0,0 +1,64 @@
+package com.restaurant.stockmanagement.controller;
+
+import com.restaurant.stockmanagement.dto.ApiResponse;
+import com.restaurant.stockmanagement.dto.StockTransferDTO;
+import com.restaurant.stockmanagement.dto.StockTransferRequest;
+import com.restaurant.stockmanagement.service.StockTransferService;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.security.SecurityRequirement;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.validation.Valid;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.*;
+
+@RestController
+@RequestMapping("/stock-transfers")
+@Tag(name = "Stock Transfers", description = "Inter-branch stock transfer endpoints")
+@SecurityRequirement(name = "session")
+public class StockTransferController {
+
+    private final StockTransferService stockTransferService;
+
+    public StockTransferController(StockTransferService stockTransferService) {
+        this.stockTransferService = stockTransferService;
+    }
+
+    @PostMapping
+    @PreAuthorize("hasAnyRole('OWNER', 'BRANCH_MANAGER', 'STOCK_MANAGER')")
+    @Operation(summary = "Submit a transfer manifest (idempotent per transferId); commit=false only reserves the stock")
+    public ResponseEntity<ApiResponse> submitTransfer(@Valid @RequestBody StockTransferRequest request) {
+        StockTransferDTO transfer = stockTransferService.submit(request);
+        return ResponseEntity
+                .status(HttpStatus.CREATED)
+                .body(ApiResponse.success("Transfer " + transfer.getStatus().name().toLowerCase(), transfer));
+    }
+
+    @PostMapping("/{transferId}/commit")
+    @PreAuthorize("hasAnyRole('OWNER', 'BRANCH_MANAGER', 'STOCK_MANAGER')")
+    @Operation(summary = "Move the stock of a reserved transfer")
+    public ResponseEntity<ApiResponse> commitTransfer(@PathVariable String transferId,
+                                                      @RequestParam Long sourceBranchId) {
+        StockTransferDTO transfer = stockTransferService.commit(sourceBranchId, transferId);
+        return ResponseEntity.ok(ApiResponse.success("Transfer committed", transfer));
+    }
+
+    @PostMapping("/{transferId}/cancel")
+    @PreAuthorize("hasAnyRole('OWNER', 'BRANCH_MANAGER', 'STOCK_MANAGER')")
+    @Operation(summary = "Release the stock held by a reserved transfer")
+    public ResponseEntity<ApiResponse> cancelTransfer(@PathVariable String transferId,
+                                                      @RequestParam Long sourceBranchId) {
+        StockTransferDTO transfer = stockTransferService.cancel(sourceBranchId, transferId);
+        return ResponseEntity.ok(ApiResponse.success("Transfer cancelled", transfer));
+    }
+
+    @GetMapping("/{transferId}")
+    @PreAuthorize("hasAnyRole('OWNER', 'BRANCH_MANAGER', 'STOCK_MANAGER')")
+    @Operation(summary = "Get a transfer by its transfer ID")
+    public ResponseEntity<ApiResponse> getTransfer(@PathVariable String transferId,
+                                                   @RequestParam Long sourceBranchId) {
+        StockTransferDTO transfer = stockTransferService.getTransfer(sourceBranchId, transferId);
+        return ResponseEntity.ok(ApiResponse.success("Transfer retrieved successfully", transfer));
+    }
+}
@@ -0,0 +1,44 @@
+package com.restaurant.stockmanagement.controller;
+
+import com.restaurant.stockmanagement.datasource.GlobalData;
+import com.restaurant.stockmanagement.dto.ApiResponse;
+import com.restaurant.stockmanagement.dto.UserResponse;
+import com.restaurant.stockmanagement.service.UserService;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.security.SecurityRequirement;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.*;
+
+@RestController
+@GlobalData
+@RequestMapping("/users")
+@Tag(name = "Users", description = "User management endpoints")
+@SecurityRequirement(name = "session")
+@PreAuthorize("hasAnyRole('OWNER', 'BRANCH_MANAGER')")
+public class UserController {
+
+    private final UserService userService;
+
+    public UserController(UserService userService) {
+        this.userService = userService;
+    }
+
+    @GetMapping("/search")
+    @Operation(summary = "Search users")
+    public ResponseEntity<ApiResponse> searchUsers(
+            @RequestParam String query,
+            @RequestParam(required = false) Long branchId,
+            @RequestParam(defaultValue = "0") int page,
+            @RequestParam(defaultValue = "10") int size) {
+        
+        Pageable pageable = PageRequest.of(page, size);
+        Page<UserResponse> users = userService.searchUsers(query, branchId, pageable);
+        
+        return ResponseEntity.ok(ApiResponse.success("Search results retrieved", users));
+    }
+}
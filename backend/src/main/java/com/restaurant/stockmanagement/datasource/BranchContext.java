@@ -0,0 +1,61 @@
+package com.restaurant.stockmanagement.datasource;
+
+import java.util.function.Supplier;
+
+/**
+ * The shard the current thread works against, read by {@link BranchRoutingDataSource} whenever
+ * a connection is obtained. It must therefore be set before a transaction starts.
+ *
+ * <p>Requests get it from {@link BranchRoutingInterceptor}; the bulkhead executors carry it
+ * over to the tasks they run (see {@link #wrap}). No shard means the default database.
+ */
+public final class BranchContext {
+
+    private static final ThreadLocal<String> CURRENT_SHARD = new ThreadLocal<>();
+
+    private BranchContext() {
+    }
+
+    /**
+     * The selected shard, or null for the default database.
+     */
+    public static String currentShard() {
+        return CURRENT_SHARD.get();
+    }
+
+    public static void set(String shard) {
+        if (shard == null) {
+            CURRENT_SHARD.remove();
+        } else {
+            CURRENT_SHARD.set(shard);
+        }
+    }
+
+    public static void clear() {
+        CURRENT_SHARD.remove();
+    }
+
+    /**
+     * Runs {@code action} against {@code shard}, restoring the previous selection afterwards.
+     */
+    public static <T> T callOnShard(String shard, Supplier<T> action) {
+        String previous = CURRENT_SHARD.get();
+        set(shard);
+        try {
+            return action.get();
+        } finally {
+            set(previous);
+        }
+    }
+
+    /**
+     * Task decorator that runs {@code task} against the shard selected when it was submitted.
+     */
+    public static Runnable wrap(Runnable task) {
+        String shard = CURRENT_SHARD.get();
+        return () -> callOnShard(shard, () -> {
+            task.run();
+            return null;
+        });
+    }
+}
@@ -0,0 +1,40 @@
+package com.restaurant.stockmanagement.datasource;
+
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+
+import javax.sql.DataSource;
+import java.util.*;
+
+/**
+ * Routes every connection request to the database of the shard selected in
+ * {@link BranchContext}, or to the default database when none is selected.
+ */
+public class BranchRoutingDataSource extends AbstractRoutingDataSource {
+
+    public static final String DEFAULT_SHARD = "default";
+
+    private final Map<String, DataSource> shards;
+
+    public BranchRoutingDataSource(DataSource defaultDataSource, Map<String, DataSource> shards) {
+        Map<String, DataSource> all = new LinkedHashMap<>();
+        all.put(DEFAULT_SHARD, defaultDataSource);
+        all.putAll(shards);
+        this.shards = Collections.unmodifiableMap(all);
+        setTargetDataSources(new HashMap<>(all));
+        setDefaultTargetDataSource(defaultDataSource);
+        setLenientFallback(false);
+        afterPropertiesSet();
+    }
+
+    /**
+     * Every database, the default one first.
+     */
+    public Map<String, DataSource> getShards() {
+        return shards;
+    }
+
+    @Override
+    protected Object determineCurrentLookupKey() {
+        return BranchContext.currentShard();
+    }
+}
@@ -0,0 +1,73 @@
+package com.restaurant.stockmanagement.datasource;
+
+import com.restaurant.stockmanagement.model.Role;
+import com.restaurant.stockmanagement.security.BranchUserDetails;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.core.annotation.AnnotatedElementUtils;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.web.method.HandlerMethod;
+import org.springframework.web.servlet.AsyncHandlerInterceptor;
+
+/**
+ * Selects the shard of the authenticated user's branch for the rest of the request.
+ *
+ * <p>Users without a branch (owners) work against the default database and the cross-branch
+ * fan-out; they may address one branch explicitly with the {@value #BRANCH_HEADER} header.
+ * Controllers marked {@link GlobalData} always use the default database.
+ */
+public class BranchRoutingInterceptor implements AsyncHandlerInterceptor {
+
+    public static final String BRANCH_HEADER = "X-Branch-Id";
+
+    private final ShardingProperties sharding;
+
+    public BranchRoutingInterceptor(ShardingProperties sharding) {
+        this.sharding = sharding;
+    }
+
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler)
+            throws Exception {
+        BranchContext.clear();
+        if (handler instanceof HandlerMethod method
+                && AnnotatedElementUtils.hasAnnotation(method.getBeanType(), GlobalData.class)) {
+            return true;
+        }
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        if (authentication == null || !(authentication.getPrincipal() instanceof BranchUserDetails user)) {
+            return true;
+        }
+
+        Long branchId = user.getBranchId();
+        String header = request.getHeader(BRANCH_HEADER);
+        if (branchId == null && header != null && isOwner(authentication)) {
+            try {
+                branchId = Long.valueOf(header.trim());
+            } catch (NumberFormatException e) {
+                response.sendError(HttpServletResponse.SC_BAD_REQUEST, "Invalid " + BRANCH_HEADER + " header");
+                return false;
+            }
+        }
+        BranchContext.set(sharding.shardFor(branchId));
+        return true;
+    }
+
+    @Override
+    public void afterConcurrentHandlingStarted(HttpServletRequest request, HttpServletResponse response,
+                                               Object handler) {
+        BranchContext.clear();
+    }
+
+    @Override
+    public void afterCompletion(HttpServletRequest request, HttpServletResponse response, Object handler,
+                                Exception ex) {
+        BranchContext.clear();
+    }
+
+    private static boolean isOwner(Authentication authentication) {
+        return authentication.getAuthorities().stream()
+                .anyMatch(authority -> Role.ROLE_OWNER.name().equals(authority.getAuthority()));
+    }
+}
@@ -0,0 +1,13 @@
+package com.restaurant.stockmanagement.datasource;
+
+import java.lang.annotation.*;
+
+/**
+ * Marks controllers whose data lives only in the default database (users and
+ * authentication), so their requests are never routed to a branch shard.
+ */
+@Target(ElementType.TYPE)
+@Retention(RetentionPolicy.RUNTIME)
+@Documented
+public @interface GlobalData {
+}
@@ -0,0 +1,108 @@
+package com.restaurant.stockmanagement.datasource;
+
+import com.restaurant.stockmanagement.config.ExecutorConfig;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.core.task.AsyncTaskExecutor;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.function.Supplier;
+
+/**
+ * Runs a query against every database in parallel and returns the per-database results for the
+ * caller to merge. Each call gets its own read-only transaction on its own thread. Without
+ * sharding there is only the default database and the query simply runs on the caller's thread.
+ */
+@Component
+public class ShardFanOut {
+
+    private final List<String> shards;
+    private final AsyncTaskExecutor executor;
+    private final TransactionTemplate readTransaction;
+
+    public ShardFanOut(ObjectProvider<BranchRoutingDataSource> routingDataSource,
+                       @Qualifier(ExecutorConfig.FAN_OUT_EXECUTOR) AsyncTaskExecutor executor,
+                       PlatformTransactionManager transactionManager) {
+        BranchRoutingDataSource dataSource = routingDataSource.getIfAvailable();
+        this.shards = dataSource == null
+                ? List.of(BranchRoutingDataSource.DEFAULT_SHARD)
+                : List.copyOf(dataSource.getShards().keySet());
+        this.executor = executor;
+        this.readTransaction = new TransactionTemplate(transactionManager);
+        this.readTransaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        this.readTransaction.setReadOnly(true);
+    }
+
+    /**
+     * True when the current thread has no shard selected in a sharded deployment, i.e. a query
+     * must cover every database to see all branches.
+     */
+    public boolean isCrossBranch() {
+        return shards.size() > 1 && BranchContext.currentShard() == null;
+    }
+
+    public List<String> getShards() {
+        return shards;
+    }
+
+    /**
+     * Results of {@code query} on each database, in {@link #getShards()} order.
+     */
+    public <T> List<T> query(Supplier<T> query) {
+        if (shards.size() == 1) {
+            T result = readTransaction.execute(status -> query.get());
+            return Collections.singletonList(result);
+        }
+        List<CompletableFuture<T>> futures = new ArrayList<>(shards.size());
+        for (String shard : shards) {
+            futures.add(CompletableFuture.supplyAsync(
+                    () -> BranchContext.callOnShard(shard, () -> readTransaction.execute(status -> query.get())),
+                    executor));
+        }
+        List<T> results = new ArrayList<>(shards.size());
+        try {
+            for (CompletableFuture<T> future : futures) {
+                results.add(future.join());
+            }
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw e;
+        }
+        return results;
+    }
+
+    /**
+     * Rows of {@code query} from every database, concatenated.
+     */
+    public <T> List<T> queryAll(Supplier<? extends Collection<T>> query) {
+        List<T> rows = new ArrayList<>();
+        for (Collection<T> shardRows : query(query)) {
+            rows.addAll(shardRows);
+        }
+        return rows;
+    }
+
+    /**
+     * Runs {@code action} once per database, one after the other, with that database selected.
+     * For maintenance work that opens its own transactions.
+     */
+    public void forEachShard(Runnable action) {
+        for (String shard : shards) {
+            BranchContext.callOnShard(shard, () -> {
+                action.run();
+                return null;
+            });
+        }
+    }
+}
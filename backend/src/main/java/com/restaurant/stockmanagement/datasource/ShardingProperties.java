@@ -0,0 +1,46 @@
+package com.restaurant.stockmanagement.datasource;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * {@code app.sharding}: extra databases and the branches that live in each. Branches not listed
+ * stay in the default database ({@code spring.datasource}), which also holds users.
+ */
+@Data
+@ConfigurationProperties(prefix = "app.sharding")
+public class ShardingProperties {
+
+    private boolean enabled = false;
+
+    private Map<String, Shard> shards = new LinkedHashMap<>();
+
+    // Branch id -> shard name
+    private Map<Long, String> branches = new HashMap<>();
+
+    /**
+     * Shard holding {@code branchId}, or null when no branch is given (all databases).
+     */
+    public String shardFor(Long branchId) {
+        if (!enabled || branchId == null) {
+            return null;
+        }
+        return branches.getOrDefault(branchId, BranchRoutingDataSource.DEFAULT_SHARD);
+    }
+
+    @Data
+    public static class Shard {
+        private String url;
+        private String username;
+        private String password;
+        private String driverClassName;
+        private int maximumPoolSize = 10;
+
+        // First entity id handed out in this database; ranges must not overlap between databases
+        private long idOffset;
+    }
+}
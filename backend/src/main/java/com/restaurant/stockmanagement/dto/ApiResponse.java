@@ -0,0 +1,26 @@
+package com.restaurant.stockmanagement.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ApiResponse {
+    private Boolean success;
+    private String message;
+    private Object data;
+
+    public static ApiResponse success(String message) {
+        return new ApiResponse(true, message, null);
+    }
+
+    public static ApiResponse success(String message, Object data) {
+        return new ApiResponse(true, message, data);
+    }
+
+    public static ApiResponse error(String message) {
+        return new ApiResponse(false, message, null);
+    }
+}
@@ -0,0 +1,17 @@
+package com.restaurant.stockmanagement.dto;
+
+import lombok.Data;
+
+import java.time.LocalDateTime;
+
+@Data
+public class ArchiveRunDTO {
+    private Long id;
+    private LocalDateTime cutoff;
+    private LocalDateTime deletedBefore;
+    private Long salesArchived;
+    private Long saleItemsArchived;
+    private Long stockTransactionsArchived;
+    private LocalDateTime startedAt;
+    private LocalDateTime completedAt;
+}
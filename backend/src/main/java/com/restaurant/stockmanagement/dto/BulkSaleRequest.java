@@ -0,0 +1,18 @@
+package com.restaurant.stockmanagement.dto;
+
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.Size;
+import lombok.Data;
+
+import java.util.List;
+
+@Data
+public class BulkSaleRequest {
+    @NotEmpty(message = "Sales cannot be empty")
+    @Size(max = 2000, message = "At most 2000 sales can be posted at once")
+    @Valid
+    private List<OfflineSaleDTO> sales;
+
+    private Long branchId;
+}
@@ -0,0 +1,14 @@
+package com.restaurant.stockmanagement.dto;
+
+import lombok.Data;
+
+import java.util.List;
+
+@Data
+public class BulkSaleResponse {
+    private int created;
+    private int duplicates;
+    private int rejected;
+    // One result per posted sale, in request order
+    private List<OfflineSaleResultDTO> results;
+}
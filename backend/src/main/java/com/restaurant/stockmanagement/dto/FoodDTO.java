@@ -0,0 +1,29 @@
+package com.restaurant.stockmanagement.dto;
+
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.NotNull;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+// Field order is the constructor the JPQL projections in FoodRepository call
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class FoodDTO {
+    private Long id;
+
+    @NotBlank(message = "Food name is required")
+    private String name;
+
+    private String description;
+
+    @NotNull(message = "Price is required")
+    private Double price;
+
+    private Boolean available;
+    private String category;
+    private String imageUrl;
+    private Integer preparationTime;
+    private Long branchId;
+}
@@ -0,0 +1,12 @@
+package com.restaurant.stockmanagement.dto;
+
+/**
+ * Units sold and revenue of one food over a period. Selected directly by the analytics
+ * queries, so no entities are loaded.
+ */
+public record FoodSalesSummary(Long foodId, String foodName, Long quantity, Double revenue) {
+
+    public FoodSalesSummary plus(FoodSalesSummary other) {
+        return new FoodSalesSummary(foodId, foodName, quantity + other.quantity, revenue + other.revenue);
+    }
+}
@@ -0,0 +1,26 @@
+package com.restaurant.stockmanagement.dto;
+
+import com.restaurant.stockmanagement.importer.ImportFormat;
+import com.restaurant.stockmanagement.importer.ImportJob;
+import com.restaurant.stockmanagement.importer.ImportKind;
+import lombok.Data;
+
+import java.time.LocalDateTime;
+
+@Data
+public class ImportJobDTO {
+    private String id;
+    private ImportKind kind;
+    private ImportFormat format;
+    private ImportJob.Status status;
+    private Long branchId;
+    private String requestedBy;
+    private long rowsRead;
+    private long inserted;
+    private long updated;
+    private long failed;
+    private String message;
+    private LocalDateTime createdAt;
+    private LocalDateTime startedAt;
+    private LocalDateTime finishedAt;
+}
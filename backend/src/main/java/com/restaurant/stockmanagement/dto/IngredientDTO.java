@@ -0,0 +1,40 @@
+package com.restaurant.stockmanagement.dto;
+
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.NotNull;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDate;
+
+// Field order is the constructor the JPQL projections in IngredientRepository call
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class IngredientDTO {
+    private Long id;
+
+    @NotBlank(message = "Ingredient name is required")
+    private String name;
+
+    private String description;
+
+    @NotBlank(message = "Unit is required")
+    private String unit;
+
+    @NotNull(message = "Current stock is required")
+    private Double currentStock;
+
+    private Double reservedStock;
+
+    @NotNull(message = "Minimum stock is required")
+    private Double minimumStock;
+
+    private Double reorderLevel;
+    private LocalDate expiryDate;
+    private Double costPerUnit;
+    private Long branchId;
+    private String category;
+    private String imageUrl;
+}
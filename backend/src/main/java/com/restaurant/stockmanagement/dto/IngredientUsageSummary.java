@@ -0,0 +1,12 @@
+package com.restaurant.stockmanagement.dto;
+
+/**
+ * How often and how much of one ingredient was consumed by sales over a period. Selected
+ * directly by the analytics queries, so no entities are loaded.
+ */
+public record IngredientUsageSummary(Long ingredientId, Long usageCount, Double quantity) {
+
+    public IngredientUsageSummary plus(IngredientUsageSummary other) {
+        return new IngredientUsageSummary(ingredientId, usageCount + other.usageCount, quantity + other.quantity);
+    }
+}
@@ -0,0 +1,31 @@
+package com.restaurant.stockmanagement.dto;
+
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Size;
+import lombok.Data;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Data
+public class OfflineSaleDTO {
+    @NotBlank(message = "Idempotency key is required")
+    @Size(max = 64, message = "Idempotency key must be at most 64 characters")
+    private String idempotencyKey;
+
+    // When the till rang the sale up; missing or future dates are replaced by the time of posting
+    private LocalDateTime saleDate;
+
+    @NotEmpty(message = "Sale items cannot be empty")
+    @Valid
+    private List<SaleItemDTO> items;
+
+    @NotNull(message = "Total amount is required")
+    private Double totalAmount;
+
+    private String paymentMethod;
+    private String notes;
+}
@@ -0,0 +1,23 @@
+package com.restaurant.stockmanagement.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class OfflineSaleResultDTO {
+
+    public enum Status {
+        CREATED,
+        // Posted before under the same key; saleId is the existing sale
+        DUPLICATE,
+        REJECTED
+    }
+
+    private String idempotencyKey;
+    private Status status;
+    private Long saleId;
+    private String message;
+}
@@ -0,0 +1,23 @@
+package com.restaurant.stockmanagement.dto;
+
+import jakarta.validation.constraints.NotNull;
+import lombok.Data;
+
+@Data
+public class RecipeIngredientDTO {
+    private Long id;
+
+    @NotNull(message = "Food ID is required")
+    private Long foodId;
+
+    @NotNull(message = "Ingredient ID is required")
+    private Long ingredientId;
+
+    private String ingredientName;
+    private String ingredientUnit;
+
+    @NotNull(message = "Quantity is required")
+    private Double quantity;
+
+    private String notes;
+}
@@ -0,0 +1,21 @@
+package com.restaurant.stockmanagement.dto;
+
+import lombok.Data;
+
+@Data
+public class RestockRecommendationDTO {
+    private Long ingredientId;
+    private String ingredientName;
+    private String unit;
+    private Long branchId;
+    private Double availableStock; // current stock minus stock reserved for transfers
+    private Double averageDailyUsage;
+    private Double usageStdDev;
+    private Double expectedUsageToday;
+    private Double daysUntilStockout; // null when the ingredient is not being used
+    private Double reorderPoint;
+    private Double suggestedOrderQuantity;
+    private Double reorderLevel; // as configured on the ingredient
+    private Boolean restockNeeded;
+    private Integer observedDays;
+}
@@ -0,0 +1,20 @@
+package com.restaurant.stockmanagement.dto;
+
+import jakarta.validation.constraints.NotNull;
+import lombok.Data;
+
+@Data
+public class SaleItemDTO {
+    @NotNull(message = "Food ID is required")
+    private Long foodId;
+
+    private String foodName;
+
+    @NotNull(message = "Quantity is required")
+    private Integer quantity;
+
+    @NotNull(message = "Unit price is required")
+    private Double unitPrice;
+
+    private Double subtotal;
+}
@@ -0,0 +1,22 @@
+package com.restaurant.stockmanagement.dto;
+
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.NotNull;
+import lombok.Data;
+
+import java.util.List;
+
+@Data
+public class SaleRequest {
+    @NotEmpty(message = "Sale items cannot be empty")
+    @Valid
+    private List<SaleItemDTO> items;
+
+    @NotNull(message = "Total amount is required")
+    private Double totalAmount;
+
+    private String paymentMethod;
+    private String notes;
+    private Long branchId;
+}
@@ -0,0 +1,18 @@
+package com.restaurant.stockmanagement.dto;
+
+import lombok.Data;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Data
+public class SaleResponse {
+    private Long id;
+    private LocalDateTime saleDate;
+    private Double totalAmount;
+    private String cashierUsername;
+    private Long branchId;
+    private String paymentMethod;
+    private String notes;
+    private List<SaleItemDTO> items;
+}
@@ -0,0 +1,15 @@
+package com.restaurant.stockmanagement.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class SellablePortionsDTO {
+    private Long foodId;
+    private String foodName;
+    private Integer portions; // null when the recipe does not limit the food
+    private Boolean available;
+}
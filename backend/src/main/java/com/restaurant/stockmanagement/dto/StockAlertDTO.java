@@ -0,0 +1,25 @@
+package com.restaurant.stockmanagement.dto;
+
+import com.restaurant.stockmanagement.model.AlertType;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+// Field order is the constructor the JPQL projections in StockAlertRepository call
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class StockAlertDTO {
+    private Long id;
+    private Long ingredientId;
+    private String ingredientName;
+    private AlertType alertType;
+    private String message;
+    private Boolean acknowledged;
+    private LocalDateTime acknowledgedAt;
+    private String acknowledgedBy;
+    private Long branchId;
+    private LocalDateTime createdAt;
+}
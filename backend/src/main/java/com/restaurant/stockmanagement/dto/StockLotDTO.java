@@ -0,0 +1,24 @@
+package com.restaurant.stockmanagement.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDate;
+
+// Field order is the constructor the JPQL projections in StockLotRepository call
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class StockLotDTO {
+    private Long id;
+    private Long ingredientId;
+    private String ingredientName;
+    private String unit;
+    private Long branchId;
+    private Double quantity;
+    private Double remainingQuantity;
+    private LocalDate receivedDate;
+    private LocalDate expiryDate;
+    private Double costPerUnit;
+}
@@ -0,0 +1,16 @@
+package com.restaurant.stockmanagement.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDate;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class StockLotDrawDTO {
+    private Long lotId;
+    private Double quantity;
+    private LocalDate expiryDate;
+}
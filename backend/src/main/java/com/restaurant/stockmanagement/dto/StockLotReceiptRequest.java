@@ -0,0 +1,30 @@
+package com.restaurant.stockmanagement.dto;
+
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Positive;
+import jakarta.validation.constraints.PositiveOrZero;
+import lombok.Data;
+
+import java.time.LocalDate;
+
+@Data
+public class StockLotReceiptRequest {
+    @NotNull(message = "Ingredient ID is required")
+    private Long ingredientId;
+
+    @NotNull(message = "Quantity is required")
+    @Positive(message = "Quantity must be positive")
+    private Double quantity;
+
+    // Defaults to today
+    private LocalDate receivedDate;
+
+    // Null for stock that does not expire
+    private LocalDate expiryDate;
+
+    // Defaults to the ingredient's cost per unit
+    @PositiveOrZero(message = "Cost per unit cannot be negative")
+    private Double costPerUnit;
+
+    private String reason;
+}
@@ -0,0 +1,24 @@
+package com.restaurant.stockmanagement.dto;
+
+import com.restaurant.stockmanagement.model.TransactionType;
+import lombok.Data;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Data
+public class StockTransactionDTO {
+    private Long id;
+    private Long ingredientId;
+    private String ingredientName;
+    private TransactionType type;
+    private Double quantity;
+    private Double previousStock;
+    private Double newStock;
+    private String reason;
+    private String performedBy;
+    private Long branchId;
+    private LocalDateTime createdAt;
+    // Lots the transaction drew from or received into
+    private List<StockLotDrawDTO> lots;
+}
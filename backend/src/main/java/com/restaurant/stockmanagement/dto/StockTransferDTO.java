@@ -0,0 +1,20 @@
+package com.restaurant.stockmanagement.dto;
+
+import com.restaurant.stockmanagement.model.TransferStatus;
+import lombok.Data;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Data
+public class StockTransferDTO {
+    private String transferId;
+    private Long sourceBranchId;
+    private Long destinationBranchId;
+    private TransferStatus status;
+    private String requestedBy;
+    private LocalDateTime createdAt;
+    private LocalDateTime completedAt;
+    private String notes;
+    private List<StockTransferLineDTO> lines;
+}
@@ -0,0 +1,20 @@
+package com.restaurant.stockmanagement.dto;
+
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Positive;
+import lombok.Data;
+
+@Data
+public class StockTransferLineDTO {
+    @NotNull(message = "Ingredient ID is required")
+    private Long ingredientId;
+
+    private String ingredientName;
+
+    // Defaults to the destination branch's ingredient with the same name
+    private Long destinationIngredientId;
+
+    @NotNull(message = "Quantity is required")
+    @Positive(message = "Quantity must be positive")
+    private Double quantity;
+}
@@ -0,0 +1,32 @@
+package com.restaurant.stockmanagement.dto;
+
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Size;
+import lombok.Data;
+
+import java.util.List;
+
+@Data
+public class StockTransferRequest {
+    @NotBlank(message = "Transfer ID is required")
+    @Size(max = 64, message = "Transfer ID must be at most 64 characters")
+    private String transferId;
+
+    @NotNull(message = "Source branch is required")
+    private Long sourceBranchId;
+
+    @NotNull(message = "Destination branch is required")
+    private Long destinationBranchId;
+
+    @NotEmpty(message = "Transfer lines cannot be empty")
+    @Valid
+    private List<StockTransferLineDTO> lines;
+
+    // false only reserves the stock; the transfer is then committed or cancelled later
+    private boolean commit = true;
+
+    private String notes;
+}
@@ -0,0 +1,19 @@
+package com.restaurant.stockmanagement.dto;
+
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Positive;
+import lombok.Data;
+
+@Data
+public class StockWasteRequest {
+    @NotNull(message = "Ingredient ID is required")
+    private Long ingredientId;
+
+    @NotNull(message = "Quantity is required")
+    @Positive(message = "Quantity must be positive")
+    private Double quantity;
+
+    @NotBlank(message = "Reason is required")
+    private String reason;
+}
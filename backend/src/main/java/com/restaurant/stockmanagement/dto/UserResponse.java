@@ -0,0 +1,22 @@
+package com.restaurant.stockmanagement.dto;
+
+import com.restaurant.stockmanagement.model.Role;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.Set;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class UserResponse {
+    private Long id;
+    private String username;
+    private String email;
+    private String fullName;
+    private String phoneNumber;
+    private Long branchId;
+    private Set<Role> roles;
+    private Boolean active;
+}
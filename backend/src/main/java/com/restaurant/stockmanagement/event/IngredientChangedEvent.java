@@ -0,0 +1,19 @@
+package com.restaurant.stockmanagement.event;
+
+import lombok.Getter;
+
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Published whenever the stock level or expiry date of one or more ingredients changes.
+ */
+@Getter
+public class IngredientChangedEvent {
+
+    private final List<Long> ingredientIds;
+
+    public IngredientChangedEvent(Collection<Long> ingredientIds) {
+        this.ingredientIds = List.copyOf(ingredientIds);
+    }
+}
@@ -0,0 +1,20 @@
+package com.restaurant.stockmanagement.event;
+
+import lombok.Getter;
+
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Published after the menu snapshot has been refreshed for the given foods, including foods
+ * that were removed from the menu.
+ */
+@Getter
+public class MenuChangedEvent {
+
+    private final List<Long> foodIds;
+
+    public MenuChangedEvent(Collection<Long> foodIds) {
+        this.foodIds = List.copyOf(foodIds);
+    }
+}
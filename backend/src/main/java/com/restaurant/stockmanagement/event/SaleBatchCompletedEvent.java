@@ -0,0 +1,25 @@
+package com.restaurant.stockmanagement.event;
+
+import com.restaurant.stockmanagement.model.Sale;
+import com.restaurant.stockmanagement.model.StockTransaction;
+import lombok.Getter;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Published when a batch of sales posted together has been written. The batch's stock usage is
+ * recorded as one transaction per ingredient and sale day rather than per sale.
+ */
+@Getter
+public class SaleBatchCompletedEvent {
+
+    private final List<Sale> sales;
+    private final Map<LocalDate, List<StockTransaction>> transactionsByDay;
+
+    public SaleBatchCompletedEvent(List<Sale> sales, Map<LocalDate, List<StockTransaction>> transactionsByDay) {
+        this.sales = List.copyOf(sales);
+        this.transactionsByDay = Map.copyOf(transactionsByDay);
+    }
+}
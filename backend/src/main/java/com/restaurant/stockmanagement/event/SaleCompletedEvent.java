@@ -0,0 +1,22 @@
+package com.restaurant.stockmanagement.event;
+
+import com.restaurant.stockmanagement.model.Sale;
+import com.restaurant.stockmanagement.model.StockTransaction;
+import lombok.Getter;
+
+import java.util.List;
+
+/**
+ * Published when a sale and its stock movements have been written.
+ */
+@Getter
+public class SaleCompletedEvent {
+
+    private final Sale sale;
+    private final List<StockTransaction> transactions;
+
+    public SaleCompletedEvent(Sale sale, List<StockTransaction> transactions) {
+        this.sale = sale;
+        this.transactions = List.copyOf(transactions);
+    }
+}
@@ -0,0 +1,17 @@
+package com.restaurant.stockmanagement.event;
+
+import com.restaurant.stockmanagement.dto.StockAlertDTO;
+import lombok.Getter;
+
+/**
+ * Published when a stock alert is raised or acknowledged.
+ */
+@Getter
+public class StockAlertChangedEvent {
+
+    private final StockAlertDTO alert;
+
+    public StockAlertChangedEvent(StockAlertDTO alert) {
+        this.alert = alert;
+    }
+}
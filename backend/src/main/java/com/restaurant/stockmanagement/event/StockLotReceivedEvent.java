@@ -0,0 +1,20 @@
+package com.restaurant.stockmanagement.event;
+
+import lombok.Getter;
+
+import java.time.LocalDate;
+
+/**
+ * Published when a lot with an expiry date is received, so its expiry alerts can be scheduled.
+ */
+@Getter
+public class StockLotReceivedEvent {
+
+    private final Long lotId;
+    private final LocalDate expiryDate;
+
+    public StockLotReceivedEvent(Long lotId, LocalDate expiryDate) {
+        this.lotId = lotId;
+        this.expiryDate = expiryDate;
+    }
+}
@@ -0,0 +1,7 @@
+package com.restaurant.stockmanagement.exception;
+
+public class ArchiveInProgressException extends RuntimeException {
+    public ArchiveInProgressException(String message) {
+        super(message);
+    }
+}
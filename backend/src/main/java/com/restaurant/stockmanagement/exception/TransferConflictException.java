@@ -0,0 +1,7 @@
+package com.restaurant.stockmanagement.exception;
+
+public class TransferConflictException extends RuntimeException {
+    public TransferConflictException(String message) {
+        super(message);
+    }
+}
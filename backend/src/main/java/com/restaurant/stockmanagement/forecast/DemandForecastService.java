@@ -0,0 +1,310 @@
+package com.restaurant.stockmanagement.forecast;
+
+import com.restaurant.stockmanagement.datasource.ShardFanOut;
+import com.restaurant.stockmanagement.dto.RestockRecommendationDTO;
+import com.restaurant.stockmanagement.event.SaleBatchCompletedEvent;
+import com.restaurant.stockmanagement.event.SaleCompletedEvent;
+import com.restaurant.stockmanagement.model.StockTransaction;
+import com.restaurant.stockmanagement.model.TransactionType;
+import com.restaurant.stockmanagement.repository.DailyIngredientUsageRollupRepository;
+import com.restaurant.stockmanagement.repository.IngredientRepository;
+import com.restaurant.stockmanagement.repository.StockTransactionRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.*;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * Demand forecast and restock recommendations per ingredient.
+ *
+ * <p>Daily SALE usage of every ingredient is folded into {@link UsageStatistics} as sales commit,
+ * so a recommendation needs no history scan: the suggested order, reorder point and days until
+ * stockout are computed in O(1) from the statistics and the stock on hand. The order covers
+ * {@code lead-time-days + review-days} of expected usage plus safety stock of
+ * {@code service-level-z} standard deviations.
+ *
+ * <p>At startup the statistics are back-filled from {@code history-days} of the daily usage
+ * rollups, replayed per ingredient in parallel on the fork-join pool. Today's usage comes from
+ * the raw rows. A later rebuild replays the rollups up to yesterday and keeps the usage recorded
+ * live today. Sales dated before an ingredient's open day, such as those a till posts after
+ * being offline, cannot be folded in live; they reach the rollups, and the forecast is rebuilt
+ * from them after the nightly rollup rebuild. Ingredient ids are unique across databases, so with branch sharding every
+ * database is read and the statistics cover all branches.
+ */
+@Service
+public class DemandForecastService {
+
+    private static final Logger log = LoggerFactory.getLogger(DemandForecastService.class);
+    private static final long NO_BRANCH = 0L;
+
+    private final DailyIngredientUsageRollupRepository ingredientUsageRollupRepository;
+    private final StockTransactionRepository stockTransactionRepository;
+    private final IngredientRepository ingredientRepository;
+    private final ShardFanOut shardFanOut;
+    private final double smoothing;
+    private final double seasonalSmoothing;
+    private final int historyDays;
+    private final int leadTimeDays;
+    private final int reviewDays;
+    private final double serviceLevelZ;
+
+    // Guarded by this; null until the first load completes
+    private UsageStatistics statistics;
+    // Guarded by this; set when usage older than the open day was left out of the statistics
+    private boolean lateUsage;
+
+    public DemandForecastService(DailyIngredientUsageRollupRepository ingredientUsageRollupRepository,
+                                 StockTransactionRepository stockTransactionRepository,
+                                 IngredientRepository ingredientRepository,
+                                 ShardFanOut shardFanOut,
+                                 @Value("${app.forecast.smoothing:0.2}") double smoothing,
+                                 @Value("${app.forecast.seasonal-smoothing:0.1}") double seasonalSmoothing,
+                                 @Value("${app.forecast.history-days:120}") int historyDays,
+                                 @Value("${app.forecast.lead-time-days:2}") int leadTimeDays,
+                                 @Value("${app.forecast.review-days:7}") int reviewDays,
+                                 @Value("${app.forecast.service-level-z:1.65}") double serviceLevelZ) {
+        this.ingredientUsageRollupRepository = ingredientUsageRollupRepository;
+        this.stockTransactionRepository = stockTransactionRepository;
+        this.ingredientRepository = ingredientRepository;
+        this.shardFanOut = shardFanOut;
+        this.smoothing = smoothing;
+        this.seasonalSmoothing = seasonalSmoothing;
+        this.historyDays = historyDays;
+        this.leadTimeDays = leadTimeDays;
+        this.reviewDays = reviewDays;
+        this.serviceLevelZ = serviceLevelZ;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void initialize() {
+        load(true);
+    }
+
+    /**
+     * Replays the usage history again, e.g. after rollups were rebuilt or the settings changed.
+     */
+    public void rebuild() {
+        load(false);
+    }
+
+    /**
+     * Rebuilds if sales dated before the open day were left out since the last load. Call once
+     * the rollups hold those days.
+     */
+    public void rebuildIfLateUsage() {
+        synchronized (this) {
+            if (!lateUsage) {
+                return;
+            }
+        }
+        log.info("Rebuilding demand statistics to take in late sales");
+        load(false);
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onSaleCompleted(SaleCompletedEvent event) {
+        synchronized (this) {
+            if (statistics != null) {
+                observe(event.getSale().getSaleDate().toLocalDate(), event.getTransactions());
+            }
+        }
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onSaleBatchCompleted(SaleBatchCompletedEvent event) {
+        synchronized (this) {
+            if (statistics != null) {
+                event.getTransactionsByDay().forEach(this::observe);
+            }
+        }
+    }
+
+    /**
+     * Recommendations for the branch's ingredients (every branch when null), those running out
+     * soonest first; ingredients without usage come last.
+     */
+    public List<RestockRecommendationDTO> getRestockRecommendations(Long branchId) {
+        List<Object[]> ingredients = shardFanOut.isCrossBranch()
+                ? shardFanOut.queryAll(() -> ingredientRepository.findRestockInputs(branchId))
+                : ingredientRepository.findRestockInputs(branchId);
+        long today = LocalDate.now().toEpochDay();
+
+        List<RestockRecommendationDTO> recommendations = new ArrayList<>(ingredients.size());
+        synchronized (this) {
+            for (Object[] row : ingredients) {
+                recommendations.add(recommend(row, today));
+            }
+        }
+        recommendations.sort(Comparator.comparing(RestockRecommendationDTO::getDaysUntilStockout,
+                Comparator.nullsLast(Comparator.naturalOrder())));
+        return recommendations;
+    }
+
+    /**
+     * Must hold the lock.
+     */
+    private void observe(LocalDate saleDate, List<StockTransaction> transactions) {
+        long day = saleDate.toEpochDay();
+        for (StockTransaction transaction : transactions) {
+            if (transaction.getType() == TransactionType.SALE) {
+                int slot = statistics.slotOf(transaction.getIngredient().getId(),
+                        branchKey(transaction.getBranchId()));
+                if (!statistics.observe(slot, day, transaction.getQuantity())) {
+                    lateUsage = true;
+                }
+            }
+        }
+    }
+
+    /**
+     * Row of (id, name, unit, branchId, available stock, reorderLevel). Must hold the lock.
+     */
+    private RestockRecommendationDTO recommend(Object[] row, long today) {
+        Long ingredientId = (Long) row[0];
+        double available = Math.max((Double) row[4], 0.0);
+        int slot = statistics == null ? -1 : statistics.find(ingredientId);
+
+        double usage = 0.0;
+        double deviation = 0.0;
+        double expectedToday = 0.0;
+        int observedDays = 0;
+        if (slot >= 0) {
+            statistics.advance(slot, today);
+            usage = statistics.level(slot);
+            deviation = statistics.standardDeviation(slot);
+            expectedToday = statistics.expected(slot, today);
+            observedDays = statistics.closedDays(slot);
+        }
+
+        int horizon = leadTimeDays + reviewDays;
+        double reorderPoint = usage * leadTimeDays + serviceLevelZ * deviation * Math.sqrt(leadTimeDays);
+        double orderUpTo = usage * horizon + serviceLevelZ * deviation * Math.sqrt(horizon);
+
+        RestockRecommendationDTO dto = new RestockRecommendationDTO();
+        dto.setIngredientId(ingredientId);
+        dto.setIngredientName((String) row[1]);
+        dto.setUnit((String) row[2]);
+        dto.setBranchId((Long) row[3]);
+        dto.setAvailableStock(available);
+        dto.setAverageDailyUsage(usage);
+        dto.setUsageStdDev(deviation);
+        dto.setExpectedUsageToday(expectedToday);
+        dto.setDaysUntilStockout(usage > 0 ? available / usage : null);
+        dto.setReorderPoint(reorderPoint);
+        dto.setSuggestedOrderQuantity(Math.max(orderUpTo - available, 0.0));
+        dto.setReorderLevel((Double) row[5]);
+        dto.setRestockNeeded(usage > 0 && available <= reorderPoint);
+        dto.setObservedDays(observedDays);
+        return dto;
+    }
+
+    private void load(boolean includeToday) {
+        long started = System.nanoTime();
+        LocalDate today = LocalDate.now();
+        LocalDate yesterday = today.minusDays(1);
+        synchronized (this) {
+            // Late usage from here on may miss the rollups read below, so it flags the next rebuild
+            lateUsage = false;
+        }
+
+        // Row of (ingredientId, branchId, day, quantity)
+        List<Object[]> rows = shardFanOut.queryAll(() -> ingredientUsageRollupRepository
+                .findDailyUsageBetweenDates(today.minusDays(historyDays), yesterday));
+        if (includeToday) {
+            LocalDateTime startOfToday = today.atStartOfDay();
+            for (Object[] usage : shardFanOut.queryAll(() -> stockTransactionRepository
+                    .summarizeUsedIngredientsByBranch(startOfToday, startOfToday.plusDays(1)))) {
+                rows.add(new Object[]{usage[1], usage[0], today, usage[3]});
+            }
+        }
+
+        Map<Long, List<Object[]>> byIngredient = new HashMap<>();
+        for (Object[] row : rows) {
+            byIngredient.computeIfAbsent((Long) row[0], id -> new ArrayList<>()).add(row);
+        }
+        UsageStatistics rebuilt = new UsageStatistics(smoothing, seasonalSmoothing, byIngredient.size());
+        List<Series> series = new ArrayList<>(byIngredient.size());
+        for (Map.Entry<Long, List<Object[]>> entry : byIngredient.entrySet()) {
+            int slot = rebuilt.slotOf(entry.getKey(), branchKey((Long) entry.getValue().get(0)[1]));
+            series.add(new Series(slot, entry.getValue()));
+        }
+        ForkJoinPool.commonPool().invoke(new ReplayTask(rebuilt, series, 0, series.size()));
+
+        synchronized (this) {
+            if (!includeToday && statistics != null) {
+                carryOver(statistics, rebuilt, today.toEpochDay());
+            }
+            statistics = rebuilt;
+        }
+        log.info("Demand statistics loaded for {} ingredients from {} daily rows in {} ms",
+                series.size(), rows.size(), (System.nanoTime() - started) / 1_000_000);
+    }
+
+    /**
+     * Today's usage is not in the rollups replayed by a rebuild, so it is taken from the live statistics.
+     */
+    private static void carryOver(UsageStatistics from, UsageStatistics to, long today) {
+        for (int slot = 0; slot < from.size(); slot++) {
+            double usage = from.openUsage(slot, today);
+            if (usage > 0) {
+                to.observe(to.slotOf(from.ingredientId(slot), from.branchId(slot)), today, usage);
+            }
+        }
+    }
+
+    private static long branchKey(Long branchId) {
+        return branchId == null ? NO_BRANCH : branchId;
+    }
+
+    private record Series(int slot, List<Object[]> days) {
+    }
+
+    /**
+     * Replays the daily usage of a range of ingredients; each ingredient owns its slot, so ranges
+     * can run in parallel.
+     */
+    private static final class ReplayTask extends RecursiveAction {
+
+        private static final int THRESHOLD = 256;
+
+        private final UsageStatistics statistics;
+        private final List<Series> series;
+        private final int from;
+        private final int to;
+
+        ReplayTask(UsageStatistics statistics, List<Series> series, int from, int to) {
+            this.statistics = statistics;
+            this.series = series;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from > THRESHOLD) {
+                int middle = (from + to) >>> 1;
+                invokeAll(new ReplayTask(statistics, series, from, middle),
+                        new ReplayTask(statistics, series, middle, to));
+                return;
+            }
+            for (int i = from; i < to; i++) {
+                Series ingredient = series.get(i);
+                List<Object[]> days = ingredient.days();
+                days.sort(Comparator.comparing(row -> (LocalDate) row[2]));
+                for (Object[] day : days) {
+                    statistics.observe(ingredient.slot(), ((LocalDate) day[2]).toEpochDay(),
+                            ((Number) day[3]).doubleValue());
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,205 @@
+package com.restaurant.stockmanagement.forecast;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Exponentially weighted daily usage of many ingredients, stored column-wise in primitive arrays
+ * indexed by slot. Per slot it keeps the usage of the open (most recent) day, a level of daily
+ * usage with the day-of-week effect taken out, the variance of the daily forecast error and seven
+ * multiplicative day-of-week factors averaging 1.
+ *
+ * <p>A day is folded into the statistics once a later day is observed; days without usage in
+ * between count as zero. Every update is O(1) apart from catching up on idle days.
+ * Not thread-safe. Slots are independent, so once allocated, different slots may be replayed by
+ * different threads.
+ */
+final class UsageStatistics {
+
+    private static final int DAYS_PER_WEEK = 7;
+    private static final long NO_DAY = Long.MIN_VALUE;
+    private static final double MIN_SEASONAL_FACTOR = 0.05;
+    // After this many idle days the level has decayed to practically zero anyway
+    private static final int MAX_IDLE_DAYS = 120;
+
+    private final double alpha;
+    private final double seasonalAlpha;
+    private final Map<Long, Integer> slots = new HashMap<>();
+
+    private long[] ingredientIds;
+    private long[] branchIds;
+    private long[] openDays;
+    private double[] openUsage;
+    private double[] levels;
+    private double[] variances;
+    private double[] seasonal;
+    private int[] closedDays;
+    private int size;
+
+    UsageStatistics(double alpha, double seasonalAlpha, int capacity) {
+        this.alpha = alpha;
+        this.seasonalAlpha = seasonalAlpha;
+        int initial = Math.max(capacity, 16);
+        ingredientIds = new long[initial];
+        branchIds = new long[initial];
+        openDays = new long[initial];
+        openUsage = new double[initial];
+        levels = new double[initial];
+        variances = new double[initial];
+        seasonal = new double[initial * DAYS_PER_WEEK];
+        closedDays = new int[initial];
+    }
+
+    /**
+     * Slot of the ingredient, or -1 when nothing was ever observed for it.
+     */
+    int find(long ingredientId) {
+        Integer slot = slots.get(ingredientId);
+        return slot == null ? -1 : slot;
+    }
+
+    /**
+     * Slot of the ingredient, allocated on first use.
+     */
+    int slotOf(long ingredientId, long branchId) {
+        Integer existing = slots.get(ingredientId);
+        if (existing != null) {
+            branchIds[existing] = branchId;
+            return existing;
+        }
+        if (size == ingredientIds.length) {
+            grow();
+        }
+        int slot = size++;
+        ingredientIds[slot] = ingredientId;
+        branchIds[slot] = branchId;
+        openDays[slot] = NO_DAY;
+        Arrays.fill(seasonal, slot * DAYS_PER_WEEK, (slot + 1) * DAYS_PER_WEEK, 1.0);
+        slots.put(ingredientId, slot);
+        return slot;
+    }
+
+    int size() {
+        return size;
+    }
+
+    long ingredientId(int slot) {
+        return ingredientIds[slot];
+    }
+
+    long branchId(int slot) {
+        return branchIds[slot];
+    }
+
+    /**
+     * Adds usage on {@code epochDay}. Usage dated before the open day is left out and false
+     * returned: days already folded in cannot be revised, and counting it on the open day would
+     * inflate that day instead.
+     */
+    boolean observe(int slot, long epochDay, double quantity) {
+        long open = openDays[slot];
+        if (open != NO_DAY && epochDay < open) {
+            return false;
+        }
+        advance(slot, epochDay);
+        openUsage[slot] += quantity;
+        return true;
+    }
+
+    /**
+     * Folds in every day before {@code epochDay} that is still open.
+     */
+    void advance(int slot, long epochDay) {
+        long open = openDays[slot];
+        if (open == NO_DAY) {
+            openDays[slot] = epochDay;
+            return;
+        }
+        if (epochDay <= open) {
+            return;
+        }
+        fold(slot, open, openUsage[slot]);
+        long idle = Math.min(epochDay - open - 1, MAX_IDLE_DAYS);
+        for (long day = open + 1; day <= open + idle; day++) {
+            fold(slot, day, 0.0);
+        }
+        openDays[slot] = epochDay;
+        openUsage[slot] = 0.0;
+    }
+
+    /**
+     * Usage recorded so far on {@code epochDay}, or 0 when that is not the open day.
+     */
+    double openUsage(int slot, long epochDay) {
+        return openDays[slot] == epochDay ? openUsage[slot] : 0.0;
+    }
+
+    /**
+     * Average daily usage over a week.
+     */
+    double level(int slot) {
+        return levels[slot];
+    }
+
+    /**
+     * Expected usage on {@code epochDay}, day-of-week effect included.
+     */
+    double expected(int slot, long epochDay) {
+        return levels[slot] * seasonal[slot * DAYS_PER_WEEK + dayOfWeek(epochDay)];
+    }
+
+    double standardDeviation(int slot) {
+        return Math.sqrt(variances[slot]);
+    }
+
+    int closedDays(int slot) {
+        return closedDays[slot];
+    }
+
+    private void fold(int slot, long epochDay, double usage) {
+        if (closedDays[slot]++ == 0) {
+            levels[slot] = usage;
+            return;
+        }
+        int index = slot * DAYS_PER_WEEK + dayOfWeek(epochDay);
+        double factor = seasonal[index];
+        double error = usage - levels[slot] * factor;
+        variances[slot] = (1 - alpha) * (variances[slot] + alpha * error * error);
+        levels[slot] = alpha * usage / factor + (1 - alpha) * levels[slot];
+        if (levels[slot] > 0) {
+            seasonal[index] = Math.max(MIN_SEASONAL_FACTOR,
+                    seasonalAlpha * usage / levels[slot] + (1 - seasonalAlpha) * factor);
+            normalizeSeasonal(slot);
+        }
+    }
+
+    private void normalizeSeasonal(int slot) {
+        int from = slot * DAYS_PER_WEEK;
+        double sum = 0.0;
+        for (int i = from; i < from + DAYS_PER_WEEK; i++) {
+            sum += seasonal[i];
+        }
+        double scale = DAYS_PER_WEEK / sum;
+        for (int i = from; i < from + DAYS_PER_WEEK; i++) {
+            seasonal[i] *= scale;
+        }
+    }
+
+    private void grow() {
+        int capacity = ingredientIds.length * 2;
+        ingredientIds = Arrays.copyOf(ingredientIds, capacity);
+        branchIds = Arrays.copyOf(branchIds, capacity);
+        openDays = Arrays.copyOf(openDays, capacity);
+        openUsage = Arrays.copyOf(openUsage, capacity);
+        levels = Arrays.copyOf(levels, capacity);
+        variances = Arrays.copyOf(variances, capacity);
+        seasonal = Arrays.copyOf(seasonal, capacity * DAYS_PER_WEEK);
+        closedDays = Arrays.copyOf(closedDays, capacity);
+    }
+
+    // Monday = 0; epoch day 0 (1970-01-01) was a Thursday
+    private static int dayOfWeek(long epochDay) {
+        return (int) Math.floorMod(epochDay + 3, DAYS_PER_WEEK);
+    }
+}
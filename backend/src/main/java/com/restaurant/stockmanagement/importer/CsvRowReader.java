@@ -0,0 +1,100 @@
+package com.restaurant.stockmanagement.importer;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * RFC 4180 CSV: comma separated, fields optionally quoted, quotes doubled inside quoted fields,
+ * which may also span lines. A UTF-8 byte order mark is skipped and blank lines are ignored.
+ */
+class CsvRowReader implements RowReader {
+
+    private static final int BOM = '\uFEFF';
+
+    private final Path file;
+
+    CsvRowReader(Path file) {
+        this.file = file;
+    }
+
+    @Override
+    public void read(RowHandler handler) throws IOException {
+        try (Reader reader = new BufferedReader(Files.newBufferedReader(file, StandardCharsets.UTF_8), 65536)) {
+            List<String> cells = new ArrayList<>();
+            StringBuilder field = new StringBuilder();
+            boolean quoted = false;
+            boolean fieldStarted = false;
+            long line = 1;
+            long rowStart = 1;
+
+            int c = reader.read();
+            if (c == BOM) {
+                c = reader.read();
+            }
+            for (; c != -1; c = reader.read()) {
+                if (quoted) {
+                    if (c == '"') {
+                        reader.mark(1);
+                        int next = reader.read();
+                        if (next == '"') {
+                            field.append('"');
+                        } else {
+                            quoted = false;
+                            if (next != -1) {
+                                reader.reset();
+                            }
+                        }
+                    } else {
+                        if (c == '\n') {
+                            line++;
+                        }
+                        field.append((char) c);
+                    }
+                } else if (c == '"' && field.length() == 0) {
+                    quoted = true;
+                    fieldStarted = true;
+                } else if (c == ',') {
+                    cells.add(field.toString());
+                    field.setLength(0);
+                    fieldStarted = true;
+                } else if (c == '\n' || c == '\r') {
+                    if (c == '\r') {
+                        reader.mark(1);
+                        if (reader.read() != '\n') {
+                            reader.reset();
+                        }
+                    }
+                    emit(handler, rowStart, cells, field, fieldStarted);
+                    cells = new ArrayList<>();
+                    fieldStarted = false;
+                    line++;
+                    rowStart = line;
+                } else {
+                    field.append((char) c);
+                    fieldStarted = true;
+                }
+            }
+            if (quoted) {
+                throw new IOException("Unterminated quoted field starting in row " + rowStart);
+            }
+            emit(handler, rowStart, cells, field, fieldStarted);
+        }
+    }
+
+    private static void emit(RowHandler handler, long rowNumber, List<String> cells, StringBuilder field,
+                             boolean fieldStarted) {
+        if (fieldStarted || field.length() > 0) {
+            cells.add(field.toString());
+        }
+        field.setLength(0);
+        if (!cells.isEmpty()) {
+            handler.row(rowNumber, cells);
+        }
+    }
+}
@@ -0,0 +1,23 @@
+package com.restaurant.stockmanagement.importer;
+
+public enum ImportFormat {
+    CSV("text/csv"),
+    XLSX("application/vnd.openxmlformats-officedocument.spreadsheetml.sheet");
+
+    private final String contentType;
+
+    ImportFormat(String contentType) {
+        this.contentType = contentType;
+    }
+
+    public String getContentType() {
+        return contentType;
+    }
+
+    /**
+     * The format announced by an upload's content type; CSV unless it is the XLSX type.
+     */
+    public static ImportFormat fromContentType(String contentType) {
+        return contentType != null && contentType.startsWith(XLSX.contentType) ? XLSX : CSV;
+    }
+}
@@ -0,0 +1,152 @@
+package com.restaurant.stockmanagement.importer;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Progress of one import, updated by the import thread and read by status requests.
+ */
+public class ImportJob {
+
+    public enum Status {
+        QUEUED,
+        RUNNING,
+        COMPLETED,
+        FAILED
+    }
+
+    private final String id;
+    private final ImportKind kind;
+    private final ImportFormat format;
+    private final Long branchId;
+    private final String requestedBy;
+    private final Path upload;
+    private final Path errorFile;
+    private final LocalDateTime createdAt = LocalDateTime.now();
+
+    private final AtomicLong rowsRead = new AtomicLong();
+    private final AtomicLong inserted = new AtomicLong();
+    private final AtomicLong updated = new AtomicLong();
+    private final AtomicLong failed = new AtomicLong();
+
+    private volatile Status status = Status.QUEUED;
+    private volatile String message;
+    private volatile LocalDateTime startedAt;
+    private volatile LocalDateTime finishedAt;
+
+    public ImportJob(String id, ImportKind kind, ImportFormat format, Long branchId, String requestedBy,
+                     Path upload, Path errorFile) {
+        this.id = id;
+        this.kind = kind;
+        this.format = format;
+        this.branchId = branchId;
+        this.requestedBy = requestedBy;
+        this.upload = upload;
+        this.errorFile = errorFile;
+    }
+
+    public void started() {
+        startedAt = LocalDateTime.now();
+        status = Status.RUNNING;
+    }
+
+    public void completed() {
+        finishedAt = LocalDateTime.now();
+        status = Status.COMPLETED;
+    }
+
+    public void failed(String reason) {
+        message = reason;
+        finishedAt = LocalDateTime.now();
+        status = Status.FAILED;
+    }
+
+    public void rowRead() {
+        rowsRead.incrementAndGet();
+    }
+
+    public void written(long insertedRows, long updatedRows) {
+        inserted.addAndGet(insertedRows);
+        updated.addAndGet(updatedRows);
+    }
+
+    public void rejected(long rows) {
+        failed.addAndGet(rows);
+    }
+
+    public void deleteFiles() {
+        try {
+            Files.deleteIfExists(upload);
+            Files.deleteIfExists(errorFile);
+        } catch (IOException e) {
+            // Temporary files; the OS cleans up what is left
+        }
+    }
+
+    public String getId() {
+        return id;
+    }
+
+    public ImportKind getKind() {
+        return kind;
+    }
+
+    public ImportFormat getFormat() {
+        return format;
+    }
+
+    public Long getBranchId() {
+        return branchId;
+    }
+
+    public String getRequestedBy() {
+        return requestedBy;
+    }
+
+    public Path getUpload() {
+        return upload;
+    }
+
+    public Path getErrorFile() {
+        return errorFile;
+    }
+
+    public LocalDateTime getCreatedAt() {
+        return createdAt;
+    }
+
+    public long getRowsRead() {
+        return rowsRead.get();
+    }
+
+    public long getInserted() {
+        return inserted.get();
+    }
+
+    public long getUpdated() {
+        return updated.get();
+    }
+
+    public long getFailed() {
+        return failed.get();
+    }
+
+    public Status getStatus() {
+        return status;
+    }
+
+    public String getMessage() {
+        return message;
+    }
+
+    public LocalDateTime getStartedAt() {
+        return startedAt;
+    }
+
+    public LocalDateTime getFinishedAt() {
+        return finishedAt;
+    }
+}
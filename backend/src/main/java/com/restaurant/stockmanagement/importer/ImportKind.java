@@ -0,0 +1,24 @@
+package com.restaurant.stockmanagement.importer;
+
+import java.util.List;
+
+/**
+ * What an import creates or updates, with the header columns every file must have. Rows are
+ * matched to existing records by name within their branch (recipes by food and ingredient
+ * name), so importing the same file twice updates instead of duplicating.
+ */
+public enum ImportKind {
+    INGREDIENTS(List.of("name", "unit")),
+    FOODS(List.of("name")),
+    RECIPES(List.of("food", "ingredient", "quantity"));
+
+    private final List<String> requiredColumns;
+
+    ImportKind(List<String> requiredColumns) {
+        this.requiredColumns = requiredColumns;
+    }
+
+    public List<String> getRequiredColumns() {
+        return requiredColumns;
+    }
+}
@@ -0,0 +1,119 @@
+package com.restaurant.stockmanagement.importer;
+
+import java.time.LocalDate;
+import java.time.format.DateTimeParseException;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * One data row, addressed by column name. Header names are matched loosely (case, spaces,
+ * underscores and dashes are ignored), so "Current Stock", "current_stock" and "currentStock"
+ * are the same column. Blank cells read as null, which leaves the target field unchanged.
+ */
+public final class ImportRow {
+
+    private final long rowNumber;
+    private final Map<String, Integer> columns;
+    private final List<String> cells;
+
+    public ImportRow(long rowNumber, Map<String, Integer> columns, List<String> cells) {
+        this.rowNumber = rowNumber;
+        this.columns = columns;
+        this.cells = cells;
+    }
+
+    /**
+     * Column positions by normalized name; the first occurrence of a repeated name wins.
+     */
+    public static Map<String, Integer> columns(List<String> header) {
+        Map<String, Integer> columns = new HashMap<>();
+        for (int i = 0; i < header.size(); i++) {
+            columns.putIfAbsent(key(header.get(i)), i);
+        }
+        return columns;
+    }
+
+    public static String key(String column) {
+        return column.toLowerCase(Locale.ROOT).replaceAll("[^a-z0-9]", "");
+    }
+
+    public long getRowNumber() {
+        return rowNumber;
+    }
+
+    public List<String> getCells() {
+        return cells;
+    }
+
+    public String text(String column) {
+        Integer index = columns.get(key(column));
+        if (index == null || index >= cells.size()) {
+            return null;
+        }
+        String value = cells.get(index).trim();
+        return value.isEmpty() ? null : value;
+    }
+
+    public Double decimal(String column) {
+        String value = text(column);
+        if (value == null) {
+            return null;
+        }
+        try {
+            return Double.valueOf(value);
+        } catch (NumberFormatException e) {
+            throw new InvalidRowException(column + ": '" + value + "' is not a number");
+        }
+    }
+
+    public Integer integer(String column) {
+        String value = text(column);
+        if (value == null) {
+            return null;
+        }
+        try {
+            // Spreadsheets store whole numbers as decimals
+            double number = Double.parseDouble(value);
+            if (number != Math.rint(number)) {
+                throw new NumberFormatException();
+            }
+            return Math.toIntExact((long) number);
+        } catch (NumberFormatException | ArithmeticException e) {
+            throw new InvalidRowException(column + ": '" + value + "' is not a whole number");
+        }
+    }
+
+    public Long id(String column) {
+        Integer value = integer(column);
+        return value == null ? null : value.longValue();
+    }
+
+    public LocalDate date(String column) {
+        String value = text(column);
+        if (value == null) {
+            return null;
+        }
+        try {
+            return LocalDate.parse(value);
+        } catch (DateTimeParseException e) {
+            throw new InvalidRowException(column + ": '" + value + "' is not a date (yyyy-MM-dd)");
+        }
+    }
+
+    public Boolean bool(String column) {
+        String value = text(column);
+        if (value == null) {
+            return null;
+        }
+        switch (value.toLowerCase(Locale.ROOT)) {
+            case "true", "yes", "y", "1":
+                return true;
+            case "false", "no", "n", "0":
+                return false;
+            default:
+                throw new InvalidRowException(column + ": '" + value + "' is not true or false");
+        }
+    }
+}
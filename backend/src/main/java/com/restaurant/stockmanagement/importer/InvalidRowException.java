@@ -0,0 +1,10 @@
+package com.restaurant.stockmanagement.importer;
+
+/**
+ * A cell that cannot be converted; reported for its row in the error file.
+ */
+public class InvalidRowException extends RuntimeException {
+    public InvalidRowException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,33 @@
+package com.restaurant.stockmanagement.importer;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.List;
+
+/**
+ * Forward-only reader handing an uploaded sheet to a callback one row at a time, so imports run
+ * in constant memory regardless of the file size. The first row is the header.
+ */
+public interface RowReader {
+
+    void read(RowHandler handler) throws IOException;
+
+    @FunctionalInterface
+    interface RowHandler {
+
+        /**
+         * @param rowNumber 1-based row number in the file, as a spreadsheet user would see it
+         * @param cells     cell texts; missing trailing cells are simply absent
+         */
+        void row(long rowNumber, List<String> cells);
+    }
+
+    static RowReader create(ImportFormat format, Path file) {
+        switch (format) {
+            case XLSX:
+                return new XlsxRowReader(file);
+            default:
+                return new CsvRowReader(file);
+        }
+    }
+}
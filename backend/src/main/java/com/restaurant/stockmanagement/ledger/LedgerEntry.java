@@ -0,0 +1,57 @@
+package com.restaurant.stockmanagement.ledger;
+
+import com.restaurant.stockmanagement.model.StockTransaction;
+import com.restaurant.stockmanagement.model.StockTransactionLot;
+import com.restaurant.stockmanagement.model.TransactionType;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Journal record for a StockTransaction that has not been written to the database yet.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class LedgerEntry {
+    private long sequence;
+    private Long ingredientId;
+    private TransactionType type;
+    private Double quantity;
+    private Double previousStock;
+    private Double newStock;
+    private String reason;
+    private String performedBy;
+    private Long branchId;
+    // Lot id to quantity; absent in entries journaled before lots existed
+    private Map<Long, Double> lots;
+    // The ingredient's version as the recording transaction left it; null in older entries
+    private Long ingredientVersion;
+    // The database the row goes to (see BranchContext); null for the default one and in older entries
+    private String shard;
+
+    public static LedgerEntry of(long sequence, StockTransaction transaction, Long ingredientVersion,
+                                 String shard) {
+        Map<Long, Double> lots = new LinkedHashMap<>();
+        for (StockTransactionLot lot : transaction.getLots()) {
+            lots.merge(lot.getLot().getId(), lot.getQuantity(), Double::sum);
+        }
+        return new LedgerEntry(
+            sequence,
+            transaction.getIngredient().getId(),
+            transaction.getType(),
+            transaction.getQuantity(),
+            transaction.getPreviousStock(),
+            transaction.getNewStock(),
+            transaction.getReason(),
+            transaction.getPerformedBy(),
+            transaction.getBranchId(),
+            lots,
+            ingredientVersion,
+            shard
+        );
+    }
+}
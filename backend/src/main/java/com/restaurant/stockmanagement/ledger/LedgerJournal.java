@@ -0,0 +1,204 @@
+package com.restaurant.stockmanagement.ledger;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Append-only file of ledger entries, plus marker lines listing the entries that have been
+ * flushed to the database or whose transaction rolled back. {@link #sync} forces everything
+ * appended so far to disk, so commits that append concurrently share one fsync. The journal
+ * is truncated whenever none of its entries is outstanding.
+ *
+ * <p>Journals written before the markers existed kept the highest flushed sequence number in
+ * a checkpoint file instead; entries at or below it count as flushed until the file is
+ * removed after replay.
+ */
+class LedgerJournal {
+
+    private static final String FLUSHED = "flushed";
+    private static final String CANCELLED = "cancelled";
+
+    private final Path journalFile;
+    private final Path checkpointFile;
+    private final ObjectMapper objectMapper;
+    private final Object syncLock = new Object();
+    private FileChannel channel;
+    private long syncedPosition;
+
+    LedgerJournal(Path directory, ObjectMapper objectMapper) {
+        this.journalFile = directory.resolve("stock-ledger.journal");
+        this.checkpointFile = directory.resolve("stock-ledger.checkpoint");
+        this.objectMapper = objectMapper;
+        try {
+            Files.createDirectories(directory);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot create ledger journal directory " + directory, e);
+        }
+    }
+
+    /**
+     * Appends the entries and returns the journal position after them, for {@link #sync}.
+     */
+    synchronized long append(List<LedgerEntry> entries) {
+        try {
+            StringBuilder lines = new StringBuilder();
+            for (LedgerEntry entry : entries) {
+                lines.append(objectMapper.writeValueAsString(entry)).append('\n');
+            }
+            return write(lines.toString());
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to append to stock ledger journal", e);
+        }
+    }
+
+    /**
+     * Records that these entries are in the database. Not forced to disk: losing the marker
+     * only means the entries are inserted again on replay.
+     */
+    synchronized void markFlushed(Collection<Long> sequences) {
+        mark(FLUSHED, sequences);
+    }
+
+    /**
+     * Records that these entries belong to a transaction that rolled back.
+     */
+    synchronized void markCancelled(Collection<Long> sequences) {
+        mark(CANCELLED, sequences);
+    }
+
+    /**
+     * Returns once everything appended up to {@code position} is on disk.
+     */
+    void sync(long position) {
+        synchronized (syncLock) {
+            if (syncedPosition >= position) {
+                return;
+            }
+            FileChannel current;
+            long target;
+            try {
+                synchronized (this) {
+                    if (channel == null) {
+                        return;
+                    }
+                    current = channel;
+                    target = current.position();
+                }
+                current.force(false);
+            } catch (IOException e) {
+                throw new UncheckedIOException("Failed to sync stock ledger journal", e);
+            }
+            syncedPosition = target;
+        }
+    }
+
+    /**
+     * Returns the journaled entries that are neither flushed nor cancelled, in journal order.
+     */
+    synchronized List<LedgerEntry> readPending() {
+        List<LedgerEntry> entries = new ArrayList<>();
+        if (!Files.exists(journalFile)) {
+            return entries;
+        }
+        Set<Long> settled = new HashSet<>();
+        try {
+            long checkpoint = readCheckpoint();
+            for (String line : Files.readAllLines(journalFile, StandardCharsets.UTF_8)) {
+                if (line.isBlank()) {
+                    continue;
+                }
+                JsonNode node;
+                try {
+                    node = objectMapper.readTree(line);
+                } catch (IOException e) {
+                    // A torn last line from a crash mid-write; everything before it is intact
+                    break;
+                }
+                JsonNode marker = node.has(FLUSHED) ? node.get(FLUSHED) : node.get(CANCELLED);
+                if (marker != null) {
+                    marker.forEach(sequence -> settled.add(sequence.asLong()));
+                } else {
+                    LedgerEntry entry = objectMapper.treeToValue(node, LedgerEntry.class);
+                    if (entry.getSequence() > checkpoint) {
+                        entries.add(entry);
+                    }
+                }
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to read stock ledger journal", e);
+        }
+        entries.removeIf(entry -> settled.contains(entry.getSequence()));
+        return entries;
+    }
+
+    /**
+     * Drops all journaled entries; only call once none of them is outstanding.
+     */
+    void truncate() {
+        synchronized (syncLock) {
+            synchronized (this) {
+                try {
+                    close();
+                    Files.write(journalFile, new byte[0]);
+                    Files.deleteIfExists(checkpointFile);
+                } catch (IOException e) {
+                    throw new UncheckedIOException("Failed to truncate stock ledger journal", e);
+                }
+                syncedPosition = 0;
+            }
+        }
+    }
+
+    synchronized void close() throws IOException {
+        if (channel != null) {
+            channel.close();
+            channel = null;
+        }
+    }
+
+    private void mark(String kind, Collection<Long> sequences) {
+        if (sequences.isEmpty()) {
+            return;
+        }
+        try {
+            write(objectMapper.writeValueAsString(Map.of(kind, sequences)) + '\n');
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to append to stock ledger journal", e);
+        }
+    }
+
+    private long write(String lines) throws IOException {
+        if (channel == null) {
+            channel = FileChannel.open(journalFile, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                    StandardOpenOption.APPEND);
+        }
+        ByteBuffer buffer = ByteBuffer.wrap(lines.getBytes(StandardCharsets.UTF_8));
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+        return channel.position();
+    }
+
+    private long readCheckpoint() throws IOException {
+        if (!Files.exists(checkpointFile)) {
+            return 0L;
+        }
+        String value = Files.readString(checkpointFile, StandardCharsets.UTF_8).trim();
+        return value.isEmpty() ? 0L : Long.parseLong(value);
+    }
+}
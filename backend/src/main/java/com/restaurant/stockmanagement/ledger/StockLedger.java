@@ -0,0 +1,474 @@
+package com.restaurant.stockmanagement.ledger;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.restaurant.stockmanagement.datasource.BranchContext;
+import com.restaurant.stockmanagement.metrics.StockMetrics;
+import com.restaurant.stockmanagement.model.StockTransaction;
+import com.restaurant.stockmanagement.repository.IngredientRepository;
+import com.restaurant.stockmanagement.repository.StockLotRepository;
+import com.restaurant.stockmanagement.repository.StockTransactionRepository;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.Ordered;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Entry point for writing StockTransaction rows.
+ *
+ * <p>By default rows are saved synchronously in the caller's transaction. With
+ * {@code app.stock-ledger.write-behind.enabled=true} they are appended to a local journal
+ * just before the caller commits, and the journal is forced to disk before the commit goes
+ * ahead, so a committed stock change never loses its ledger row. Once committed, the rows are
+ * handed to a background flusher that batch-inserts them every {@code flush-interval-ms} or as
+ * soon as {@code batch-size} rows are waiting; a rollback marks them cancelled instead. At most
+ * {@code capacity} rows wait at a time: a commit that finds no room within
+ * {@code enqueue-timeout-ms} fails and rolls back.
+ *
+ * <p>Pending journal entries are replayed on startup. An entry whose transaction was cut off
+ * by a crash before its outcome was known is replayed only if the ingredient has reached the
+ * version that transaction gave it. Delivery is at-least-once: a crash between a flush and
+ * its marker in the journal can replay that batch.
+ *
+ * <p>With branch sharding, each entry remembers the database its transaction ran against, and
+ * the flusher and replay insert it there; they run on threads of their own with no shard
+ * selected.
+ */
+@Service
+public class StockLedger {
+
+    private static final Logger log = LoggerFactory.getLogger(StockLedger.class);
+
+    private final StockTransactionRepository stockTransactionRepository;
+    private final IngredientRepository ingredientRepository;
+    private final StockLotRepository stockLotRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final StockMetrics stockMetrics;
+    private final LedgerJournal journal;
+    private final boolean writeBehind;
+    private final int batchSize;
+    private final long flushIntervalMs;
+    private final int capacity;
+    private final long enqueueTimeoutMs;
+    // One permit per row journaled but not yet flushed or cancelled
+    private final Semaphore permits;
+    private final BlockingQueue<LedgerEntry> queue = new LinkedBlockingQueue<>();
+
+    private final AtomicLong sequence = new AtomicLong();
+    private final ReentrantLock appendLock = new ReentrantLock();
+    private final Object flushSignal = new Object();
+    private final List<LedgerEntry> pending = new ArrayList<>();
+
+    private final AtomicLong flushedCount = new AtomicLong();
+    private volatile long lastFlushLatencyMs;
+    private volatile long maxFlushLatencyMs;
+    private volatile boolean running;
+    private Thread flusher;
+
+    public StockLedger(StockTransactionRepository stockTransactionRepository,
+                       IngredientRepository ingredientRepository,
+                       StockLotRepository stockLotRepository,
+                       TransactionTemplate transactionTemplate,
+                       ObjectMapper objectMapper,
+                       StockMetrics stockMetrics,
+                       @Value("${app.stock-ledger.write-behind.enabled:false}") boolean writeBehind,
+                       @Value("${app.stock-ledger.write-behind.batch-size:500}") int batchSize,
+                       @Value("${app.stock-ledger.write-behind.flush-interval-ms:500}") long flushIntervalMs,
+                       @Value("${app.stock-ledger.write-behind.capacity:10000}") int capacity,
+                       @Value("${app.stock-ledger.write-behind.enqueue-timeout-ms:2000}") long enqueueTimeoutMs,
+                       @Value("${app.stock-ledger.journal-dir:./data/stock-ledger}") String journalDir) {
+        this.stockTransactionRepository = stockTransactionRepository;
+        this.ingredientRepository = ingredientRepository;
+        this.stockLotRepository = stockLotRepository;
+        this.transactionTemplate = transactionTemplate;
+        this.stockMetrics = stockMetrics;
+        this.journal = new LedgerJournal(Path.of(journalDir), objectMapper);
+        this.writeBehind = writeBehind;
+        this.batchSize = batchSize;
+        this.flushIntervalMs = flushIntervalMs;
+        this.capacity = capacity;
+        this.enqueueTimeoutMs = enqueueTimeoutMs;
+        this.permits = new Semaphore(capacity);
+    }
+
+    @PostConstruct
+    public void start() {
+        replayJournal();
+        if (writeBehind) {
+            running = true;
+            flusher = new Thread(this::runFlusher, "stock-ledger-flusher");
+            flusher.setDaemon(true);
+            flusher.start();
+        }
+    }
+
+    @PreDestroy
+    public void stop() throws InterruptedException, IOException {
+        if (flusher != null) {
+            running = false;
+            synchronized (flushSignal) {
+                flushSignal.notifyAll();
+            }
+            flusher.join(flushIntervalMs * 4);
+            flush();
+        }
+        journal.close();
+    }
+
+    /**
+     * Records stock movements. In write-behind mode the rows are journaled when the surrounding
+     * transaction is about to commit and only queued for insertion once it has, so rolled-back
+     * sales never reach the ledger.
+     */
+    public void record(List<StockTransaction> transactions) {
+        if (transactions.isEmpty()) {
+            return;
+        }
+        stockMetrics.stockMoved(transactions);
+        if (!writeBehind) {
+            stockTransactionRepository.saveAll(transactions);
+            return;
+        }
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            pendingEntries().transactions.addAll(transactions);
+        } else {
+            PendingEntries entries = new PendingEntries();
+            entries.transactions.addAll(transactions);
+            entries.journal();
+            entries.handOff();
+        }
+    }
+
+    public Map<String, Object> getStats() {
+        Map<String, Object> stats = new HashMap<>();
+        stats.put("writeBehind", writeBehind);
+        stats.put("queueDepth", queue.size());
+        stats.put("queueCapacity", capacity);
+        stats.put("flushedCount", flushedCount.get());
+        stats.put("lastFlushLatencyMs", lastFlushLatencyMs);
+        stats.put("maxFlushLatencyMs", maxFlushLatencyMs);
+        return stats;
+    }
+
+    public int getQueueDepth() {
+        return queue.size();
+    }
+
+    public long getFlushedCount() {
+        return flushedCount.get();
+    }
+
+    public long getLastFlushLatencyMs() {
+        return lastFlushLatencyMs;
+    }
+
+    private PendingEntries pendingEntries() {
+        PendingEntries entries = (PendingEntries) TransactionSynchronizationManager.getResource(this);
+        if (entries == null) {
+            entries = new PendingEntries();
+            TransactionSynchronizationManager.bindResource(this, entries);
+            TransactionSynchronizationManager.registerSynchronization(entries);
+        }
+        return entries;
+    }
+
+    private void signalFlusher() {
+        synchronized (flushSignal) {
+            flushSignal.notifyAll();
+        }
+    }
+
+    private void runFlusher() {
+        while (running) {
+            synchronized (flushSignal) {
+                if (running && queue.size() < batchSize) {
+                    try {
+                        flushSignal.wait(flushIntervalMs);
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                        return;
+                    }
+                }
+            }
+            try {
+                flush();
+            } catch (RuntimeException e) {
+                log.error("Stock ledger flush failed, {} entries will be retried", pending.size(), e);
+            }
+        }
+    }
+
+    /**
+     * Inserts the waiting rows, one transaction per database. A database that fails keeps its
+     * rows pending for the next attempt; those inserted elsewhere are done with.
+     */
+    private synchronized void flush() {
+        if (pending.isEmpty()) {
+            queue.drainTo(pending, batchSize);
+        }
+        if (pending.isEmpty()) {
+            return;
+        }
+
+        long started = System.nanoTime();
+        for (Map.Entry<String, List<LedgerEntry>> shard : byShard(pending).entrySet()) {
+            insert(shard.getKey(), shard.getValue());
+            flushedCount.addAndGet(shard.getValue().size());
+            try {
+                journal.markFlushed(sequences(shard.getValue()));
+            } catch (RuntimeException e) {
+                log.warn("Could not mark flushed stock ledger entries, they will be replayed on restart", e);
+            }
+            permits.release(shard.getValue().size());
+            pending.removeIf(entry -> Objects.equals(entry.getShard(), shard.getKey()));
+        }
+        long latencyMs = (System.nanoTime() - started) / 1_000_000;
+        lastFlushLatencyMs = latencyMs;
+        maxFlushLatencyMs = Math.max(maxFlushLatencyMs, latencyMs);
+        compactIfIdle();
+    }
+
+    /**
+     * Empties the journal once nothing in it is outstanding. Rows hold their permits from before
+     * they are appended until they are flushed or cancelled, so all permits being free under the
+     * append lock means there is nothing left to replay.
+     */
+    private void compactIfIdle() {
+        if (permits.availablePermits() == capacity && appendLock.tryLock()) {
+            try {
+                if (permits.availablePermits() == capacity) {
+                    journal.truncate();
+                }
+            } finally {
+                appendLock.unlock();
+            }
+        }
+    }
+
+    private void replayJournal() {
+        List<LedgerEntry> pendingEntries = journal.readPending();
+        int replayed = 0;
+        for (Map.Entry<String, List<LedgerEntry>> shard : byShard(pendingEntries).entrySet()) {
+            List<LedgerEntry> committed = committedOnly(shard.getKey(), shard.getValue());
+            for (int from = 0; from < committed.size(); from += batchSize) {
+                List<LedgerEntry> batch = committed.subList(from, Math.min(from + batchSize, committed.size()));
+                insert(shard.getKey(), batch);
+                journal.markFlushed(sequences(batch));
+            }
+            replayed += committed.size();
+        }
+        if (!pendingEntries.isEmpty()) {
+            log.info("Replayed {} pending stock ledger entries, skipped {} from transactions that did not commit",
+                    replayed, pendingEntries.size() - replayed);
+        }
+        journal.truncate();
+        sequence.set(0);
+    }
+
+    /**
+     * Drops the entries whose transaction never committed: those that left the ingredient at a
+     * version it has not reached in their database. Entries journaled before versions were
+     * recorded are kept.
+     */
+    private List<LedgerEntry> committedOnly(String shard, List<LedgerEntry> entries) {
+        Set<Long> ingredientIds = new HashSet<>();
+        for (LedgerEntry entry : entries) {
+            if (entry.getIngredientVersion() != null) {
+                ingredientIds.add(entry.getIngredientId());
+            }
+        }
+        Map<Long, Long> versions = ingredientIds.isEmpty() ? Map.of()
+                : BranchContext.callOnShard(shard, () -> ingredientVersions(ingredientIds));
+
+        List<LedgerEntry> committed = new ArrayList<>(entries.size());
+        for (LedgerEntry entry : entries) {
+            Long current = versions.get(entry.getIngredientId());
+            if (entry.getIngredientVersion() == null
+                    || (current != null && current >= entry.getIngredientVersion())) {
+                committed.add(entry);
+            }
+        }
+        return committed;
+    }
+
+    private Map<Long, Long> ingredientVersions(Collection<Long> ingredientIds) {
+        Map<Long, Long> versions = new HashMap<>();
+        for (Object[] row : ingredientRepository.findVersionsByIdIn(ingredientIds)) {
+            versions.put((Long) row[0], (Long) row[1]);
+        }
+        return versions;
+    }
+
+    /**
+     * The entries grouped by database, in their original order within each.
+     */
+    private static Map<String, List<LedgerEntry>> byShard(List<LedgerEntry> entries) {
+        Map<String, List<LedgerEntry>> byShard = new LinkedHashMap<>();
+        for (LedgerEntry entry : entries) {
+            byShard.computeIfAbsent(entry.getShard(), shard -> new ArrayList<>()).add(entry);
+        }
+        return byShard;
+    }
+
+    private static List<Long> sequences(List<LedgerEntry> entries) {
+        List<Long> sequences = new ArrayList<>(entries.size());
+        for (LedgerEntry entry : entries) {
+            sequences.add(entry.getSequence());
+        }
+        return sequences;
+    }
+
+    private void insert(String shard, List<LedgerEntry> entries) {
+        BranchContext.callOnShard(shard, () -> transactionTemplate.execute(status -> {
+            List<StockTransaction> rows = new ArrayList<>(entries.size());
+            for (LedgerEntry entry : entries) {
+                StockTransaction transaction = new StockTransaction();
+                transaction.setIngredient(ingredientRepository.getReferenceById(entry.getIngredientId()));
+                transaction.setType(entry.getType());
+                transaction.setQuantity(entry.getQuantity());
+                transaction.setPreviousStock(entry.getPreviousStock());
+                transaction.setNewStock(entry.getNewStock());
+                transaction.setReason(entry.getReason());
+                transaction.setPerformedBy(entry.getPerformedBy());
+                transaction.setBranchId(entry.getBranchId());
+                transaction.setDeleted(false);
+                if (entry.getLots() != null) {
+                    entry.getLots().forEach((lotId, quantity) ->
+                            transaction.addLot(stockLotRepository.getReferenceById(lotId), quantity));
+                }
+                rows.add(transaction);
+            }
+            stockTransactionRepository.saveAll(rows);
+            return null;
+        }));
+    }
+
+    /**
+     * The rows one transaction recorded, journaled right before it commits.
+     */
+    private final class PendingEntries implements TransactionSynchronization {
+
+        private final List<StockTransaction> transactions = new ArrayList<>();
+        private List<LedgerEntry> entries = List.of();
+        private int reserved;
+
+        // After the other synchronizations, so the versions read include all of their changes
+        @Override
+        public int getOrder() {
+            return Ordered.LOWEST_PRECEDENCE;
+        }
+
+        @Override
+        public void beforeCommit(boolean readOnly) {
+            journal();
+        }
+
+        @Override
+        public void afterCompletion(int status) {
+            TransactionSynchronizationManager.unbindResourceIfPossible(StockLedger.this);
+            if (status == STATUS_ROLLED_BACK) {
+                cancel();
+            } else {
+                handOff();
+            }
+        }
+
+        /**
+         * Reserves room for the rows, appends them to the journal and waits until it is on disk.
+         * Throws, rolling the transaction back, when there is no room or the write fails.
+         */
+        void journal() {
+            // The query flushes the session first, so these are the versions this commit writes.
+            // It runs in the committing transaction, so against the database that holds them
+            String shard = BranchContext.currentShard();
+            Set<Long> ingredientIds = new HashSet<>();
+            for (StockTransaction transaction : transactions) {
+                ingredientIds.add(transaction.getIngredient().getId());
+            }
+            Map<Long, Long> versions = ingredientVersions(ingredientIds);
+
+            reserve(transactions.size());
+            long position;
+            appendLock.lock();
+            try {
+                List<LedgerEntry> journaled = new ArrayList<>(transactions.size());
+                for (StockTransaction transaction : transactions) {
+                    journaled.add(LedgerEntry.of(sequence.incrementAndGet(), transaction,
+                            versions.get(transaction.getIngredient().getId()), shard));
+                }
+                entries = journaled;
+                position = journal.append(journaled);
+            } finally {
+                appendLock.unlock();
+            }
+            journal.sync(position);
+        }
+
+        /**
+         * Queues the journaled rows for the flusher. Runs after commit, so it must not throw:
+         * a row that cannot be queued is still in the journal and is inserted on restart.
+         */
+        void handOff() {
+            try {
+                queue.addAll(entries);
+                if (queue.size() >= batchSize) {
+                    signalFlusher();
+                }
+            } catch (RuntimeException e) {
+                log.error("Could not queue {} stock ledger entries, they will be replayed on restart",
+                        entries.size(), e);
+            }
+        }
+
+        private void cancel() {
+            try {
+                journal.markCancelled(sequences(entries));
+            } catch (RuntimeException e) {
+                log.warn("Could not mark rolled-back stock ledger entries as cancelled", e);
+            } finally {
+                permits.release(reserved);
+                reserved = 0;
+            }
+            compactIfIdle();
+        }
+
+        private void reserve(int rows) {
+            if (rows > capacity) {
+                throw new IllegalStateException(String.format(
+                        "%d stock movements exceed the stock ledger capacity of %d", rows, capacity));
+            }
+            try {
+                if (!permits.tryAcquire(rows, enqueueTimeoutMs, TimeUnit.MILLISECONDS)) {
+                    throw new IllegalStateException("Stock ledger buffer is full, try again later");
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException("Interrupted while waiting for room in the stock ledger", e);
+            }
+            reserved = rows;
+        }
+    }
+}
@@ -0,0 +1,10 @@
+package com.restaurant.stockmanagement.lot;
+
+import java.time.LocalDate;
+
+/**
+ * Quantity taken from one lot, with the lot's dates and cost so it can be received elsewhere.
+ */
+public record LotDraw(long lotId, LocalDate receivedDate, LocalDate expiryDate, double costPerUnit,
+                      double quantity) {
+}
@@ -0,0 +1,82 @@
+package com.restaurant.stockmanagement.lot;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.PriorityQueue;
+
+/**
+ * Open lots of one ingredient in a min-heap, first-expiring at the head. Lots without an expiry
+ * date come after every dated lot; ties go to the lot received first. A draw touches only the
+ * lots it empties plus one, each in O(log lots). Not thread-safe.
+ */
+final class LotQueue {
+
+    // Same threshold as StockLotRepository.consume
+    static final double EPSILON = 1e-9;
+
+    private static final Comparator<OpenLot> FIRST_EXPIRED_FIRST_OUT = Comparator
+            .comparing((OpenLot lot) -> lot.expiryDate, Comparator.nullsLast(Comparator.naturalOrder()))
+            .thenComparing(lot -> lot.receivedDate)
+            .thenComparingLong(lot -> lot.id);
+
+    private final PriorityQueue<OpenLot> heap = new PriorityQueue<>(FIRST_EXPIRED_FIRST_OUT);
+    private double total;
+
+    void add(long id, LocalDate receivedDate, LocalDate expiryDate, double costPerUnit, double remaining) {
+        heap.add(new OpenLot(id, receivedDate, expiryDate, costPerUnit, remaining));
+        total += remaining;
+    }
+
+    /**
+     * Takes up to {@code quantity} from the head of the queue; less when the open lots hold less.
+     */
+    List<LotDraw> draw(double quantity) {
+        List<LotDraw> draws = new ArrayList<>(1);
+        double needed = quantity;
+        while (needed > EPSILON && !heap.isEmpty()) {
+            OpenLot head = heap.peek();
+            double taken = Math.min(head.remaining, needed);
+            draws.add(new LotDraw(head.id, head.receivedDate, head.expiryDate, head.costPerUnit, taken));
+            needed -= taken;
+            total -= taken;
+            head.remaining = head.remaining - taken < EPSILON ? 0.0 : head.remaining - taken;
+            if (head.remaining == 0.0) {
+                heap.poll();
+            }
+        }
+        if (heap.isEmpty()) {
+            total = 0.0;
+        }
+        return draws;
+    }
+
+    double total() {
+        return total;
+    }
+
+    /**
+     * Expiry date of the head lot; null when no open lot has one.
+     */
+    LocalDate earliestExpiry() {
+        OpenLot head = heap.peek();
+        return head == null ? null : head.expiryDate;
+    }
+
+    private static final class OpenLot {
+        final long id;
+        final LocalDate receivedDate;
+        final LocalDate expiryDate;
+        final double costPerUnit;
+        double remaining;
+
+        OpenLot(long id, LocalDate receivedDate, LocalDate expiryDate, double costPerUnit, double remaining) {
+            this.id = id;
+            this.receivedDate = receivedDate;
+            this.expiryDate = expiryDate;
+            this.costPerUnit = costPerUnit;
+            this.remaining = remaining;
+        }
+    }
+}
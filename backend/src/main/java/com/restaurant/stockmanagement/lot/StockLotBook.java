@@ -0,0 +1,229 @@
+package com.restaurant.stockmanagement.lot;
+
+import com.restaurant.stockmanagement.event.StockLotReceivedEvent;
+import com.restaurant.stockmanagement.model.Ingredient;
+import com.restaurant.stockmanagement.model.StockLot;
+import com.restaurant.stockmanagement.model.StockTransaction;
+import com.restaurant.stockmanagement.repository.IngredientRepository;
+import com.restaurant.stockmanagement.repository.StockLotRepository;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.core.Ordered;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.sql.Date;
+import java.time.LocalDate;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Open stock lots of every ingredient in use, each ingredient's in a first-expired-first-out
+ * {@link LotQueue}. Sales, waste and outbound transfers draw through it, so finding the lots
+ * to take from needs no query; only the lots actually drawn are updated, with a conditional
+ * UPDATE like the stock itself. An ingredient's lots are loaded on first use.
+ *
+ * <p>Callers must hold the ingredient's lock stripe from {@code StockReservationService}, which
+ * serializes access to a queue. A rolled-back transaction drops the queues it touched before the
+ * stripes are released, so they are reloaded from the database. Like the stripes, the queues are
+ * per instance: a draw that finds a lot emptied elsewhere, or not enough lots, reloads the queue
+ * (the latter once per transaction, as stock adjusted without a lot stays short).
+ * On commit the ingredient's expiryDate is set to the earliest expiry of its open lots.
+ */
+@Component
+public class StockLotBook {
+
+    private final StockLotRepository stockLotRepository;
+    private final IngredientRepository ingredientRepository;
+    private final ApplicationEventPublisher eventPublisher;
+    private final Map<Long, LotQueue> queues = new ConcurrentHashMap<>();
+
+    public StockLotBook(StockLotRepository stockLotRepository,
+                        IngredientRepository ingredientRepository,
+                        ApplicationEventPublisher eventPublisher) {
+        this.stockLotRepository = stockLotRepository;
+        this.ingredientRepository = ingredientRepository;
+        this.eventPublisher = eventPublisher;
+    }
+
+    /**
+     * Takes {@code quantity} from the ingredient's first-expiring lots. Returns less than asked
+     * for when the open lots hold less, e.g. stock that was adjusted without a lot.
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public List<LotDraw> draw(Long ingredientId, double quantity) {
+        LotQueue queue = queue(ingredientId);
+        if (queue.total() < quantity - LotQueue.EPSILON && changes().firstLoad(ingredientId)) {
+            queue = load(ingredientId);
+        }
+
+        Map<Long, LotDraw> drawn = new LinkedHashMap<>();
+        double needed = quantity;
+        boolean conflict = false;
+        for (int attempt = 0; attempt < 2 && needed > LotQueue.EPSILON; attempt++) {
+            if (conflict) {
+                // Drawn on another instance meanwhile; the locking reload sees what is left
+                queue = load(ingredientId);
+                conflict = false;
+            }
+            for (LotDraw draw : queue.draw(needed)) {
+                if (conflict || stockLotRepository.consume(draw.lotId(), draw.quantity()) == 0) {
+                    conflict = true;
+                    continue;
+                }
+                drawn.merge(draw.lotId(), draw, (first, more) -> new LotDraw(first.lotId(), first.receivedDate(),
+                        first.expiryDate(), first.costPerUnit(), first.quantity() + more.quantity()));
+                needed -= draw.quantity();
+            }
+        }
+        if (conflict) {
+            queues.remove(ingredientId);
+        }
+        return new ArrayList<>(drawn.values());
+    }
+
+    /**
+     * Adds a lot of {@code quantity} to the ingredient. The ingredient's stock is the caller's.
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public StockLot receive(Ingredient ingredient, double quantity, LocalDate receivedDate, LocalDate expiryDate,
+                            double costPerUnit) {
+        LotQueue queue = queue(ingredient.getId());
+
+        StockLot lot = new StockLot();
+        lot.setIngredient(ingredient);
+        lot.setBranchId(ingredient.getBranchId());
+        lot.setQuantity(quantity);
+        lot.setRemainingQuantity(quantity);
+        lot.setReceivedDate(receivedDate);
+        lot.setExpiryDate(expiryDate);
+        lot.setCostPerUnit(costPerUnit);
+        lot.setDeleted(false);
+        stockLotRepository.save(lot);
+
+        queue.add(lot.getId(), receivedDate, expiryDate, costPerUnit, quantity);
+        if (expiryDate != null) {
+            eventPublisher.publishEvent(new StockLotReceivedEvent(lot.getId(), expiryDate));
+        }
+        return lot;
+    }
+
+    /**
+     * Loads the queues of the ingredients not in use yet with one query, for callers about to
+     * draw from or receive into many ingredients at once.
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void preload(Collection<Long> ingredientIds) {
+        Changes changes = changes();
+        Map<Long, LotQueue> loaded = new HashMap<>();
+        for (Long ingredientId : ingredientIds) {
+            if (!queues.containsKey(ingredientId) && changes.firstLoad(ingredientId)) {
+                loaded.put(ingredientId, new LotQueue());
+            }
+        }
+        if (loaded.isEmpty()) {
+            return;
+        }
+        for (Object[] row : stockLotRepository.findOpenLotsForUpdateByIngredientIdIn(loaded.keySet())) {
+            addRow(loaded.get(((Number) row[5]).longValue()), row);
+        }
+        queues.putAll(loaded);
+    }
+
+    /**
+     * Records on the transaction which lots it drew from.
+     */
+    public void attach(StockTransaction transaction, Collection<LotDraw> draws) {
+        for (LotDraw draw : draws) {
+            transaction.addLot(stockLotRepository.getReferenceById(draw.lotId()), draw.quantity());
+        }
+    }
+
+    private LotQueue queue(Long ingredientId) {
+        Changes changes = changes();
+        LotQueue queue = queues.get(ingredientId);
+        if (queue == null) {
+            changes.firstLoad(ingredientId);
+            queue = load(ingredientId);
+        }
+        changes.touch(ingredientId, queue);
+        return queue;
+    }
+
+    private LotQueue load(Long ingredientId) {
+        LotQueue queue = new LotQueue();
+        for (Object[] row : stockLotRepository.findOpenLotsForUpdate(ingredientId)) {
+            addRow(queue, row);
+        }
+        queues.put(ingredientId, queue);
+        return queue;
+    }
+
+    private static void addRow(LotQueue queue, Object[] row) {
+        queue.add(((Number) row[0]).longValue(), toLocalDate(row[1]), toLocalDate(row[2]),
+                ((Number) row[3]).doubleValue(), ((Number) row[4]).doubleValue());
+    }
+
+    private Changes changes() {
+        Changes changes = (Changes) TransactionSynchronizationManager.getResource(this);
+        if (changes == null) {
+            changes = new Changes();
+            TransactionSynchronizationManager.bindResource(this, changes);
+            TransactionSynchronizationManager.registerSynchronization(changes);
+        }
+        return changes;
+    }
+
+    private static LocalDate toLocalDate(Object value) {
+        return value instanceof Date date ? date.toLocalDate() : (LocalDate) value;
+    }
+
+    /**
+     * The ingredients one transaction touched, with the earliest expiry they had before.
+     */
+    private final class Changes implements TransactionSynchronization {
+
+        private final Map<Long, LocalDate> expiryBefore = new HashMap<>();
+        private final Set<Long> loaded = new HashSet<>();
+
+        void touch(Long ingredientId, LotQueue queue) {
+            if (!expiryBefore.containsKey(ingredientId)) {
+                expiryBefore.put(ingredientId, queue.earliestExpiry());
+            }
+        }
+
+        boolean firstLoad(Long ingredientId) {
+            return loaded.add(ingredientId);
+        }
+
+        // Ahead of the lock stripes, which are released in afterCompletion as well
+        @Override
+        public int getOrder() {
+            return Ordered.HIGHEST_PRECEDENCE;
+        }
+
+        @Override
+        public void beforeCommit(boolean readOnly) {
+            // One statement per date, as each flushes the session first
+            Map<LocalDate, List<Long>> byExpiry = new HashMap<>();
+            expiryBefore.forEach((ingredientId, before) -> {
+                LotQueue queue = queues.get(ingredientId);
+                if (queue != null && !Objects.equals(queue.earliestExpiry(), before)) {
+                    byExpiry.computeIfAbsent(queue.earliestExpiry(), date -> new ArrayList<>()).add(ingredientId);
+                }
+            });
+            byExpiry.forEach((expiryDate, ingredientIds) ->
+                    ingredientRepository.updateExpiryDates(ingredientIds, expiryDate));
+        }
+
+        @Override
+        public void afterCompletion(int status) {
+            TransactionSynchronizationManager.unbindResourceIfPossible(StockLotBook.this);
+            if (status != STATUS_COMMITTED) {
+                expiryBefore.keySet().forEach(queues::remove);
+            }
+        }
+    }
+}
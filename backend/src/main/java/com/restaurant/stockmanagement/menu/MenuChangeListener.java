@@ -0,0 +1,42 @@
+package com.restaurant.stockmanagement.menu;
+
+import com.restaurant.stockmanagement.model.Food;
+import com.restaurant.stockmanagement.model.Ingredient;
+import com.restaurant.stockmanagement.model.RecipeIngredient;
+import jakarta.persistence.PostPersist;
+import jakarta.persistence.PostRemove;
+import jakarta.persistence.PostUpdate;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.stereotype.Component;
+
+/**
+ * JPA entity listener reporting food, recipe and ingredient changes to
+ * {@link MenuSnapshotService}. The service is looked up lazily for the same reason as in
+ * {@link com.restaurant.stockmanagement.search.SearchIndexListener}.
+ */
+@Component
+public class MenuChangeListener {
+
+    private final ObjectProvider<MenuSnapshotService> menuSnapshotService;
+
+    public MenuChangeListener(ObjectProvider<MenuSnapshotService> menuSnapshotService) {
+        this.menuSnapshotService = menuSnapshotService;
+    }
+
+    @PostPersist
+    @PostUpdate
+    @PostRemove
+    public void onChanged(Object entity) {
+        MenuSnapshotService service = menuSnapshotService.getIfAvailable();
+        if (service == null) {
+            return;
+        }
+        if (entity instanceof Food food) {
+            service.foodChanged(food.getId());
+        } else if (entity instanceof RecipeIngredient recipeIngredient && recipeIngredient.getFood() != null) {
+            service.foodChanged(recipeIngredient.getFood().getId());
+        } else if (entity instanceof Ingredient ingredient) {
+            service.ingredientChanged(ingredient.getId());
+        }
+    }
+}
@@ -0,0 +1,110 @@
+package com.restaurant.stockmanagement.menu;
+
+import java.util.Arrays;
+
+/**
+ * Immutable view of one food and its recipe. Recipe lines are held as parallel primitive
+ * arrays (ingredient id, quantity per portion) so walking a recipe allocates nothing.
+ */
+public final class MenuItem {
+
+    private final Long foodId;
+    private final String name;
+    private final String description;
+    private final Double price;
+    private final String category;
+    private final String imageUrl;
+    private final Integer preparationTime;
+    private final Long branchId;
+    private final boolean available;
+    private final boolean soldOut;
+    private final long[] ingredientIds;
+    private final double[] quantities;
+
+    MenuItem(Long foodId, String name, String description, Double price, String category, String imageUrl,
+             Integer preparationTime, Long branchId, boolean available, boolean soldOut,
+             long[] ingredientIds, double[] quantities) {
+        this.foodId = foodId;
+        this.name = name;
+        this.description = description;
+        this.price = price;
+        this.category = category;
+        this.imageUrl = imageUrl;
+        this.preparationTime = preparationTime;
+        this.branchId = branchId;
+        this.available = available;
+        this.soldOut = soldOut;
+        this.ingredientIds = ingredientIds;
+        this.quantities = quantities;
+    }
+
+    public Long getFoodId() {
+        return foodId;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public String getDescription() {
+        return description;
+    }
+
+    public Double getPrice() {
+        return price;
+    }
+
+    public String getCategory() {
+        return category;
+    }
+
+    public String getImageUrl() {
+        return imageUrl;
+    }
+
+    public Integer getPreparationTime() {
+        return preparationTime;
+    }
+
+    public Long getBranchId() {
+        return branchId;
+    }
+
+    public boolean isAvailable() {
+        return available;
+    }
+
+    /**
+     * Whether the food is unavailable only because its stock ran out.
+     */
+    public boolean isSoldOut() {
+        return soldOut;
+    }
+
+    public int getRecipeSize() {
+        return ingredientIds.length;
+    }
+
+    public long getIngredientId(int line) {
+        return ingredientIds[line];
+    }
+
+    public double getQuantity(int line) {
+        return quantities[line];
+    }
+
+    public boolean uses(long ingredientId) {
+        for (long id : ingredientIds) {
+            if (id == ingredientId) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    @Override
+    public String toString() {
+        return "MenuItem(foodId=" + foodId + ", name=" + name + ", ingredientIds=" + Arrays.toString(ingredientIds)
+                + ", quantities=" + Arrays.toString(quantities) + ")";
+    }
+}
@@ -0,0 +1,85 @@
+package com.restaurant.stockmanagement.menu;
+
+import java.util.*;
+
+/**
+ * Immutable, point-in-time copy of the menu. Changes never mutate a snapshot; they produce a new
+ * one through {@link #with}, so readers holding a reference always see a consistent menu.
+ */
+public final class MenuSnapshot {
+
+    static final MenuSnapshot EMPTY = new MenuSnapshot(Map.of());
+
+    private static final Comparator<MenuItem> BY_NAME =
+            Comparator.comparing(MenuItem::getName, String.CASE_INSENSITIVE_ORDER).thenComparing(MenuItem::getFoodId);
+
+    private final Map<Long, MenuItem> itemsByFood;
+    private final List<MenuItem> items;
+
+    private MenuSnapshot(Map<Long, MenuItem> itemsByFood) {
+        this.itemsByFood = itemsByFood;
+        List<MenuItem> sorted = new ArrayList<>(itemsByFood.values());
+        sorted.sort(BY_NAME);
+        this.items = Collections.unmodifiableList(sorted);
+    }
+
+    static MenuSnapshot of(Collection<MenuItem> items) {
+        Map<Long, MenuItem> byFood = new HashMap<>(items.size() * 2);
+        for (MenuItem item : items) {
+            byFood.put(item.getFoodId(), item);
+        }
+        return new MenuSnapshot(Collections.unmodifiableMap(byFood));
+    }
+
+    /**
+     * Copy of this snapshot with the given foods replaced; foods in {@code removed} are dropped.
+     */
+    MenuSnapshot with(Collection<MenuItem> replaced, Collection<Long> removed) {
+        Map<Long, MenuItem> byFood = new HashMap<>(itemsByFood);
+        removed.forEach(byFood::remove);
+        for (MenuItem item : replaced) {
+            byFood.put(item.getFoodId(), item);
+        }
+        return new MenuSnapshot(Collections.unmodifiableMap(byFood));
+    }
+
+    /**
+     * All foods sorted by name.
+     */
+    public List<MenuItem> getItems() {
+        return items;
+    }
+
+    public Optional<MenuItem> find(Long foodId) {
+        return Optional.ofNullable(itemsByFood.get(foodId));
+    }
+
+    /**
+     * Available foods of a branch (plus foods shared by all branches), or of every branch when
+     * {@code branchId} is null.
+     */
+    public List<MenuItem> getAvailableItems(Long branchId) {
+        List<MenuItem> available = new ArrayList<>();
+        for (MenuItem item : items) {
+            if (item.isAvailable()
+                    && (branchId == null || item.getBranchId() == null || branchId.equals(item.getBranchId()))) {
+                available.add(item);
+            }
+        }
+        return available;
+    }
+
+    public List<Long> findFoodsUsing(long ingredientId) {
+        List<Long> foodIds = new ArrayList<>();
+        for (MenuItem item : items) {
+            if (item.uses(ingredientId)) {
+                foodIds.add(item.getFoodId());
+            }
+        }
+        return foodIds;
+    }
+
+    public int size() {
+        return items.size();
+    }
+}
@@ -0,0 +1,231 @@
+package com.restaurant.stockmanagement.menu;
+
+import com.restaurant.stockmanagement.datasource.ShardFanOut;
+import com.restaurant.stockmanagement.event.MenuChangedEvent;
+import com.restaurant.stockmanagement.model.Food;
+import com.restaurant.stockmanagement.repository.FoodRepository;
+import com.restaurant.stockmanagement.repository.RecipeIngredientRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.*;
+
+/**
+ * Holds the current {@link MenuSnapshot} so menu and recipe reads never hit the database.
+ *
+ * <p>The snapshot is built once at startup. Afterwards {@link MenuChangeListener} reports every
+ * changed food; the ids touched by one transaction are collected and, after it commits, only
+ * those foods are reloaded and swapped into a new snapshot (copy-on-write). The matching
+ * entries of the {@code recipes} cache are evicted at the same time. With branch sharding the
+ * snapshot covers the foods of every database.
+ */
+@Service
+public class MenuSnapshotService {
+
+    public static final String RECIPES_CACHE = "recipes";
+
+    private static final Logger log = LoggerFactory.getLogger(MenuSnapshotService.class);
+
+    private final FoodRepository foodRepository;
+    private final RecipeIngredientRepository recipeIngredientRepository;
+    private final CacheManager cacheManager;
+    private final ApplicationEventPublisher eventPublisher;
+    private final ShardFanOut shardFanOut;
+
+    private volatile MenuSnapshot snapshot;
+
+    public MenuSnapshotService(FoodRepository foodRepository,
+                               RecipeIngredientRepository recipeIngredientRepository,
+                               CacheManager cacheManager,
+                               ApplicationEventPublisher eventPublisher,
+                               ShardFanOut shardFanOut) {
+        this.foodRepository = foodRepository;
+        this.recipeIngredientRepository = recipeIngredientRepository;
+        this.cacheManager = cacheManager;
+        this.eventPublisher = eventPublisher;
+        // Refreshes run after the caller's commit; each fan-out query gets a fresh persistence context
+        this.shardFanOut = shardFanOut;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void initialize() {
+        current();
+    }
+
+    /**
+     * The current snapshot, built on first use if startup has not done so yet.
+     */
+    public MenuSnapshot current() {
+        MenuSnapshot current = snapshot;
+        if (current == null) {
+            synchronized (this) {
+                if (snapshot == null) {
+                    snapshot = load();
+                    log.info("Menu snapshot built with {} foods", snapshot.size());
+                }
+                current = snapshot;
+            }
+        }
+        return current;
+    }
+
+    /**
+     * Replaces the whole snapshot from the database.
+     */
+    public synchronized void rebuild() {
+        Set<Long> foodIds = new HashSet<>();
+        if (snapshot != null) {
+            snapshot.getItems().forEach(item -> foodIds.add(item.getFoodId()));
+        }
+        snapshot = load();
+        snapshot.getItems().forEach(item -> foodIds.add(item.getFoodId()));
+        evictRecipes(null);
+        eventPublisher.publishEvent(new MenuChangedEvent(foodIds));
+    }
+
+    void foodChanged(Long foodId) {
+        if (foodId == null) {
+            return;
+        }
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            refresh(Set.of(foodId));
+            return;
+        }
+        Set<Long> changed = pendingChanges();
+        changed.add(foodId);
+    }
+
+    void ingredientChanged(Long ingredientId) {
+        if (ingredientId == null || snapshot == null) {
+            return;
+        }
+        // Recipe DTOs carry the ingredient name and unit
+        afterCommit(() -> snapshot.findFoodsUsing(ingredientId).forEach(this::evictRecipes));
+    }
+
+    private synchronized void refresh(Set<Long> foodIds) {
+        if (snapshot == null) {
+            // Nothing built yet; the first read will load the committed state
+            return;
+        }
+        List<MenuItem> replaced = shardFanOut.queryAll(() -> {
+            Map<Long, RecipeLines> recipes =
+                    loadRecipes(recipeIngredientRepository.findRecipeLinesByFoodIds(foodIds));
+            List<MenuItem> items = new ArrayList<>();
+            for (Food food : foodRepository.findAllById(foodIds)) {
+                if (!food.getDeleted()) {
+                    items.add(toItem(food, recipes.get(food.getId())));
+                }
+            }
+            return items;
+        });
+        Set<Long> removed = new HashSet<>(foodIds);
+        replaced.forEach(item -> removed.remove(item.getFoodId()));
+        snapshot = snapshot.with(replaced, removed);
+        foodIds.forEach(this::evictRecipes);
+        log.debug("Menu snapshot refreshed for foods {}", foodIds);
+        eventPublisher.publishEvent(new MenuChangedEvent(foodIds));
+    }
+
+    private MenuSnapshot load() {
+        return MenuSnapshot.of(shardFanOut.queryAll(() -> {
+            Map<Long, RecipeLines> recipes = loadRecipes(recipeIngredientRepository.findRecipeLines());
+            List<MenuItem> items = new ArrayList<>();
+            for (Food food : foodRepository.findByDeletedFalse()) {
+                items.add(toItem(food, recipes.get(food.getId())));
+            }
+            return items;
+        }));
+    }
+
+    private static Map<Long, RecipeLines> loadRecipes(List<Object[]> rows) {
+        Map<Long, RecipeLines> recipes = new HashMap<>();
+        for (Object[] row : rows) {
+            recipes.computeIfAbsent((Long) row[0], id -> new RecipeLines())
+                    .add((Long) row[1], (Double) row[2]);
+        }
+        return recipes;
+    }
+
+    private static MenuItem toItem(Food food, RecipeLines recipe) {
+        if (recipe == null) {
+            recipe = new RecipeLines();
+        }
+        return new MenuItem(food.getId(), food.getName(), food.getDescription(), food.getPrice(),
+                food.getCategory(), food.getImageUrl(), food.getPreparationTime(), food.getBranchId(),
+                Boolean.TRUE.equals(food.getAvailable()), Boolean.TRUE.equals(food.getSoldOut()),
+                recipe.ingredientIds(), recipe.quantities());
+    }
+
+    private void evictRecipes(Long foodId) {
+        Cache cache = cacheManager.getCache(RECIPES_CACHE);
+        if (cache == null) {
+            return;
+        }
+        if (foodId == null) {
+            cache.clear();
+        } else {
+            cache.evict(foodId);
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private Set<Long> pendingChanges() {
+        Set<Long> changed = (Set<Long>) TransactionSynchronizationManager.getResource(this);
+        if (changed == null) {
+            Set<Long> created = new HashSet<>();
+            TransactionSynchronizationManager.bindResource(this, created);
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    TransactionSynchronizationManager.unbindResource(MenuSnapshotService.this);
+                    if (status == STATUS_COMMITTED) {
+                        refresh(created);
+                    }
+                }
+            });
+            changed = created;
+        }
+        return changed;
+    }
+
+    private static void afterCommit(Runnable action) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            action.run();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                action.run();
+            }
+        });
+    }
+
+    /**
+     * Recipe lines of one food, merged per ingredient while loading.
+     */
+    private static final class RecipeLines {
+        private final Map<Long, Double> quantities = new LinkedHashMap<>();
+
+        void add(Long ingredientId, Double quantity) {
+            quantities.merge(ingredientId, quantity, Double::sum);
+        }
+
+        long[] ingredientIds() {
+            return quantities.keySet().stream().mapToLong(Long::longValue).toArray();
+        }
+
+        double[] quantities() {
+            return quantities.values().stream().mapToDouble(Double::doubleValue).toArray();
+        }
+    }
+}
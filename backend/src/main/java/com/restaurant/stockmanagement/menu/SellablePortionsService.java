@@ -0,0 +1,244 @@
+package com.restaurant.stockmanagement.menu;
+
+import com.restaurant.stockmanagement.config.ExecutorConfig;
+import com.restaurant.stockmanagement.datasource.ShardFanOut;
+import com.restaurant.stockmanagement.event.IngredientChangedEvent;
+import com.restaurant.stockmanagement.event.MenuChangedEvent;
+import com.restaurant.stockmanagement.repository.FoodRepository;
+import com.restaurant.stockmanagement.repository.IngredientRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Async;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Keeps, for every food on the menu, the number of portions that can be sold with the stock on
+ * hand: the minimum over its recipe lines of {@code (currentStock - reservedStock) / quantity},
+ * rounded down. Foods without a recipe are not limited by stock.
+ *
+ * <p>Stock levels are held in memory together with a reverse index from ingredient to the foods
+ * using it, so an {@link IngredientChangedEvent} reloads just the changed stock levels and
+ * recomputes just the affected foods. Recipe and menu changes arrive as {@link MenuChangedEvent}.
+ * When a food's portion count drops to zero it is taken off sale and marked sold out, which
+ * keeps the menu snapshot and the POS in step; when stock returns only foods marked that way go
+ * back on sale, so a food disabled by hand stays disabled. With branch sharding the stock levels of every
+ * database are held, keyed by their globally unique ids.
+ */
+@Service
+public class SellablePortionsService {
+
+    /**
+     * Portion count reported for foods whose recipe does not limit them.
+     */
+    public static final int UNLIMITED = Integer.MAX_VALUE;
+
+    private static final Logger log = LoggerFactory.getLogger(SellablePortionsService.class);
+
+    private final MenuSnapshotService menuSnapshotService;
+    private final IngredientRepository ingredientRepository;
+    private final FoodRepository foodRepository;
+    private final TransactionTemplate requiresNewTransaction;
+    private final ShardFanOut shardFanOut;
+
+    private final Map<Long, Integer> portionsByFood = new ConcurrentHashMap<>();
+
+    // Guarded by this
+    private final Map<Long, StockLevel> stockByIngredient = new HashMap<>();
+    private final Map<Long, Set<Long>> foodsByIngredient = new HashMap<>();
+    private final Map<Long, long[]> ingredientsByFood = new HashMap<>();
+
+    public SellablePortionsService(MenuSnapshotService menuSnapshotService,
+                                   IngredientRepository ingredientRepository,
+                                   FoodRepository foodRepository,
+                                   PlatformTransactionManager transactionManager,
+                                   ShardFanOut shardFanOut) {
+        this.menuSnapshotService = menuSnapshotService;
+        this.ingredientRepository = ingredientRepository;
+        this.foodRepository = foodRepository;
+        this.requiresNewTransaction = new TransactionTemplate(transactionManager);
+        this.requiresNewTransaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        this.shardFanOut = shardFanOut;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void initialize() {
+        MenuSnapshot snapshot = menuSnapshotService.current();
+        List<Object[]> stockLevels = shardFanOut.queryAll(ingredientRepository::findStockLevels);
+        Set<Long> foodIds = new HashSet<>();
+        synchronized (this) {
+            stockLevels.forEach(this::applyStockLevel);
+            snapshot.getItems().forEach(item -> foodIds.add(item.getFoodId()));
+        }
+        recompute(foodIds);
+        log.info("Sellable portions computed for {} foods", portionsByFood.size());
+    }
+
+    /**
+     * Portions sellable right now, {@link #UNLIMITED} when stock does not limit the food, or
+     * empty when the food is not on the menu.
+     */
+    public OptionalInt getPortions(Long foodId) {
+        Integer portions = portionsByFood.get(foodId);
+        return portions == null ? OptionalInt.empty() : OptionalInt.of(portions);
+    }
+
+    @Async(ExecutorConfig.POS_EXECUTOR)
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onIngredientChanged(IngredientChangedEvent event) {
+        List<Object[]> stockLevels = requiresNewTransaction.execute(
+                status -> ingredientRepository.findStockLevelsByIds(event.getIngredientIds()));
+        Set<Long> affectedFoods = new HashSet<>();
+        synchronized (this) {
+            Set<Long> deleted = new HashSet<>(event.getIngredientIds());
+            for (Object[] row : stockLevels) {
+                applyStockLevel(row);
+                deleted.remove((Long) row[0]);
+            }
+            deleted.forEach(stockByIngredient::remove);
+            for (Long ingredientId : event.getIngredientIds()) {
+                affectedFoods.addAll(foodsByIngredient.getOrDefault(ingredientId, Set.of()));
+            }
+        }
+        recompute(affectedFoods);
+    }
+
+    @EventListener
+    public void onMenuChanged(MenuChangedEvent event) {
+        recompute(event.getFoodIds());
+    }
+
+    private void recompute(Collection<Long> foodIds) {
+        if (foodIds.isEmpty()) {
+            return;
+        }
+        MenuSnapshot snapshot = menuSnapshotService.current();
+        loadUnknownStockLevels(snapshot, foodIds);
+        Set<Long> nowAvailable = new HashSet<>();
+        Set<Long> nowUnavailable = new HashSet<>();
+
+        synchronized (this) {
+            for (Long foodId : foodIds) {
+                Optional<MenuItem> found = snapshot.find(foodId);
+                reindex(foodId, found.orElse(null));
+                if (found.isEmpty()) {
+                    portionsByFood.remove(foodId);
+                    continue;
+                }
+                MenuItem item = found.get();
+                int portions = portionsOf(item);
+                portionsByFood.put(foodId, portions);
+                if (portions > 0 && !item.isAvailable() && item.isSoldOut()) {
+                    nowAvailable.add(foodId);
+                } else if (portions == 0 && item.isAvailable()) {
+                    nowUnavailable.add(foodId);
+                }
+            }
+        }
+
+        if (!nowAvailable.isEmpty() || !nowUnavailable.isEmpty()) {
+            updateAvailability(nowAvailable, nowUnavailable);
+        }
+    }
+
+    /**
+     * Recipes may reference ingredients created after startup that no stock event has covered yet.
+     */
+    private void loadUnknownStockLevels(MenuSnapshot snapshot, Collection<Long> foodIds) {
+        Set<Long> unknown = new HashSet<>();
+        synchronized (this) {
+            for (Long foodId : foodIds) {
+                snapshot.find(foodId).ifPresent(item -> {
+                    for (int line = 0; line < item.getRecipeSize(); line++) {
+                        if (!stockByIngredient.containsKey(item.getIngredientId(line))) {
+                            unknown.add(item.getIngredientId(line));
+                        }
+                    }
+                });
+            }
+        }
+        if (unknown.isEmpty()) {
+            return;
+        }
+        List<Object[]> stockLevels = shardFanOut.queryAll(() -> ingredientRepository.findStockLevelsByIds(unknown));
+        synchronized (this) {
+            stockLevels.forEach(this::applyStockLevel);
+        }
+    }
+
+    private int portionsOf(MenuItem item) {
+        long portions = UNLIMITED;
+        for (int line = 0; line < item.getRecipeSize(); line++) {
+            double quantity = item.getQuantity(line);
+            if (quantity <= 0) {
+                continue;
+            }
+            StockLevel level = stockByIngredient.get(item.getIngredientId(line));
+            double stock = level == null ? 0.0 : level.stock();
+            portions = Math.min(portions, (long) Math.floor(Math.max(stock, 0.0) / quantity));
+        }
+        return (int) portions;
+    }
+
+    /**
+     * Row of (id, currentStock, version). Events are handled concurrently, so a read that
+     * finishes late must not replace a newer stock level.
+     */
+    private void applyStockLevel(Object[] row) {
+        StockLevel level = new StockLevel((Double) row[1], (Long) row[2]);
+        stockByIngredient.merge((Long) row[0], level,
+                (current, candidate) -> candidate.version() >= current.version() ? candidate : current);
+    }
+
+    private void reindex(Long foodId, MenuItem item) {
+        long[] previous = ingredientsByFood.remove(foodId);
+        if (previous != null) {
+            for (long ingredientId : previous) {
+                Set<Long> foods = foodsByIngredient.get(ingredientId);
+                if (foods != null) {
+                    foods.remove(foodId);
+                    if (foods.isEmpty()) {
+                        foodsByIngredient.remove(ingredientId);
+                    }
+                }
+            }
+        }
+        if (item == null) {
+            return;
+        }
+        long[] ingredientIds = new long[item.getRecipeSize()];
+        for (int line = 0; line < ingredientIds.length; line++) {
+            ingredientIds[line] = item.getIngredientId(line);
+            foodsByIngredient.computeIfAbsent(ingredientIds[line], id -> new HashSet<>()).add(foodId);
+        }
+        ingredientsByFood.put(foodId, ingredientIds);
+    }
+
+    private void updateAvailability(Set<Long> nowAvailable, Set<Long> nowUnavailable) {
+        // The foods may live in any database; ids not present in one simply match no rows there
+        shardFanOut.forEachShard(() -> requiresNewTransaction.executeWithoutResult(status -> {
+            if (!nowAvailable.isEmpty()) {
+                foodRepository.markRestocked(nowAvailable);
+            }
+            if (!nowUnavailable.isEmpty()) {
+                foodRepository.markSoldOut(nowUnavailable);
+            }
+        }));
+        log.info("Food availability changed: available {}, sold out {}", nowAvailable, nowUnavailable);
+
+        // The bulk update bypasses entity listeners, so tell the snapshot directly
+        nowAvailable.forEach(menuSnapshotService::foodChanged);
+        nowUnavailable.forEach(menuSnapshotService::foodChanged);
+    }
+
+    private record StockLevel(double stock, long version) {
+    }
+}
@@ -0,0 +1,39 @@
+package com.restaurant.stockmanagement.metrics;
+
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Counts the SQL statements Hibernate prepares on the current thread between {@link #begin()}
+ * and {@link #end()}, keyed by statement text. Parameters are still placeholders at this point,
+ * so the lazy loads of an N+1 pattern all share one key.
+ */
+public class SqlStatementCounter implements StatementInspector {
+
+    private static final ThreadLocal<Map<String, Integer>> STATEMENTS = new ThreadLocal<>();
+
+    @Override
+    public String inspect(String sql) {
+        Map<String, Integer> statements = STATEMENTS.get();
+        if (statements != null) {
+            statements.merge(sql, 1, Integer::sum);
+        }
+        return sql;
+    }
+
+    static void begin() {
+        STATEMENTS.set(new HashMap<>());
+    }
+
+    /**
+     * Statements seen since {@link #begin()} with their execution counts; empty when counting
+     * was not started on this thread.
+     */
+    static Map<String, Integer> end() {
+        Map<String, Integer> statements = STATEMENTS.get();
+        STATEMENTS.remove();
+        return statements == null ? Map.of() : statements;
+    }
+}
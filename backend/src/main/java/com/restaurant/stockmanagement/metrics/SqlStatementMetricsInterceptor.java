@@ -0,0 +1,97 @@
+package com.restaurant.stockmanagement.metrics;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.web.servlet.AsyncHandlerInterceptor;
+import org.springframework.web.servlet.HandlerMapping;
+
+import java.util.Map;
+
+/**
+ * Records how many SQL statements each request issued ({@code http.server.requests.sql}) and
+ * flags requests that ran the same statement {@code app.metrics.n-plus-one-threshold} times or
+ * more ({@code http.server.requests.n_plus_one}), which is what lazy loading inside a loop
+ * looks like. Both are tagged with the route pattern, never the raw path.
+ */
+@Component
+public class SqlStatementMetricsInterceptor implements AsyncHandlerInterceptor {
+
+    private static final Logger log = LoggerFactory.getLogger(SqlStatementMetricsInterceptor.class);
+    private static final int MAX_LOGGED_SQL_LENGTH = 200;
+
+    private final MeterRegistry registry;
+    private final int nPlusOneThreshold;
+
+    public SqlStatementMetricsInterceptor(MeterRegistry registry,
+                                          @Value("${app.metrics.n-plus-one-threshold:10}") int nPlusOneThreshold) {
+        this.registry = registry;
+        this.nPlusOneThreshold = nPlusOneThreshold;
+    }
+
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        SqlStatementCounter.begin();
+        return true;
+    }
+
+    @Override
+    public void afterCompletion(HttpServletRequest request, HttpServletResponse response, Object handler,
+                                Exception ex) {
+        Map<String, Integer> statements = SqlStatementCounter.end();
+        String uri = uri(request);
+
+        int total = 0;
+        Map.Entry<String, Integer> mostRepeated = null;
+        for (Map.Entry<String, Integer> entry : statements.entrySet()) {
+            total += entry.getValue();
+            if (mostRepeated == null || entry.getValue() > mostRepeated.getValue()) {
+                mostRepeated = entry;
+            }
+        }
+        DistributionSummary.builder("http.server.requests.sql")
+                .description("SQL statements issued per request")
+                .baseUnit("statements")
+                .tag("method", request.getMethod())
+                .tag("uri", uri)
+                .publishPercentileHistogram()
+                .register(registry)
+                .record(total);
+
+        if (mostRepeated != null && mostRepeated.getValue() >= nPlusOneThreshold) {
+            Counter.builder("http.server.requests.n_plus_one")
+                    .description("Requests that repeated one SQL statement at least n-plus-one-threshold times")
+                    .tag("method", request.getMethod())
+                    .tag("uri", uri)
+                    .register(registry)
+                    .increment();
+            log.warn("Possible N+1 in {} {}: {} executions of {}", request.getMethod(), uri,
+                    mostRepeated.getValue(), abbreviate(mostRepeated.getKey()));
+        }
+    }
+
+    @Override
+    public void afterConcurrentHandlingStarted(HttpServletRequest request, HttpServletResponse response,
+                                               Object handler) {
+        // The response is produced on another thread; only the synchronous part was counted
+        SqlStatementCounter.end();
+    }
+
+    private static String uri(HttpServletRequest request) {
+        Object pattern = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+        return pattern == null ? "UNKNOWN" : pattern.toString();
+    }
+
+    private static String abbreviate(String sql) {
+        String singleLine = sql.replaceAll("\\s+", " ");
+        return singleLine.length() <= MAX_LOGGED_SQL_LENGTH
+                ? singleLine
+                : singleLine.substring(0, MAX_LOGGED_SQL_LENGTH) + "...";
+    }
+}
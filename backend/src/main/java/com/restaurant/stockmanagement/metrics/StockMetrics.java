@@ -0,0 +1,98 @@
+package com.restaurant.stockmanagement.metrics;
+
+import com.restaurant.stockmanagement.event.SaleBatchCompletedEvent;
+import com.restaurant.stockmanagement.event.SaleCompletedEvent;
+import com.restaurant.stockmanagement.model.AlertType;
+import com.restaurant.stockmanagement.model.Sale;
+import com.restaurant.stockmanagement.model.StockTransaction;
+import com.restaurant.stockmanagement.model.TransactionType;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Business counters: sales posted, stock movements by type and alerts raised by type. Everything
+ * is counted once the surrounding transaction commits, so rolled-back work never shows up.
+ */
+@Component
+public class StockMetrics {
+
+    private final MeterRegistry registry;
+    private final Map<TransactionType, Counter> movements = new EnumMap<>(TransactionType.class);
+    private final Map<AlertType, Counter> alerts = new EnumMap<>(AlertType.class);
+
+    public StockMetrics(MeterRegistry registry) {
+        this.registry = registry;
+        for (TransactionType type : TransactionType.values()) {
+            movements.put(type, Counter.builder("stock.movements")
+                    .description("Stock transactions written")
+                    .tag("type", type.name())
+                    .register(registry));
+        }
+        for (AlertType type : AlertType.values()) {
+            alerts.put(type, Counter.builder("stock.alerts.raised")
+                    .description("Stock alerts raised")
+                    .tag("type", type.name())
+                    .register(registry));
+        }
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onSaleCompleted(SaleCompletedEvent event) {
+        salePosted(event.getSale());
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onSaleBatchCompleted(SaleBatchCompletedEvent event) {
+        for (Sale sale : event.getSales()) {
+            salePosted(sale);
+        }
+    }
+
+    public void stockMoved(List<StockTransaction> transactions) {
+        afterCommit(() -> {
+            for (StockTransaction transaction : transactions) {
+                movements.get(transaction.getType()).increment();
+            }
+        });
+    }
+
+    public void alertRaised(AlertType type) {
+        afterCommit(() -> alerts.get(type).increment());
+    }
+
+    private void salePosted(Sale sale) {
+        String branch = sale.getBranchId() == null ? "none" : sale.getBranchId().toString();
+        Counter.builder("sales.posted")
+                .description("Sales posted")
+                .tag("branch", branch)
+                .register(registry)
+                .increment();
+        DistributionSummary.builder("sales.amount")
+                .description("Total amount per sale")
+                .tag("branch", branch)
+                .register(registry)
+                .record(sale.getTotalAmount() == null ? 0.0 : sale.getTotalAmount());
+    }
+
+    private static void afterCommit(Runnable action) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            action.run();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                action.run();
+            }
+        });
+    }
+}
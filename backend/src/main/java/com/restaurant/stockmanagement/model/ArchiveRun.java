@@ -0,0 +1,47 @@
+package com.restaurant.stockmanagement.model;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.EqualsAndHashCode;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * One pass of the ledger archiver: rows dated before {@code cutoff}, and soft-deleted rows last
+ * updated before {@code deletedBefore}, were moved to the archive tables.
+ */
+@Entity
+@Table(name = "archive_runs",
+       indexes = {
+           @Index(name = "idx_archive_runs_cutoff", columnList = "cutoff")
+       })
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@EqualsAndHashCode(callSuper = true)
+public class ArchiveRun extends BaseEntity {
+
+    @Column(nullable = false)
+    private LocalDateTime cutoff;
+
+    @Column(nullable = false)
+    private LocalDateTime deletedBefore;
+
+    @Column(nullable = false)
+    private Long salesArchived = 0L;
+
+    @Column(nullable = false)
+    private Long saleItemsArchived = 0L;
+
+    @Column(nullable = false)
+    private Long stockTransactionsArchived = 0L;
+
+    private LocalDateTime completedAt;
+
+    public ArchiveRun(LocalDateTime cutoff, LocalDateTime deletedBefore) {
+        this.cutoff = cutoff;
+        this.deletedBefore = deletedBefore;
+    }
+}
@@ -0,0 +1,40 @@
+package com.restaurant.stockmanagement.model;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.EqualsAndHashCode;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDate;
+
+/**
+ * Quantity sold and revenue per branch, day and food. Sales without a branch are rolled up under branch 0.
+ */
+@Entity
+@Table(name = "daily_food_sales_rollups",
+       uniqueConstraints = @UniqueConstraint(columnNames = {"branch_id", "rollup_date", "food_id"}),
+       indexes = {
+           @Index(name = "idx_daily_food_sales_rollups_date", columnList = "rollup_date")
+       })
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@EqualsAndHashCode(callSuper = true)
+public class DailyFoodSalesRollup extends BaseEntity {
+    
+    @Column(name = "branch_id", nullable = false)
+    private Long branchId;
+    
+    @Column(name = "rollup_date", nullable = false)
+    private LocalDate rollupDate;
+    
+    @Column(name = "food_id", nullable = false)
+    private Long foodId;
+    
+    @Column(nullable = false)
+    private Long quantity = 0L;
+    
+    @Column(nullable = false)
+    private Double revenue = 0.0;
+}
@@ -0,0 +1,40 @@
+package com.restaurant.stockmanagement.model;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.EqualsAndHashCode;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDate;
+
+/**
+ * SALE stock movements per branch, day and ingredient. Movements without a branch are rolled up under branch 0.
+ */
+@Entity
+@Table(name = "daily_ingredient_usage_rollups",
+       uniqueConstraints = @UniqueConstraint(columnNames = {"branch_id", "rollup_date", "ingredient_id"}),
+       indexes = {
+           @Index(name = "idx_daily_ingredient_usage_rollups_date", columnList = "rollup_date")
+       })
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@EqualsAndHashCode(callSuper = true)
+public class DailyIngredientUsageRollup extends BaseEntity {
+    
+    @Column(name = "branch_id", nullable = false)
+    private Long branchId;
+    
+    @Column(name = "rollup_date", nullable = false)
+    private LocalDate rollupDate;
+    
+    @Column(name = "ingredient_id", nullable = false)
+    private Long ingredientId;
+    
+    @Column(nullable = false)
+    private Long usageCount = 0L;
+    
+    @Column(nullable = false)
+    private Double quantity = 0.0;
+}
@@ -0,0 +1,37 @@
+package com.restaurant.stockmanagement.model;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.EqualsAndHashCode;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDate;
+
+/**
+ * Sale count and revenue per branch per day. Sales without a branch are rolled up under branch 0.
+ */
+@Entity
+@Table(name = "daily_sales_rollups",
+       uniqueConstraints = @UniqueConstraint(columnNames = {"branch_id", "rollup_date"}),
+       indexes = {
+           @Index(name = "idx_daily_sales_rollups_date", columnList = "rollup_date")
+       })
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@EqualsAndHashCode(callSuper = true)
+public class DailySalesRollup extends BaseEntity {
+    
+    @Column(name = "branch_id", nullable = false)
+    private Long branchId;
+    
+    @Column(name = "rollup_date", nullable = false)
+    private LocalDate rollupDate;
+    
+    @Column(nullable = false)
+    private Long saleCount = 0L;
+    
+    @Column(nullable = false)
+    private Double totalAmount = 0.0;
+}
@@ -1,5 +1,7 @@
 package com.restaurant.stockmanagement.model;
 
+import com.restaurant.stockmanagement.menu.MenuChangeListener;
+import com.restaurant.stockmanagement.search.SearchIndexListener;
 import jakarta.persistence.*;
 import jakarta.validation.constraints.NotBlank;
 import jakarta.validation.constraints.NotNull;
@@ -7,12 +9,20 @@ import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.EqualsAndHashCode;
 import lombok.NoArgsConstructor;
+import lombok.ToString;
 
 import java.util.ArrayList;
 import java.util.List;
 
 @Entity
-@Table(name = "foods")
+@EntityListeners({SearchIndexListener.class, MenuChangeListener.class})
+@Table(name = "foods",
+       indexes = {
+           @Index(name = "idx_foods_branch", columnList = "deleted, branch_id"),
+           @Index(name = "idx_foods_branch_name", columnList = "branch_id, name"),
+           @Index(name = "idx_foods_available", columnList = "deleted, available"),
+           @Index(name = "idx_foods_category", columnList = "deleted, category")
+       })
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
@@ -32,6 +42,10 @@ public class Food extends BaseEntity {
     @Column(nullable = false)
     private Boolean available = true;
     
+    // Set while available is false only because stock ran out; see SellablePortionsService
+    @Column(nullable = false)
+    private Boolean soldOut = false;
+    
     private String category; // Appetizer, Main Course, Dessert, Beverage, etc.
     
     private String imageUrl;
@@ -41,9 +55,13 @@ public class Food extends BaseEntity {
     @Column(name = "branch_id")
     private Long branchId;
     
+    @ToString.Exclude
+    @EqualsAndHashCode.Exclude
     @OneToMany(mappedBy = "food", cascade = CascadeType.ALL, orphanRemoval = true)
     private List<RecipeIngredient> recipeIngredients = new ArrayList<>();
     
+    @ToString.Exclude
+    @EqualsAndHashCode.Exclude
     @OneToMany(mappedBy = "food", cascade = CascadeType.ALL, orphanRemoval = true)
     private List<SaleItem> saleItems = new ArrayList<>();
 }
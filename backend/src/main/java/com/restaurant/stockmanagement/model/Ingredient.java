@@ -1,5 +1,7 @@
 package com.restaurant.stockmanagement.model;
 
+import com.restaurant.stockmanagement.menu.MenuChangeListener;
+import com.restaurant.stockmanagement.search.SearchIndexListener;
 import jakarta.persistence.*;
 import jakarta.validation.constraints.NotBlank;
 import jakarta.validation.constraints.NotNull;
@@ -7,13 +9,21 @@ import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.EqualsAndHashCode;
 import lombok.NoArgsConstructor;
+import lombok.ToString;
 
 import java.time.LocalDate;
 import java.util.ArrayList;
 import java.util.List;
 
 @Entity
-@Table(name = "ingredients")
+@EntityListeners({SearchIndexListener.class, MenuChangeListener.class})
+@Table(name = "ingredients",
+       indexes = {
+           @Index(name = "idx_ingredients_branch", columnList = "deleted, branch_id"),
+           @Index(name = "idx_ingredients_branch_name", columnList = "branch_id, name"),
+           @Index(name = "idx_ingredients_expiry", columnList = "deleted, expiry_date"),
+           @Index(name = "idx_ingredients_category", columnList = "deleted, category")
+       })
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
@@ -34,6 +44,10 @@ public class Ingredient extends BaseEntity {
     @Column(nullable = false)
     private Double currentStock = 0.0;
     
+    // Held for RESERVED stock transfers; sales can only take currentStock - reservedStock
+    @Column(nullable = false)
+    private Double reservedStock = 0.0;
+    
     @NotNull(message = "Minimum stock threshold is required")
     @Column(nullable = false)
     private Double minimumStock;
@@ -52,9 +66,17 @@ public class Ingredient extends BaseEntity {
     
     private String imageUrl;
     
+    @Version
+    @Column(nullable = false)
+    private Long version = 0L;
+    
+    @ToString.Exclude
+    @EqualsAndHashCode.Exclude
     @OneToMany(mappedBy = "ingredient", cascade = CascadeType.ALL, orphanRemoval = true)
     private List<StockTransaction> transactions = new ArrayList<>();
     
+    @ToString.Exclude
+    @EqualsAndHashCode.Exclude
     @OneToMany(mappedBy = "ingredient", cascade = CascadeType.ALL, orphanRemoval = true)
     private List<RecipeIngredient> recipeIngredients = new ArrayList<>();
 }
@@ -1,24 +1,34 @@
 package com.restaurant.stockmanagement.model;
 
+import com.restaurant.stockmanagement.menu.MenuChangeListener;
 import jakarta.persistence.*;
 import jakarta.validation.constraints.NotNull;
 import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.EqualsAndHashCode;
 import lombok.NoArgsConstructor;
+import lombok.ToString;
 
 @Entity
-@Table(name = "recipe_ingredients")
+@EntityListeners(MenuChangeListener.class)
+@Table(name = "recipe_ingredients",
+       indexes = {
+           @Index(name = "idx_recipe_ingredients_food", columnList = "food_id, deleted")
+       })
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
 @EqualsAndHashCode(callSuper = true)
 public class RecipeIngredient extends BaseEntity {
     
+    @ToString.Exclude
+    @EqualsAndHashCode.Exclude
     @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "food_id", nullable = false)
     private Food food;
     
+    @ToString.Exclude
+    @EqualsAndHashCode.Exclude
     @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "ingredient_id", nullable = false)
     private Ingredient ingredient;
@@ -6,13 +6,20 @@ import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.EqualsAndHashCode;
 import lombok.NoArgsConstructor;
+import lombok.ToString;
 
 import java.time.LocalDateTime;
 import java.util.ArrayList;
 import java.util.List;
 
 @Entity
-@Table(name = "sales")
+@Table(name = "sales",
+       uniqueConstraints = @UniqueConstraint(name = "uk_sales_idempotency_key", columnNames = "idempotency_key"),
+       indexes = {
+           @Index(name = "idx_sales_sale_date", columnList = "deleted, sale_date"),
+           @Index(name = "idx_sales_branch", columnList = "deleted, branch_id, sale_date"),
+           @Index(name = "idx_sales_cashier", columnList = "deleted, cashier_username")
+       })
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
@@ -33,10 +40,16 @@ public class Sale extends BaseEntity {
     @Column(name = "branch_id")
     private Long branchId;
     
+    @ToString.Exclude
+    @EqualsAndHashCode.Exclude
     @OneToMany(mappedBy = "sale", cascade = CascadeType.ALL, orphanRemoval = true)
     private List<SaleItem> items = new ArrayList<>();
     
     private String paymentMethod; // CASH, CARD, ONLINE
     
     private String notes;
+    
+    // Client-generated key of a sale posted by an offline till; null for sales entered online
+    @Column(name = "idempotency_key", length = 64)
+    private String idempotencyKey;
 }
@@ -5,17 +5,25 @@ import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.EqualsAndHashCode;
 import lombok.NoArgsConstructor;
+import lombok.ToString;
 
 import java.time.LocalDateTime;
 
 @Entity
-@Table(name = "stock_alerts")
+@Table(name = "stock_alerts",
+       indexes = {
+           @Index(name = "idx_stock_alerts_open", columnList = "deleted, acknowledged, branch_id"),
+           @Index(name = "idx_stock_alerts_ingredient", columnList = "ingredient_id, alert_type, deleted"),
+           @Index(name = "idx_stock_alerts_created", columnList = "deleted, created_at")
+       })
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
 @EqualsAndHashCode(callSuper = true)
 public class StockAlert extends BaseEntity {
     
+    @ToString.Exclude
+    @EqualsAndHashCode.Exclude
     @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "ingredient_id", nullable = false)
     private Ingredient ingredient;
@@ -0,0 +1,52 @@
+package com.restaurant.stockmanagement.model;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.EqualsAndHashCode;
+import lombok.NoArgsConstructor;
+import lombok.ToString;
+
+import java.time.LocalDate;
+
+/**
+ * One delivery of an ingredient. The ingredient's currentStock is the total on hand; the open
+ * lots (remainingQuantity above zero) say how old that stock is and when each part expires.
+ */
+@Entity
+@Table(name = "stock_lots",
+       indexes = {
+           @Index(name = "idx_stock_lots_ingredient", columnList = "ingredient_id, remaining_quantity"),
+           @Index(name = "idx_stock_lots_expiry", columnList = "expiry_date, remaining_quantity")
+       })
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@EqualsAndHashCode(callSuper = true)
+public class StockLot extends BaseEntity {
+
+    @ToString.Exclude
+    @EqualsAndHashCode.Exclude
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "ingredient_id", nullable = false)
+    private Ingredient ingredient;
+
+    @Column(name = "branch_id")
+    private Long branchId;
+
+    // Received quantity
+    @Column(nullable = false)
+    private Double quantity;
+
+    @Column(nullable = false)
+    private Double remainingQuantity;
+
+    @Column(nullable = false)
+    private LocalDate receivedDate;
+
+    // Null for stock that does not expire; drawn after every dated lot
+    private LocalDate expiryDate;
+
+    @Column(nullable = false)
+    private Double costPerUnit = 0.0;
+}
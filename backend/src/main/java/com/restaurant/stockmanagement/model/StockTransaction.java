@@ -6,15 +6,27 @@ import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.EqualsAndHashCode;
 import lombok.NoArgsConstructor;
+import lombok.ToString;
+
+import java.util.ArrayList;
+import java.util.List;
 
 @Entity
-@Table(name = "stock_transactions")
+@Table(name = "stock_transactions",
+       indexes = {
+           @Index(name = "idx_stock_tx_ingredient_type", columnList = "ingredient_id, type, deleted"),
+           @Index(name = "idx_stock_tx_ingredient_created", columnList = "ingredient_id, deleted, created_at"),
+           @Index(name = "idx_stock_tx_created", columnList = "deleted, created_at"),
+           @Index(name = "idx_stock_tx_type_created", columnList = "type, created_at")
+       })
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
 @EqualsAndHashCode(callSuper = true)
 public class StockTransaction extends BaseEntity {
     
+    @ToString.Exclude
+    @EqualsAndHashCode.Exclude
     @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "ingredient_id", nullable = false)
     private Ingredient ingredient;
@@ -40,4 +52,19 @@ public class StockTransaction extends BaseEntity {
     
     @Column(name = "branch_id")
     private Long branchId;
+    
+    // Lots the quantity was drawn from (SALE, WASTE, outbound TRANSFER) or received into
+    @ToString.Exclude
+    @EqualsAndHashCode.Exclude
+    @OneToMany(mappedBy = "transaction", cascade = CascadeType.PERSIST)
+    private List<StockTransactionLot> lots = new ArrayList<>();
+    
+    public void addLot(StockLot lot, double quantity) {
+        StockTransactionLot line = new StockTransactionLot();
+        line.setTransaction(this);
+        line.setLot(lot);
+        line.setQuantity(quantity);
+        line.setDeleted(false);
+        lots.add(line);
+    }
 }
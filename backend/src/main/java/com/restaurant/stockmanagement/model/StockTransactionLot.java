@@ -0,0 +1,38 @@
+package com.restaurant.stockmanagement.model;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.EqualsAndHashCode;
+import lombok.NoArgsConstructor;
+import lombok.ToString;
+
+/**
+ * The part of a stock transaction drawn from, or received into, one lot.
+ */
+@Entity
+@Table(name = "stock_transaction_lots",
+       indexes = {
+           @Index(name = "idx_stock_transaction_lots_transaction", columnList = "stock_transaction_id")
+       })
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@EqualsAndHashCode(callSuper = true)
+public class StockTransactionLot extends BaseEntity {
+
+    @ToString.Exclude
+    @EqualsAndHashCode.Exclude
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "stock_transaction_id", nullable = false)
+    private StockTransaction transaction;
+
+    @ToString.Exclude
+    @EqualsAndHashCode.Exclude
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "stock_lot_id", nullable = false)
+    private StockLot lot;
+
+    @Column(nullable = false)
+    private Double quantity;
+}
@@ -0,0 +1,59 @@
+package com.restaurant.stockmanagement.model;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.EqualsAndHashCode;
+import lombok.NoArgsConstructor;
+import lombok.ToString;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * A movement of stock from one branch to another. The client-chosen {@code transferId} makes
+ * submissions idempotent: resubmitting the same manifest returns the existing transfer.
+ */
+@Entity
+@Table(name = "stock_transfers",
+       uniqueConstraints = @UniqueConstraint(name = "uk_stock_transfers_transfer_id", columnNames = "transfer_id"),
+       indexes = {
+           @Index(name = "idx_stock_transfers_status", columnList = "deleted, status, created_at")
+       })
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@EqualsAndHashCode(callSuper = true)
+public class StockTransfer extends BaseEntity {
+    
+    @Column(name = "transfer_id", nullable = false, length = 64)
+    private String transferId;
+    
+    @Column(name = "source_branch_id", nullable = false)
+    private Long sourceBranchId;
+    
+    @Column(name = "destination_branch_id", nullable = false)
+    private Long destinationBranchId;
+    
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false)
+    private TransferStatus status;
+    
+    @Column(nullable = false)
+    private String requestedBy;
+    
+    private LocalDateTime completedAt;
+    
+    private String notes;
+    
+    @Version
+    @Column(nullable = false)
+    private Long version = 0L;
+    
+    @ToString.Exclude
+    @EqualsAndHashCode.Exclude
+    @OneToMany(mappedBy = "transfer", cascade = CascadeType.ALL, orphanRemoval = true)
+    @OrderBy("id")
+    private List<StockTransferLine> lines = new ArrayList<>();
+}
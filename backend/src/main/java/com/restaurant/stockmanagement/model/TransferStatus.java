@@ -0,0 +1,7 @@
+package com.restaurant.stockmanagement.model;
+
+public enum TransferStatus {
+    RESERVED,      // Stock held at the source, nothing moved yet
+    COMMITTED,     // Stock moved, paired TRANSFER transactions written
+    CANCELLED      // Reservation released
+}
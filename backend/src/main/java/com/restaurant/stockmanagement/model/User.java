@@ -1,5 +1,7 @@
 package com.restaurant.stockmanagement.model;
 
+import com.restaurant.stockmanagement.search.SearchIndexListener;
+import com.restaurant.stockmanagement.security.UserChangeListener;
 import jakarta.persistence.*;
 import jakarta.validation.constraints.Email;
 import jakarta.validation.constraints.NotBlank;
@@ -13,7 +15,11 @@ import java.util.HashSet;
 import java.util.Set;
 
 @Entity
-@Table(name = "users")
+@EntityListeners({SearchIndexListener.class, UserChangeListener.class})
+@Table(name = "users",
+       indexes = {
+           @Index(name = "idx_users_branch", columnList = "deleted, branch_id")
+       })
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
@@ -52,4 +58,9 @@ public class User extends BaseEntity {
     
     @Column(name = "branch_id")
     private Long branchId;
+    
+    // Also bumped when only the roles change, which makes that an update of the user row
+    @Version
+    @Column(nullable = false)
+    private Long version = 0L;
 }
@@ -0,0 +1,42 @@
+package com.restaurant.stockmanagement.notification;
+
+import com.restaurant.stockmanagement.dto.StockAlertDTO;
+
+import java.util.List;
+
+/**
+ * One email: the alerts of a branch raised within one window, for one recipient. Alerts without
+ * a branch have a null {@code branchId}.
+ */
+final class AlertDigest {
+
+    private final String recipient;
+    private final Long branchId;
+    private final List<StockAlertDTO> alerts;
+    private int failedAttempts;
+
+    AlertDigest(String recipient, Long branchId, List<StockAlertDTO> alerts) {
+        this.recipient = recipient;
+        this.branchId = branchId;
+        this.alerts = alerts;
+    }
+
+    String getRecipient() {
+        return recipient;
+    }
+
+    Long getBranchId() {
+        return branchId;
+    }
+
+    List<StockAlertDTO> getAlerts() {
+        return alerts;
+    }
+
+    /**
+     * Counts a failed attempt and returns how many there have been.
+     */
+    int failed() {
+        return ++failedAttempts;
+    }
+}
@@ -0,0 +1,274 @@
+package com.restaurant.stockmanagement.notification;
+
+import com.restaurant.stockmanagement.config.ExecutorConfig;
+import com.restaurant.stockmanagement.dto.StockAlertDTO;
+import com.restaurant.stockmanagement.event.StockAlertChangedEvent;
+import com.restaurant.stockmanagement.model.Role;
+import com.restaurant.stockmanagement.repository.UserRepository;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.task.AsyncTaskExecutor;
+import org.springframework.core.task.TaskRejectedException;
+import org.springframework.mail.MailException;
+import org.springframework.mail.SimpleMailMessage;
+import org.springframework.mail.javamail.JavaMailSender;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.Duration;
+import java.time.format.DateTimeFormatter;
+import java.util.*;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Emails raised stock alerts to the people who manage stock, as digests rather than one message
+ * per alert.
+ *
+ * <p>The event listener only queues the alert once its transaction has committed, so raising
+ * an alert never waits on SMTP. The queue is bounded; an alert that does not fit is not mailed
+ * but stays listed as unacknowledged. Every {@code window} a timer turns the queued alerts into
+ * one email per recipient and branch: owners get every branch's, branch managers and stock
+ * managers their own branch's, and alerts without a branch go to all of them. Alerts
+ * acknowledged before their window closes are left out.
+ *
+ * <p>Emails are sent on the notification bulkhead, at most {@code max-per-minute} of them per
+ * minute (a minute's worth may go out at once). A failed send is retried after
+ * {@code retry-backoff}, doubled for each further attempt, up to {@code max-attempts}. Alerts
+ * still queued at shutdown are not mailed.
+ */
+@Service
+public class AlertEmailNotifier {
+
+    private static final Logger log = LoggerFactory.getLogger(AlertEmailNotifier.class);
+    private static final Set<Role> RECIPIENT_ROLES =
+            EnumSet.of(Role.ROLE_OWNER, Role.ROLE_BRANCH_MANAGER, Role.ROLE_STOCK_MANAGER);
+    private static final long MAX_BACKOFF_MS = TimeUnit.HOURS.toMillis(1);
+    private static final DateTimeFormatter RAISED_AT = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm");
+
+    private final JavaMailSender mailSender;
+    private final UserRepository userRepository;
+    private final AsyncTaskExecutor executor;
+    private final boolean enabled;
+    private final String from;
+    private final int maxAttempts;
+    private final long retryBackoffMs;
+    private final long sendIntervalMs;
+    private final long burstMs;
+
+    private final BlockingQueue<StockAlertDTO> pending;
+    private final Set<Long> acknowledged = ConcurrentHashMap.newKeySet();
+    private final AtomicLong sent = new AtomicLong();
+    private final AtomicLong failed = new AtomicLong();
+    private final AtomicLong dropped = new AtomicLong();
+
+    // When the next email would go out if they were sent evenly spaced; see reserveSend
+    private long theoreticalSendAt;
+
+    private final ScheduledExecutorService timer = Executors.newSingleThreadScheduledExecutor(r -> {
+        Thread thread = new Thread(r, "alert-email-digest");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    public AlertEmailNotifier(JavaMailSender mailSender,
+                              UserRepository userRepository,
+                              @Qualifier(ExecutorConfig.NOTIFICATION_EXECUTOR) AsyncTaskExecutor executor,
+                              @Value("${app.notifications.email.enabled:false}") boolean enabled,
+                              @Value("${app.notifications.email.from:}") String from,
+                              @Value("${app.notifications.email.window:5m}") Duration window,
+                              @Value("${app.notifications.email.queue-capacity:10000}") int queueCapacity,
+                              @Value("${app.notifications.email.max-per-minute:30}") int maxPerMinute,
+                              @Value("${app.notifications.email.max-attempts:5}") int maxAttempts,
+                              @Value("${app.notifications.email.retry-backoff:30s}") Duration retryBackoff) {
+        this.mailSender = mailSender;
+        this.userRepository = userRepository;
+        this.executor = executor;
+        this.enabled = enabled;
+        this.from = from;
+        this.maxAttempts = maxAttempts;
+        this.retryBackoffMs = retryBackoff.toMillis();
+        this.sendIntervalMs = TimeUnit.MINUTES.toMillis(1) / maxPerMinute;
+        this.burstMs = (maxPerMinute - 1) * sendIntervalMs;
+        this.pending = new ArrayBlockingQueue<>(queueCapacity);
+        if (enabled) {
+            timer.scheduleWithFixedDelay(this::flush, window.toMillis(), window.toMillis(), TimeUnit.MILLISECONDS);
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        timer.shutdownNow();
+    }
+
+    public int getQueueDepth() {
+        return pending.size();
+    }
+
+    public long getSentCount() {
+        return sent.get();
+    }
+
+    public long getFailedCount() {
+        return failed.get();
+    }
+
+    public long getDroppedCount() {
+        return dropped.get();
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onAlertChanged(StockAlertChangedEvent event) {
+        if (!enabled) {
+            return;
+        }
+        StockAlertDTO alert = event.getAlert();
+        if (Boolean.TRUE.equals(alert.getAcknowledged())) {
+            acknowledged.add(alert.getId());
+        } else if (!pending.offer(alert)) {
+            dropped.incrementAndGet();
+        }
+    }
+
+    private void flush() {
+        try {
+            List<StockAlertDTO> queued = new ArrayList<>();
+            pending.drainTo(queued);
+            List<Long> acknowledgedIds = drain(acknowledged);
+            if (queued.isEmpty()) {
+                return;
+            }
+
+            Map<Long, List<StockAlertDTO>> byBranch = new HashMap<>();
+            Set<Long> seen = new HashSet<>(acknowledgedIds);
+            for (StockAlertDTO alert : queued) {
+                if (seen.add(alert.getId())) {
+                    byBranch.computeIfAbsent(alert.getBranchId(), id -> new ArrayList<>()).add(alert);
+                }
+            }
+            if (byBranch.isEmpty()) {
+                return;
+            }
+
+            Set<String> owners = new LinkedHashSet<>();
+            Set<String> everybody = new LinkedHashSet<>();
+            Map<Long, Set<String>> branchRecipients = new HashMap<>();
+            for (Object[] row : userRepository.findEmailsByRoleIn(RECIPIENT_ROLES)) {
+                String email = (String) row[0];
+                everybody.add(email);
+                if (row[2] == Role.ROLE_OWNER) {
+                    owners.add(email);
+                } else if (row[1] != null) {
+                    branchRecipients.computeIfAbsent((Long) row[1], id -> new LinkedHashSet<>()).add(email);
+                }
+            }
+
+            byBranch.forEach((branchId, alerts) -> {
+                Set<String> recipients = new LinkedHashSet<>(branchId == null ? everybody : owners);
+                if (branchId != null) {
+                    recipients.addAll(branchRecipients.getOrDefault(branchId, Set.of()));
+                }
+                alerts.sort(Comparator.comparing(StockAlertDTO::getAlertType)
+                        .thenComparing(StockAlertDTO::getIngredientName));
+                recipients.forEach(recipient -> dispatch(new AlertDigest(recipient, branchId, alerts)));
+            });
+        } catch (RuntimeException e) {
+            log.warn("Failed to prepare alert emails", e);
+        }
+    }
+
+    private void dispatch(AlertDigest digest) {
+        long delay = reserveSend(System.currentTimeMillis());
+        if (delay == 0) {
+            submit(digest);
+        } else {
+            schedule(() -> submit(digest), delay);
+        }
+    }
+
+    /**
+     * Reserves a slot under the rate limit and returns how long to wait for it (a generic cell
+     * rate algorithm: a minute's worth of emails may go out at once, then one per interval).
+     */
+    private synchronized long reserveSend(long now) {
+        long sendAt = Math.max(now, theoreticalSendAt - burstMs);
+        theoreticalSendAt = Math.max(theoreticalSendAt, now) + sendIntervalMs;
+        return sendAt - now;
+    }
+
+    private void submit(AlertDigest digest) {
+        try {
+            executor.execute(() -> send(digest));
+        } catch (TaskRejectedException e) {
+            retry(digest, e);
+        }
+    }
+
+    private void send(AlertDigest digest) {
+        try {
+            mailSender.send(message(digest));
+            sent.incrementAndGet();
+        } catch (MailException e) {
+            retry(digest, e);
+        }
+    }
+
+    private void retry(AlertDigest digest, RuntimeException cause) {
+        int attempts = digest.failed();
+        if (attempts >= maxAttempts) {
+            failed.incrementAndGet();
+            log.error("Giving up on alert email to {} after {} attempts", digest.getRecipient(), attempts, cause);
+            return;
+        }
+        long delay = Math.min(retryBackoffMs << (attempts - 1), MAX_BACKOFF_MS);
+        log.warn("Failed to send alert email to {}, retrying in {} ms: {}",
+                digest.getRecipient(), delay, cause.getMessage());
+        schedule(() -> dispatch(digest), delay);
+    }
+
+    private void schedule(Runnable task, long delayMs) {
+        if (!timer.isShutdown()) {
+            timer.schedule(task, delayMs, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    private SimpleMailMessage message(AlertDigest digest) {
+        List<StockAlertDTO> alerts = digest.getAlerts();
+        SimpleMailMessage message = new SimpleMailMessage();
+        if (!from.isBlank()) {
+            message.setFrom(from);
+        }
+        message.setTo(digest.getRecipient());
+        message.setSubject(digest.getBranchId() == null
+                ? String.format("Stock alerts: %d new", alerts.size())
+                : String.format("Stock alerts: %d new for branch %d", alerts.size(), digest.getBranchId()));
+
+        StringBuilder text = new StringBuilder();
+        for (StockAlertDTO alert : alerts) {
+            text.append("- ").append(alert.getMessage());
+            if (alert.getCreatedAt() != null) {
+                text.append(" (").append(RAISED_AT.format(alert.getCreatedAt())).append(')');
+            }
+            text.append('\n');
+        }
+        message.setText(text.toString());
+        return message;
+    }
+
+    private static List<Long> drain(Set<Long> ids) {
+        List<Long> drained = new ArrayList<>();
+        for (Iterator<Long> iterator = ids.iterator(); iterator.hasNext(); ) {
+            drained.add(iterator.next());
+            iterator.remove();
+        }
+        return drained;
+    }
+}
@@ -0,0 +1,95 @@
+package com.restaurant.stockmanagement.pagination;
+
+import com.restaurant.stockmanagement.exception.InvalidCursorException;
+import org.springframework.data.domain.KeysetScrollPosition;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.domain.ScrollPosition;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.domain.Window;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.Base64;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Keyset pagination over a (timestamp, id) pair, newest first.
+ *
+ * <p>Each slice continues strictly after the last row of the previous one
+ * ({@code WHERE ts < :ts OR (ts = :ts AND id < :id)}), so the database seeks straight into the
+ * index instead of skipping OFFSET rows, and no COUNT query is issued. The position is handed to
+ * clients as an opaque URL-safe token.
+ *
+ * <p>Not every optimizer turns that OR into an index range (H2 does not), so continuing slices
+ * also repeat the timestamp as a plain {@code ts <= :ts} bound; see {@link #until}.
+ */
+public final class KeysetCursor {
+
+    public static final int MAX_SIZE = 100;
+
+    private static final String ID = "id";
+
+    private final String timeProperty;
+    private final Sort sort;
+
+    public KeysetCursor(String timeProperty) {
+        this.timeProperty = timeProperty;
+        this.sort = Sort.by(Sort.Order.desc(timeProperty), Sort.Order.desc(ID));
+    }
+
+    public Sort sort() {
+        return sort;
+    }
+
+    public Limit limit(int size) {
+        return Limit.of(Math.max(1, Math.min(size, MAX_SIZE)));
+    }
+
+    /**
+     * Position to continue from; the start of the listing when {@code cursor} is null or blank.
+     */
+    public KeysetScrollPosition decode(String cursor) {
+        if (cursor == null || cursor.isBlank()) {
+            return ScrollPosition.keyset();
+        }
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            int separator = raw.lastIndexOf('|');
+            if (separator < 0) {
+                throw new InvalidCursorException("Invalid cursor");
+            }
+            Map<String, Object> keys = new LinkedHashMap<>();
+            keys.put(timeProperty, LocalDateTime.parse(raw.substring(0, separator)));
+            keys.put(ID, Long.parseLong(raw.substring(separator + 1)));
+            return ScrollPosition.forward(keys);
+        } catch (IllegalArgumentException | DateTimeParseException e) {
+            throw new InvalidCursorException("Invalid cursor");
+        }
+    }
+
+    /**
+     * Newest timestamp a slice continuing from {@code position} can hold, or null at the start
+     * of the listing.
+     */
+    public LocalDateTime until(KeysetScrollPosition position) {
+        return position.isInitial() ? null : (LocalDateTime) position.getKeys().get(timeProperty);
+    }
+
+    /**
+     * Token pointing after the last row of {@code window}, or null when there is no next slice.
+     */
+    public String nextCursor(Window<?> window) {
+        if (!window.hasNext() || window.isEmpty()) {
+            return null;
+        }
+        ScrollPosition position = window.positionAt(window.size() - 1);
+        if (!(position instanceof KeysetScrollPosition keyset)) {
+            throw new IllegalStateException("Expected a keyset position but got " + position);
+        }
+        Map<String, Object> keys = keyset.getKeys();
+        String raw = keys.get(timeProperty) + "|" + keys.get(ID);
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+}
@@ -0,0 +1,97 @@
+package com.restaurant.stockmanagement.push;
+
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyEmitter.DataWithMediaType;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * One connected client: its scope and a bounded buffer of serialized event batches waiting to
+ * be written. At most one task drains the buffer at a time.
+ */
+final class PushSubscriber {
+
+    private final SseEmitter emitter;
+    private final Long branchId;
+    private final boolean allBranches;
+    private final boolean stockAccess;
+    private final BlockingQueue<Set<DataWithMediaType>> buffer;
+    private final AtomicBoolean draining = new AtomicBoolean();
+    private final AtomicBoolean completed = new AtomicBoolean();
+    private volatile boolean closed;
+
+    PushSubscriber(SseEmitter emitter, Long branchId, boolean allBranches, boolean stockAccess, int capacity) {
+        this.emitter = emitter;
+        this.branchId = branchId;
+        this.allBranches = allBranches;
+        this.stockAccess = stockAccess;
+        this.buffer = new ArrayBlockingQueue<>(capacity);
+    }
+
+    SseEmitter getEmitter() {
+        return emitter;
+    }
+
+    /**
+     * The branch whose events the client receives; null with {@link #isAllBranches()} or for
+     * users without a branch, who only receive events without a branch.
+     */
+    Long getBranchId() {
+        return branchId;
+    }
+
+    boolean isAllBranches() {
+        return allBranches;
+    }
+
+    /**
+     * Whether the client may see stock levels and alerts, not just food availability.
+     */
+    boolean hasStockAccess() {
+        return stockAccess;
+    }
+
+    /**
+     * False when the buffer is full.
+     */
+    boolean offer(Set<DataWithMediaType> frame) {
+        return !closed && buffer.offer(frame);
+    }
+
+    Set<DataWithMediaType> poll() {
+        return buffer.poll();
+    }
+
+    boolean hasPending() {
+        return !buffer.isEmpty();
+    }
+
+    boolean startDraining() {
+        return draining.compareAndSet(false, true);
+    }
+
+    void stopDraining() {
+        draining.set(false);
+    }
+
+    void close() {
+        closed = true;
+        buffer.clear();
+    }
+
+    boolean isClosed() {
+        return closed;
+    }
+
+    /**
+     * Completes the response once; later calls do nothing.
+     */
+    void complete() {
+        if (completed.compareAndSet(false, true)) {
+            emitter.complete();
+        }
+    }
+}
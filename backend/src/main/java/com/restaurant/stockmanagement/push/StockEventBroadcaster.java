@@ -0,0 +1,330 @@
+package com.restaurant.stockmanagement.push;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.restaurant.stockmanagement.config.ExecutorConfig;
+import com.restaurant.stockmanagement.datasource.ShardFanOut;
+import com.restaurant.stockmanagement.dto.IngredientDTO;
+import com.restaurant.stockmanagement.dto.SellablePortionsDTO;
+import com.restaurant.stockmanagement.dto.StockAlertDTO;
+import com.restaurant.stockmanagement.event.IngredientChangedEvent;
+import com.restaurant.stockmanagement.event.MenuChangedEvent;
+import com.restaurant.stockmanagement.event.StockAlertChangedEvent;
+import com.restaurant.stockmanagement.menu.MenuItem;
+import com.restaurant.stockmanagement.menu.MenuSnapshot;
+import com.restaurant.stockmanagement.menu.MenuSnapshotService;
+import com.restaurant.stockmanagement.menu.SellablePortionsService;
+import com.restaurant.stockmanagement.repository.IngredientRepository;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.task.AsyncTaskExecutor;
+import org.springframework.core.task.TaskRejectedException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyEmitter.DataWithMediaType;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Pushes stock levels, alerts and food availability to dashboards and tills as server-sent
+ * events, so they no longer poll the alert and ingredient listings.
+ *
+ * <p>The event listeners only note what changed, so the committing sale does no extra work.
+ * Every {@code coalesce-interval-ms} a timer turns the notes into events: each changed
+ * ingredient once with its stock at that moment (one query for all of them), each food whose
+ * availability flipped once, and every alert raised or acknowledged. An event is serialized once
+ * and added to the batch of every subscriber of its branch and of those following every branch
+ * (owners); events without a branch go to everybody. Stock levels and alerts only go to roles
+ * that manage stock.
+ *
+ * <p>Each subscriber has a bounded buffer of such batches, drained on the push bulkhead. A client
+ * that falls {@code client-buffer} intervals behind is disconnected instead of holding anyone up;
+ * it is expected to reconnect and reload the listings.
+ */
+@Service
+public class StockEventBroadcaster {
+
+    public static final String STOCK_EVENT = "stock";
+    public static final String ALERT_EVENT = "alert";
+    public static final String AVAILABILITY_EVENT = "availability";
+
+    private static final Logger log = LoggerFactory.getLogger(StockEventBroadcaster.class);
+    private static final Set<DataWithMediaType> HEARTBEAT = SseEmitter.event().comment("heartbeat").build();
+
+    private final IngredientRepository ingredientRepository;
+    private final MenuSnapshotService menuSnapshotService;
+    private final SellablePortionsService sellablePortionsService;
+    private final ShardFanOut shardFanOut;
+    private final ObjectMapper objectMapper;
+    private final AsyncTaskExecutor executor;
+    private final int clientBuffer;
+    private final long heartbeatMs;
+    private final Duration timeout;
+
+    private final Set<PushSubscriber> subscribers = ConcurrentHashMap.newKeySet();
+    private final Set<PushSubscriber> allBranchSubscribers = ConcurrentHashMap.newKeySet();
+    private final Map<Long, Set<PushSubscriber>> branchSubscribers = new ConcurrentHashMap<>();
+    private final AtomicLong dropped = new AtomicLong();
+
+    private final Set<Long> changedIngredients = ConcurrentHashMap.newKeySet();
+    private final Set<Long> changedFoods = ConcurrentHashMap.newKeySet();
+    private final Queue<StockAlertDTO> changedAlerts = new ConcurrentLinkedQueue<>();
+
+    // Only touched by the timer thread after startup
+    private final Map<Long, Boolean> lastAvailability = new HashMap<>();
+    private long lastHeartbeat = System.currentTimeMillis();
+
+    private final ScheduledExecutorService timer = Executors.newSingleThreadScheduledExecutor(r -> {
+        Thread thread = new Thread(r, "stock-event-push");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    public StockEventBroadcaster(IngredientRepository ingredientRepository,
+                                 MenuSnapshotService menuSnapshotService,
+                                 SellablePortionsService sellablePortionsService,
+                                 ShardFanOut shardFanOut,
+                                 ObjectMapper objectMapper,
+                                 @Qualifier(ExecutorConfig.PUSH_EXECUTOR) AsyncTaskExecutor executor,
+                                 @Value("${app.push.coalesce-interval-ms:1000}") long coalesceIntervalMs,
+                                 @Value("${app.push.client-buffer:30}") int clientBuffer,
+                                 @Value("${app.push.heartbeat-seconds:20}") long heartbeatSeconds,
+                                 @Value("${app.push.timeout:30m}") Duration timeout) {
+        this.ingredientRepository = ingredientRepository;
+        this.menuSnapshotService = menuSnapshotService;
+        this.sellablePortionsService = sellablePortionsService;
+        this.shardFanOut = shardFanOut;
+        this.objectMapper = objectMapper;
+        this.executor = executor;
+        this.clientBuffer = clientBuffer;
+        this.heartbeatMs = heartbeatSeconds * 1000;
+        this.timeout = timeout;
+        timer.scheduleWithFixedDelay(this::flush, coalesceIntervalMs, coalesceIntervalMs, TimeUnit.MILLISECONDS);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void initialize() {
+        MenuSnapshot snapshot = menuSnapshotService.current();
+        timer.execute(() -> snapshot.getItems()
+                .forEach(item -> lastAvailability.put(item.getFoodId(), item.isAvailable())));
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        timer.shutdownNow();
+        for (PushSubscriber subscriber : subscribers) {
+            unsubscribe(subscriber);
+            subscriber.complete();
+        }
+    }
+
+    /**
+     * Opens a stream for a client of {@code branchId}, or of every branch when
+     * {@code allBranches} is set.
+     */
+    public SseEmitter subscribe(Long branchId, boolean allBranches, boolean stockAccess) {
+        SseEmitter emitter = new SseEmitter(timeout.toMillis());
+        PushSubscriber subscriber = new PushSubscriber(emitter, branchId, allBranches, stockAccess, clientBuffer);
+        emitter.onCompletion(() -> unsubscribe(subscriber));
+        emitter.onTimeout(() -> unsubscribe(subscriber));
+        emitter.onError(error -> unsubscribe(subscriber));
+
+        subscribers.add(subscriber);
+        if (allBranches) {
+            allBranchSubscribers.add(subscriber);
+        } else if (branchId != null) {
+            branchSubscribers.computeIfAbsent(branchId, id -> ConcurrentHashMap.newKeySet()).add(subscriber);
+        }
+        // Commits the response headers, so the client knows the stream is open
+        deliver(subscriber, SseEmitter.event().comment("connected").build());
+        return emitter;
+    }
+
+    public int getSubscriberCount() {
+        return subscribers.size();
+    }
+
+    public long getDroppedCount() {
+        return dropped.get();
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onIngredientChanged(IngredientChangedEvent event) {
+        changedIngredients.addAll(event.getIngredientIds());
+    }
+
+    @EventListener
+    public void onMenuChanged(MenuChangedEvent event) {
+        changedFoods.addAll(event.getFoodIds());
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onAlertChanged(StockAlertChangedEvent event) {
+        changedAlerts.add(event.getAlert());
+    }
+
+    private void flush() {
+        try {
+            List<Long> ingredientIds = drain(changedIngredients);
+            List<StockAlertDTO> alerts = new ArrayList<>();
+            for (StockAlertDTO alert; (alert = changedAlerts.poll()) != null; ) {
+                alerts.add(alert);
+            }
+            List<Long> foodIds = drain(changedFoods);
+
+            Map<PushSubscriber, Set<DataWithMediaType>> batches = new HashMap<>();
+            if (!ingredientIds.isEmpty() && subscribers.stream().anyMatch(PushSubscriber::hasStockAccess)) {
+                for (IngredientDTO ingredient : shardFanOut.queryAll(() -> ingredientRepository.findDTOsByIdIn(ingredientIds))) {
+                    publish(batches, STOCK_EVENT, ingredient.getBranchId(), ingredient, true);
+                }
+            }
+            for (StockAlertDTO alert : alerts) {
+                publish(batches, ALERT_EVENT, alert.getBranchId(), alert, true);
+            }
+            publishAvailabilityFlips(batches, foodIds);
+
+            long now = System.currentTimeMillis();
+            if (now - lastHeartbeat >= heartbeatMs) {
+                lastHeartbeat = now;
+                subscribers.forEach(subscriber -> addTo(batches, subscriber, HEARTBEAT));
+            }
+            batches.forEach(this::deliver);
+        } catch (RuntimeException e) {
+            log.warn("Failed to push stock events", e);
+        }
+    }
+
+    /**
+     * Pushes the foods whose availability differs from what was last pushed. Foods taken off the
+     * menu count as unavailable; their branch is no longer known, so everybody is told.
+     */
+    private void publishAvailabilityFlips(Map<PushSubscriber, Set<DataWithMediaType>> batches, List<Long> foodIds) {
+        if (foodIds.isEmpty()) {
+            return;
+        }
+        MenuSnapshot snapshot = menuSnapshotService.current();
+        for (Long foodId : foodIds) {
+            MenuItem item = snapshot.find(foodId).orElse(null);
+            boolean available = item != null && item.isAvailable();
+            Boolean previous = item == null ? lastAvailability.remove(foodId) : lastAvailability.put(foodId, available);
+            if (previous == null ? item == null : previous == available) {
+                continue;
+            }
+            int portions = sellablePortionsService.getPortions(foodId).orElse(0);
+            SellablePortionsDTO flip = new SellablePortionsDTO(foodId, item == null ? null : item.getName(),
+                    portions == SellablePortionsService.UNLIMITED ? null : portions, available);
+            publish(batches, AVAILABILITY_EVENT, item == null ? null : item.getBranchId(), flip, false);
+        }
+    }
+
+    private void publish(Map<PushSubscriber, Set<DataWithMediaType>> batches, String name, Long branchId,
+                         Object payload, boolean stockOnly) {
+        Set<DataWithMediaType> frame;
+        try {
+            frame = SseEmitter.event().name(name).data(objectMapper.writeValueAsString(payload)).build();
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Cannot serialize " + name + " event", e);
+        }
+        if (branchId == null) {
+            addToAll(batches, subscribers, frame, stockOnly);
+            return;
+        }
+        addToAll(batches, branchSubscribers.getOrDefault(branchId, Set.of()), frame, stockOnly);
+        addToAll(batches, allBranchSubscribers, frame, stockOnly);
+    }
+
+    private static void addToAll(Map<PushSubscriber, Set<DataWithMediaType>> batches,
+                                 Collection<PushSubscriber> targets, Set<DataWithMediaType> frame, boolean stockOnly) {
+        for (PushSubscriber subscriber : targets) {
+            if (!stockOnly || subscriber.hasStockAccess()) {
+                addTo(batches, subscriber, frame);
+            }
+        }
+    }
+
+    private static void addTo(Map<PushSubscriber, Set<DataWithMediaType>> batches, PushSubscriber subscriber,
+                              Set<DataWithMediaType> frame) {
+        batches.computeIfAbsent(subscriber, key -> new LinkedHashSet<>()).addAll(frame);
+    }
+
+    private void deliver(PushSubscriber subscriber, Set<DataWithMediaType> frame) {
+        if (subscriber.offer(frame)) {
+            schedule(subscriber);
+        } else if (!subscriber.isClosed()) {
+            log.debug("Disconnecting slow event stream client of branch {}", subscriber.getBranchId());
+            dropped.incrementAndGet();
+            unsubscribe(subscriber);
+            // The drain task completes the response, so this thread never waits on a stalled write
+            schedule(subscriber);
+        }
+    }
+
+    private void schedule(PushSubscriber subscriber) {
+        if (!subscriber.startDraining()) {
+            // The running drain picks the new frame up
+            return;
+        }
+        try {
+            executor.execute(() -> send(subscriber));
+        } catch (TaskRejectedException e) {
+            subscriber.stopDraining();
+            dropped.incrementAndGet();
+            unsubscribe(subscriber);
+            subscriber.complete();
+        }
+    }
+
+    private void send(PushSubscriber subscriber) {
+        try {
+            Set<DataWithMediaType> frame;
+            while (!subscriber.isClosed() && (frame = subscriber.poll()) != null) {
+                subscriber.getEmitter().send(frame);
+            }
+        } catch (IOException | IllegalStateException e) {
+            // The client went away or the response has already completed
+            unsubscribe(subscriber);
+        } finally {
+            subscriber.stopDraining();
+        }
+        if (subscriber.isClosed()) {
+            subscriber.complete();
+        } else if (subscriber.hasPending()) {
+            schedule(subscriber);
+        }
+    }
+
+    private void unsubscribe(PushSubscriber subscriber) {
+        subscriber.close();
+        subscribers.remove(subscriber);
+        allBranchSubscribers.remove(subscriber);
+        if (subscriber.getBranchId() != null) {
+            branchSubscribers.computeIfPresent(subscriber.getBranchId(), (id, branch) -> {
+                branch.remove(subscriber);
+                return branch.isEmpty() ? null : branch;
+            });
+        }
+    }
+
+    private static List<Long> drain(Set<Long> changed) {
+        List<Long> ids = new ArrayList<>();
+        for (Iterator<Long> iterator = changed.iterator(); iterator.hasNext(); ) {
+            ids.add(iterator.next());
+            iterator.remove();
+        }
+        return ids;
+    }
+}
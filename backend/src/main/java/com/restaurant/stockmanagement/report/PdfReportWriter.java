@@ -0,0 +1,61 @@
+package com.restaurant.stockmanagement.report;
+
+import com.itextpdf.kernel.geom.PageSize;
+import com.itextpdf.kernel.pdf.PdfDocument;
+import com.itextpdf.kernel.pdf.PdfWriter;
+import com.itextpdf.layout.Document;
+import com.itextpdf.layout.element.Cell;
+import com.itextpdf.layout.element.Paragraph;
+import com.itextpdf.layout.element.Table;
+
+import java.io.OutputStream;
+import java.util.List;
+
+/**
+ * PDF writer using an iText large table, which is flushed to finished pages every
+ * {@value #FLUSH_EVERY} rows instead of being laid out once at the end.
+ */
+class PdfReportWriter implements ReportWriter {
+
+    private static final int FLUSH_EVERY = 200;
+
+    private final String title;
+    private final Document document;
+    private Table table;
+    private int pendingRows;
+
+    PdfReportWriter(String title, OutputStream out) {
+        this.title = title;
+        PdfWriter writer = new PdfWriter(out);
+        writer.setSmartMode(true);
+        this.document = new Document(new PdfDocument(writer), PageSize.A4.rotate());
+        this.document.setFontSize(8);
+    }
+
+    @Override
+    public void writeHeader(List<String> columns) {
+        document.add(new Paragraph(title).setFontSize(14).setBold());
+        table = new Table(columns.size(), true).useAllAvailableWidth();
+        for (String column : columns) {
+            table.addHeaderCell(new Cell().add(new Paragraph(column).setBold()));
+        }
+        document.add(table);
+    }
+
+    @Override
+    public void writeRow(Object[] values) {
+        for (Object value : values) {
+            table.addCell(new Cell().add(new Paragraph(ReportWriter.format(value))));
+        }
+        if (++pendingRows >= FLUSH_EVERY) {
+            table.flush();
+            pendingRows = 0;
+        }
+    }
+
+    @Override
+    public void finish() {
+        table.complete();
+        document.close();
+    }
+}
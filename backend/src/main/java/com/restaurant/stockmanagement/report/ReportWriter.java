@@ -0,0 +1,36 @@
+package com.restaurant.stockmanagement.report;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.List;
+
+/**
+ * Row-at-a-time report sink. Implementations must not buffer more than a bounded number of
+ * rows so that exports run in constant memory regardless of the result size.
+ */
+public interface ReportWriter {
+
+    void writeHeader(List<String> columns) throws IOException;
+
+    void writeRow(Object[] values) throws IOException;
+
+    /**
+     * Completes the document and flushes it to the underlying stream.
+     */
+    void finish() throws IOException;
+
+    static ReportWriter create(ReportFormat format, String title, OutputStream out) {
+        switch (format) {
+            case XLSX:
+                return new XlsxReportWriter(title, out);
+            case PDF:
+                return new PdfReportWriter(title, out);
+            default:
+                return new CsvReportWriter(out);
+        }
+    }
+
+    static String format(Object value) {
+        return value == null ? "" : value.toString();
+    }
+}
@@ -0,0 +1,93 @@
+package com.restaurant.stockmanagement.report;
+
+import org.apache.poi.ss.SpreadsheetVersion;
+import org.apache.poi.ss.usermodel.Cell;
+import org.apache.poi.ss.usermodel.Row;
+import org.apache.poi.ss.usermodel.Sheet;
+import org.apache.poi.ss.util.WorkbookUtil;
+import org.apache.poi.xssf.streaming.SXSSFWorkbook;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.List;
+
+/**
+ * XLSX writer backed by POI's streaming workbook: only the last {@value #WINDOW_SIZE} rows are
+ * kept in memory, older rows are spilled to a temporary file until the workbook is written.
+ * A sheet holds at most 1,048,576 rows; the rows after that continue on "Title (2)" and so on,
+ * each starting with the header again.
+ */
+class XlsxReportWriter implements ReportWriter {
+
+    private static final int WINDOW_SIZE = 100;
+    private static final int MAX_SHEET_NAME_LENGTH = 31;
+    // Room left in a sheet name for " (n)"
+    private static final int SUFFIX_LENGTH = 6;
+
+    private final SXSSFWorkbook workbook;
+    private final String title;
+    private final int maxRowsPerSheet;
+    private final OutputStream out;
+    private Sheet sheet;
+    private Object[] header;
+    private int rowIndex;
+
+    XlsxReportWriter(String title, OutputStream out) {
+        this(title, out, SpreadsheetVersion.EXCEL2007.getMaxRows());
+    }
+
+    XlsxReportWriter(String title, OutputStream out, int maxRowsPerSheet) {
+        this.workbook = new SXSSFWorkbook(WINDOW_SIZE);
+        this.workbook.setCompressTempFiles(true);
+        this.title = WorkbookUtil.createSafeSheetName(title);
+        this.maxRowsPerSheet = maxRowsPerSheet;
+        this.sheet = workbook.createSheet(this.title);
+        this.out = out;
+    }
+
+    @Override
+    public void writeHeader(List<String> columns) {
+        header = columns.toArray();
+        writeRow(header);
+    }
+
+    @Override
+    public void writeRow(Object[] values) {
+        if (rowIndex == maxRowsPerSheet) {
+            nextSheet();
+        }
+        Row row = sheet.createRow(rowIndex++);
+        for (int i = 0; i < values.length; i++) {
+            Cell cell = row.createCell(i);
+            Object value = values[i];
+            if (value instanceof Number number) {
+                cell.setCellValue(number.doubleValue());
+            } else {
+                cell.setCellValue(ReportWriter.format(value));
+            }
+        }
+    }
+
+    private void nextSheet() {
+        int number = workbook.getNumberOfSheets() + 1;
+        String base = title.length() > MAX_SHEET_NAME_LENGTH - SUFFIX_LENGTH
+                ? title.substring(0, MAX_SHEET_NAME_LENGTH - SUFFIX_LENGTH)
+                : title;
+        sheet = workbook.createSheet(base + " (" + number + ")");
+        rowIndex = 0;
+        if (header != null) {
+            writeRow(header);
+        }
+    }
+
+    @Override
+    public void finish() throws IOException {
+        try {
+            workbook.write(out);
+            out.flush();
+        } finally {
+            workbook.dispose();
+            workbook.close();
+        }
+    }
+}
@@ -0,0 +1,21 @@
+package com.restaurant.stockmanagement.repository;
+
+import com.restaurant.stockmanagement.model.ArchiveRun;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Repository
+public interface ArchiveRunRepository extends JpaRepository<ArchiveRun, Long> {
+
+    /**
+     * Rows dated before this may be in the archive tables; null when nothing was ever archived.
+     */
+    @Query("SELECT MAX(r.cutoff) FROM ArchiveRun r WHERE r.deleted = false")
+    LocalDateTime findArchiveHorizon();
+
+    List<ArchiveRun> findTop20ByDeletedFalseOrderByCreatedAtDesc();
+}
@@ -0,0 +1,31 @@
+package com.restaurant.stockmanagement.repository;
+
+import com.restaurant.stockmanagement.dto.FoodSalesSummary;
+import com.restaurant.stockmanagement.model.DailyFoodSalesRollup;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDate;
+import java.util.List;
+
+@Repository
+public interface DailyFoodSalesRollupRepository extends JpaRepository<DailyFoodSalesRollup, Long> {
+    
+    @Modifying
+    @Query(value = "UPDATE daily_food_sales_rollups SET quantity = quantity + :quantity, revenue = revenue + :revenue " +
+                   "WHERE branch_id = :branchId AND rollup_date = :rollupDate AND food_id = :foodId", nativeQuery = true)
+    int increment(Long branchId, LocalDate rollupDate, Long foodId, long quantity, double revenue);
+    
+    @Query("SELECT new com.restaurant.stockmanagement.dto.FoodSalesSummary(" +
+           "r.foodId, f.name, SUM(r.quantity), SUM(r.revenue)) " +
+           "FROM DailyFoodSalesRollup r JOIN Food f ON f.id = r.foodId " +
+           "WHERE r.rollupDate BETWEEN :startDate AND :endDate " +
+           "GROUP BY r.foodId, f.name")
+    List<FoodSalesSummary> findSoldFoodsBetweenDates(LocalDate startDate, LocalDate endDate);
+    
+    @Modifying
+    @Query("DELETE FROM DailyFoodSalesRollup r WHERE r.rollupDate = :rollupDate")
+    int deleteByRollupDate(LocalDate rollupDate);
+}
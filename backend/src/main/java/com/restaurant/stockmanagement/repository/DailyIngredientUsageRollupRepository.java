@@ -0,0 +1,39 @@
+package com.restaurant.stockmanagement.repository;
+
+import com.restaurant.stockmanagement.dto.IngredientUsageSummary;
+import com.restaurant.stockmanagement.model.DailyIngredientUsageRollup;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDate;
+import java.util.List;
+
+@Repository
+public interface DailyIngredientUsageRollupRepository extends JpaRepository<DailyIngredientUsageRollup, Long> {
+    
+    @Modifying
+    @Query(value = "UPDATE daily_ingredient_usage_rollups SET usage_count = usage_count + :usageCount, " +
+                   "quantity = quantity + :quantity " +
+                   "WHERE branch_id = :branchId AND rollup_date = :rollupDate AND ingredient_id = :ingredientId",
+           nativeQuery = true)
+    int increment(Long branchId, LocalDate rollupDate, Long ingredientId, long usageCount, double quantity);
+    
+    @Query("SELECT new com.restaurant.stockmanagement.dto.IngredientUsageSummary(" +
+           "r.ingredientId, SUM(r.usageCount), SUM(r.quantity)) FROM DailyIngredientUsageRollup r " +
+           "WHERE r.rollupDate BETWEEN :startDate AND :endDate GROUP BY r.ingredientId")
+    List<IngredientUsageSummary> findUsedIngredientsBetweenDates(LocalDate startDate, LocalDate endDate);
+    
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "1000"))
+    @Query("SELECT r.ingredientId, r.branchId, r.rollupDate, r.quantity FROM DailyIngredientUsageRollup r " +
+           "WHERE r.rollupDate BETWEEN :startDate AND :endDate")
+    List<Object[]> findDailyUsageBetweenDates(LocalDate startDate, LocalDate endDate);
+    
+    @Modifying
+    @Query("DELETE FROM DailyIngredientUsageRollup r WHERE r.rollupDate = :rollupDate")
+    int deleteByRollupDate(LocalDate rollupDate);
+}
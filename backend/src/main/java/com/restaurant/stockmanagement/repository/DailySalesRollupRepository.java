@@ -0,0 +1,26 @@
+package com.restaurant.stockmanagement.repository;
+
+import com.restaurant.stockmanagement.model.DailySalesRollup;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDate;
+
+@Repository
+public interface DailySalesRollupRepository extends JpaRepository<DailySalesRollup, Long> {
+    
+    @Modifying
+    @Query(value = "UPDATE daily_sales_rollups SET sale_count = sale_count + :saleCount, " +
+                   "total_amount = total_amount + :totalAmount " +
+                   "WHERE branch_id = :branchId AND rollup_date = :rollupDate", nativeQuery = true)
+    int increment(Long branchId, LocalDate rollupDate, long saleCount, double totalAmount);
+    
+    @Query("SELECT SUM(r.totalAmount) FROM DailySalesRollup r WHERE r.rollupDate BETWEEN :startDate AND :endDate")
+    Double getTotalSalesBetweenDates(LocalDate startDate, LocalDate endDate);
+    
+    @Modifying
+    @Query("DELETE FROM DailySalesRollup r WHERE r.rollupDate = :rollupDate")
+    int deleteByRollupDate(LocalDate rollupDate);
+}
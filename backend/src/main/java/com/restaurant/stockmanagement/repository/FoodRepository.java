@@ -1,12 +1,15 @@
 package com.restaurant.stockmanagement.repository;
 
+import com.restaurant.stockmanagement.dto.FoodDTO;
 import com.restaurant.stockmanagement.model.Food;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
 import java.util.List;
 
 @Repository
@@ -14,15 +17,48 @@ public interface FoodRepository extends JpaRepository<Food, Long> {
     
     Page<Food> findByDeletedFalse(Pageable pageable);
     
+    List<Food> findByDeletedFalse();
+    
     List<Food> findByDeletedFalseAndAvailableTrue();
     
-    @Query("SELECT f FROM Food f WHERE f.deleted = false AND " +
+    @Query(value = "SELECT new com.restaurant.stockmanagement.dto.FoodDTO(f.id, f.name, f.description, f.price, " +
+           "f.available, f.category, f.imageUrl, f.preparationTime, f.branchId) FROM Food f WHERE f.deleted = false AND " +
+           "(:branchId IS NULL OR f.branchId IS NULL OR f.branchId = :branchId) AND " +
+           "(LOWER(f.name) LIKE LOWER(CONCAT('%', :search, '%')) OR " +
+           "LOWER(f.category) LIKE LOWER(CONCAT('%', :search, '%')))",
+           countQuery = "SELECT COUNT(f) FROM Food f WHERE f.deleted = false AND " +
+           "(:branchId IS NULL OR f.branchId IS NULL OR f.branchId = :branchId) AND " +
            "(LOWER(f.name) LIKE LOWER(CONCAT('%', :search, '%')) OR " +
            "LOWER(f.category) LIKE LOWER(CONCAT('%', :search, '%')))")
-    Page<Food> searchFoods(String search, Pageable pageable);
+    Page<FoodDTO> searchFoods(String search, Long branchId, Pageable pageable);
+    
+    @Query("SELECT new com.restaurant.stockmanagement.dto.FoodDTO(f.id, f.name, f.description, f.price, " +
+           "f.available, f.category, f.imageUrl, f.preparationTime, f.branchId) FROM Food f WHERE f.id IN :ids")
+    List<FoodDTO> findDTOsByIdIn(Collection<Long> ids);
+    
+    @Query("SELECT f.id FROM Food f WHERE f.deleted = false AND f.id IN :ids")
+    List<Long> findActiveIdsByIdIn(Collection<Long> ids);
+    
+    @Query("SELECT f.id, f.branchId, f.name, f.category FROM Food f WHERE f.deleted = false")
+    List<Object[]> findSearchDocuments();
     
     List<Food> findByDeletedFalseAndCategory(String category);
     
+    // Case-insensitive through the column collation, so idx_foods_branch_name applies
+    @Query("SELECT f FROM Food f WHERE f.deleted = false AND f.branchId = :branchId AND f.name IN :names")
+    List<Food> findByBranchIdAndNameIn(Long branchId, Collection<String> names);
+    
     @Query("SELECT f FROM Food f WHERE f.deleted = false AND f.branchId = :branchId")
     Page<Food> findByBranchId(Long branchId, Pageable pageable);
+    
+    @Modifying(clearAutomatically = true)
+    @Query("UPDATE Food f SET f.available = false, f.soldOut = true, f.updatedAt = CURRENT_TIMESTAMP " +
+           "WHERE f.id IN :ids AND f.available = true")
+    int markSoldOut(Collection<Long> ids);
+    
+    // Only foods markSoldOut took off sale; a food disabled by hand since then stays off
+    @Modifying(clearAutomatically = true)
+    @Query("UPDATE Food f SET f.available = true, f.soldOut = false, f.updatedAt = CURRENT_TIMESTAMP " +
+           "WHERE f.id IN :ids AND f.soldOut = true")
+    int markRestocked(Collection<Long> ids);
 }
@@ -1,13 +1,19 @@
 package com.restaurant.stockmanagement.repository;
 
+import com.restaurant.stockmanagement.dto.IngredientDTO;
 import com.restaurant.stockmanagement.model.Ingredient;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.stereotype.Repository;
 
 import java.time.LocalDate;
+import java.util.Collection;
 import java.util.List;
 
 @Repository
@@ -15,25 +21,85 @@ public interface IngredientRepository extends JpaRepository<Ingredient, Long> {
     
     Page<Ingredient> findByDeletedFalse(Pageable pageable);
     
+    // The scans only feed alerting, which never modifies the ingredients it reads
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true"))
     @Query("SELECT i FROM Ingredient i WHERE i.deleted = false AND i.currentStock < i.minimumStock")
     List<Ingredient> findLowStockIngredients();
     
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true"))
     @Query("SELECT i FROM Ingredient i WHERE i.deleted = false AND i.currentStock = 0")
     List<Ingredient> findOutOfStockIngredients();
     
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true"))
     @Query("SELECT i FROM Ingredient i WHERE i.deleted = false AND i.expiryDate BETWEEN :startDate AND :endDate")
     List<Ingredient> findIngredientsByExpiryDateBetween(LocalDate startDate, LocalDate endDate);
     
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true"))
     @Query("SELECT i FROM Ingredient i WHERE i.deleted = false AND i.expiryDate < :date")
     List<Ingredient> findExpiredIngredients(LocalDate date);
     
-    @Query("SELECT i FROM Ingredient i WHERE i.deleted = false AND " +
+    @Query(value = "SELECT new com.restaurant.stockmanagement.dto.IngredientDTO(i.id, i.name, i.description, i.unit, " +
+           "i.currentStock, i.reservedStock, i.minimumStock, i.reorderLevel, i.expiryDate, i.costPerUnit, " +
+           "i.branchId, i.category, i.imageUrl) FROM Ingredient i WHERE i.deleted = false AND " +
+           "(:branchId IS NULL OR i.branchId IS NULL OR i.branchId = :branchId) AND " +
+           "(LOWER(i.name) LIKE LOWER(CONCAT('%', :search, '%')) OR " +
+           "LOWER(i.category) LIKE LOWER(CONCAT('%', :search, '%')))",
+           countQuery = "SELECT COUNT(i) FROM Ingredient i WHERE i.deleted = false AND " +
+           "(:branchId IS NULL OR i.branchId IS NULL OR i.branchId = :branchId) AND " +
            "(LOWER(i.name) LIKE LOWER(CONCAT('%', :search, '%')) OR " +
            "LOWER(i.category) LIKE LOWER(CONCAT('%', :search, '%')))")
-    Page<Ingredient> searchIngredients(String search, Pageable pageable);
+    Page<IngredientDTO> searchIngredients(String search, Long branchId, Pageable pageable);
+    
+    @Query("SELECT new com.restaurant.stockmanagement.dto.IngredientDTO(i.id, i.name, i.description, i.unit, " +
+           "i.currentStock, i.reservedStock, i.minimumStock, i.reorderLevel, i.expiryDate, i.costPerUnit, " +
+           "i.branchId, i.category, i.imageUrl) FROM Ingredient i WHERE i.id IN :ids")
+    List<IngredientDTO> findDTOsByIdIn(Collection<Long> ids);
+    
+    @Query("SELECT i.id, i.branchId, i.name, i.category FROM Ingredient i WHERE i.deleted = false")
+    List<Object[]> findSearchDocuments();
     
     List<Ingredient> findByDeletedFalseAndCategory(String category);
     
     @Query("SELECT i FROM Ingredient i WHERE i.deleted = false AND i.branchId = :branchId")
     Page<Ingredient> findByBranchId(Long branchId, Pageable pageable);
+    
+    // Stock reserved for transfers is not available to sales
+    @Modifying(flushAutomatically = true)
+    @Query(value = "UPDATE ingredients SET current_stock = current_stock - :quantity, version = version + 1 " +
+                   "WHERE id = :id AND current_stock - reserved_stock >= :quantity", nativeQuery = true)
+    int decrementStock(Long id, Double quantity);
+    
+    // Derived from the open lots (see StockLotBook) rather than edited, so the version stays
+    @Modifying(flushAutomatically = true)
+    @Query(value = "UPDATE ingredients SET expiry_date = :expiryDate WHERE id IN (:ids)", nativeQuery = true)
+    int updateExpiryDates(Collection<Long> ids, LocalDate expiryDate);
+    
+    @Query("SELECT i.currentStock FROM Ingredient i WHERE i.id = :id")
+    Double findCurrentStockById(Long id);
+
+    @Query("SELECT i.id, i.version FROM Ingredient i WHERE i.id IN :ids")
+    List<Object[]> findVersionsByIdIn(Collection<Long> ids);
+    
+    @Query("SELECT i.id, i.currentStock - i.reservedStock, i.version FROM Ingredient i WHERE i.deleted = false")
+    List<Object[]> findStockLevels();
+    
+    @Query("SELECT i.id, i.currentStock - i.reservedStock, i.version FROM Ingredient i " +
+           "WHERE i.deleted = false AND i.id IN :ids")
+    List<Object[]> findStockLevelsByIds(Collection<Long> ids);
+    
+    @Query("SELECT i.id, i.name, i.unit, i.branchId, i.currentStock - i.reservedStock FROM Ingredient i " +
+           "WHERE i.deleted = false AND i.id IN :ids")
+    List<Object[]> findSaleInputsByIds(Collection<Long> ids);
+    
+    @Query("SELECT i.id, i.name, i.unit, i.branchId, i.currentStock - i.reservedStock, i.reorderLevel " +
+           "FROM Ingredient i WHERE i.deleted = false AND (:branchId IS NULL OR i.branchId = :branchId)")
+    List<Object[]> findRestockInputs(Long branchId);
+    
+    // Case-insensitive through the column collation, so idx_ingredients_branch_name applies
+    @Query("SELECT i FROM Ingredient i WHERE i.deleted = false AND i.branchId = :branchId AND i.name IN :names")
+    List<Ingredient> findByBranchIdAndNameIn(Long branchId, Collection<String> names);
+
+    // The same match, ids only, for taking lock stripes before the rows are read
+    @Query("SELECT i.id FROM Ingredient i WHERE i.deleted = false AND i.branchId = :branchId AND i.name IN :names")
+    List<Long> findIdsByBranchIdAndNameIn(Long branchId, Collection<String> names);
 }
@@ -5,6 +5,7 @@ import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
 import java.util.List;
 
 @Repository
@@ -17,5 +18,17 @@ public interface RecipeIngredientRepository extends JpaRepository<RecipeIngredie
     @Query("SELECT ri FROM RecipeIngredient ri WHERE ri.food.id = :foodId AND ri.deleted = false")
     List<RecipeIngredient> findActiveRecipesByFoodId(Long foodId);
     
+    @Query("SELECT ri FROM RecipeIngredient ri JOIN FETCH ri.ingredient JOIN FETCH ri.food " +
+           "WHERE ri.food.id IN :foodIds AND ri.deleted = false")
+    List<RecipeIngredient> findActiveRecipesByFoodIds(Collection<Long> foodIds);
+    
+    @Query("SELECT ri.food.id, ri.ingredient.id, ri.quantity FROM RecipeIngredient ri " +
+           "WHERE ri.deleted = false ORDER BY ri.food.id, ri.id")
+    List<Object[]> findRecipeLines();
+    
+    @Query("SELECT ri.food.id, ri.ingredient.id, ri.quantity FROM RecipeIngredient ri " +
+           "WHERE ri.food.id IN :foodIds AND ri.deleted = false ORDER BY ri.food.id, ri.id")
+    List<Object[]> findRecipeLinesByFoodIds(Collection<Long> foodIds);
+    
     void deleteByFoodIdAndIngredientId(Long foodId, Long ingredientId);
 }
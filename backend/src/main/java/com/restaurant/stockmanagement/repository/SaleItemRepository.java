@@ -1,24 +1,86 @@
 package com.restaurant.stockmanagement.repository;
 
+import com.restaurant.stockmanagement.dto.FoodSalesSummary;
 import com.restaurant.stockmanagement.model.SaleItem;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.stereotype.Repository;
 
 import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
+import java.util.stream.Stream;
 
 @Repository
 public interface SaleItemRepository extends JpaRepository<SaleItem, Long> {
     
     List<SaleItem> findBySaleId(Long saleId);
     
+    @Query("SELECT si FROM SaleItem si JOIN FETCH si.food WHERE si.sale.id IN :saleIds AND si.deleted = false")
+    List<SaleItem> findWithFoodBySaleIds(Collection<Long> saleIds);
+    
     @Query("SELECT si FROM SaleItem si WHERE si.sale.saleDate BETWEEN :startDate AND :endDate")
     List<SaleItem> findSaleItemsBetweenDates(LocalDateTime startDate, LocalDateTime endDate);
     
-    @Query("SELECT si.food.id, si.food.name, SUM(si.quantity), SUM(si.subtotal) " +
+    @QueryHints({@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"),
+                 @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")})
+    @Query("SELECT s.id, s.saleDate, f.id, f.name, si.quantity, si.unitPrice, si.subtotal " +
+           "FROM SaleItem si JOIN si.sale s JOIN si.food f " +
+           "WHERE s.deleted = false AND s.saleDate BETWEEN :startDate AND :endDate " +
+           "ORDER BY s.saleDate")
+    Stream<Object[]> streamSaleItemsBetweenDates(LocalDateTime startDate, LocalDateTime endDate);
+    
+    @Query("SELECT new com.restaurant.stockmanagement.dto.FoodSalesSummary(" +
+           "si.food.id, si.food.name, SUM(si.quantity), SUM(si.subtotal)) " +
            "FROM SaleItem si WHERE si.sale.deleted = false AND " +
            "si.sale.saleDate BETWEEN :startDate AND :endDate " +
            "GROUP BY si.food.id, si.food.name ORDER BY SUM(si.quantity) DESC")
-    List<Object[]> findMostSoldFoods(LocalDateTime startDate, LocalDateTime endDate);
+    List<FoodSalesSummary> findMostSoldFoods(LocalDateTime startDate, LocalDateTime endDate);
+    
+    @Query("SELECT s.branchId, si.food.id, SUM(si.quantity), SUM(si.subtotal) " +
+           "FROM SaleItem si JOIN si.sale s WHERE s.deleted = false AND " +
+           "s.saleDate >= :startDate AND s.saleDate < :endDate " +
+           "GROUP BY s.branchId, si.food.id")
+    List<Object[]> summarizeSoldFoodsByBranch(LocalDateTime startDate, LocalDateTime endDate);
+    
+    // Archived twins of the range queries above, reading sale_items_archive (see LedgerArchiver)
+    
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"))
+    @Query(value = "SELECT si.sale_id, si.sale_date, f.id, f.name, si.quantity, si.unit_price, si.subtotal " +
+                   "FROM sale_items_archive si " +
+                   "JOIN sales_archive s ON s.id = si.sale_id AND s.sale_date = si.sale_date " +
+                   "JOIN foods f ON f.id = si.food_id " +
+                   "WHERE s.deleted = false AND si.sale_date BETWEEN :startDate AND :endDate " +
+                   "ORDER BY si.sale_date", nativeQuery = true)
+    Stream<Object[]> streamArchivedSaleItemsBetweenDates(LocalDateTime startDate, LocalDateTime endDate);
+    
+    @Query(value = "SELECT f.id, f.name, SUM(si.quantity), SUM(si.subtotal) FROM sale_items_archive si " +
+                   "JOIN sales_archive s ON s.id = si.sale_id AND s.sale_date = si.sale_date " +
+                   "JOIN foods f ON f.id = si.food_id " +
+                   "WHERE s.deleted = false AND si.sale_date BETWEEN :startDate AND :endDate " +
+                   "GROUP BY f.id, f.name", nativeQuery = true)
+    List<Object[]> findMostSoldArchivedFoods(LocalDateTime startDate, LocalDateTime endDate);
+    
+    @Query(value = "SELECT s.branch_id, si.food_id, SUM(si.quantity), SUM(si.subtotal) FROM sale_items_archive si " +
+                   "JOIN sales_archive s ON s.id = si.sale_id AND s.sale_date = si.sale_date " +
+                   "WHERE s.deleted = false AND si.sale_date >= :startDate AND si.sale_date < :endDate " +
+                   "GROUP BY s.branch_id, si.food_id", nativeQuery = true)
+    List<Object[]> summarizeArchivedSoldFoodsByBranch(LocalDateTime startDate, LocalDateTime endDate);
+    
+    @Modifying
+    @Query(value = "INSERT INTO sale_items_archive (id, created_at, updated_at, deleted, created_by, updated_by, " +
+                   "sale_id, food_id, quantity, unit_price, subtotal, sale_date, archived_at) " +
+                   "SELECT si.id, si.created_at, si.updated_at, si.deleted, si.created_by, si.updated_by, " +
+                   "si.sale_id, si.food_id, si.quantity, si.unit_price, si.subtotal, s.sale_date, :archivedAt " +
+                   "FROM sale_items si JOIN sales s ON s.id = si.sale_id WHERE si.sale_id IN :saleIds",
+           nativeQuery = true)
+    int copyToArchive(Collection<Long> saleIds, LocalDateTime archivedAt);
+    
+    @Modifying
+    @Query(value = "DELETE FROM sale_items WHERE sale_id IN :saleIds", nativeQuery = true)
+    int deleteArchived(Collection<Long> saleIds);
 }
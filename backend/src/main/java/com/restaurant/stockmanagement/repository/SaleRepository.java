@@ -1,24 +1,49 @@
 package com.restaurant.stockmanagement.repository;
 
 import com.restaurant.stockmanagement.model.Sale;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.ScrollPosition;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.domain.Window;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.stereotype.Repository;
 
 import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
+import java.util.stream.Stream;
 
 @Repository
 public interface SaleRepository extends JpaRepository<Sale, Long> {
     
     Page<Sale> findByDeletedFalse(Pageable pageable);
     
+    Window<Sale> findByDeletedFalse(ScrollPosition position, Sort sort, Limit limit);
+    
+    Window<Sale> findByDeletedFalseAndSaleDateLessThanEqual(LocalDateTime until, ScrollPosition position,
+                                                           Sort sort, Limit limit);
+    
+    @Query("SELECT s.idempotencyKey, s.id FROM Sale s WHERE s.idempotencyKey IN :keys")
+    List<Object[]> findIdsByIdempotencyKeys(Collection<String> keys);
+    
     @Query("SELECT s FROM Sale s WHERE s.deleted = false AND " +
            "s.saleDate BETWEEN :startDate AND :endDate")
     List<Sale> findSalesBetweenDates(LocalDateTime startDate, LocalDateTime endDate);
     
+    @QueryHints({@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"),
+                 @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")})
+    @Query("SELECT s.id, s.saleDate, s.cashierUsername, s.branchId, s.paymentMethod, s.totalAmount " +
+           "FROM Sale s WHERE s.deleted = false AND s.saleDate BETWEEN :startDate AND :endDate " +
+           "ORDER BY s.saleDate")
+    Stream<Object[]> streamSalesBetweenDates(LocalDateTime startDate, LocalDateTime endDate);
+    
     @Query("SELECT s FROM Sale s WHERE s.deleted = false AND s.cashierUsername = :cashierUsername")
     Page<Sale> findByCashierUsername(String cashierUsername, Pageable pageable);
     
@@ -26,6 +51,45 @@ public interface SaleRepository extends JpaRepository<Sale, Long> {
            "s.saleDate BETWEEN :startDate AND :endDate")
     Double getTotalSalesBetweenDates(LocalDateTime startDate, LocalDateTime endDate);
     
+    @Query("SELECT s.branchId, COUNT(s), SUM(s.totalAmount) FROM Sale s WHERE s.deleted = false AND " +
+           "s.saleDate >= :startDate AND s.saleDate < :endDate GROUP BY s.branchId")
+    List<Object[]> summarizeSalesByBranch(LocalDateTime startDate, LocalDateTime endDate);
+    
     @Query("SELECT s FROM Sale s WHERE s.deleted = false AND s.branchId = :branchId")
     Page<Sale> findByBranchId(Long branchId, Pageable pageable);
+    
+    // Archived twins of the range queries above, reading sales_archive (see LedgerArchiver)
+    
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"))
+    @Query(value = "SELECT id, sale_date, cashier_username, branch_id, payment_method, total_amount " +
+                   "FROM sales_archive WHERE deleted = false AND sale_date BETWEEN :startDate AND :endDate " +
+                   "ORDER BY sale_date", nativeQuery = true)
+    Stream<Object[]> streamArchivedSalesBetweenDates(LocalDateTime startDate, LocalDateTime endDate);
+    
+    @Query(value = "SELECT SUM(total_amount) FROM sales_archive WHERE deleted = false AND " +
+                   "sale_date BETWEEN :startDate AND :endDate", nativeQuery = true)
+    Double getTotalArchivedSalesBetweenDates(LocalDateTime startDate, LocalDateTime endDate);
+    
+    @Query(value = "SELECT branch_id, COUNT(*), SUM(total_amount) FROM sales_archive WHERE deleted = false AND " +
+                   "sale_date >= :startDate AND sale_date < :endDate GROUP BY branch_id", nativeQuery = true)
+    List<Object[]> summarizeArchivedSalesByBranch(LocalDateTime startDate, LocalDateTime endDate);
+    
+    // Closed months, plus soft-deleted rows whose grace period has passed
+    @Query("SELECT s.id FROM Sale s WHERE (s.deleted = false AND s.saleDate < :cutoff) OR " +
+           "(s.deleted = true AND (s.saleDate < :cutoff OR s.updatedAt < :deletedBefore))")
+    List<Long> findIdsToArchive(LocalDateTime cutoff, LocalDateTime deletedBefore, Pageable pageable);
+    
+    @Modifying
+    @Query(value = "INSERT INTO sales_archive (id, created_at, updated_at, deleted, created_by, updated_by, " +
+                   "sale_date, total_amount, cashier_username, payment_method, notes, branch_id, idempotency_key, " +
+                   "archived_at) " +
+                   "SELECT id, created_at, updated_at, deleted, created_by, updated_by, " +
+                   "sale_date, total_amount, cashier_username, payment_method, notes, branch_id, idempotency_key, " +
+                   ":archivedAt " +
+                   "FROM sales WHERE id IN :ids", nativeQuery = true)
+    int copyToArchive(Collection<Long> ids, LocalDateTime archivedAt);
+    
+    @Modifying
+    @Query(value = "DELETE FROM sales WHERE id IN :ids", nativeQuery = true)
+    int deleteArchived(Collection<Long> ids);
 }
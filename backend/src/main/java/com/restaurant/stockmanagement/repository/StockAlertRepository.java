@@ -1,13 +1,20 @@
 package com.restaurant.stockmanagement.repository;
 
+import com.restaurant.stockmanagement.dto.StockAlertDTO;
 import com.restaurant.stockmanagement.model.AlertType;
 import com.restaurant.stockmanagement.model.StockAlert;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.ScrollPosition;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.domain.Window;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
 import java.util.List;
 
 @Repository
@@ -15,9 +22,27 @@ public interface StockAlertRepository extends JpaRepository<StockAlert, Long> {
     
     Page<StockAlert> findByDeletedFalse(Pageable pageable);
     
+    @EntityGraph(attributePaths = "ingredient")
+    Window<StockAlert> findByDeletedFalse(ScrollPosition position, Sort sort, Limit limit);
+    
+    @EntityGraph(attributePaths = "ingredient")
+    Window<StockAlert> findByDeletedFalseAndCreatedAtLessThanEqual(LocalDateTime until, ScrollPosition position,
+                                                                   Sort sort, Limit limit);
+    
+    @Query(value = "SELECT new com.restaurant.stockmanagement.dto.StockAlertDTO(sa.id, i.id, i.name, sa.alertType, " +
+           "sa.message, sa.acknowledged, sa.acknowledgedAt, sa.acknowledgedBy, sa.branchId, sa.createdAt) " +
+           "FROM StockAlert sa JOIN sa.ingredient i WHERE sa.deleted = false",
+           countQuery = "SELECT COUNT(sa) FROM StockAlert sa WHERE sa.deleted = false")
+    Page<StockAlertDTO> findDTOsByDeletedFalse(Pageable pageable);
+    
     @Query("SELECT sa FROM StockAlert sa WHERE sa.deleted = false AND sa.acknowledged = false")
     List<StockAlert> findUnacknowledgedAlerts();
     
+    @Query("SELECT new com.restaurant.stockmanagement.dto.StockAlertDTO(sa.id, i.id, i.name, sa.alertType, " +
+           "sa.message, sa.acknowledged, sa.acknowledgedAt, sa.acknowledgedBy, sa.branchId, sa.createdAt) " +
+           "FROM StockAlert sa JOIN sa.ingredient i WHERE sa.deleted = false AND sa.acknowledged = false")
+    List<StockAlertDTO> findUnacknowledgedAlertDTOs();
+    
     Page<StockAlert> findByDeletedFalseAndAcknowledgedFalse(Pageable pageable);
     
     List<StockAlert> findByDeletedFalseAndIngredientIdAndAlertType(Long ingredientId, AlertType alertType);
@@ -0,0 +1,58 @@
+package com.restaurant.stockmanagement.repository;
+
+import com.restaurant.stockmanagement.dto.StockLotDTO;
+import com.restaurant.stockmanagement.model.StockLot;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDate;
+import java.util.Collection;
+import java.util.List;
+
+@Repository
+public interface StockLotRepository extends JpaRepository<StockLot, Long> {
+    
+    // Row of (id, receivedDate, expiryDate, costPerUnit, remainingQuantity). A locking read sees
+    // lots committed after the transaction's snapshot was taken.
+    @Query(value = "SELECT id, received_date, expiry_date, cost_per_unit, remaining_quantity FROM stock_lots " +
+                   "WHERE ingredient_id = :ingredientId AND deleted = false AND remaining_quantity > 0 " +
+                   "FOR UPDATE", nativeQuery = true)
+    List<Object[]> findOpenLotsForUpdate(Long ingredientId);
+    
+    // As findOpenLotsForUpdate, with ingredient_id as a sixth column
+    @Query(value = "SELECT id, received_date, expiry_date, cost_per_unit, remaining_quantity, ingredient_id " +
+                   "FROM stock_lots WHERE ingredient_id IN (:ingredientIds) AND deleted = false " +
+                   "AND remaining_quantity > 0 FOR UPDATE", nativeQuery = true)
+    List<Object[]> findOpenLotsForUpdateByIngredientIdIn(Collection<Long> ingredientIds);
+    
+    // Remainders below 1e-9 are rounding left over from recipe quantities and close the lot
+    @Modifying
+    @Query(value = "UPDATE stock_lots SET remaining_quantity = CASE WHEN remaining_quantity - :quantity < 1e-9 " +
+                   "THEN 0 ELSE remaining_quantity - :quantity END " +
+                   "WHERE id = :id AND deleted = false AND remaining_quantity >= :quantity", nativeQuery = true)
+    int consume(Long id, Double quantity);
+    
+    @Query("SELECT l.id, l.expiryDate FROM StockLot l WHERE l.expiryDate IS NOT NULL " +
+           "AND l.remainingQuantity > 0 AND l.deleted = false")
+    List<Object[]> findOpenExpiryDates();
+    
+    @Query("SELECT l FROM StockLot l JOIN FETCH l.ingredient WHERE l.id IN :ids")
+    List<StockLot> findWithIngredientByIdIn(Collection<Long> ids);
+    
+    // First-expiring first, the order sales draw them in
+    @Query("SELECT new com.restaurant.stockmanagement.dto.StockLotDTO(l.id, i.id, i.name, i.unit, l.branchId, " +
+           "l.quantity, l.remainingQuantity, l.receivedDate, l.expiryDate, l.costPerUnit) " +
+           "FROM StockLot l JOIN l.ingredient i WHERE i.id = :ingredientId AND l.deleted = false " +
+           "AND l.remainingQuantity > 0 " +
+           "ORDER BY CASE WHEN l.expiryDate IS NULL THEN 1 ELSE 0 END, l.expiryDate, l.receivedDate, l.id")
+    List<StockLotDTO> findOpenLotDTOs(Long ingredientId);
+    
+    @Query("SELECT new com.restaurant.stockmanagement.dto.StockLotDTO(l.id, i.id, i.name, i.unit, l.branchId, " +
+           "l.quantity, l.remainingQuantity, l.receivedDate, l.expiryDate, l.costPerUnit) " +
+           "FROM StockLot l JOIN l.ingredient i WHERE l.expiryDate <= :date AND l.remainingQuantity > 0 " +
+           "AND l.deleted = false AND (:branchId IS NULL OR l.branchId = :branchId) " +
+           "ORDER BY l.expiryDate, l.id")
+    List<StockLotDTO> findExpiringLotDTOs(LocalDate date, Long branchId);
+}
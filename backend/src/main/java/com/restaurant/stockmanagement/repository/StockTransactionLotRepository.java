@@ -0,0 +1,18 @@
+package com.restaurant.stockmanagement.repository;
+
+import com.restaurant.stockmanagement.model.StockTransactionLot;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.stereotype.Repository;
+
+import java.util.Collection;
+import java.util.List;
+
+@Repository
+public interface StockTransactionLotRepository extends JpaRepository<StockTransactionLot, Long> {
+    
+    // Row of (transactionId, lotId, quantity, expiryDate)
+    @Query("SELECT tl.transaction.id, l.id, tl.quantity, l.expiryDate FROM StockTransactionLot tl " +
+           "JOIN tl.lot l WHERE tl.transaction.id IN :transactionIds ORDER BY tl.id")
+    List<Object[]> findLotsByTransactionIds(Collection<Long> transactionIds);
+}
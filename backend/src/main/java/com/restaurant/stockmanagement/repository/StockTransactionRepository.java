@@ -1,15 +1,27 @@
 package com.restaurant.stockmanagement.repository;
 
+import com.restaurant.stockmanagement.dto.IngredientUsageSummary;
 import com.restaurant.stockmanagement.model.StockTransaction;
 import com.restaurant.stockmanagement.model.TransactionType;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.ScrollPosition;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.domain.Window;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.stereotype.Repository;
 
 import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
+import java.util.stream.Stream;
 
 @Repository
 public interface StockTransactionRepository extends JpaRepository<StockTransaction, Long> {
@@ -20,17 +32,86 @@ public interface StockTransactionRepository extends JpaRepository<StockTransacti
     
     Page<StockTransaction> findByIngredientIdAndDeletedFalse(Long ingredientId, Pageable pageable);
     
+    @EntityGraph(attributePaths = "ingredient")
+    Window<StockTransaction> findByDeletedFalse(ScrollPosition position, Sort sort, Limit limit);
+    
+    @EntityGraph(attributePaths = "ingredient")
+    Window<StockTransaction> findByIngredientIdAndDeletedFalse(Long ingredientId, ScrollPosition position,
+                                                               Sort sort, Limit limit);
+    
+    @EntityGraph(attributePaths = "ingredient")
+    Window<StockTransaction> findByDeletedFalseAndCreatedAtLessThanEqual(LocalDateTime until, ScrollPosition position,
+                                                                         Sort sort, Limit limit);
+    
+    @EntityGraph(attributePaths = "ingredient")
+    Window<StockTransaction> findByIngredientIdAndDeletedFalseAndCreatedAtLessThanEqual(
+            Long ingredientId, LocalDateTime until, ScrollPosition position, Sort sort, Limit limit);
+    
     @Query("SELECT st FROM StockTransaction st WHERE st.deleted = false AND " +
            "st.createdAt BETWEEN :startDate AND :endDate")
     List<StockTransaction> findTransactionsBetweenDates(LocalDateTime startDate, LocalDateTime endDate);
     
+    @QueryHints({@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"),
+                 @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")})
+    @Query("SELECT st.id, st.createdAt, i.id, i.name, st.type, st.quantity, st.previousStock, st.newStock, " +
+           "st.performedBy, st.reason FROM StockTransaction st JOIN st.ingredient i " +
+           "WHERE st.deleted = false AND st.createdAt BETWEEN :startDate AND :endDate " +
+           "ORDER BY st.createdAt")
+    Stream<Object[]> streamTransactionsBetweenDates(LocalDateTime startDate, LocalDateTime endDate);
+    
     @Query("SELECT st FROM StockTransaction st WHERE st.deleted = false AND " +
            "st.ingredient.id = :ingredientId AND st.type = :type")
     List<StockTransaction> findByIngredientAndType(Long ingredientId, TransactionType type);
     
-    @Query("SELECT st.ingredient.id, COUNT(st), SUM(st.quantity) FROM StockTransaction st " +
+    @Query("SELECT new com.restaurant.stockmanagement.dto.IngredientUsageSummary(" +
+           "st.ingredient.id, COUNT(st), SUM(st.quantity)) FROM StockTransaction st " +
            "WHERE st.deleted = false AND st.type = 'SALE' AND " +
            "st.createdAt BETWEEN :startDate AND :endDate " +
            "GROUP BY st.ingredient.id ORDER BY COUNT(st) DESC")
-    List<Object[]> findMostUsedIngredients(LocalDateTime startDate, LocalDateTime endDate);
+    List<IngredientUsageSummary> findMostUsedIngredients(LocalDateTime startDate, LocalDateTime endDate);
+    
+    @Query("SELECT st.branchId, st.ingredient.id, COUNT(st), SUM(st.quantity) FROM StockTransaction st " +
+           "WHERE st.deleted = false AND st.type = 'SALE' AND " +
+           "st.createdAt >= :startDate AND st.createdAt < :endDate " +
+           "GROUP BY st.branchId, st.ingredient.id")
+    List<Object[]> summarizeUsedIngredientsByBranch(LocalDateTime startDate, LocalDateTime endDate);
+    
+    // Archived twins of the range queries above, reading stock_transactions_archive (see LedgerArchiver)
+    
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"))
+    @Query(value = "SELECT st.id, st.created_at, i.id AS ingredient_id, i.name, st.type, st.quantity, " +
+                   "st.previous_stock, st.new_stock, st.performed_by, st.reason " +
+                   "FROM stock_transactions_archive st JOIN ingredients i ON i.id = st.ingredient_id " +
+                   "WHERE st.deleted = false AND st.created_at BETWEEN :startDate AND :endDate " +
+                   "ORDER BY st.created_at", nativeQuery = true)
+    Stream<Object[]> streamArchivedTransactionsBetweenDates(LocalDateTime startDate, LocalDateTime endDate);
+    
+    @Query(value = "SELECT ingredient_id, COUNT(*), SUM(quantity) FROM stock_transactions_archive " +
+                   "WHERE deleted = false AND type = 'SALE' AND created_at BETWEEN :startDate AND :endDate " +
+                   "GROUP BY ingredient_id", nativeQuery = true)
+    List<Object[]> findMostUsedArchivedIngredients(LocalDateTime startDate, LocalDateTime endDate);
+    
+    @Query(value = "SELECT branch_id, ingredient_id, COUNT(*), SUM(quantity) FROM stock_transactions_archive " +
+                   "WHERE deleted = false AND type = 'SALE' AND " +
+                   "created_at >= :startDate AND created_at < :endDate " +
+                   "GROUP BY branch_id, ingredient_id", nativeQuery = true)
+    List<Object[]> summarizeArchivedUsedIngredientsByBranch(LocalDateTime startDate, LocalDateTime endDate);
+    
+    // Closed months, plus soft-deleted rows whose grace period has passed
+    @Query("SELECT st.id FROM StockTransaction st WHERE (st.deleted = false AND st.createdAt < :cutoff) OR " +
+           "(st.deleted = true AND (st.createdAt < :cutoff OR st.updatedAt < :deletedBefore))")
+    List<Long> findIdsToArchive(LocalDateTime cutoff, LocalDateTime deletedBefore, Pageable pageable);
+    
+    @Modifying
+    @Query(value = "INSERT INTO stock_transactions_archive (id, created_at, updated_at, deleted, created_by, " +
+                   "updated_by, ingredient_id, type, quantity, previous_stock, new_stock, reason, performed_by, " +
+                   "branch_id, archived_at) " +
+                   "SELECT id, created_at, updated_at, deleted, created_by, updated_by, ingredient_id, type, " +
+                   "quantity, previous_stock, new_stock, reason, performed_by, branch_id, :archivedAt " +
+                   "FROM stock_transactions WHERE id IN :ids", nativeQuery = true)
+    int copyToArchive(Collection<Long> ids, LocalDateTime archivedAt);
+    
+    @Modifying
+    @Query(value = "DELETE FROM stock_transactions WHERE id IN :ids", nativeQuery = true)
+    int deleteArchived(Collection<Long> ids);
 }
@@ -0,0 +1,19 @@
+package com.restaurant.stockmanagement.repository;
+
+import com.restaurant.stockmanagement.model.StockTransfer;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+import java.util.Optional;
+
+@Repository
+public interface StockTransferRepository extends JpaRepository<StockTransfer, Long> {
+    
+    Optional<StockTransfer> findByTransferIdAndDeletedFalse(String transferId);
+    
+    @Query("SELECT l.sourceIngredient.id, l.destinationIngredient.id FROM StockTransferLine l " +
+           "WHERE l.transfer.transferId = :transferId")
+    List<Object[]> findIngredientIdsByTransferId(String transferId);
+}
@@ -1,5 +1,6 @@
 package com.restaurant.stockmanagement.repository;
 
+import com.restaurant.stockmanagement.model.Role;
 import com.restaurant.stockmanagement.model.User;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
@@ -7,6 +8,8 @@ import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
 
 @Repository
@@ -23,8 +26,17 @@ public interface UserRepository extends JpaRepository<User, Long> {
     Page<User> findByDeletedFalse(Pageable pageable);
     
     @Query("SELECT u FROM User u WHERE u.deleted = false AND " +
+           "(:branchId IS NULL OR u.branchId IS NULL OR u.branchId = :branchId) AND " +
            "(LOWER(u.username) LIKE LOWER(CONCAT('%', :search, '%')) OR " +
            "LOWER(u.fullName) LIKE LOWER(CONCAT('%', :search, '%')) OR " +
            "LOWER(u.email) LIKE LOWER(CONCAT('%', :search, '%')))")
-    Page<User> searchUsers(String search, Pageable pageable);
+    Page<User> searchUsers(String search, Long branchId, Pageable pageable);
+    
+    @Query("SELECT u.id, u.branchId, u.username, u.fullName, u.email FROM User u WHERE u.deleted = false")
+    List<Object[]> findSearchDocuments();
+    
+    // Row of (email, branchId, role) for every matching role of an active user
+    @Query("SELECT u.email, u.branchId, r FROM User u JOIN u.roles r " +
+           "WHERE u.deleted = false AND u.active = true AND r IN :roles")
+    List<Object[]> findEmailsByRoleIn(Collection<Role> roles);
 }
@@ -0,0 +1,37 @@
+package com.restaurant.stockmanagement.scheduler;
+
+import com.restaurant.stockmanagement.archive.LedgerArchiver;
+import com.restaurant.stockmanagement.exception.ArchiveInProgressException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+@Component
+public class ArchiveScheduler {
+
+    private static final Logger log = LoggerFactory.getLogger(ArchiveScheduler.class);
+
+    private final LedgerArchiver ledgerArchiver;
+    private final boolean enabled;
+
+    public ArchiveScheduler(LedgerArchiver ledgerArchiver,
+                            @Value("${app.archive.enabled:false}") boolean enabled) {
+        this.ledgerArchiver = ledgerArchiver;
+        this.enabled = enabled;
+    }
+
+    // Nightly rather than monthly, so soft-deleted rows leave soon after their grace period and each run stays small
+    @Scheduled(cron = "${app.archive.cron:0 45 1 * * *}")
+    public void archive() {
+        if (!enabled) {
+            return;
+        }
+        try {
+            ledgerArchiver.archive();
+        } catch (ArchiveInProgressException e) {
+            log.info("Skipping scheduled archive run: {}", e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,33 @@
+package com.restaurant.stockmanagement.scheduler;
+
+import com.restaurant.stockmanagement.datasource.ShardFanOut;
+import com.restaurant.stockmanagement.forecast.DemandForecastService;
+import com.restaurant.stockmanagement.service.RollupService;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDate;
+
+@Component
+public class RollupScheduler {
+
+    private final RollupService rollupService;
+    private final ShardFanOut shardFanOut;
+    private final DemandForecastService demandForecastService;
+
+    public RollupScheduler(RollupService rollupService, ShardFanOut shardFanOut,
+                           DemandForecastService demandForecastService) {
+        this.rollupService = rollupService;
+        this.shardFanOut = shardFanOut;
+        this.demandForecastService = demandForecastService;
+    }
+
+    // Close yesterday shortly after midnight so its rollups exactly match the raw rows, then let
+    // the forecast take in sales posted for days it had already closed
+    @Scheduled(cron = "${app.rollups.rebuild-cron:0 15 0 * * *}")
+    public void rebuildYesterday() {
+        LocalDate yesterday = LocalDate.now().minusDays(1);
+        shardFanOut.forEachShard(() -> rollupService.rebuild(yesterday, yesterday));
+        demandForecastService.rebuildIfLateUsage();
+    }
+}
@@ -0,0 +1,33 @@
+package com.restaurant.stockmanagement.search;
+
+import jakarta.persistence.PostPersist;
+import jakarta.persistence.PostRemove;
+import jakarta.persistence.PostUpdate;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.stereotype.Component;
+
+/**
+ * JPA entity listener feeding entity changes into {@link SearchIndexService}. Hibernate obtains
+ * it from the Spring context; the service is looked up lazily because the repositories it uses
+ * need the entity manager factory that instantiates this listener.
+ */
+@Component
+public class SearchIndexListener {
+
+    private final ObjectProvider<SearchIndexService> searchIndexService;
+
+    public SearchIndexListener(ObjectProvider<SearchIndexService> searchIndexService) {
+        this.searchIndexService = searchIndexService;
+    }
+
+    @PostPersist
+    @PostUpdate
+    public void onSaved(Object entity) {
+        searchIndexService.ifAvailable(service -> service.onSaved(entity));
+    }
+
+    @PostRemove
+    public void onRemoved(Object entity) {
+        searchIndexService.ifAvailable(service -> service.onRemoved(entity));
+    }
+}
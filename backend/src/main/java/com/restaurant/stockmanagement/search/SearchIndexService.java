@@ -0,0 +1,145 @@
+package com.restaurant.stockmanagement.search;
+
+import com.restaurant.stockmanagement.datasource.ShardFanOut;
+import com.restaurant.stockmanagement.model.Food;
+import com.restaurant.stockmanagement.model.Ingredient;
+import com.restaurant.stockmanagement.model.User;
+import com.restaurant.stockmanagement.repository.FoodRepository;
+import com.restaurant.stockmanagement.repository.IngredientRepository;
+import com.restaurant.stockmanagement.repository.UserRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Pageable;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.List;
+
+/**
+ * In-process search over foods (name, category), ingredients (name, category) and users
+ * (username, full name, email), replacing the {@code LIKE '%term%'} scans.
+ *
+ * <p>The indexes are loaded once the application is ready and then kept in sync by
+ * {@link SearchIndexListener}: entity inserts, updates and soft deletes are applied after the
+ * surrounding transaction commits. Until the initial load has finished {@link #isReady()}
+ * returns false and callers fall back to the repository queries.
+ */
+@Service
+public class SearchIndexService {
+
+    private static final Logger log = LoggerFactory.getLogger(SearchIndexService.class);
+
+    private final FoodRepository foodRepository;
+    private final IngredientRepository ingredientRepository;
+    private final UserRepository userRepository;
+    private final ShardFanOut shardFanOut;
+
+    private final TrigramIndex foods = new TrigramIndex(2);
+    private final TrigramIndex ingredients = new TrigramIndex(2);
+    private final TrigramIndex users = new TrigramIndex(3);
+    private volatile boolean ready;
+
+    public SearchIndexService(FoodRepository foodRepository,
+                              IngredientRepository ingredientRepository,
+                              UserRepository userRepository,
+                              ShardFanOut shardFanOut) {
+        this.foodRepository = foodRepository;
+        this.ingredientRepository = ingredientRepository;
+        this.userRepository = userRepository;
+        this.shardFanOut = shardFanOut;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void initialize() {
+        long start = System.currentTimeMillis();
+        load(foods, shardFanOut.queryAll(foodRepository::findSearchDocuments));
+        load(ingredients, shardFanOut.queryAll(ingredientRepository::findSearchDocuments));
+        // Users are not sharded
+        load(users, userRepository.findSearchDocuments());
+        ready = true;
+        log.info("Search indexes loaded in {} ms: {} foods, {} ingredients, {} users",
+                System.currentTimeMillis() - start, foods.size(), ingredients.size(), users.size());
+    }
+
+    public boolean isReady() {
+        return ready;
+    }
+
+    public SearchResult searchFoods(String query, Long branchId, Pageable pageable) {
+        return foods.search(query, branchId, (int) pageable.getOffset(), pageable.getPageSize());
+    }
+
+    public SearchResult searchIngredients(String query, Long branchId, Pageable pageable) {
+        return ingredients.search(query, branchId, (int) pageable.getOffset(), pageable.getPageSize());
+    }
+
+    public SearchResult searchUsers(String query, Long branchId, Pageable pageable) {
+        return users.search(query, branchId, (int) pageable.getOffset(), pageable.getPageSize());
+    }
+
+    void onSaved(Object entity) {
+        afterCommit(() -> {
+            if (entity instanceof Food food) {
+                apply(foods, food.getId(), food.getDeleted(), food.getBranchId(),
+                        food.getName(), food.getCategory());
+            } else if (entity instanceof Ingredient ingredient) {
+                apply(ingredients, ingredient.getId(), ingredient.getDeleted(), ingredient.getBranchId(),
+                        ingredient.getName(), ingredient.getCategory());
+            } else if (entity instanceof User user) {
+                apply(users, user.getId(), user.getDeleted(), user.getBranchId(),
+                        user.getUsername(), user.getFullName(), user.getEmail());
+            }
+        });
+    }
+
+    void onRemoved(Object entity) {
+        afterCommit(() -> {
+            if (entity instanceof Food food) {
+                foods.remove(food.getId());
+            } else if (entity instanceof Ingredient ingredient) {
+                ingredients.remove(ingredient.getId());
+            } else if (entity instanceof User user) {
+                users.remove(user.getId());
+            }
+        });
+    }
+
+    private static void apply(TrigramIndex index, Long id, Boolean deleted, Long branchId, String... fields) {
+        if (Boolean.TRUE.equals(deleted)) {
+            index.remove(id);
+        } else {
+            index.put(id, branchId, fields);
+        }
+    }
+
+    private static void load(TrigramIndex index, List<Object[]> rows) {
+        index.beginLoad();
+        try {
+            for (Object[] row : rows) {
+                String[] fields = new String[row.length - 2];
+                for (int i = 2; i < row.length; i++) {
+                    fields[i - 2] = (String) row[i];
+                }
+                index.load((Long) row[0], (Long) row[1], fields);
+            }
+        } finally {
+            index.endLoad();
+        }
+    }
+
+    private static void afterCommit(Runnable action) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            action.run();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                action.run();
+            }
+        });
+    }
+}
@@ -0,0 +1,9 @@
+package com.restaurant.stockmanagement.search;
+
+import java.util.List;
+
+/**
+ * One page of ranked search hits and the total number of matches.
+ */
+public record SearchResult(List<Long> ids, int total) {
+}
@@ -0,0 +1,308 @@
+package com.restaurant.stockmanagement.search;
+
+import java.text.Normalizer;
+import java.util.*;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.regex.Pattern;
+
+/**
+ * In-memory trigram index over a few text fields per document.
+ *
+ * <p>Every field is normalized (lower case, accents stripped, whitespace collapsed) and split
+ * into overlapping three-character grams; each gram maps to the documents containing
+ * it. A query of three or more characters walks only the shortest posting list among its own
+ * grams and confirms each candidate with a substring check, so results match the old
+ * {@code LIKE '%term%'} semantics. One- and two-character queries match word prefixes through
+ * dedicated prefix grams, since a substring that short would match almost everything.
+ *
+ * <p>Results are ranked by how well the best field matches (exact, field prefix, word prefix,
+ * substring), then by field order, then by the shorter first field.
+ */
+class TrigramIndex {
+
+    private static final Pattern DIACRITICS = Pattern.compile("\\p{M}+");
+    private static final Pattern WHITESPACE = Pattern.compile("\\s+");
+
+    private static final int EXACT = 0;
+    private static final int FIELD_PREFIX = 1;
+    private static final int WORD_PREFIX = 2;
+    private static final int SUBSTRING = 3;
+
+    private final int fieldCount;
+    private final Map<Long, Document> documents = new HashMap<>();
+    private final Map<String, Set<Document>> postings = new HashMap<>();
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    // Ids changed through put/remove while a bulk load is running; the load must not overwrite them
+    private Set<Long> touchedDuringLoad;
+
+    TrigramIndex(int fieldCount) {
+        this.fieldCount = fieldCount;
+    }
+
+    void put(Long id, Long branchId, String... fields) {
+        lock.writeLock().lock();
+        try {
+            if (touchedDuringLoad != null) {
+                touchedDuringLoad.add(id);
+            }
+            index(id, branchId, fields);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    void remove(Long id) {
+        lock.writeLock().lock();
+        try {
+            if (touchedDuringLoad != null) {
+                touchedDuringLoad.add(id);
+            }
+            unindex(id);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Starts a bulk load. Documents put or removed from now on win over the rows passed to
+     * {@link #load}, which may come from an older snapshot.
+     */
+    void beginLoad() {
+        lock.writeLock().lock();
+        try {
+            touchedDuringLoad = new HashSet<>();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    void load(Long id, Long branchId, String... fields) {
+        lock.writeLock().lock();
+        try {
+            if (touchedDuringLoad == null || !touchedDuringLoad.contains(id)) {
+                index(id, branchId, fields);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    void endLoad() {
+        lock.writeLock().lock();
+        try {
+            touchedDuringLoad = null;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    int size() {
+        lock.readLock().lock();
+        try {
+            return documents.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Returns one page of matching ids in rank order together with the total match count.
+     * When {@code branchId} is given, documents of other branches are skipped; documents
+     * without a branch are shared and always match.
+     */
+    SearchResult search(String query, Long branchId, int offset, int limit) {
+        String term = normalize(query);
+        if (term.isEmpty()) {
+            return new SearchResult(List.of(), 0);
+        }
+
+        int keep = offset + limit;
+        // Max-heap on rank so the worst kept hit is evicted first
+        PriorityQueue<Hit> top = new PriorityQueue<>(Comparator.<Hit>naturalOrder().reversed());
+        int total = 0;
+
+        lock.readLock().lock();
+        try {
+            Set<Document> candidates = smallestPosting(term);
+            String wordStart = " " + term;
+            for (Document document : candidates) {
+                if (branchId != null && document.branchId() != null && !branchId.equals(document.branchId())) {
+                    continue;
+                }
+                int rank = rank(document, term, wordStart);
+                if (rank < 0) {
+                    continue;
+                }
+                total++;
+                if (keep <= 0) {
+                    continue;
+                }
+                Hit hit = new Hit(document.id(), rank, document.fields()[0].length());
+                if (top.size() < keep) {
+                    top.add(hit);
+                } else if (hit.compareTo(top.peek()) < 0) {
+                    top.poll();
+                    top.add(hit);
+                }
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+
+        List<Hit> ranked = new ArrayList<>(top);
+        Collections.sort(ranked);
+        List<Long> ids = new ArrayList<>(Math.max(0, ranked.size() - offset));
+        for (int i = offset; i < ranked.size(); i++) {
+            ids.add(ranked.get(i).id());
+        }
+        return new SearchResult(ids, total);
+    }
+
+    private Set<Document> smallestPosting(String term) {
+        Set<Document> smallest = null;
+        for (String gram : queryGrams(term)) {
+            Set<Document> posting = postings.get(gram);
+            if (posting == null) {
+                return Set.of();
+            }
+            if (smallest == null || posting.size() < smallest.size()) {
+                smallest = posting;
+            }
+        }
+        return smallest == null ? Set.of() : smallest;
+    }
+
+    /**
+     * Lowest value wins; -1 means no field matches. Short terms only match at word starts.
+     */
+    private int rank(Document document, String term, String wordStart) {
+        int best = -1;
+        boolean shortTerm = term.length() < 3;
+        for (int field = 0; field < fieldCount; field++) {
+            String text = document.fields()[field];
+            int matchClass;
+            if (text.equals(term)) {
+                matchClass = EXACT;
+            } else if (text.startsWith(term)) {
+                matchClass = FIELD_PREFIX;
+            } else if (text.contains(wordStart)) {
+                matchClass = WORD_PREFIX;
+            } else if (!shortTerm && text.contains(term)) {
+                matchClass = SUBSTRING;
+            } else {
+                continue;
+            }
+            int score = matchClass * fieldCount + field;
+            if (best < 0 || score < best) {
+                best = score;
+            }
+        }
+        return best;
+    }
+
+    private void index(Long id, Long branchId, String[] rawFields) {
+        String[] fields = new String[fieldCount];
+        for (int i = 0; i < fieldCount; i++) {
+            fields[i] = i < rawFields.length ? normalize(rawFields[i]) : "";
+        }
+        Document previous = documents.get(id);
+        if (previous != null && Objects.equals(previous.branchId(), branchId)
+                && Arrays.equals(previous.fields(), fields)) {
+            return;
+        }
+        unindex(id);
+        Document document = new Document(id, branchId, fields);
+        documents.put(id, document);
+        for (String gram : documentGrams(document)) {
+            postings.computeIfAbsent(gram, key -> new HashSet<>()).add(document);
+        }
+    }
+
+    private void unindex(Long id) {
+        Document previous = documents.remove(id);
+        if (previous == null) {
+            return;
+        }
+        for (String gram : documentGrams(previous)) {
+            Set<Document> posting = postings.get(gram);
+            if (posting != null) {
+                posting.remove(previous);
+                if (posting.isEmpty()) {
+                    postings.remove(gram);
+                }
+            }
+        }
+    }
+
+    private static Set<String> documentGrams(Document document) {
+        Set<String> grams = new HashSet<>();
+        for (String text : document.fields()) {
+            for (int i = 0; i + 3 <= text.length(); i++) {
+                grams.add(text.substring(i, i + 3));
+            }
+            for (String word : text.split(" ")) {
+                if (!word.isEmpty()) {
+                    grams.add(prefixGram(word.substring(0, 1)));
+                    if (word.length() > 1) {
+                        grams.add(prefixGram(word.substring(0, 2)));
+                    }
+                }
+            }
+        }
+        return grams;
+    }
+
+    private static List<String> queryGrams(String term) {
+        if (term.length() < 3) {
+            return List.of(prefixGram(term));
+        }
+        List<String> grams = new ArrayList<>(term.length() - 2);
+        for (int i = 0; i + 3 <= term.length(); i++) {
+            grams.add(term.substring(i, i + 3));
+        }
+        return grams;
+    }
+
+    // Left-padded with a marker that normalize() can never produce, so it never collides with a trigram
+    private static String prefixGram(String prefix) {
+        return "\u0000".repeat(3 - prefix.length()) + prefix;
+    }
+
+    static String normalize(String value) {
+        if (value == null) {
+            return "";
+        }
+        String stripped = isAscii(value)
+                ? value
+                : DIACRITICS.matcher(Normalizer.normalize(value, Normalizer.Form.NFD)).replaceAll("");
+        return WHITESPACE.matcher(stripped.toLowerCase(Locale.ROOT).replace('\u0000', ' ')).replaceAll(" ").trim();
+    }
+
+    private static boolean isAscii(String value) {
+        for (int i = 0; i < value.length(); i++) {
+            if (value.charAt(i) > 127) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private record Document(Long id, Long branchId, String[] fields) {
+    }
+
+    private record Hit(Long id, int rank, int length) implements Comparable<Hit> {
+
+        @Override
+        public int compareTo(Hit other) {
+            if (rank != other.rank) {
+                return Integer.compare(rank, other.rank);
+            }
+            if (length != other.length) {
+                return Integer.compare(length, other.length);
+            }
+            return Long.compare(id, other.id);
+        }
+    }
+}
@@ -0,0 +1,164 @@
+package com.restaurant.stockmanagement.security;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.stereotype.Service;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.security.SecureRandom;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.List;
+import java.util.stream.Collectors;
+
+/**
+ * Issues and verifies stateless bearer tokens signed with HMAC-SHA256.
+ *
+ * <p>A token carries the user id, branch, username, authorities and its validity window, so a request
+ * presenting one is authenticated without touching the HTTP session or the database. Tokens
+ * are short-lived; in addition, a change to the user row rejects every token issued before it
+ * (see {@link UserChangeListener}). That revocation list lives in memory and only needs to
+ * outlive the token lifetime.
+ *
+ * <p>Set {@code app.security.token.secret} (at least 32 bytes) when several instances serve the
+ * same clients or tokens must survive a restart; otherwise a random key is generated.
+ */
+@Service
+public class AuthTokenService {
+
+    public static final String TOKEN_TYPE = "Bearer";
+
+    private static final Logger log = LoggerFactory.getLogger(AuthTokenService.class);
+    private static final String ALGORITHM = "HmacSHA256";
+    private static final String VERSION = "v1";
+    private static final Base64.Encoder ENCODER = Base64.getUrlEncoder().withoutPadding();
+    private static final Base64.Decoder DECODER = Base64.getUrlDecoder();
+
+    private final boolean enabled;
+    private final Duration ttl;
+    private final SecretKeySpec key;
+
+    // User id -> epoch millis of the last change; tokens issued up to then are rejected
+    private final Cache<Long, Long> changedAt;
+
+    public AuthTokenService(@Value("${app.security.token.enabled:false}") boolean enabled,
+                            @Value("${app.security.token.secret:}") String secret,
+                            @Value("${app.security.token.ttl:900}") long ttlSeconds) {
+        this.enabled = enabled;
+        this.ttl = Duration.ofSeconds(ttlSeconds);
+        this.key = new SecretKeySpec(keyBytes(secret, enabled), ALGORITHM);
+        this.changedAt = Caffeine.newBuilder()
+                .expireAfterWrite(ttl)
+                .build();
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public AuthToken issue(BranchUserDetails user) {
+        Instant issuedAt = Instant.now();
+        Instant expiresAt = issuedAt.plus(ttl);
+        String authorities = user.getAuthorities().stream()
+                .map(GrantedAuthority::getAuthority)
+                .collect(Collectors.joining(","));
+        String payload = String.join("|", VERSION,
+                Long.toString(issuedAt.toEpochMilli()),
+                Long.toString(expiresAt.toEpochMilli()),
+                Long.toString(user.getUserId()),
+                user.getBranchId() == null ? "" : Long.toString(user.getBranchId()),
+                authorities,
+                user.getUsername());
+        String encoded = ENCODER.encodeToString(payload.getBytes(StandardCharsets.UTF_8));
+        String token = encoded + "." + ENCODER.encodeToString(sign(encoded));
+        return new AuthToken(token, expiresAt);
+    }
+
+    /**
+     * The authentication carried by {@code token}, or null when it is malformed, forged,
+     * expired or revoked.
+     */
+    public Authentication authenticate(String token) {
+        int dot = token.indexOf('.');
+        if (dot <= 0) {
+            return null;
+        }
+        String encoded = token.substring(0, dot);
+        try {
+            if (!MessageDigest.isEqual(sign(encoded), DECODER.decode(token.substring(dot + 1)))) {
+                return null;
+            }
+            String[] parts = new String(DECODER.decode(encoded), StandardCharsets.UTF_8).split("\\|", 7);
+            if (parts.length != 7 || !VERSION.equals(parts[0])) {
+                return null;
+            }
+            long issuedAt = Long.parseLong(parts[1]);
+            long expiresAt = Long.parseLong(parts[2]);
+            Long userId = Long.valueOf(parts[3]);
+            Long branchId = parts[4].isEmpty() ? null : Long.valueOf(parts[4]);
+            if (expiresAt <= System.currentTimeMillis()) {
+                return null;
+            }
+            Long lastChange = changedAt.getIfPresent(userId);
+            if (lastChange != null && issuedAt <= lastChange) {
+                return null;
+            }
+            List<GrantedAuthority> authorities = new ArrayList<>();
+            for (String authority : parts[5].split(",")) {
+                if (!authority.isEmpty()) {
+                    authorities.add(new SimpleGrantedAuthority(authority));
+                }
+            }
+            BranchUserDetails principal = new BranchUserDetails(userId, branchId, parts[6], "", authorities);
+            return UsernamePasswordAuthenticationToken.authenticated(principal, null, authorities);
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+    }
+
+    void userChanged(Long userId) {
+        changedAt.put(userId, System.currentTimeMillis());
+    }
+
+    private byte[] sign(String encodedPayload) {
+        try {
+            Mac mac = Mac.getInstance(ALGORITHM);
+            mac.init(key);
+            return mac.doFinal(encodedPayload.getBytes(StandardCharsets.US_ASCII));
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("HMAC-SHA256 is not available", e);
+        }
+    }
+
+    private static byte[] keyBytes(String secret, boolean enabled) {
+        if (secret != null && !secret.isBlank()) {
+            byte[] bytes = secret.getBytes(StandardCharsets.UTF_8);
+            if (bytes.length < 32) {
+                throw new IllegalStateException("app.security.token.secret must be at least 32 bytes");
+            }
+            return bytes;
+        }
+        if (enabled) {
+            log.warn("No app.security.token.secret set; tokens are signed with a random key and die with this instance");
+        }
+        byte[] random = new byte[32];
+        new SecureRandom().nextBytes(random);
+        return random;
+    }
+
+    public record AuthToken(String token, Instant expiresAt) {
+    }
+}
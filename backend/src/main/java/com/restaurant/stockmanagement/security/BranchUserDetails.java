@@ -0,0 +1,34 @@
+package com.restaurant.stockmanagement.security;
+
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.userdetails.User;
+
+import java.util.Collection;
+
+/**
+ * Authenticated principal that also knows the user's id and branch, so requests can be routed
+ * to the branch's database without looking the user up again.
+ */
+public class BranchUserDetails extends User {
+
+    private final Long userId;
+    private final Long branchId;
+
+    public BranchUserDetails(Long userId, Long branchId, String username, String password,
+                             Collection<? extends GrantedAuthority> authorities) {
+        super(username, password, true, true, true, true, authorities);
+        this.userId = userId;
+        this.branchId = branchId;
+    }
+
+    public Long getUserId() {
+        return userId;
+    }
+
+    /**
+     * The user's branch, or null for users working across branches (owners).
+     */
+    public Long getBranchId() {
+        return branchId;
+    }
+}
@@ -1,30 +1,86 @@
 package com.restaurant.stockmanagement.security;
 
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
 import com.restaurant.stockmanagement.model.User;
 import com.restaurant.stockmanagement.repository.UserRepository;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.security.core.GrantedAuthority;
 import org.springframework.security.core.authority.SimpleGrantedAuthority;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import org.springframework.stereotype.Service;
-import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 
-import java.util.Collection;
+import java.time.Duration;
+import java.util.List;
 import java.util.stream.Collectors;
 
+/**
+ * Loads users for authentication, keeping recently used ones in a bounded, expiring cache so a
+ * login does not always need the users/user_roles join. {@link UserChangeListener} evicts a user
+ * whenever the row is updated or removed (password, roles, active flag, username).
+ *
+ * <p>The cache holds plain values and hands out a new {@link UserDetails} on every call: Spring
+ * Security erases the password of the instance it authenticated, which would corrupt a shared one.
+ */
 @Service
 public class CustomUserDetailsService implements UserDetailsService {
 
     private final UserRepository userRepository;
+    private final Cache<String, CachedUser> cache;
 
-    public CustomUserDetailsService(UserRepository userRepository) {
+    public CustomUserDetailsService(UserRepository userRepository,
+                                    @Value("${app.security.user-cache.max-size:1000}") long maxSize,
+                                    @Value("${app.security.user-cache.ttl:300}") long ttlSeconds) {
         this.userRepository = userRepository;
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(Duration.ofSeconds(ttlSeconds))
+                .recordStats()
+                .build();
     }
 
     @Override
-    @Transactional
     public UserDetails loadUserByUsername(String username) throws UsernameNotFoundException {
+        CachedUser cached = cache.getIfPresent(username);
+        if (cached == null) {
+            cached = load(username);
+            cache.put(username, cached);
+        }
+        return cached.toUserDetails();
+    }
+
+    /**
+     * The user cache, for hit-ratio metrics.
+     */
+    public Cache<String, ?> getCache() {
+        return cache;
+    }
+
+    /**
+     * Drops every cached entry of the user, now and again once the surrounding transaction
+     * commits, so a concurrent login cannot re-cache the row as it was before the change.
+     */
+    void userChanged(Long userId) {
+        evict(userId);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    evict(userId);
+                }
+            });
+        }
+    }
+
+    private void evict(Long userId) {
+        cache.asMap().values().removeIf(cached -> cached.userId().equals(userId));
+    }
+
+    private CachedUser load(String username) {
         User user = userRepository.findByUsername(username)
                 .orElseThrow(() -> new UsernameNotFoundException("User not found: " + username));
 
@@ -32,20 +88,21 @@ public class CustomUserDetailsService implements UserDetailsService {
             throw new UsernameNotFoundException("User account is disabled: " + username);
         }
 
-        return new org.springframework.security.core.userdetails.User(
-                user.getUsername(),
-                user.getPassword(),
-                user.getActive(),
-                true,
-                true,
-                true,
-                mapRolesToAuthorities(user)
-        );
+        return new CachedUser(user.getId(), user.getBranchId(), user.getUsername(), user.getPassword(),
+                mapRolesToAuthorities(user));
     }
 
-    private Collection<? extends GrantedAuthority> mapRolesToAuthorities(User user) {
+    private List<GrantedAuthority> mapRolesToAuthorities(User user) {
         return user.getRoles().stream()
                 .map(role -> new SimpleGrantedAuthority(role.name()))
-                .collect(Collectors.toList());
+                .collect(Collectors.toUnmodifiableList());
+    }
+
+    record CachedUser(Long userId, Long branchId, String username, String password,
+                      List<GrantedAuthority> authorities) {
+
+        UserDetails toUserDetails() {
+            return new BranchUserDetails(userId, branchId, username, password, authorities);
+        }
     }
 }
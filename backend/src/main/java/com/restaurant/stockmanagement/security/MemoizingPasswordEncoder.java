@@ -0,0 +1,93 @@
+package com.restaurant.stockmanagement.security;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.security.SecureRandom;
+import java.time.Duration;
+
+/**
+ * Remembers recent successful password checks so a till logging in again does not pay for a
+ * full BCrypt round each time.
+ *
+ * <p>Entries map a stored hash to an HMAC of the raw password under a random key that only
+ * lives in this process; neither the raw password nor anything usable outside the JVM is kept.
+ * A changed password has a new stored hash and therefore never hits an old entry. Failed
+ * checks are never remembered.
+ *
+ * <p>Off unless {@code app.security.remember-password-checks} is set, because it gives up part
+ * of what BCrypt is for. While an entry lives, anyone who can read this process's memory (a
+ * heap dump, a debugger) gets the key with it and can test password guesses at HMAC speed
+ * instead of BCrypt speed. Only turn it on where logins are frequent enough for BCrypt to
+ * matter and heap dumps are as well protected as the database.
+ */
+public class MemoizingPasswordEncoder implements PasswordEncoder {
+
+    private static final String ALGORITHM = "HmacSHA256";
+
+    private final PasswordEncoder delegate;
+    private final SecretKeySpec key;
+    private final Cache<String, byte[]> verified;
+
+    public MemoizingPasswordEncoder(PasswordEncoder delegate, long maxSize, Duration ttl) {
+        this.delegate = delegate;
+        byte[] secret = new byte[32];
+        new SecureRandom().nextBytes(secret);
+        this.key = new SecretKeySpec(secret, ALGORITHM);
+        this.verified = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(ttl)
+                .recordStats()
+                .build();
+    }
+
+    /**
+     * The remembered checks, for hit-ratio metrics.
+     */
+    public Cache<String, ?> getCache() {
+        return verified;
+    }
+
+    @Override
+    public String encode(CharSequence rawPassword) {
+        return delegate.encode(rawPassword);
+    }
+
+    @Override
+    public boolean matches(CharSequence rawPassword, String encodedPassword) {
+        if (rawPassword == null || encodedPassword == null) {
+            return delegate.matches(rawPassword, encodedPassword);
+        }
+        byte[] fingerprint = fingerprint(rawPassword);
+        byte[] known = verified.getIfPresent(encodedPassword);
+        if (known != null && MessageDigest.isEqual(known, fingerprint)) {
+            return true;
+        }
+        boolean matches = delegate.matches(rawPassword, encodedPassword);
+        if (matches) {
+            verified.put(encodedPassword, fingerprint);
+        }
+        return matches;
+    }
+
+    @Override
+    public boolean upgradeEncoding(String encodedPassword) {
+        return delegate.upgradeEncoding(encodedPassword);
+    }
+
+    private byte[] fingerprint(CharSequence rawPassword) {
+        try {
+            Mac mac = Mac.getInstance(ALGORITHM);
+            mac.init(key);
+            return mac.doFinal(rawPassword.toString().getBytes(StandardCharsets.UTF_8));
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("HMAC-SHA256 is not available", e);
+        }
+    }
+}
@@ -0,0 +1,32 @@
+package com.restaurant.stockmanagement.security;
+
+import com.restaurant.stockmanagement.model.User;
+import jakarta.persistence.PostRemove;
+import jakarta.persistence.PostUpdate;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.stereotype.Component;
+
+/**
+ * JPA entity listener that invalidates cached credentials and issued tokens of a {@link User}
+ * whenever the row changes. The services are looked up lazily because they depend on
+ * repositories that need the entity manager factory creating this listener.
+ */
+@Component
+public class UserChangeListener {
+
+    private final ObjectProvider<CustomUserDetailsService> userDetailsService;
+    private final ObjectProvider<AuthTokenService> authTokenService;
+
+    public UserChangeListener(ObjectProvider<CustomUserDetailsService> userDetailsService,
+                              ObjectProvider<AuthTokenService> authTokenService) {
+        this.userDetailsService = userDetailsService;
+        this.authTokenService = authTokenService;
+    }
+
+    @PostUpdate
+    @PostRemove
+    public void onChanged(User user) {
+        userDetailsService.ifAvailable(service -> service.userChanged(user.getId()));
+        authTokenService.ifAvailable(service -> service.userChanged(user.getId()));
+    }
+}
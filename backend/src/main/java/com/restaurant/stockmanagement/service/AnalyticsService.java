@@ -0,0 +1,230 @@
+package com.restaurant.stockmanagement.service;
+
+import com.restaurant.stockmanagement.archive.LedgerArchiver;
+import com.restaurant.stockmanagement.datasource.ShardFanOut;
+import com.restaurant.stockmanagement.dto.FoodSalesSummary;
+import com.restaurant.stockmanagement.dto.IngredientUsageSummary;
+import com.restaurant.stockmanagement.repository.*;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.util.*;
+
+/**
+ * Dashboard analytics. Whole, closed days are read from the daily rollup tables; only the
+ * partial days at the edges of the range (including today) are aggregated from raw rows, taking
+ * in the archive tables when an edge lies in an archived month.
+ * Cross-branch requests in a sharded deployment aggregate every database in parallel and
+ * merge the partial results.
+ */
+@Service
+@Transactional(readOnly = true)
+public class AnalyticsService {
+
+    private final SaleRepository saleRepository;
+    private final SaleItemRepository saleItemRepository;
+    private final StockTransactionRepository transactionRepository;
+    private final DailySalesRollupRepository salesRollupRepository;
+    private final DailyFoodSalesRollupRepository foodSalesRollupRepository;
+    private final DailyIngredientUsageRollupRepository ingredientUsageRollupRepository;
+    private final ShardFanOut shardFanOut;
+    private final LedgerArchiver ledgerArchiver;
+
+    public AnalyticsService(SaleRepository saleRepository,
+                          SaleItemRepository saleItemRepository,
+                          StockTransactionRepository transactionRepository,
+                          DailySalesRollupRepository salesRollupRepository,
+                          DailyFoodSalesRollupRepository foodSalesRollupRepository,
+                          DailyIngredientUsageRollupRepository ingredientUsageRollupRepository,
+                          ShardFanOut shardFanOut,
+                          LedgerArchiver ledgerArchiver) {
+        this.saleRepository = saleRepository;
+        this.saleItemRepository = saleItemRepository;
+        this.transactionRepository = transactionRepository;
+        this.salesRollupRepository = salesRollupRepository;
+        this.foodSalesRollupRepository = foodSalesRollupRepository;
+        this.ingredientUsageRollupRepository = ingredientUsageRollupRepository;
+        this.shardFanOut = shardFanOut;
+        this.ledgerArchiver = ledgerArchiver;
+    }
+
+    public Double getTotalSalesBetweenDates(LocalDateTime startDate, LocalDateTime endDate) {
+        if (shardFanOut.isCrossBranch()) {
+            return shardFanOut.query(() -> totalSales(startDate, endDate)).stream()
+                    .mapToDouble(Double::doubleValue)
+                    .sum();
+        }
+        return totalSales(startDate, endDate);
+    }
+
+    /**
+     * Highest quantity first.
+     */
+    public List<FoodSalesSummary> getMostSoldFoods(LocalDateTime startDate, LocalDateTime endDate) {
+        Map<Long, FoodSalesSummary> merged;
+        if (shardFanOut.isCrossBranch()) {
+            merged = new HashMap<>();
+            for (Map<Long, FoodSalesSummary> shard : shardFanOut.query(() -> soldFoods(startDate, endDate))) {
+                mergeFoods(merged, shard.values());
+            }
+        } else {
+            merged = soldFoods(startDate, endDate);
+        }
+        List<FoodSalesSummary> results = new ArrayList<>(merged.values());
+        results.sort(Comparator.comparing(FoodSalesSummary::quantity).reversed());
+        return results;
+    }
+
+    /**
+     * Most frequently used first.
+     */
+    public List<IngredientUsageSummary> getMostUsedIngredients(LocalDateTime startDate, LocalDateTime endDate) {
+        Map<Long, IngredientUsageSummary> merged;
+        if (shardFanOut.isCrossBranch()) {
+            merged = new HashMap<>();
+            for (Map<Long, IngredientUsageSummary> shard : shardFanOut.query(() -> usedIngredients(startDate, endDate))) {
+                mergeIngredients(merged, shard.values());
+            }
+        } else {
+            merged = usedIngredients(startDate, endDate);
+        }
+        List<IngredientUsageSummary> results = new ArrayList<>(merged.values());
+        results.sort(Comparator.comparing(IngredientUsageSummary::usageCount).reversed());
+        return results;
+    }
+
+    private double totalSales(LocalDateTime startDate, LocalDateTime endDate) {
+        RollupWindow window = RollupWindow.of(startDate, endDate);
+        double total = 0.0;
+        if (window.hasRollupDays()) {
+            total += valueOrZero(salesRollupRepository.getTotalSalesBetweenDates(window.firstDay(), window.lastDay()));
+        }
+        for (LocalDateTime[] range : window.rawRanges()) {
+            total += valueOrZero(saleRepository.getTotalSalesBetweenDates(range[0], range[1]));
+            if (ledgerArchiver.reachesArchive(range[0])) {
+                total += valueOrZero(saleRepository.getTotalArchivedSalesBetweenDates(range[0], range[1]));
+            }
+        }
+        return total;
+    }
+
+    private Map<Long, FoodSalesSummary> soldFoods(LocalDateTime startDate, LocalDateTime endDate) {
+        RollupWindow window = RollupWindow.of(startDate, endDate);
+        Map<Long, FoodSalesSummary> merged = new HashMap<>();
+        if (window.hasRollupDays()) {
+            mergeFoods(merged, foodSalesRollupRepository.findSoldFoodsBetweenDates(window.firstDay(), window.lastDay()));
+        }
+        for (LocalDateTime[] range : window.rawRanges()) {
+            mergeFoods(merged, saleItemRepository.findMostSoldFoods(range[0], range[1]));
+            if (ledgerArchiver.reachesArchive(range[0])) {
+                List<FoodSalesSummary> archived = new ArrayList<>();
+                for (Object[] row : saleItemRepository.findMostSoldArchivedFoods(range[0], range[1])) {
+                    archived.add(new FoodSalesSummary(((Number) row[0]).longValue(), (String) row[1],
+                            ((Number) row[2]).longValue(), ((Number) row[3]).doubleValue()));
+                }
+                mergeFoods(merged, archived);
+            }
+        }
+        return merged;
+    }
+
+    private Map<Long, IngredientUsageSummary> usedIngredients(LocalDateTime startDate, LocalDateTime endDate) {
+        RollupWindow window = RollupWindow.of(startDate, endDate);
+        Map<Long, IngredientUsageSummary> merged = new HashMap<>();
+        if (window.hasRollupDays()) {
+            mergeIngredients(merged,
+                    ingredientUsageRollupRepository.findUsedIngredientsBetweenDates(window.firstDay(), window.lastDay()));
+        }
+        for (LocalDateTime[] range : window.rawRanges()) {
+            mergeIngredients(merged, transactionRepository.findMostUsedIngredients(range[0], range[1]));
+            if (ledgerArchiver.reachesArchive(range[0])) {
+                List<IngredientUsageSummary> archived = new ArrayList<>();
+                for (Object[] row : transactionRepository.findMostUsedArchivedIngredients(range[0], range[1])) {
+                    archived.add(new IngredientUsageSummary(((Number) row[0]).longValue(),
+                            ((Number) row[1]).longValue(), ((Number) row[2]).doubleValue()));
+                }
+                mergeIngredients(merged, archived);
+            }
+        }
+        return merged;
+    }
+
+    public Map<String, Object> getMostUsedIngredients(int days) {
+        LocalDateTime endDate = LocalDateTime.now();
+        LocalDateTime startDate = endDate.minusDays(days);
+
+        Map<String, Object> analytics = new HashMap<>();
+        analytics.put("period", days + " days");
+        analytics.put("startDate", startDate);
+        analytics.put("endDate", endDate);
+        analytics.put("mostUsedIngredients", getMostUsedIngredients(startDate, endDate));
+        return analytics;
+    }
+
+    public Map<String, Object> getMostSoldFoods(int days) {
+        LocalDateTime endDate = LocalDateTime.now();
+        LocalDateTime startDate = endDate.minusDays(days);
+
+        Map<String, Object> analytics = new HashMap<>();
+        analytics.put("period", days + " days");
+        analytics.put("startDate", startDate);
+        analytics.put("endDate", endDate);
+        analytics.put("mostSoldFoods", getMostSoldFoods(startDate, endDate));
+        return analytics;
+    }
+
+    private void mergeFoods(Map<Long, FoodSalesSummary> merged, Collection<FoodSalesSummary> rows) {
+        for (FoodSalesSummary row : rows) {
+            merged.merge(row.foodId(), row, FoodSalesSummary::plus);
+        }
+    }
+
+    private void mergeIngredients(Map<Long, IngredientUsageSummary> merged, Collection<IngredientUsageSummary> rows) {
+        for (IngredientUsageSummary row : rows) {
+            merged.merge(row.ingredientId(), row, IngredientUsageSummary::plus);
+        }
+    }
+
+    private static double valueOrZero(Double value) {
+        return value != null ? value : 0.0;
+    }
+
+    /**
+     * Splits [start, end] into whole closed days served by rollups and up to two raw ranges.
+     */
+    private record RollupWindow(LocalDate firstDay, LocalDate lastDay, List<LocalDateTime[]> rawRanges) {
+
+        static RollupWindow of(LocalDateTime start, LocalDateTime end) {
+            LocalDate firstDay = start.toLocalTime().equals(LocalTime.MIDNIGHT)
+                    ? start.toLocalDate()
+                    : start.toLocalDate().plusDays(1);
+            LocalDate lastDay = end.toLocalDate().minusDays(1);
+            LocalDate yesterday = LocalDate.now().minusDays(1);
+            if (lastDay.isAfter(yesterday)) {
+                lastDay = yesterday;
+            }
+
+            List<LocalDateTime[]> rawRanges = new ArrayList<>(2);
+            if (firstDay.isAfter(lastDay)) {
+                rawRanges.add(new LocalDateTime[]{start, end});
+                return new RollupWindow(firstDay, lastDay, rawRanges);
+            }
+            LocalDateTime rollupStart = firstDay.atStartOfDay();
+            LocalDateTime rollupEnd = lastDay.plusDays(1).atStartOfDay();
+            if (start.isBefore(rollupStart)) {
+                rawRanges.add(new LocalDateTime[]{start, rollupStart.minusNanos(1000)});
+            }
+            if (!end.isBefore(rollupEnd)) {
+                rawRanges.add(new LocalDateTime[]{rollupEnd, end});
+            }
+            return new RollupWindow(firstDay, lastDay, rawRanges);
+        }
+
+        boolean hasRollupDays() {
+            return !firstDay.isAfter(lastDay);
+        }
+    }
+}
@@ -0,0 +1,90 @@
+package com.restaurant.stockmanagement.service;
+
+import com.restaurant.stockmanagement.dto.AuthTokenResponse;
+import com.restaurant.stockmanagement.dto.LoginRequest;
+import com.restaurant.stockmanagement.dto.UserResponse;
+import com.restaurant.stockmanagement.exception.ResourceNotFoundException;
+import com.restaurant.stockmanagement.model.User;
+import com.restaurant.stockmanagement.repository.UserRepository;
+import com.restaurant.stockmanagement.security.AuthTokenService;
+import com.restaurant.stockmanagement.security.BranchUserDetails;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpSession;
+import org.springframework.security.authentication.AuthenticationManager;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContext;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.security.web.context.HttpSessionSecurityContextRepository;
+import org.springframework.stereotype.Service;
+
+@Service
+public class AuthService {
+
+    private final UserRepository userRepository;
+    private final AuthenticationManager authenticationManager;
+    private final AuthTokenService authTokenService;
+
+    public AuthService(UserRepository userRepository,
+                       AuthenticationManager authenticationManager,
+                       AuthTokenService authTokenService) {
+        this.userRepository = userRepository;
+        this.authenticationManager = authenticationManager;
+        this.authTokenService = authTokenService;
+    }
+
+    public UserResponse login(LoginRequest request, HttpServletRequest httpRequest) {
+        Authentication authentication = authenticate(request);
+
+        SecurityContext securityContext = SecurityContextHolder.createEmptyContext();
+        securityContext.setAuthentication(authentication);
+        SecurityContextHolder.setContext(securityContext);
+
+        HttpSession session = httpRequest.getSession(true);
+        session.setAttribute(HttpSessionSecurityContextRepository.SPRING_SECURITY_CONTEXT_KEY, securityContext);
+
+        return findUser(authentication.getName());
+    }
+
+    /**
+     * Authenticates without creating a session and returns a signed token for the
+     * {@code Authorization: Bearer} header.
+     */
+    public AuthTokenResponse issueToken(LoginRequest request) {
+        Authentication authentication = authenticate(request);
+        BranchUserDetails user = (BranchUserDetails) authentication.getPrincipal();
+        AuthTokenService.AuthToken token = authTokenService.issue(user);
+        return new AuthTokenResponse(token.token(), AuthTokenService.TOKEN_TYPE, token.expiresAt(),
+                findUser(user.getUsername()));
+    }
+
+    public UserResponse getCurrentUser() {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        return findUser(authentication.getName());
+    }
+
+    private Authentication authenticate(LoginRequest request) {
+        return authenticationManager.authenticate(
+                new UsernamePasswordAuthenticationToken(request.getUsername(), request.getPassword())
+        );
+    }
+
+    private UserResponse findUser(String username) {
+        User user = userRepository.findByUsername(username)
+                .orElseThrow(() -> new ResourceNotFoundException("User", "username", username));
+        return mapToUserResponse(user);
+    }
+
+    private UserResponse mapToUserResponse(User user) {
+        return new UserResponse(
+                user.getId(),
+                user.getUsername(),
+                user.getEmail(),
+                user.getFullName(),
+                user.getPhoneNumber(),
+                user.getBranchId(),
+                user.getRoles(),
+                user.getActive()
+        );
+    }
+}
@@ -0,0 +1,148 @@
+package com.restaurant.stockmanagement.service;
+
+import com.restaurant.stockmanagement.dto.FoodDTO;
+import com.restaurant.stockmanagement.dto.RecipeIngredientDTO;
+import com.restaurant.stockmanagement.dto.SellablePortionsDTO;
+import com.restaurant.stockmanagement.exception.ResourceNotFoundException;
+import com.restaurant.stockmanagement.menu.MenuItem;
+import com.restaurant.stockmanagement.menu.MenuSnapshot;
+import com.restaurant.stockmanagement.menu.MenuSnapshotService;
+import com.restaurant.stockmanagement.menu.SellablePortionsService;
+import com.restaurant.stockmanagement.model.RecipeIngredient;
+import com.restaurant.stockmanagement.repository.FoodRepository;
+import com.restaurant.stockmanagement.repository.RecipeIngredientRepository;
+import com.restaurant.stockmanagement.search.SearchIndexService;
+import com.restaurant.stockmanagement.search.SearchResult;
+import org.springframework.cache.annotation.Cacheable;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.Pageable;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.OptionalInt;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+@Service
+public class FoodService {
+
+    private final FoodRepository foodRepository;
+    private final RecipeIngredientRepository recipeIngredientRepository;
+    private final SearchIndexService searchIndexService;
+    private final MenuSnapshotService menuSnapshotService;
+    private final SellablePortionsService sellablePortionsService;
+
+    public FoodService(FoodRepository foodRepository,
+                      RecipeIngredientRepository recipeIngredientRepository,
+                      SearchIndexService searchIndexService,
+                      MenuSnapshotService menuSnapshotService,
+                      SellablePortionsService sellablePortionsService) {
+        this.foodRepository = foodRepository;
+        this.recipeIngredientRepository = recipeIngredientRepository;
+        this.searchIndexService = searchIndexService;
+        this.menuSnapshotService = menuSnapshotService;
+        this.sellablePortionsService = sellablePortionsService;
+    }
+
+    /**
+     * Served from the menu snapshot; no database access.
+     */
+    public FoodDTO getFoodById(Long id) {
+        return menuSnapshotService.current().find(id)
+                .map(this::mapToDTO)
+                .orElseThrow(() -> new ResourceNotFoundException("Food", "id", id));
+    }
+
+    /**
+     * Served from the menu snapshot; no database access.
+     */
+    public List<FoodDTO> getAvailableFoods(Long branchId) {
+        return menuSnapshotService.current().getAvailableItems(branchId).stream()
+                .map(this::mapToDTO)
+                .collect(Collectors.toList());
+    }
+
+    /**
+     * Portions sellable right now for every food of a branch (plus shared foods), so the POS
+     * can grey out sold-out items. Served from memory.
+     */
+    public List<SellablePortionsDTO> getSellablePortions(Long branchId) {
+        MenuSnapshot snapshot = menuSnapshotService.current();
+        List<SellablePortionsDTO> result = new ArrayList<>(snapshot.size());
+        for (MenuItem item : snapshot.getItems()) {
+            if (branchId != null && item.getBranchId() != null && !branchId.equals(item.getBranchId())) {
+                continue;
+            }
+            OptionalInt portions = sellablePortionsService.getPortions(item.getFoodId());
+            Integer limit = portions.isEmpty() || portions.getAsInt() == SellablePortionsService.UNLIMITED
+                    ? null
+                    : portions.getAsInt();
+            result.add(new SellablePortionsDTO(item.getFoodId(), item.getName(), limit,
+                    limit == null || limit > 0));
+        }
+        return result;
+    }
+
+    @Cacheable(value = MenuSnapshotService.RECIPES_CACHE, key = "#foodId")
+    @Transactional(readOnly = true)
+    public List<RecipeIngredientDTO> getRecipe(Long foodId) {
+        if (menuSnapshotService.current().find(foodId).isEmpty()) {
+            throw new ResourceNotFoundException("Food", "id", foodId);
+        }
+        return recipeIngredientRepository.findActiveRecipesByFoodIds(List.of(foodId)).stream()
+                .map(this::mapRecipeToDTO)
+                .collect(Collectors.toList());
+    }
+
+    /**
+     * Ranked search on name and category through the in-memory index; only the foods on
+     * the requested page are read, straight into DTOs. Falls back to the LIKE query while
+     * the index loads.
+     */
+    @Transactional(readOnly = true)
+    public Page<FoodDTO> searchFoods(String search, Long branchId, Pageable pageable) {
+        if (!searchIndexService.isReady()) {
+            return foodRepository.searchFoods(search, branchId, pageable);
+        }
+
+        SearchResult result = searchIndexService.searchFoods(search, branchId, pageable);
+        Map<Long, FoodDTO> foods = foodRepository.findDTOsByIdIn(result.ids()).stream()
+                .collect(Collectors.toMap(FoodDTO::getId, Function.identity()));
+        List<FoodDTO> content = result.ids().stream()
+                .map(foods::get)
+                .filter(Objects::nonNull)
+                .collect(Collectors.toList());
+        return new PageImpl<>(content, pageable, result.total());
+    }
+
+    private FoodDTO mapToDTO(MenuItem item) {
+        FoodDTO dto = new FoodDTO();
+        dto.setId(item.getFoodId());
+        dto.setName(item.getName());
+        dto.setDescription(item.getDescription());
+        dto.setPrice(item.getPrice());
+        dto.setAvailable(item.isAvailable());
+        dto.setCategory(item.getCategory());
+        dto.setImageUrl(item.getImageUrl());
+        dto.setPreparationTime(item.getPreparationTime());
+        dto.setBranchId(item.getBranchId());
+        return dto;
+    }
+
+    private RecipeIngredientDTO mapRecipeToDTO(RecipeIngredient ri) {
+        RecipeIngredientDTO dto = new RecipeIngredientDTO();
+        dto.setId(ri.getId());
+        dto.setFoodId(ri.getFood().getId());
+        dto.setIngredientId(ri.getIngredient().getId());
+        dto.setIngredientName(ri.getIngredient().getName());
+        dto.setIngredientUnit(ri.getIngredient().getUnit());
+        dto.setQuantity(ri.getQuantity());
+        dto.setNotes(ri.getNotes());
+        return dto;
+    }
+}
@@ -0,0 +1,607 @@
+package com.restaurant.stockmanagement.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.restaurant.stockmanagement.config.ExecutorConfig;
+import com.restaurant.stockmanagement.dto.ImportJobDTO;
+import com.restaurant.stockmanagement.event.IngredientChangedEvent;
+import com.restaurant.stockmanagement.exception.ResourceNotFoundException;
+import com.restaurant.stockmanagement.importer.*;
+import com.restaurant.stockmanagement.ledger.StockLedger;
+import com.restaurant.stockmanagement.lot.StockLotBook;
+import com.restaurant.stockmanagement.model.*;
+import com.restaurant.stockmanagement.report.ReportFormat;
+import com.restaurant.stockmanagement.report.ReportWriter;
+import com.restaurant.stockmanagement.repository.FoodRepository;
+import com.restaurant.stockmanagement.repository.IngredientRepository;
+import com.restaurant.stockmanagement.repository.RecipeIngredientRepository;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.BeanUtils;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.core.NestedExceptionUtils;
+import org.springframework.core.task.AsyncTaskExecutor;
+import org.springframework.core.task.TaskRejectedException;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.util.unit.DataSize;
+import org.springframework.web.multipart.MaxUploadSizeExceededException;
+
+import java.io.*;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.*;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
+
+/**
+ * Bulk creation and update of ingredients, foods and recipe lines from CSV or XLSX uploads.
+ *
+ * <p>The upload is copied to a temporary file as it arrives, so neither the request nor the
+ * import ever holds the whole file in memory, and is then processed on the import bulkhead.
+ * Rows are read one at a time and written in chunks of {@code app.imports.batch-size}: each
+ * chunk looks up its existing records with one query per branch, validates every row against
+ * the entity's Bean Validation constraints, and saves the rest in one transaction whose inserts
+ * and updates Hibernate sends as JDBC batches. Rejected rows, with the reason, go to an error
+ * file that can be downloaded once the job has finished. Stock levels set by an import are
+ * recorded as ADJUSTMENT transactions; added stock becomes a new lot. An ingredient chunk takes
+ * the sales lock stripes of the ingredients it matches before it reads them, so the stock it
+ * adjusts from is still current when it commits.
+ */
+@Service
+public class ImportService {
+
+    private static final Logger log = LoggerFactory.getLogger(ImportService.class);
+    private static final int BUFFER_SIZE = 65536;
+
+    private final IngredientRepository ingredientRepository;
+    private final FoodRepository foodRepository;
+    private final RecipeIngredientRepository recipeIngredientRepository;
+    private final StockLedger stockLedger;
+    private final StockReservationService stockReservationService;
+    private final StockLotBook stockLotBook;
+    private final Validator validator;
+    private final ApplicationEventPublisher eventPublisher;
+    private final AsyncTaskExecutor importExecutor;
+    private final TransactionTemplate transaction;
+    private final int batchSize;
+    private final long maxBytes;
+    private final Cache<String, ImportJob> jobs;
+
+    public ImportService(IngredientRepository ingredientRepository,
+                         FoodRepository foodRepository,
+                         RecipeIngredientRepository recipeIngredientRepository,
+                         StockLedger stockLedger,
+                         StockReservationService stockReservationService,
+                         StockLotBook stockLotBook,
+                         Validator validator,
+                         ApplicationEventPublisher eventPublisher,
+                         @Qualifier(ExecutorConfig.IMPORT_EXECUTOR) AsyncTaskExecutor importExecutor,
+                         PlatformTransactionManager transactionManager,
+                         @Value("${app.imports.batch-size:500}") int batchSize,
+                         @Value("${app.imports.max-size:200MB}") DataSize maxSize,
+                         @Value("${app.imports.retention:24h}") Duration retention) {
+        this.ingredientRepository = ingredientRepository;
+        this.foodRepository = foodRepository;
+        this.recipeIngredientRepository = recipeIngredientRepository;
+        this.stockLedger = stockLedger;
+        this.stockReservationService = stockReservationService;
+        this.stockLotBook = stockLotBook;
+        this.validator = validator;
+        this.eventPublisher = eventPublisher;
+        this.importExecutor = importExecutor;
+        this.transaction = new TransactionTemplate(transactionManager);
+        this.batchSize = batchSize;
+        this.maxBytes = maxSize.toBytes();
+        this.jobs = Caffeine.newBuilder()
+                .expireAfterWrite(retention)
+                .<String, ImportJob>removalListener((id, job, cause) -> {
+                    if (job != null) {
+                        job.deleteFiles();
+                    }
+                })
+                .build();
+    }
+
+    /**
+     * Spools {@code body} to disk and queues the import. Rows without a branchId column value
+     * go to {@code branchId}.
+     */
+    public ImportJobDTO start(ImportKind kind, ImportFormat format, Long branchId, InputStream body)
+            throws IOException {
+        String username = SecurityContextHolder.getContext().getAuthentication().getName();
+        Path upload = Files.createTempFile("import-", "." + format.name().toLowerCase(Locale.ROOT));
+        Path errorFile = Files.createTempFile("import-errors-", ".csv");
+        ImportJob job = new ImportJob(UUID.randomUUID().toString(), kind, format, branchId, username,
+                upload, errorFile);
+        try {
+            spool(body, upload);
+            jobs.put(job.getId(), job);
+            importExecutor.execute(() -> run(job));
+        } catch (IOException | RuntimeException e) {
+            jobs.invalidate(job.getId());
+            job.deleteFiles();
+            throw e;
+        }
+        return mapToDTO(job);
+    }
+
+    public ImportJobDTO getJob(String jobId) {
+        return mapToDTO(findJob(jobId));
+    }
+
+    /**
+     * Copies the error file of a job: row number, reason, then the row as uploaded. While the
+     * job is running this holds the rows rejected so far.
+     */
+    public void writeErrors(String jobId, OutputStream out) throws IOException {
+        Files.copy(findJob(jobId).getErrorFile(), out);
+    }
+
+    private ImportJob findJob(String jobId) {
+        ImportJob job = jobs.getIfPresent(jobId);
+        if (job == null) {
+            throw new ResourceNotFoundException("Import", "id", jobId);
+        }
+        return job;
+    }
+
+    private void spool(InputStream body, Path upload) throws IOException {
+        try (OutputStream out = Files.newOutputStream(upload)) {
+            byte[] buffer = new byte[BUFFER_SIZE];
+            long total = 0;
+            int read;
+            while ((read = body.read(buffer)) != -1) {
+                total += read;
+                if (total > maxBytes) {
+                    throw new MaxUploadSizeExceededException(maxBytes);
+                }
+                out.write(buffer, 0, read);
+            }
+        }
+    }
+
+    void run(ImportJob job) {
+        job.started();
+        try (OutputStream errorStream = new BufferedOutputStream(Files.newOutputStream(job.getErrorFile()))) {
+            ReportWriter errors = ReportWriter.create(ReportFormat.CSV, null, errorStream);
+            ChunkProcessor processor = new ChunkProcessor(job, errors);
+            RowReader.create(job.getFormat(), job.getUpload()).read(processor::accept);
+            processor.flush();
+            errors.finish();
+            job.completed();
+            log.info("Import {} of {} finished: {} rows, {} inserted, {} updated, {} rejected", job.getId(),
+                    job.getKind(), job.getRowsRead(), job.getInserted(), job.getUpdated(), job.getFailed());
+        } catch (InvalidRowException e) {
+            job.failed(e.getMessage());
+        } catch (IOException | UncheckedIOException e) {
+            log.warn("Import {} failed", job.getId(), e);
+            job.failed("Could not read the file: " + e.getMessage());
+        } catch (RuntimeException e) {
+            log.error("Import {} failed", job.getId(), e);
+            job.failed(NestedExceptionUtils.getMostSpecificCause(e).getMessage());
+        } finally {
+            try {
+                Files.deleteIfExists(job.getUpload());
+            } catch (IOException e) {
+                log.debug("Could not delete upload {}", job.getUpload(), e);
+            }
+        }
+    }
+
+    /**
+     * Collects rows into chunks and writes each chunk in its own transaction.
+     */
+    private final class ChunkProcessor {
+
+        private final ImportJob job;
+        private final ReportWriter errors;
+        private final List<ImportRow> chunk = new ArrayList<>(batchSize);
+        private Map<String, Integer> columns;
+        private int headerSize;
+
+        ChunkProcessor(ImportJob job, ReportWriter errors) {
+            this.job = job;
+            this.errors = errors;
+        }
+
+        void accept(long rowNumber, List<String> cells) {
+            if (columns == null) {
+                readHeader(cells);
+                return;
+            }
+            job.rowRead();
+            chunk.add(new ImportRow(rowNumber, columns, cells));
+            if (chunk.size() >= batchSize) {
+                flush();
+            }
+        }
+
+        private void readHeader(List<String> cells) {
+            columns = ImportRow.columns(cells);
+            headerSize = cells.size();
+            List<String> missing = job.getKind().getRequiredColumns().stream()
+                    .filter(column -> !columns.containsKey(ImportRow.key(column)))
+                    .collect(Collectors.toList());
+            if (!missing.isEmpty()) {
+                throw new InvalidRowException("Missing required columns: " + String.join(", ", missing));
+            }
+            List<String> header = new ArrayList<>(List.of("Row", "Error"));
+            header.addAll(cells);
+            try {
+                errors.writeHeader(header);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+
+        void flush() {
+            if (chunk.isEmpty()) {
+                return;
+            }
+            Map<ImportRow, String> rejected = new LinkedHashMap<>();
+            try {
+                long[] written = transaction.execute(status -> switch (job.getKind()) {
+                    case INGREDIENTS -> importIngredients(job, chunk, rejected);
+                    case FOODS -> importFoods(job, chunk, rejected);
+                    case RECIPES -> importRecipes(job, chunk, rejected);
+                });
+                job.written(written[0], written[1]);
+            } catch (RuntimeException e) {
+                // The chunk was rolled back as a whole
+                String reason = "Not imported: " + NestedExceptionUtils.getMostSpecificCause(e).getMessage();
+                for (ImportRow row : chunk) {
+                    rejected.putIfAbsent(row, reason);
+                }
+                log.warn("Import {} chunk ending at row {} rolled back", job.getId(),
+                        chunk.get(chunk.size() - 1).getRowNumber(), e);
+            }
+            job.rejected(rejected.size());
+            try {
+                for (Map.Entry<ImportRow, String> entry : rejected.entrySet()) {
+                    List<Object> values = new ArrayList<>(headerSize + 2);
+                    values.add(entry.getKey().getRowNumber());
+                    values.add(entry.getValue());
+                    values.addAll(entry.getKey().getCells());
+                    errors.writeRow(values.toArray());
+                }
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+            chunk.clear();
+        }
+    }
+
+    private long[] importIngredients(ImportJob job, List<ImportRow> rows, Map<ImportRow, String> rejected) {
+        // Stripes first, so no sale changes the stock between reading it here and the commit
+        Set<Long> existingIds = new TreeSet<>();
+        groupNames(job, rows, "name", rejected).forEach((branchId, names) ->
+                existingIds.addAll(ingredientRepository.findIdsByBranchIdAndNameIn(branchId, names)));
+        stockReservationService.lock(existingIds);
+        Map<NameKey, Ingredient> existing = new HashMap<>();
+        for (Ingredient ingredient : ingredientRepository.findAllById(existingIds)) {
+            existing.putIfAbsent(NameKey.of(ingredient.getBranchId(), ingredient.getName()), ingredient);
+        }
+
+        List<Ingredient> created = new ArrayList<>();
+        List<StockTransaction> adjustments = new ArrayList<>();
+        long updated = 0;
+        for (ImportRow row : rows) {
+            if (rejected.containsKey(row)) {
+                continue;
+            }
+            Long branchId = branchOf(job, row);
+            NameKey key = NameKey.of(branchId, row.text("name"));
+            Ingredient current = existing.get(key);
+            try {
+                Ingredient candidate = new Ingredient();
+                if (current != null) {
+                    BeanUtils.copyProperties(current, candidate);
+                } else {
+                    candidate.setBranchId(branchId);
+                }
+                applyIngredient(row, candidate);
+                String violations = violations(candidate);
+                if (violations == null && candidate.getCurrentStock() < candidate.getReservedStock()) {
+                    violations = "currentStock: below the stock reserved for transfers";
+                }
+                if (violations != null) {
+                    rejected.put(row, violations);
+                    continue;
+                }
+
+                double previousStock = current == null ? 0.0 : current.getCurrentStock();
+                Ingredient target = current;
+                if (target == null) {
+                    target = candidate;
+                    target.setDeleted(false);
+                    created.add(target);
+                    existing.put(key, target);
+                } else {
+                    applyIngredient(row, target);
+                    updated++;
+                }
+                if (target.getCurrentStock() != previousStock) {
+                    adjustments.add(adjustment(job, target, previousStock));
+                }
+            } catch (InvalidRowException e) {
+                rejected.put(row, e.getMessage());
+            }
+        }
+
+        ingredientRepository.saveAll(created);
+        if (!adjustments.isEmpty()) {
+            // Existing ingredients are locked already; new ones are not visible to anyone else
+            Set<Long> adjustedIds = adjustments.stream()
+                    .map(adjustment -> adjustment.getIngredient().getId())
+                    .collect(Collectors.toSet());
+            stockLotBook.preload(adjustedIds);
+            adjustments.forEach(this::adjustLots);
+            stockLedger.record(adjustments);
+            eventPublisher.publishEvent(new IngredientChangedEvent(adjustedIds));
+        }
+        return new long[]{created.size(), updated};
+    }
+
+    private static void applyIngredient(ImportRow row, Ingredient ingredient) {
+        set(row.text("name"), ingredient::setName);
+        set(row.text("description"), ingredient::setDescription);
+        set(row.text("unit"), ingredient::setUnit);
+        set(row.decimal("currentStock"), ingredient::setCurrentStock);
+        set(row.decimal("minimumStock"), ingredient::setMinimumStock);
+        set(row.decimal("reorderLevel"), ingredient::setReorderLevel);
+        set(row.date("expiryDate"), ingredient::setExpiryDate);
+        set(row.decimal("costPerUnit"), ingredient::setCostPerUnit);
+        set(row.text("category"), ingredient::setCategory);
+        set(row.text("imageUrl"), ingredient::setImageUrl);
+    }
+
+    /**
+     * Stock added by an import becomes a lot received today, dated by the row's expiryDate;
+     * stock taken away is drawn from the first-expiring lots.
+     */
+    private void adjustLots(StockTransaction adjustment) {
+        Ingredient ingredient = adjustment.getIngredient();
+        double change = adjustment.getNewStock() - adjustment.getPreviousStock();
+        if (change > 0) {
+            adjustment.addLot(stockLotBook.receive(ingredient, change, LocalDate.now(), ingredient.getExpiryDate(),
+                    ingredient.getCostPerUnit()), change);
+        } else {
+            stockLotBook.attach(adjustment, stockLotBook.draw(ingredient.getId(), -change));
+        }
+    }
+
+    private StockTransaction adjustment(ImportJob job, Ingredient ingredient, double previousStock) {
+        StockTransaction transaction = new StockTransaction();
+        transaction.setIngredient(ingredient);
+        transaction.setType(TransactionType.ADJUSTMENT);
+        transaction.setQuantity(Math.abs(ingredient.getCurrentStock() - previousStock));
+        transaction.setPreviousStock(previousStock);
+        transaction.setNewStock(ingredient.getCurrentStock());
+        transaction.setReason("Bulk import " + job.getId());
+        transaction.setPerformedBy(job.getRequestedBy());
+        transaction.setBranchId(ingredient.getBranchId());
+        transaction.setDeleted(false);
+        return transaction;
+    }
+
+    private long[] importFoods(ImportJob job, List<ImportRow> rows, Map<ImportRow, String> rejected) {
+        Map<NameKey, Food> existing = new HashMap<>();
+        groupNames(job, rows, "name", rejected).forEach((branchId, names) -> {
+            for (Food food : foodRepository.findByBranchIdAndNameIn(branchId, names)) {
+                existing.putIfAbsent(NameKey.of(branchId, food.getName()), food);
+            }
+        });
+
+        List<Food> created = new ArrayList<>();
+        long updated = 0;
+        for (ImportRow row : rows) {
+            if (rejected.containsKey(row)) {
+                continue;
+            }
+            Long branchId = branchOf(job, row);
+            NameKey key = NameKey.of(branchId, row.text("name"));
+            Food current = existing.get(key);
+            try {
+                Food candidate = new Food();
+                if (current != null) {
+                    BeanUtils.copyProperties(current, candidate);
+                } else {
+                    candidate.setBranchId(branchId);
+                }
+                applyFood(row, candidate);
+                String violations = violations(candidate);
+                if (violations != null) {
+                    rejected.put(row, violations);
+                    continue;
+                }
+                if (current == null) {
+                    candidate.setDeleted(false);
+                    created.add(candidate);
+                    existing.put(key, candidate);
+                } else {
+                    applyFood(row, current);
+                    updated++;
+                }
+            } catch (InvalidRowException e) {
+                rejected.put(row, e.getMessage());
+            }
+        }
+        foodRepository.saveAll(created);
+        return new long[]{created.size(), updated};
+    }
+
+    private static void applyFood(ImportRow row, Food food) {
+        set(row.text("name"), food::setName);
+        set(row.text("description"), food::setDescription);
+        set(row.decimal("price"), food::setPrice);
+        set(row.bool("available"), available -> {
+            // An explicit value takes the food out of the stock-driven sold out state
+            food.setAvailable(available);
+            food.setSoldOut(false);
+        });
+        set(row.text("category"), food::setCategory);
+        set(row.text("imageUrl"), food::setImageUrl);
+        set(row.integer("preparationTime"), food::setPreparationTime);
+    }
+
+    private long[] importRecipes(ImportJob job, List<ImportRow> rows, Map<ImportRow, String> rejected) {
+        Map<NameKey, Food> foods = new HashMap<>();
+        groupNames(job, rows, "food", rejected).forEach((branchId, names) -> {
+            for (Food food : foodRepository.findByBranchIdAndNameIn(branchId, names)) {
+                foods.putIfAbsent(NameKey.of(branchId, food.getName()), food);
+            }
+        });
+        Map<NameKey, Ingredient> ingredients = new HashMap<>();
+        groupNames(job, rows, "ingredient", rejected).forEach((branchId, names) -> {
+            for (Ingredient ingredient : ingredientRepository.findByBranchIdAndNameIn(branchId, names)) {
+                ingredients.putIfAbsent(NameKey.of(branchId, ingredient.getName()), ingredient);
+            }
+        });
+        Set<Long> foodIds = foods.values().stream().map(Food::getId).collect(Collectors.toSet());
+        Map<List<Long>, RecipeIngredient> existing = new HashMap<>();
+        if (!foodIds.isEmpty()) {
+            for (RecipeIngredient line : recipeIngredientRepository.findActiveRecipesByFoodIds(foodIds)) {
+                existing.putIfAbsent(List.of(line.getFood().getId(), line.getIngredient().getId()), line);
+            }
+        }
+
+        List<RecipeIngredient> created = new ArrayList<>();
+        long updated = 0;
+        for (ImportRow row : rows) {
+            if (rejected.containsKey(row)) {
+                continue;
+            }
+            Long branchId = branchOf(job, row);
+            Food food = foods.get(NameKey.of(branchId, row.text("food")));
+            Ingredient ingredient = ingredients.get(NameKey.of(branchId, row.text("ingredient")));
+            if (food == null || ingredient == null) {
+                rejected.put(row, food == null
+                        ? "food: no food named '" + row.text("food") + "' in branch " + branchId
+                        : "ingredient: no ingredient named '" + row.text("ingredient") + "' in branch " + branchId);
+                continue;
+            }
+            List<Long> key = List.of(food.getId(), ingredient.getId());
+            RecipeIngredient current = existing.get(key);
+            try {
+                RecipeIngredient candidate = new RecipeIngredient();
+                if (current != null) {
+                    BeanUtils.copyProperties(current, candidate);
+                } else {
+                    candidate.setFood(food);
+                    candidate.setIngredient(ingredient);
+                }
+                applyRecipeLine(row, candidate);
+                String violations = violations(candidate);
+                if (violations == null && candidate.getQuantity() <= 0) {
+                    violations = "quantity: must be greater than 0";
+                }
+                if (violations != null) {
+                    rejected.put(row, violations);
+                    continue;
+                }
+                if (current == null) {
+                    candidate.setDeleted(false);
+                    created.add(candidate);
+                    existing.put(key, candidate);
+                } else {
+                    applyRecipeLine(row, current);
+                    updated++;
+                }
+            } catch (InvalidRowException e) {
+                rejected.put(row, e.getMessage());
+            }
+        }
+        recipeIngredientRepository.saveAll(created);
+        return new long[]{created.size(), updated};
+    }
+
+    private static void applyRecipeLine(ImportRow row, RecipeIngredient line) {
+        set(row.decimal("quantity"), line::setQuantity);
+        set(row.text("notes"), line::setNotes);
+    }
+
+    /**
+     * Lower-cased values of {@code column} per branch, for one lookup query per branch. Rows
+     * without a branch or without the value are rejected here.
+     */
+    private static Map<Long, Set<String>> groupNames(ImportJob job, List<ImportRow> rows, String column,
+                                                     Map<ImportRow, String> rejected) {
+        Map<Long, Set<String>> names = new HashMap<>();
+        for (ImportRow row : rows) {
+            if (rejected.containsKey(row)) {
+                continue;
+            }
+            try {
+                Long branchId = branchOf(job, row);
+                String name = row.text(column);
+                if (branchId == null) {
+                    rejected.put(row, "branchId: is required");
+                } else if (name == null) {
+                    rejected.put(row, column + ": is required");
+                } else {
+                    names.computeIfAbsent(branchId, id -> new HashSet<>()).add(name.toLowerCase(Locale.ROOT));
+                }
+            } catch (InvalidRowException e) {
+                rejected.put(row, e.getMessage());
+            }
+        }
+        return names;
+    }
+
+    private static Long branchOf(ImportJob job, ImportRow row) {
+        Long branchId = row.id("branchId");
+        return branchId != null ? branchId : job.getBranchId();
+    }
+
+    private String violations(Object entity) {
+        Set<ConstraintViolation<Object>> violations = validator.validate(entity);
+        if (violations.isEmpty()) {
+            return null;
+        }
+        return violations.stream()
+                .map(violation -> violation.getPropertyPath() + ": " + violation.getMessage())
+                .sorted()
+                .collect(Collectors.joining("; "));
+    }
+
+    private static <T> void set(T value, Consumer<T> setter) {
+        if (value != null) {
+            setter.accept(value);
+        }
+    }
+
+    private ImportJobDTO mapToDTO(ImportJob job) {
+        ImportJobDTO dto = new ImportJobDTO();
+        dto.setId(job.getId());
+        dto.setKind(job.getKind());
+        dto.setFormat(job.getFormat());
+        dto.setStatus(job.getStatus());
+        dto.setBranchId(job.getBranchId());
+        dto.setRequestedBy(job.getRequestedBy());
+        dto.setRowsRead(job.getRowsRead());
+        dto.setInserted(job.getInserted());
+        dto.setUpdated(job.getUpdated());
+        dto.setFailed(job.getFailed());
+        dto.setMessage(job.getMessage());
+        dto.setCreatedAt(job.getCreatedAt());
+        dto.setStartedAt(job.getStartedAt());
+        dto.setFinishedAt(job.getFinishedAt());
+        return dto;
+    }
+
+    private record NameKey(Long branchId, String name) {
+
+        static NameKey of(Long branchId, String name) {
+            return new NameKey(branchId, name == null ? null : name.toLowerCase(Locale.ROOT));
+        }
+    }
+}
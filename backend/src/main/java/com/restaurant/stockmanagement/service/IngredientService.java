@@ -0,0 +1,51 @@
+package com.restaurant.stockmanagement.service;
+
+import com.restaurant.stockmanagement.dto.IngredientDTO;
+import com.restaurant.stockmanagement.repository.IngredientRepository;
+import com.restaurant.stockmanagement.search.SearchIndexService;
+import com.restaurant.stockmanagement.search.SearchResult;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.Pageable;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+@Service
+public class IngredientService {
+
+    private final IngredientRepository ingredientRepository;
+    private final SearchIndexService searchIndexService;
+
+    public IngredientService(IngredientRepository ingredientRepository,
+                             SearchIndexService searchIndexService) {
+        this.ingredientRepository = ingredientRepository;
+        this.searchIndexService = searchIndexService;
+    }
+
+    /**
+     * Ranked search on name and category through the in-memory index; only the ingredients
+     * on the requested page are read, straight into DTOs. Falls back to the LIKE query while
+     * the index loads.
+     */
+    @Transactional(readOnly = true)
+    public Page<IngredientDTO> searchIngredients(String search, Long branchId, Pageable pageable) {
+        if (!searchIndexService.isReady()) {
+            return ingredientRepository.searchIngredients(search, branchId, pageable);
+        }
+
+        SearchResult result = searchIndexService.searchIngredients(search, branchId, pageable);
+        Map<Long, IngredientDTO> ingredients = ingredientRepository.findDTOsByIdIn(result.ids()).stream()
+                .collect(Collectors.toMap(IngredientDTO::getId, Function.identity()));
+        List<IngredientDTO> content = result.ids().stream()
+                .map(ingredients::get)
+                .filter(Objects::nonNull)
+                .collect(Collectors.toList());
+        return new PageImpl<>(content, pageable, result.total());
+    }
+}
@@ -0,0 +1,167 @@
+package com.restaurant.stockmanagement.service;
+
+import com.restaurant.stockmanagement.archive.LedgerArchiver;
+import com.restaurant.stockmanagement.report.ReportFormat;
+import com.restaurant.stockmanagement.report.ReportWriter;
+import com.restaurant.stockmanagement.repository.SaleItemRepository;
+import com.restaurant.stockmanagement.repository.SaleRepository;
+import com.restaurant.stockmanagement.repository.StockTransactionRepository;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.function.Supplier;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+/**
+ * Report exports. Rows are read as scalar projections through a forward-only cursor and
+ * written straight to the output stream, so memory use does not depend on the row count.
+ * Ranges reaching back into archived months read the archive tables through a second cursor
+ * and interleave both by date.
+ */
+@Service
+public class ReportService {
+
+    private static final List<String> SALES_COLUMNS = List.of(
+            "ID", "Date", "Cashier", "Branch", "Payment Method", "Total Amount");
+    private static final List<String> SALE_ITEMS_COLUMNS = List.of(
+            "Sale ID", "Sale Date", "Food ID", "Food", "Quantity", "Unit Price", "Subtotal");
+    private static final List<String> TRANSACTIONS_COLUMNS = List.of(
+            "ID", "Date", "Ingredient ID", "Ingredient", "Type", "Quantity",
+            "Previous Stock", "New Stock", "Performed By", "Reason");
+
+    private final SaleRepository saleRepository;
+    private final SaleItemRepository saleItemRepository;
+    private final StockTransactionRepository stockTransactionRepository;
+    private final LedgerArchiver ledgerArchiver;
+
+    public ReportService(SaleRepository saleRepository,
+                        SaleItemRepository saleItemRepository,
+                        StockTransactionRepository stockTransactionRepository,
+                        LedgerArchiver ledgerArchiver) {
+        this.saleRepository = saleRepository;
+        this.saleItemRepository = saleItemRepository;
+        this.stockTransactionRepository = stockTransactionRepository;
+        this.ledgerArchiver = ledgerArchiver;
+    }
+
+    @Transactional(readOnly = true)
+    public void exportSales(LocalDateTime startDate, LocalDateTime endDate,
+                            ReportFormat format, OutputStream out) throws IOException {
+        try (Stream<Object[]> rows = withArchived(startDate,
+                () -> saleRepository.streamSalesBetweenDates(startDate, endDate),
+                () -> saleRepository.streamArchivedSalesBetweenDates(startDate, endDate))) {
+            write(ReportWriter.create(format, "Sales Report", out), SALES_COLUMNS, rows);
+        }
+    }
+
+    @Transactional(readOnly = true)
+    public void exportSaleItems(LocalDateTime startDate, LocalDateTime endDate,
+                                ReportFormat format, OutputStream out) throws IOException {
+        try (Stream<Object[]> rows = withArchived(startDate,
+                () -> saleItemRepository.streamSaleItemsBetweenDates(startDate, endDate),
+                () -> saleItemRepository.streamArchivedSaleItemsBetweenDates(startDate, endDate))) {
+            write(ReportWriter.create(format, "Sale Items Report", out), SALE_ITEMS_COLUMNS, rows);
+        }
+    }
+
+    @Transactional(readOnly = true)
+    public void exportStockTransactions(LocalDateTime startDate, LocalDateTime endDate,
+                                        ReportFormat format, OutputStream out) throws IOException {
+        try (Stream<Object[]> rows = withArchived(startDate,
+                () -> stockTransactionRepository.streamTransactionsBetweenDates(startDate, endDate),
+                () -> stockTransactionRepository.streamArchivedTransactionsBetweenDates(startDate, endDate))) {
+            write(ReportWriter.create(format, "Stock Transactions Report", out), TRANSACTIONS_COLUMNS, rows);
+        }
+    }
+
+    private void write(ReportWriter writer, List<String> columns, Stream<Object[]> rows) throws IOException {
+        writer.writeHeader(columns);
+        Iterator<Object[]> iterator = rows.iterator();
+        while (iterator.hasNext()) {
+            writer.writeRow(iterator.next());
+        }
+        writer.finish();
+    }
+
+    /**
+     * The live rows, merged with the archived ones when the range reaches the archive. Both
+     * streams are ordered by their date column (index 1); so is the result.
+     */
+    private Stream<Object[]> withArchived(LocalDateTime startDate, Supplier<Stream<Object[]>> live,
+                                          Supplier<Stream<Object[]>> archived) {
+        if (!ledgerArchiver.reachesArchive(startDate)) {
+            return live.get();
+        }
+        Stream<Object[]> archivedRows = archived.get();
+        Stream<Object[]> liveRows = live.get();
+        Iterator<Object[]> merged = new DateMergingIterator(archivedRows.iterator(), liveRows.iterator());
+        return StreamSupport.stream(Spliterators.spliteratorUnknownSize(merged, Spliterator.ORDERED), false)
+                .onClose(archivedRows::close)
+                .onClose(liveRows::close);
+    }
+
+    private static final class DateMergingIterator implements Iterator<Object[]> {
+
+        private static final int DATE_COLUMN = 1;
+
+        private final Iterator<Object[]> first;
+        private final Iterator<Object[]> second;
+        private Object[] nextFirst;
+        private Object[] nextSecond;
+
+        DateMergingIterator(Iterator<Object[]> first, Iterator<Object[]> second) {
+            this.first = first;
+            this.second = second;
+            this.nextFirst = advance(first);
+            this.nextSecond = advance(second);
+        }
+
+        @Override
+        public boolean hasNext() {
+            return nextFirst != null || nextSecond != null;
+        }
+
+        @Override
+        public Object[] next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            Object[] row;
+            if (nextSecond == null || (nextFirst != null
+                    && !dateOf(nextFirst).isAfter(dateOf(nextSecond)))) {
+                row = nextFirst;
+                nextFirst = advance(first);
+            } else {
+                row = nextSecond;
+                nextSecond = advance(second);
+            }
+            return row;
+        }
+
+        // Native queries return JDBC timestamps; report rows carry LocalDateTime like the JPQL ones
+        private static Object[] advance(Iterator<Object[]> rows) {
+            if (!rows.hasNext()) {
+                return null;
+            }
+            Object[] row = rows.next();
+            if (row[DATE_COLUMN] instanceof Timestamp timestamp) {
+                row[DATE_COLUMN] = timestamp.toLocalDateTime();
+            }
+            return row;
+        }
+
+        private static LocalDateTime dateOf(Object[] row) {
+            return (LocalDateTime) row[DATE_COLUMN];
+        }
+    }
+}
@@ -0,0 +1,251 @@
+package com.restaurant.stockmanagement.service;
+
+import com.restaurant.stockmanagement.archive.LedgerArchiver;
+import com.restaurant.stockmanagement.event.SaleBatchCompletedEvent;
+import com.restaurant.stockmanagement.event.SaleCompletedEvent;
+import com.restaurant.stockmanagement.model.*;
+import com.restaurant.stockmanagement.repository.*;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Maintains the daily rollup tables used by analytics. Rollups are incremented after each
+ * sale commits and can be rebuilt from the raw sales and stock_transactions rows for any
+ * range of days, archived ones included. A failed incremental update is only logged: the
+ * nightly rebuild repairs it.
+ */
+@Service
+public class RollupService {
+
+    private static final Logger log = LoggerFactory.getLogger(RollupService.class);
+    private static final long NO_BRANCH = 0L;
+
+    private final DailySalesRollupRepository salesRollupRepository;
+    private final DailyFoodSalesRollupRepository foodSalesRollupRepository;
+    private final DailyIngredientUsageRollupRepository ingredientUsageRollupRepository;
+    private final SaleRepository saleRepository;
+    private final SaleItemRepository saleItemRepository;
+    private final StockTransactionRepository stockTransactionRepository;
+    private final LedgerArchiver ledgerArchiver;
+    private final TransactionTemplate requiresNewTransaction;
+
+    public RollupService(DailySalesRollupRepository salesRollupRepository,
+                        DailyFoodSalesRollupRepository foodSalesRollupRepository,
+                        DailyIngredientUsageRollupRepository ingredientUsageRollupRepository,
+                        SaleRepository saleRepository,
+                        SaleItemRepository saleItemRepository,
+                        StockTransactionRepository stockTransactionRepository,
+                        LedgerArchiver ledgerArchiver,
+                        PlatformTransactionManager transactionManager) {
+        this.salesRollupRepository = salesRollupRepository;
+        this.foodSalesRollupRepository = foodSalesRollupRepository;
+        this.ingredientUsageRollupRepository = ingredientUsageRollupRepository;
+        this.saleRepository = saleRepository;
+        this.saleItemRepository = saleItemRepository;
+        this.stockTransactionRepository = stockTransactionRepository;
+        this.ledgerArchiver = ledgerArchiver;
+        this.requiresNewTransaction = new TransactionTemplate(transactionManager);
+        this.requiresNewTransaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onSaleCompleted(SaleCompletedEvent event) {
+        Sale sale = event.getSale();
+        applyWithRetry(List.of(sale), Map.of(sale.getSaleDate().toLocalDate(), event.getTransactions()),
+                "sale " + sale.getId());
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onSaleBatchCompleted(SaleBatchCompletedEvent event) {
+        applyWithRetry(event.getSales(), event.getTransactionsByDay(),
+                "a batch of " + event.getSales().size() + " sales");
+    }
+
+    /**
+     * Recomputes the rollups of each day in the range from raw rows, one transaction per day.
+     */
+    public void rebuild(LocalDate fromDate, LocalDate toDate) {
+        for (LocalDate day = fromDate; !day.isAfter(toDate); day = day.plusDays(1)) {
+            LocalDate rollupDate = day;
+            requiresNewTransaction.executeWithoutResult(status -> rebuildDay(rollupDate));
+        }
+        log.info("Rebuilt rollups from {} to {}", fromDate, toDate);
+    }
+
+    private void applyWithRetry(List<Sale> sales, Map<LocalDate, List<StockTransaction>> transactionsByDay,
+                                String description) {
+        // The first sale of the day for a key races on the insert; the retry then takes the update path
+        for (int attempt = 1; ; attempt++) {
+            try {
+                requiresNewTransaction.executeWithoutResult(status -> applySales(sales, transactionsByDay));
+                return;
+            } catch (DataIntegrityViolationException e) {
+                if (attempt == 2) {
+                    log.warn("Could not update rollups for {}", description, e);
+                    return;
+                }
+            } catch (RuntimeException e) {
+                log.warn("Could not update rollups for {}", description, e);
+                return;
+            }
+        }
+    }
+
+    /**
+     * Sums the sales and usage per rollup row first, so a batch costs one increment per row it touches.
+     */
+    private void applySales(List<Sale> saleList, Map<LocalDate, List<StockTransaction>> transactionsByDay) {
+        Map<DayKey, DailySalesRollup> sales = new HashMap<>();
+        Map<DayItemKey, DailyFoodSalesRollup> foods = new HashMap<>();
+        Map<DayItemKey, DailyIngredientUsageRollup> ingredients = new HashMap<>();
+        for (Sale sale : saleList) {
+            long branchId = branchKey(sale.getBranchId());
+            LocalDate rollupDate = sale.getSaleDate().toLocalDate();
+
+            DailySalesRollup salesRollup = sales.computeIfAbsent(new DayKey(branchId, rollupDate),
+                    k -> new DailySalesRollup(branchId, rollupDate, 0L, 0.0));
+            salesRollup.setSaleCount(salesRollup.getSaleCount() + 1);
+            salesRollup.setTotalAmount(salesRollup.getTotalAmount() + sale.getTotalAmount());
+
+            for (SaleItem item : sale.getItems()) {
+                Long foodId = item.getFood().getId();
+                DailyFoodSalesRollup foodRollup = foods.computeIfAbsent(
+                        new DayItemKey(branchId, rollupDate, foodId),
+                        k -> new DailyFoodSalesRollup(branchId, rollupDate, foodId, 0L, 0.0));
+                foodRollup.setQuantity(foodRollup.getQuantity() + item.getQuantity());
+                foodRollup.setRevenue(foodRollup.getRevenue() + item.getSubtotal());
+            }
+        }
+
+        for (Map.Entry<LocalDate, List<StockTransaction>> day : transactionsByDay.entrySet()) {
+            LocalDate rollupDate = day.getKey();
+            for (StockTransaction transaction : day.getValue()) {
+                if (transaction.getType() != TransactionType.SALE) {
+                    continue;
+                }
+                long ingredientBranch = branchKey(transaction.getBranchId());
+                Long ingredientId = transaction.getIngredient().getId();
+                DailyIngredientUsageRollup usageRollup = ingredients.computeIfAbsent(
+                        new DayItemKey(ingredientBranch, rollupDate, ingredientId),
+                        k -> new DailyIngredientUsageRollup(ingredientBranch, rollupDate, ingredientId, 0L, 0.0));
+                usageRollup.setUsageCount(usageRollup.getUsageCount() + 1);
+                usageRollup.setQuantity(usageRollup.getQuantity() + transaction.getQuantity());
+            }
+        }
+
+        for (DailySalesRollup rollup : sales.values()) {
+            if (salesRollupRepository.increment(rollup.getBranchId(), rollup.getRollupDate(),
+                    rollup.getSaleCount(), rollup.getTotalAmount()) == 0) {
+                salesRollupRepository.saveAndFlush(rollup);
+            }
+        }
+        for (DailyFoodSalesRollup rollup : foods.values()) {
+            if (foodSalesRollupRepository.increment(rollup.getBranchId(), rollup.getRollupDate(),
+                    rollup.getFoodId(), rollup.getQuantity(), rollup.getRevenue()) == 0) {
+                foodSalesRollupRepository.saveAndFlush(rollup);
+            }
+        }
+        for (DailyIngredientUsageRollup rollup : ingredients.values()) {
+            if (ingredientUsageRollupRepository.increment(rollup.getBranchId(), rollup.getRollupDate(),
+                    rollup.getIngredientId(), rollup.getUsageCount(), rollup.getQuantity()) == 0) {
+                ingredientUsageRollupRepository.saveAndFlush(rollup);
+            }
+        }
+    }
+
+    private void rebuildDay(LocalDate rollupDate) {
+        LocalDateTime start = rollupDate.atStartOfDay();
+        LocalDateTime end = rollupDate.plusDays(1).atStartOfDay();
+        boolean archived = ledgerArchiver.reachesArchive(start);
+
+        salesRollupRepository.deleteByRollupDate(rollupDate);
+        foodSalesRollupRepository.deleteByRollupDate(rollupDate);
+        ingredientUsageRollupRepository.deleteByRollupDate(rollupDate);
+
+        // An archived day can still have live rows (e.g. sales recorded late), so both are summed per key
+        Map<Long, DailySalesRollup> sales = new HashMap<>();
+        addSales(sales, rollupDate, saleRepository.summarizeSalesByBranch(start, end));
+        if (archived) {
+            addSales(sales, rollupDate, saleRepository.summarizeArchivedSalesByBranch(start, end));
+        }
+        salesRollupRepository.saveAll(sales.values());
+
+        Map<RollupKey, DailyFoodSalesRollup> foods = new HashMap<>();
+        addFoods(foods, rollupDate, saleItemRepository.summarizeSoldFoodsByBranch(start, end));
+        if (archived) {
+            addFoods(foods, rollupDate, saleItemRepository.summarizeArchivedSoldFoodsByBranch(start, end));
+        }
+        foodSalesRollupRepository.saveAll(foods.values());
+
+        Map<RollupKey, DailyIngredientUsageRollup> ingredients = new HashMap<>();
+        addIngredients(ingredients, rollupDate, stockTransactionRepository.summarizeUsedIngredientsByBranch(start, end));
+        if (archived) {
+            addIngredients(ingredients, rollupDate,
+                    stockTransactionRepository.summarizeArchivedUsedIngredientsByBranch(start, end));
+        }
+        ingredientUsageRollupRepository.saveAll(ingredients.values());
+    }
+
+    // Rows are (branch, count, amount); native archive queries may return other Number types
+    private void addSales(Map<Long, DailySalesRollup> sales, LocalDate rollupDate, List<Object[]> rows) {
+        for (Object[] row : rows) {
+            DailySalesRollup rollup = sales.computeIfAbsent(branchKey(toLong(row[0])),
+                    branchId -> new DailySalesRollup(branchId, rollupDate, 0L, 0.0));
+            rollup.setSaleCount(rollup.getSaleCount() + ((Number) row[1]).longValue());
+            rollup.setTotalAmount(rollup.getTotalAmount() + ((Number) row[2]).doubleValue());
+        }
+    }
+
+    // Rows are (branch, food, quantity, revenue)
+    private void addFoods(Map<RollupKey, DailyFoodSalesRollup> foods, LocalDate rollupDate, List<Object[]> rows) {
+        for (Object[] row : rows) {
+            RollupKey key = new RollupKey(branchKey(toLong(row[0])), toLong(row[1]));
+            DailyFoodSalesRollup rollup = foods.computeIfAbsent(key,
+                    k -> new DailyFoodSalesRollup(k.branchId(), rollupDate, k.itemId(), 0L, 0.0));
+            rollup.setQuantity(rollup.getQuantity() + ((Number) row[2]).longValue());
+            rollup.setRevenue(rollup.getRevenue() + ((Number) row[3]).doubleValue());
+        }
+    }
+
+    // Rows are (branch, ingredient, usage count, quantity)
+    private void addIngredients(Map<RollupKey, DailyIngredientUsageRollup> ingredients, LocalDate rollupDate,
+                                List<Object[]> rows) {
+        for (Object[] row : rows) {
+            RollupKey key = new RollupKey(branchKey(toLong(row[0])), toLong(row[1]));
+            DailyIngredientUsageRollup rollup = ingredients.computeIfAbsent(key,
+                    k -> new DailyIngredientUsageRollup(k.branchId(), rollupDate, k.itemId(), 0L, 0.0));
+            rollup.setUsageCount(rollup.getUsageCount() + ((Number) row[2]).longValue());
+            rollup.setQuantity(rollup.getQuantity() + ((Number) row[3]).doubleValue());
+        }
+    }
+
+    private static Long toLong(Object value) {
+        return value == null ? null : ((Number) value).longValue();
+    }
+
+    private static long branchKey(Long branchId) {
+        return branchId != null ? branchId : NO_BRANCH;
+    }
+
+    private record RollupKey(long branchId, long itemId) {
+    }
+
+    private record DayKey(long branchId, LocalDate rollupDate) {
+    }
+
+    private record DayItemKey(long branchId, LocalDate rollupDate, long itemId) {
+    }
+}
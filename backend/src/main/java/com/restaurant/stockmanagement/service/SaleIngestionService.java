@@ -0,0 +1,316 @@
+package com.restaurant.stockmanagement.service;
+
+import com.restaurant.stockmanagement.dto.BulkSaleRequest;
+import com.restaurant.stockmanagement.dto.BulkSaleResponse;
+import com.restaurant.stockmanagement.dto.OfflineSaleDTO;
+import com.restaurant.stockmanagement.dto.OfflineSaleResultDTO;
+import com.restaurant.stockmanagement.dto.OfflineSaleResultDTO.Status;
+import com.restaurant.stockmanagement.dto.SaleItemDTO;
+import com.restaurant.stockmanagement.event.IngredientChangedEvent;
+import com.restaurant.stockmanagement.event.SaleBatchCompletedEvent;
+import com.restaurant.stockmanagement.ledger.StockLedger;
+import com.restaurant.stockmanagement.lot.StockLotBook;
+import com.restaurant.stockmanagement.model.*;
+import com.restaurant.stockmanagement.repository.FoodRepository;
+import com.restaurant.stockmanagement.repository.IngredientRepository;
+import com.restaurant.stockmanagement.repository.RecipeIngredientRepository;
+import com.restaurant.stockmanagement.repository.SaleRepository;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.*;
+import java.util.stream.Collectors;
+
+/**
+ * Posts the sales a till recorded while it was offline, as one batch.
+ *
+ * <p>Every sale carries a client-generated idempotency key, unique on {@code sales}. A key that
+ * was posted before, or appears earlier in the same batch, is reported as a duplicate with the
+ * existing sale id, so a till can resend a batch it never got an answer for.
+ *
+ * <p>The batch is posted in one transaction: foods and recipe lines are read with one query each,
+ * the lock stripes of every ingredient involved are taken once and the stock is read once. Sales
+ * are then accepted in request order while the remaining stock covers them; a sale that does not
+ * fit is rejected on its own. Each ingredient gets a single conditional decrement for the
+ * accepted total, and its usage is recorded as one SALE transaction per sale day instead of one
+ * per sale, drawn from the first-expiring lots. The sales, items and stock transactions are
+ * inserted as JDBC batches. Everything is read as scalars and foods and ingredients are
+ * referenced by id, and the sales are only saved after the stock and lot updates, so the
+ * persistence context is still empty when each of those flushes it.
+ */
+@Service
+public class SaleIngestionService {
+
+    private final SaleRepository saleRepository;
+    private final FoodRepository foodRepository;
+    private final RecipeIngredientRepository recipeIngredientRepository;
+    private final IngredientRepository ingredientRepository;
+    private final StockLedger stockLedger;
+    private final StockReservationService stockReservationService;
+    private final StockLotBook stockLotBook;
+    private final ApplicationEventPublisher eventPublisher;
+    private final TransactionTemplate transaction;
+
+    public SaleIngestionService(SaleRepository saleRepository,
+                                FoodRepository foodRepository,
+                                RecipeIngredientRepository recipeIngredientRepository,
+                                IngredientRepository ingredientRepository,
+                                StockLedger stockLedger,
+                                StockReservationService stockReservationService,
+                                StockLotBook stockLotBook,
+                                ApplicationEventPublisher eventPublisher,
+                                PlatformTransactionManager transactionManager) {
+        this.saleRepository = saleRepository;
+        this.foodRepository = foodRepository;
+        this.recipeIngredientRepository = recipeIngredientRepository;
+        this.ingredientRepository = ingredientRepository;
+        this.stockLedger = stockLedger;
+        this.stockReservationService = stockReservationService;
+        this.stockLotBook = stockLotBook;
+        this.eventPublisher = eventPublisher;
+        this.transaction = new TransactionTemplate(transactionManager);
+    }
+
+    public BulkSaleResponse ingest(BulkSaleRequest request) {
+        String cashierUsername = SecurityContextHolder.getContext().getAuthentication().getName();
+        LocalDateTime postedAt = LocalDateTime.now();
+        try {
+            return transaction.execute(status -> post(request, cashierUsername, postedAt));
+        } catch (DataIntegrityViolationException e) {
+            // A concurrent post of some of the same keys committed first; they are duplicates now
+            return transaction.execute(status -> post(request, cashierUsername, postedAt));
+        }
+    }
+
+    private BulkSaleResponse post(BulkSaleRequest request, String cashierUsername, LocalDateTime postedAt) {
+        List<OfflineSaleDTO> sales = request.getSales();
+
+        Set<Long> foodIds = new HashSet<>();
+        for (OfflineSaleDTO sale : sales) {
+            for (SaleItemDTO item : sale.getItems()) {
+                foodIds.add(item.getFoodId());
+            }
+        }
+        Set<Long> activeFoods = new HashSet<>(foodRepository.findActiveIdsByIdIn(foodIds));
+        // Row of (foodId, ingredientId, quantity)
+        Map<Long, List<Object[]>> recipesByFood = activeFoods.isEmpty()
+                ? Map.of()
+                : recipeIngredientRepository.findRecipeLinesByFoodIds(activeFoods).stream()
+                        .collect(Collectors.groupingBy(line -> (Long) line[0]));
+
+        // Demand per sale, ordered by ingredient id; null when the sale names an unknown food
+        List<Map<Long, Double>> demands = new ArrayList<>(sales.size());
+        Set<Long> ingredientIds = new TreeSet<>();
+        for (OfflineSaleDTO sale : sales) {
+            Map<Long, Double> demand = new TreeMap<>();
+            for (SaleItemDTO item : sale.getItems()) {
+                if (!activeFoods.contains(item.getFoodId())) {
+                    demand = null;
+                    break;
+                }
+                for (Object[] line : recipesByFood.getOrDefault(item.getFoodId(), List.of())) {
+                    demand.merge((Long) line[1], (Double) line[2] * item.getQuantity(), Double::sum);
+                }
+            }
+            if (demand != null) {
+                ingredientIds.addAll(demand.keySet());
+            }
+            demands.add(demand);
+        }
+
+        stockReservationService.lock(ingredientIds);
+        stockLotBook.preload(ingredientIds);
+
+        // Read under the stripes: a concurrent post of the same sales needs the same ones, so it has committed
+        Map<String, Long> postedKeys = new HashMap<>();
+        for (Object[] row : saleRepository.findIdsByIdempotencyKeys(
+                sales.stream().map(OfflineSaleDTO::getIdempotencyKey).collect(Collectors.toSet()))) {
+            postedKeys.put((String) row[0], (Long) row[1]);
+        }
+        // Row of (id, name, unit, branchId, available stock)
+        Map<Long, Object[]> ingredients = new HashMap<>();
+        Map<Long, Double> available = new HashMap<>();
+        if (!ingredientIds.isEmpty()) {
+            for (Object[] row : ingredientRepository.findSaleInputsByIds(ingredientIds)) {
+                ingredients.put((Long) row[0], row);
+                available.put((Long) row[0], (Double) row[4]);
+            }
+        }
+
+        OfflineSaleResultDTO[] results = new OfflineSaleResultDTO[sales.size()];
+        Map<String, Integer> firstIndex = new HashMap<>();
+        Map<Long, Double> totals = new TreeMap<>();
+        List<Integer> accepted = new ArrayList<>();
+        for (int i = 0; i < sales.size(); i++) {
+            String key = sales.get(i).getIdempotencyKey();
+            Long postedId = postedKeys.get(key);
+            if (postedId != null) {
+                results[i] = new OfflineSaleResultDTO(key, Status.DUPLICATE, postedId, "Already posted");
+                continue;
+            }
+            if (firstIndex.putIfAbsent(key, i) != null) {
+                results[i] = new OfflineSaleResultDTO(key, Status.DUPLICATE, null, "Repeated in this batch");
+                continue;
+            }
+            Map<Long, Double> demand = demands.get(i);
+            if (demand == null) {
+                results[i] = new OfflineSaleResultDTO(key, Status.REJECTED, null, "Unknown or deleted food");
+                continue;
+            }
+            String shortage = findShortage(demand, available, ingredients);
+            if (shortage != null) {
+                results[i] = new OfflineSaleResultDTO(key, Status.REJECTED, null, shortage);
+                continue;
+            }
+            for (Map.Entry<Long, Double> entry : demand.entrySet()) {
+                available.merge(entry.getKey(), -entry.getValue(), Double::sum);
+                totals.merge(entry.getKey(), entry.getValue(), Double::sum);
+            }
+            accepted.add(i);
+        }
+
+        // Stock before the batch, from which the transactions of each sale day continue the chain
+        Map<Long, Ingredient> references = new HashMap<>();
+        Map<Long, Double> stock = new HashMap<>();
+        for (Map.Entry<Long, Double> entry : totals.entrySet()) {
+            Ingredient ingredient = ingredientRepository.getReferenceById(entry.getKey());
+            references.put(entry.getKey(), ingredient);
+            double newStock = stockReservationService.decrement(ingredient, entry.getValue());
+            stock.put(entry.getKey(), newStock + entry.getValue());
+        }
+
+        List<Sale> saved = new ArrayList<>(accepted.size());
+        Map<LocalDate, Map<Long, Double>> usageByDay = new TreeMap<>();
+        Map<LocalDate, Integer> salesByDay = new HashMap<>();
+        for (int i : accepted) {
+            Sale sale = toSale(sales.get(i), request.getBranchId(), cashierUsername, postedAt);
+            LocalDate day = sale.getSaleDate().toLocalDate();
+            demands.get(i).forEach((ingredientId, quantity) -> usageByDay
+                    .computeIfAbsent(day, d -> new TreeMap<>())
+                    .merge(ingredientId, quantity, Double::sum));
+            salesByDay.merge(day, 1, Integer::sum);
+            saved.add(sale);
+        }
+
+        List<StockTransaction> transactions = new ArrayList<>();
+        Map<LocalDate, List<StockTransaction>> transactionsByDay = new HashMap<>();
+        for (Map.Entry<LocalDate, Map<Long, Double>> day : usageByDay.entrySet()) {
+            String reason = String.format("Offline sales of %s (%d)", day.getKey(), salesByDay.get(day.getKey()));
+            List<StockTransaction> dayTransactions = new ArrayList<>(day.getValue().size());
+            for (Map.Entry<Long, Double> entry : day.getValue().entrySet()) {
+                double previousStock = stock.get(entry.getKey());
+                double newStock = previousStock - entry.getValue();
+                stock.put(entry.getKey(), newStock);
+                StockTransaction transaction = saleTransaction(references.get(entry.getKey()),
+                        (Long) ingredients.get(entry.getKey())[3], entry.getValue(), previousStock, newStock,
+                        reason, cashierUsername);
+                // Earlier sale days take the first-expiring lots
+                stockLotBook.attach(transaction, stockLotBook.draw(entry.getKey(), entry.getValue()));
+                dayTransactions.add(transaction);
+            }
+            transactions.addAll(dayTransactions);
+            transactionsByDay.put(day.getKey(), dayTransactions);
+        }
+
+        saleRepository.saveAll(saved);
+        for (int n = 0; n < saved.size(); n++) {
+            Sale sale = saved.get(n);
+            results[accepted.get(n)] = new OfflineSaleResultDTO(
+                    sale.getIdempotencyKey(), Status.CREATED, sale.getId(), null);
+        }
+        stockLedger.record(transactions);
+
+        // Repeats within the batch point at the sale their first occurrence created, if any
+        for (int i = 0; i < sales.size(); i++) {
+            if (results[i].getStatus() == Status.DUPLICATE && results[i].getSaleId() == null) {
+                results[i].setSaleId(results[firstIndex.get(results[i].getIdempotencyKey())].getSaleId());
+            }
+        }
+
+        if (!totals.isEmpty()) {
+            eventPublisher.publishEvent(new IngredientChangedEvent(totals.keySet()));
+        }
+        if (!saved.isEmpty()) {
+            eventPublisher.publishEvent(new SaleBatchCompletedEvent(saved, transactionsByDay));
+        }
+        return toResponse(results);
+    }
+
+    /**
+     * Describes the first ingredient the remaining stock cannot cover, or returns null.
+     */
+    private static String findShortage(Map<Long, Double> demand, Map<Long, Double> available,
+                                       Map<Long, Object[]> ingredients) {
+        for (Map.Entry<Long, Double> entry : demand.entrySet()) {
+            Object[] ingredient = ingredients.get(entry.getKey());
+            if (ingredient == null) {
+                return "Ingredient " + entry.getKey() + " no longer exists";
+            }
+            double remaining = available.get(entry.getKey());
+            if (remaining < entry.getValue()) {
+                return String.format("Insufficient stock for ingredient: %s. Required: %.2f %s, Available: %.2f %s",
+                        ingredient[1], entry.getValue(), ingredient[2], remaining, ingredient[2]);
+            }
+        }
+        return null;
+    }
+
+    private Sale toSale(OfflineSaleDTO request, Long branchId, String cashierUsername, LocalDateTime postedAt) {
+        Sale sale = new Sale();
+        LocalDateTime saleDate = request.getSaleDate();
+        sale.setSaleDate(saleDate == null || saleDate.isAfter(postedAt) ? postedAt : saleDate);
+        sale.setTotalAmount(request.getTotalAmount());
+        sale.setCashierUsername(cashierUsername);
+        sale.setBranchId(branchId);
+        sale.setPaymentMethod(request.getPaymentMethod());
+        sale.setNotes(request.getNotes());
+        sale.setIdempotencyKey(request.getIdempotencyKey());
+        sale.setDeleted(false);
+        for (SaleItemDTO itemDTO : request.getItems()) {
+            SaleItem saleItem = new SaleItem();
+            saleItem.setSale(sale);
+            saleItem.setFood(foodRepository.getReferenceById(itemDTO.getFoodId()));
+            saleItem.setQuantity(itemDTO.getQuantity());
+            saleItem.setUnitPrice(itemDTO.getUnitPrice());
+            saleItem.setSubtotal(itemDTO.getQuantity() * itemDTO.getUnitPrice());
+            saleItem.setDeleted(false);
+            sale.getItems().add(saleItem);
+        }
+        return sale;
+    }
+
+    private static StockTransaction saleTransaction(Ingredient ingredient, Long branchId, double quantity,
+                                                    double previousStock, double newStock, String reason,
+                                                    String performedBy) {
+        StockTransaction transaction = new StockTransaction();
+        transaction.setIngredient(ingredient);
+        transaction.setType(TransactionType.SALE);
+        transaction.setQuantity(quantity);
+        transaction.setPreviousStock(previousStock);
+        transaction.setNewStock(newStock);
+        transaction.setReason(reason);
+        transaction.setPerformedBy(performedBy);
+        transaction.setBranchId(branchId);
+        transaction.setDeleted(false);
+        return transaction;
+    }
+
+    private static BulkSaleResponse toResponse(OfflineSaleResultDTO[] results) {
+        BulkSaleResponse response = new BulkSaleResponse();
+        for (OfflineSaleResultDTO result : results) {
+            switch (result.getStatus()) {
+                case CREATED -> response.setCreated(response.getCreated() + 1);
+                case DUPLICATE -> response.setDuplicates(response.getDuplicates() + 1);
+                case REJECTED -> response.setRejected(response.getRejected() + 1);
+            }
+        }
+        response.setResults(Arrays.asList(results));
+        return response;
+    }
+}
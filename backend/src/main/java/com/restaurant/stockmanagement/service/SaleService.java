@@ -0,0 +1,229 @@
+package com.restaurant.stockmanagement.service;
+
+import com.restaurant.stockmanagement.dto.CursorPage;
+import com.restaurant.stockmanagement.dto.SaleItemDTO;
+import com.restaurant.stockmanagement.dto.SaleRequest;
+import com.restaurant.stockmanagement.dto.SaleResponse;
+import com.restaurant.stockmanagement.event.IngredientChangedEvent;
+import com.restaurant.stockmanagement.event.SaleCompletedEvent;
+import com.restaurant.stockmanagement.exception.InsufficientStockException;
+import com.restaurant.stockmanagement.exception.ResourceNotFoundException;
+import com.restaurant.stockmanagement.ledger.StockLedger;
+import com.restaurant.stockmanagement.lot.StockLotBook;
+import com.restaurant.stockmanagement.model.*;
+import com.restaurant.stockmanagement.pagination.KeysetCursor;
+import com.restaurant.stockmanagement.repository.*;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.KeysetScrollPosition;
+import org.springframework.data.domain.Window;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.*;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+@Service
+public class SaleService {
+
+    private static final KeysetCursor SALE_CURSOR = new KeysetCursor("saleDate");
+
+    private final SaleRepository saleRepository;
+    private final SaleItemRepository saleItemRepository;
+    private final FoodRepository foodRepository;
+    private final RecipeIngredientRepository recipeIngredientRepository;
+    private final StockLedger stockLedger;
+    private final StockReservationService stockReservationService;
+    private final StockLotBook stockLotBook;
+    private final ApplicationEventPublisher eventPublisher;
+
+    public SaleService(SaleRepository saleRepository,
+                      SaleItemRepository saleItemRepository,
+                      FoodRepository foodRepository,
+                      RecipeIngredientRepository recipeIngredientRepository,
+                      StockLedger stockLedger,
+                      StockReservationService stockReservationService,
+                      StockLotBook stockLotBook,
+                      ApplicationEventPublisher eventPublisher) {
+        this.saleRepository = saleRepository;
+        this.saleItemRepository = saleItemRepository;
+        this.foodRepository = foodRepository;
+        this.recipeIngredientRepository = recipeIngredientRepository;
+        this.stockLedger = stockLedger;
+        this.stockReservationService = stockReservationService;
+        this.stockLotBook = stockLotBook;
+        this.eventPublisher = eventPublisher;
+    }
+
+    /**
+     * Posts a sale and deducts recipe stock for the whole ticket at once.
+     * Foods and recipes are loaded with one query each and ingredient demand is
+     * summed in memory. Each ingredient then gets a single conditional decrement,
+     * drawn from its first-expiring lots, and the StockTransaction rows go through
+     * the stock ledger in one batch.
+     */
+    @Transactional
+    public SaleResponse createSale(SaleRequest request) {
+        Authentication auth = SecurityContextHolder.getContext().getAuthentication();
+        String cashierUsername = auth.getName();
+
+        Set<Long> foodIds = request.getItems().stream()
+                .map(SaleItemDTO::getFoodId)
+                .collect(Collectors.toCollection(LinkedHashSet::new));
+
+        Map<Long, Food> foods = foodRepository.findAllById(foodIds).stream()
+                .collect(Collectors.toMap(Food::getId, Function.identity()));
+        for (Long foodId : foodIds) {
+            Food food = foods.get(foodId);
+            if (food == null || food.getDeleted()) {
+                throw new ResourceNotFoundException("Food", "id", foodId);
+            }
+        }
+
+        Map<Long, List<RecipeIngredient>> recipesByFood = recipeIngredientRepository
+                .findActiveRecipesByFoodIds(foodIds).stream()
+                .collect(Collectors.groupingBy(ri -> ri.getFood().getId()));
+
+        // Sum ingredient demand across the whole ticket, ordered by id for lock ordering
+        Map<Long, Ingredient> ingredients = new TreeMap<>();
+        Map<Long, Double> demand = new HashMap<>();
+        for (SaleItemDTO item : request.getItems()) {
+            for (RecipeIngredient ri : recipesByFood.getOrDefault(item.getFoodId(), List.of())) {
+                Ingredient ingredient = ri.getIngredient();
+                ingredients.putIfAbsent(ingredient.getId(), ingredient);
+                demand.merge(ingredient.getId(), ri.getQuantity() * item.getQuantity(), Double::sum);
+            }
+        }
+
+        validateStockAvailability(ingredients.values(), demand);
+
+        Sale sale = new Sale();
+        sale.setSaleDate(LocalDateTime.now());
+        sale.setTotalAmount(request.getTotalAmount());
+        sale.setCashierUsername(cashierUsername);
+        sale.setBranchId(request.getBranchId());
+        sale.setPaymentMethod(request.getPaymentMethod());
+        sale.setNotes(request.getNotes());
+        sale.setDeleted(false);
+        Sale savedSale = saleRepository.save(sale);
+
+        List<SaleItem> saleItems = new ArrayList<>(request.getItems().size());
+        for (SaleItemDTO itemDTO : request.getItems()) {
+            SaleItem saleItem = new SaleItem();
+            saleItem.setSale(savedSale);
+            saleItem.setFood(foods.get(itemDTO.getFoodId()));
+            saleItem.setQuantity(itemDTO.getQuantity());
+            saleItem.setUnitPrice(itemDTO.getUnitPrice());
+            saleItem.setSubtotal(itemDTO.getQuantity() * itemDTO.getUnitPrice());
+            saleItem.setDeleted(false);
+            saleItems.add(saleItem);
+        }
+        savedSale.setItems(saleItemRepository.saveAll(saleItems));
+
+        List<StockTransaction> transactions =
+                deductIngredientsFromStock(savedSale, ingredients.values(), demand, cashierUsername);
+        eventPublisher.publishEvent(new IngredientChangedEvent(demand.keySet()));
+        eventPublisher.publishEvent(new SaleCompletedEvent(savedSale, transactions));
+
+        return mapToResponse(savedSale);
+    }
+
+    /**
+     * Newest sales first, continuing after {@code cursor}. Items of the whole slice are loaded
+     * with one query.
+     */
+    @Transactional(readOnly = true)
+    public CursorPage<SaleResponse> scrollSales(String cursor, int size) {
+        KeysetScrollPosition position = SALE_CURSOR.decode(cursor);
+        LocalDateTime until = SALE_CURSOR.until(position);
+        Window<Sale> window = until == null
+                ? saleRepository.findByDeletedFalse(position, SALE_CURSOR.sort(), SALE_CURSOR.limit(size))
+                : saleRepository.findByDeletedFalseAndSaleDateLessThanEqual(
+                        until, position, SALE_CURSOR.sort(), SALE_CURSOR.limit(size));
+
+        List<Long> saleIds = window.stream().map(Sale::getId).collect(Collectors.toList());
+        Map<Long, List<SaleItem>> itemsBySale = saleIds.isEmpty()
+                ? Map.of()
+                : saleItemRepository.findWithFoodBySaleIds(saleIds).stream()
+                        .collect(Collectors.groupingBy(item -> item.getSale().getId()));
+
+        List<SaleResponse> sales = window.stream()
+                .map(sale -> mapToResponse(sale, itemsBySale.getOrDefault(sale.getId(), List.of())))
+                .collect(Collectors.toList());
+        return new CursorPage<>(sales, SALE_CURSOR.nextCursor(window), window.hasNext());
+    }
+
+    private void validateStockAvailability(Collection<Ingredient> ingredients, Map<Long, Double> demand) {
+        for (Ingredient ingredient : ingredients) {
+            double requiredQuantity = demand.get(ingredient.getId());
+            double available = ingredient.getCurrentStock() - ingredient.getReservedStock();
+            if (available < requiredQuantity) {
+                throw new InsufficientStockException(
+                    String.format("Insufficient stock for ingredient: %s. Required: %.2f %s, Available: %.2f %s",
+                        ingredient.getName(), requiredQuantity, ingredient.getUnit(),
+                        available, ingredient.getUnit())
+                );
+            }
+        }
+    }
+
+    private List<StockTransaction> deductIngredientsFromStock(Sale sale, Collection<Ingredient> ingredients,
+                                                              Map<Long, Double> demand, String performedBy) {
+        stockReservationService.lock(demand.keySet());
+        stockLotBook.preload(demand.keySet());
+
+        List<StockTransaction> transactions = new ArrayList<>(ingredients.size());
+        for (Ingredient ingredient : ingredients) {
+            double deductAmount = demand.get(ingredient.getId());
+            double newStock = stockReservationService.decrement(ingredient, deductAmount);
+            double previousStock = newStock + deductAmount;
+
+            StockTransaction transaction = new StockTransaction();
+            transaction.setIngredient(ingredient);
+            transaction.setType(TransactionType.SALE);
+            transaction.setQuantity(deductAmount);
+            transaction.setPreviousStock(previousStock);
+            transaction.setNewStock(newStock);
+            transaction.setReason("Sale #" + sale.getId());
+            transaction.setPerformedBy(performedBy);
+            transaction.setBranchId(ingredient.getBranchId());
+            transaction.setDeleted(false);
+            stockLotBook.attach(transaction, stockLotBook.draw(ingredient.getId(), deductAmount));
+            transactions.add(transaction);
+        }
+        stockLedger.record(transactions);
+        return transactions;
+    }
+
+    private SaleResponse mapToResponse(Sale sale) {
+        return mapToResponse(sale, sale.getItems());
+    }
+
+    private SaleResponse mapToResponse(Sale sale, List<SaleItem> items) {
+        SaleResponse response = new SaleResponse();
+        response.setId(sale.getId());
+        response.setSaleDate(sale.getSaleDate());
+        response.setTotalAmount(sale.getTotalAmount());
+        response.setCashierUsername(sale.getCashierUsername());
+        response.setBranchId(sale.getBranchId());
+        response.setPaymentMethod(sale.getPaymentMethod());
+        response.setNotes(sale.getNotes());
+        response.setItems(items.stream()
+                .map(this::mapSaleItemToDTO)
+                .collect(Collectors.toList()));
+        return response;
+    }
+
+    private SaleItemDTO mapSaleItemToDTO(SaleItem item) {
+        SaleItemDTO dto = new SaleItemDTO();
+        dto.setFoodId(item.getFood().getId());
+        dto.setFoodName(item.getFood().getName());
+        dto.setQuantity(item.getQuantity());
+        dto.setUnitPrice(item.getUnitPrice());
+        dto.setSubtotal(item.getSubtotal());
+        return dto;
+    }
+}
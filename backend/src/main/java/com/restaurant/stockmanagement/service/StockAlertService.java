@@ -0,0 +1,357 @@
+package com.restaurant.stockmanagement.service;
+
+import com.restaurant.stockmanagement.config.ExecutorConfig;
+import com.restaurant.stockmanagement.datasource.ShardFanOut;
+import com.restaurant.stockmanagement.dto.CursorPage;
+import com.restaurant.stockmanagement.dto.StockAlertDTO;
+import com.restaurant.stockmanagement.event.IngredientChangedEvent;
+import com.restaurant.stockmanagement.event.StockAlertChangedEvent;
+import com.restaurant.stockmanagement.event.StockLotReceivedEvent;
+import com.restaurant.stockmanagement.exception.ResourceNotFoundException;
+import com.restaurant.stockmanagement.metrics.StockMetrics;
+import com.restaurant.stockmanagement.model.AlertType;
+import com.restaurant.stockmanagement.model.Ingredient;
+import com.restaurant.stockmanagement.model.StockAlert;
+import com.restaurant.stockmanagement.model.StockLot;
+import com.restaurant.stockmanagement.pagination.KeysetCursor;
+import com.restaurant.stockmanagement.repository.IngredientRepository;
+import com.restaurant.stockmanagement.repository.StockAlertRepository;
+import com.restaurant.stockmanagement.repository.StockLotRepository;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.KeysetScrollPosition;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Window;
+import org.springframework.scheduling.annotation.Async;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Incremental stock alert engine.
+ *
+ * <p>Instead of periodically scanning every ingredient, alerts are evaluated only for the
+ * ingredients named in an {@link IngredientChangedEvent}. Open (unacknowledged) alerts are kept
+ * in an in-memory index so deduplication needs no query, and expiry alerts are driven by a
+ * priority queue ordered by due time that wakes up exactly when the next one should fire.
+ * Expiry is tracked per stock lot, so a new delivery does not hide the expiry of older stock;
+ * an alert is still raised once per ingredient until acknowledged. The index and queue are
+ * seeded once at startup, the queue from the open lots in the lot expiry index, and lots
+ * received later are added as they commit.
+ */
+@Service
+public class StockAlertService {
+
+    private static final Logger log = LoggerFactory.getLogger(StockAlertService.class);
+    private static final KeysetCursor ALERT_CURSOR = new KeysetCursor("createdAt");
+
+    private final StockAlertRepository alertRepository;
+    private final IngredientRepository ingredientRepository;
+    private final StockLotRepository stockLotRepository;
+    private final TransactionTemplate requiresNewTransaction;
+    private final ShardFanOut shardFanOut;
+    private final StockMetrics stockMetrics;
+    private final ApplicationEventPublisher eventPublisher;
+    private final int expiringSoonDays;
+
+    private final Set<AlertKey> openAlerts = ConcurrentHashMap.newKeySet();
+
+    // Guarded by expiryQueue
+    private final PriorityQueue<ExpiryTrigger> expiryQueue =
+            new PriorityQueue<>(Comparator.comparingLong(ExpiryTrigger::dueAt));
+    // Lot id to expiry date, until the lot's EXPIRED trigger has fired
+    private final Map<Long, LocalDate> scheduledExpiry = new HashMap<>();
+    private ScheduledFuture<?> nextWakeUp;
+
+    private final ScheduledExecutorService expiryTimer = Executors.newSingleThreadScheduledExecutor(r -> {
+        Thread thread = new Thread(r, "stock-alert-expiry");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    public StockAlertService(StockAlertRepository alertRepository,
+                            IngredientRepository ingredientRepository,
+                            StockLotRepository stockLotRepository,
+                            PlatformTransactionManager transactionManager,
+                            ShardFanOut shardFanOut,
+                            StockMetrics stockMetrics,
+                            ApplicationEventPublisher eventPublisher,
+                            @Value("${app.alerts.expiring-soon-days:7}") int expiringSoonDays) {
+        this.alertRepository = alertRepository;
+        this.ingredientRepository = ingredientRepository;
+        this.stockLotRepository = stockLotRepository;
+        this.requiresNewTransaction = new TransactionTemplate(transactionManager);
+        this.requiresNewTransaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        this.shardFanOut = shardFanOut;
+        this.stockMetrics = stockMetrics;
+        this.eventPublisher = eventPublisher;
+        this.expiringSoonDays = expiringSoonDays;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void initialize() {
+        shardFanOut.forEachShard(this::initializeShard);
+        processDueExpiries();
+        log.info("Stock alert engine started with {} open alerts and {} expiry triggers",
+                openAlerts.size(), expiryQueue.size());
+    }
+
+    private void initializeShard() {
+        for (StockAlert alert : alertRepository.findUnacknowledgedAlerts()) {
+            openAlerts.add(new AlertKey(alert.getIngredient().getId(), alert.getAlertType()));
+        }
+
+        // Catch up on stock changes made while the application was down
+        requiresNewTransaction.executeWithoutResult(status -> {
+            ingredientRepository.findLowStockIngredients().forEach(this::evaluateStock);
+            ingredientRepository.findOutOfStockIngredients().forEach(this::evaluateStock);
+        });
+
+        for (Object[] row : stockLotRepository.findOpenExpiryDates()) {
+            scheduleExpiry((Long) row[0], (LocalDate) row[1]);
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        expiryTimer.shutdownNow();
+    }
+
+    @Async(ExecutorConfig.ALERTING_EXECUTOR)
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onIngredientChanged(IngredientChangedEvent event) {
+        requiresNewTransaction.executeWithoutResult(status ->
+                ingredientRepository.findAllById(event.getIngredientIds()).forEach(this::evaluateStock));
+    }
+
+    @Async(ExecutorConfig.ALERTING_EXECUTOR)
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onStockLotReceived(StockLotReceivedEvent event) {
+        scheduleExpiry(event.getLotId(), event.getExpiryDate());
+        processDueExpiries();
+    }
+
+    @Transactional(readOnly = true)
+    public Page<StockAlertDTO> getAllAlerts(Pageable pageable) {
+        return alertRepository.findDTOsByDeletedFalse(pageable);
+    }
+
+    @Transactional(readOnly = true)
+    public CursorPage<StockAlertDTO> scrollAlerts(String cursor, int size) {
+        KeysetScrollPosition position = ALERT_CURSOR.decode(cursor);
+        LocalDateTime until = ALERT_CURSOR.until(position);
+        Window<StockAlert> window = until == null
+                ? alertRepository.findByDeletedFalse(position, ALERT_CURSOR.sort(), ALERT_CURSOR.limit(size))
+                : alertRepository.findByDeletedFalseAndCreatedAtLessThanEqual(
+                        until, position, ALERT_CURSOR.sort(), ALERT_CURSOR.limit(size));
+        List<StockAlertDTO> alerts = window.stream()
+                .map(this::mapToDTO)
+                .collect(Collectors.toList());
+        return new CursorPage<>(alerts, ALERT_CURSOR.nextCursor(window), window.hasNext());
+    }
+
+    @Transactional(readOnly = true)
+    public List<StockAlertDTO> getUnacknowledgedAlerts() {
+        return alertRepository.findUnacknowledgedAlertDTOs();
+    }
+
+    @Transactional
+    public StockAlertDTO acknowledgeAlert(Long alertId) {
+        StockAlert alert = alertRepository.findById(alertId)
+                .orElseThrow(() -> new ResourceNotFoundException("Alert", "id", alertId));
+
+        Authentication auth = SecurityContextHolder.getContext().getAuthentication();
+        String username = auth.getName();
+
+        alert.setAcknowledged(true);
+        alert.setAcknowledgedAt(LocalDateTime.now());
+        alert.setAcknowledgedBy(username);
+        StockAlert updated = alertRepository.save(alert);
+        StockAlertDTO dto = mapToDTO(updated);
+        eventPublisher.publishEvent(new StockAlertChangedEvent(dto));
+
+        AlertKey key = new AlertKey(alert.getIngredient().getId(), alert.getAlertType());
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                openAlerts.remove(key);
+            }
+        });
+
+        return dto;
+    }
+
+    private void evaluateStock(Ingredient ingredient) {
+        if (ingredient.getDeleted()) {
+            return;
+        }
+        if (ingredient.getCurrentStock() <= 0) {
+            raiseAlert(ingredient, AlertType.OUT_OF_STOCK,
+                    String.format("Out of stock: %s has zero stock", ingredient.getName()));
+        }
+        if (ingredient.getCurrentStock() < ingredient.getMinimumStock()) {
+            raiseAlert(ingredient, AlertType.LOW_STOCK,
+                    String.format("Low stock alert: %s is below minimum threshold. Current: %.2f %s, Minimum: %.2f %s",
+                            ingredient.getName(), ingredient.getCurrentStock(), ingredient.getUnit(),
+                            ingredient.getMinimumStock(), ingredient.getUnit()));
+        }
+    }
+
+    /**
+     * Creates the alert unless an open one already exists. Must run inside a transaction.
+     */
+    private void raiseAlert(Ingredient ingredient, AlertType alertType, String message) {
+        AlertKey key = new AlertKey(ingredient.getId(), alertType);
+        if (!openAlerts.add(key)) {
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                if (status != STATUS_COMMITTED) {
+                    openAlerts.remove(key);
+                }
+            }
+        });
+
+        StockAlert alert = new StockAlert();
+        alert.setIngredient(ingredient);
+        alert.setAlertType(alertType);
+        alert.setMessage(message);
+        alert.setAcknowledged(false);
+        alert.setBranchId(ingredient.getBranchId());
+        alert.setDeleted(false);
+        alertRepository.save(alert);
+        stockMetrics.alertRaised(alertType);
+        eventPublisher.publishEvent(new StockAlertChangedEvent(mapToDTO(alert)));
+    }
+
+    private void scheduleExpiry(Long lotId, LocalDate expiryDate) {
+        synchronized (expiryQueue) {
+            if (expiryDate.equals(scheduledExpiry.put(lotId, expiryDate))) {
+                return;
+            }
+            // Triggers of lots used up in the meantime are discarded when they fire
+            expiryQueue.add(new ExpiryTrigger(startOfDay(expiryDate.minusDays(expiringSoonDays)),
+                    lotId, expiryDate, AlertType.EXPIRING_SOON));
+            expiryQueue.add(new ExpiryTrigger(startOfDay(expiryDate.plusDays(1)),
+                    lotId, expiryDate, AlertType.EXPIRED));
+        }
+    }
+
+    private void processDueExpiries() {
+        List<ExpiryTrigger> due = new ArrayList<>();
+        synchronized (expiryQueue) {
+            long now = System.currentTimeMillis();
+            while (!expiryQueue.isEmpty() && expiryQueue.peek().dueAt() <= now) {
+                ExpiryTrigger trigger = expiryQueue.poll();
+                if (trigger.expiryDate().equals(scheduledExpiry.get(trigger.lotId()))) {
+                    due.add(trigger);
+                }
+                if (trigger.type() == AlertType.EXPIRED) {
+                    scheduledExpiry.remove(trigger.lotId());
+                }
+            }
+            scheduleWakeUp(now);
+        }
+        if (due.isEmpty()) {
+            return;
+        }
+
+        try {
+            // Entity ids are unique across databases, so each one simply skips the others' lots
+            shardFanOut.forEachShard(() -> requiresNewTransaction.executeWithoutResult(status -> fireExpiryAlerts(due)));
+        } catch (RuntimeException e) {
+            log.error("Failed to raise {} expiry alerts", due.size(), e);
+        }
+    }
+
+    private void fireExpiryAlerts(List<ExpiryTrigger> due) {
+        Set<Long> lotIds = due.stream().map(ExpiryTrigger::lotId).collect(Collectors.toSet());
+        Map<Long, StockLot> lots = stockLotRepository.findWithIngredientByIdIn(lotIds).stream()
+                .collect(Collectors.toMap(StockLot::getId, Function.identity()));
+        LocalDate today = LocalDate.now();
+
+        for (ExpiryTrigger trigger : due) {
+            StockLot lot = lots.get(trigger.lotId());
+            if (lot == null || lot.getDeleted() || lot.getRemainingQuantity() <= 0
+                    || lot.getIngredient().getDeleted() || !trigger.expiryDate().equals(lot.getExpiryDate())) {
+                continue;
+            }
+            Ingredient ingredient = lot.getIngredient();
+            if (trigger.type() == AlertType.EXPIRED) {
+                raiseAlert(ingredient, AlertType.EXPIRED,
+                        String.format("Expired: %.2f %s of %s received on %s expired on %s",
+                                lot.getRemainingQuantity(), ingredient.getUnit(), ingredient.getName(),
+                                lot.getReceivedDate(), lot.getExpiryDate()));
+            } else if (!lot.getExpiryDate().isBefore(today)) {
+                raiseAlert(ingredient, AlertType.EXPIRING_SOON,
+                        String.format("Expiring soon: %.2f %s of %s received on %s will expire on %s",
+                                lot.getRemainingQuantity(), ingredient.getUnit(), ingredient.getName(),
+                                lot.getReceivedDate(), lot.getExpiryDate()));
+            }
+        }
+    }
+
+    private void scheduleWakeUp(long now) {
+        if (nextWakeUp != null) {
+            nextWakeUp.cancel(false);
+            nextWakeUp = null;
+        }
+        ExpiryTrigger head = expiryQueue.peek();
+        if (head != null && !expiryTimer.isShutdown()) {
+            nextWakeUp = expiryTimer.schedule(this::processDueExpiries,
+                    Math.max(0, head.dueAt() - now), TimeUnit.MILLISECONDS);
+        }
+    }
+
+    private static long startOfDay(LocalDate date) {
+        return date.atStartOfDay(ZoneId.systemDefault()).toInstant().toEpochMilli();
+    }
+
+    private StockAlertDTO mapToDTO(StockAlert alert) {
+        StockAlertDTO dto = new StockAlertDTO();
+        dto.setId(alert.getId());
+        dto.setIngredientId(alert.getIngredient().getId());
+        dto.setIngredientName(alert.getIngredient().getName());
+        dto.setAlertType(alert.getAlertType());
+        dto.setMessage(alert.getMessage());
+        dto.setAcknowledged(alert.getAcknowledged());
+        dto.setAcknowledgedAt(alert.getAcknowledgedAt());
+        dto.setAcknowledgedBy(alert.getAcknowledgedBy());
+        dto.setBranchId(alert.getBranchId());
+        dto.setCreatedAt(alert.getCreatedAt());
+        return dto;
+    }
+
+    private record AlertKey(Long ingredientId, AlertType alertType) {
+    }
+
+    private record ExpiryTrigger(long dueAt, Long lotId, LocalDate expiryDate, AlertType type) {
+    }
+}
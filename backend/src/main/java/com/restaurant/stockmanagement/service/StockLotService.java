@@ -0,0 +1,168 @@
+package com.restaurant.stockmanagement.service;
+
+import com.restaurant.stockmanagement.datasource.ShardFanOut;
+import com.restaurant.stockmanagement.dto.StockLotDTO;
+import com.restaurant.stockmanagement.dto.StockLotDrawDTO;
+import com.restaurant.stockmanagement.dto.StockLotReceiptRequest;
+import com.restaurant.stockmanagement.dto.StockTransactionDTO;
+import com.restaurant.stockmanagement.dto.StockWasteRequest;
+import com.restaurant.stockmanagement.event.IngredientChangedEvent;
+import com.restaurant.stockmanagement.exception.ResourceNotFoundException;
+import com.restaurant.stockmanagement.ledger.StockLedger;
+import com.restaurant.stockmanagement.lot.LotDraw;
+import com.restaurant.stockmanagement.lot.StockLotBook;
+import com.restaurant.stockmanagement.model.Ingredient;
+import com.restaurant.stockmanagement.model.StockLot;
+import com.restaurant.stockmanagement.model.StockTransaction;
+import com.restaurant.stockmanagement.model.TransactionType;
+import com.restaurant.stockmanagement.repository.IngredientRepository;
+import com.restaurant.stockmanagement.repository.StockLotRepository;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDate;
+import java.util.Comparator;
+import java.util.List;
+import java.util.stream.Collectors;
+
+/**
+ * Deliveries and waste, the stock movements that work on lots directly. A delivery adds a lot
+ * and a PURCHASE transaction; waste is taken from the first-expiring lots as a WASTE
+ * transaction, so expired stock is written off before stock that is still good.
+ */
+@Service
+public class StockLotService {
+
+    private final StockLotRepository stockLotRepository;
+    private final IngredientRepository ingredientRepository;
+    private final StockReservationService stockReservationService;
+    private final StockLotBook stockLotBook;
+    private final StockLedger stockLedger;
+    private final ShardFanOut shardFanOut;
+    private final ApplicationEventPublisher eventPublisher;
+
+    public StockLotService(StockLotRepository stockLotRepository,
+                           IngredientRepository ingredientRepository,
+                           StockReservationService stockReservationService,
+                           StockLotBook stockLotBook,
+                           StockLedger stockLedger,
+                           ShardFanOut shardFanOut,
+                           ApplicationEventPublisher eventPublisher) {
+        this.stockLotRepository = stockLotRepository;
+        this.ingredientRepository = ingredientRepository;
+        this.stockReservationService = stockReservationService;
+        this.stockLotBook = stockLotBook;
+        this.stockLedger = stockLedger;
+        this.shardFanOut = shardFanOut;
+        this.eventPublisher = eventPublisher;
+    }
+
+    @Transactional
+    public StockLotDTO receive(StockLotReceiptRequest request) {
+        stockReservationService.lock(List.of(request.getIngredientId()));
+        Ingredient ingredient = findIngredient(request.getIngredientId());
+
+        double quantity = request.getQuantity();
+        double previousStock = ingredient.getCurrentStock();
+        ingredient.setCurrentStock(previousStock + quantity);
+
+        LocalDate receivedDate = request.getReceivedDate() == null ? LocalDate.now() : request.getReceivedDate();
+        double costPerUnit = request.getCostPerUnit() == null
+                ? ingredient.getCostPerUnit() : request.getCostPerUnit();
+        StockLot lot = stockLotBook.receive(ingredient, quantity, receivedDate, request.getExpiryDate(), costPerUnit);
+
+        StockTransaction transaction = stockTransaction(ingredient, TransactionType.PURCHASE, quantity,
+                previousStock, ingredient.getCurrentStock(),
+                request.getReason() == null ? "Delivery received " + receivedDate : request.getReason());
+        transaction.addLot(lot, quantity);
+        stockLedger.record(List.of(transaction));
+        eventPublisher.publishEvent(new IngredientChangedEvent(List.of(ingredient.getId())));
+
+        return new StockLotDTO(lot.getId(), ingredient.getId(), ingredient.getName(), ingredient.getUnit(),
+                lot.getBranchId(), lot.getQuantity(), lot.getRemainingQuantity(), lot.getReceivedDate(),
+                lot.getExpiryDate(), lot.getCostPerUnit());
+    }
+
+    /**
+     * Writes off stock, first-expiring lots first. Stock reserved for transfers cannot be wasted.
+     */
+    @Transactional
+    public StockTransactionDTO waste(StockWasteRequest request) {
+        stockReservationService.lock(List.of(request.getIngredientId()));
+        Ingredient ingredient = findIngredient(request.getIngredientId());
+
+        double quantity = request.getQuantity();
+        double newStock = stockReservationService.decrement(ingredient, quantity);
+        StockTransaction transaction = stockTransaction(ingredient, TransactionType.WASTE, quantity,
+                newStock + quantity, newStock, request.getReason());
+        List<LotDraw> draws = stockLotBook.draw(ingredient.getId(), quantity);
+        stockLotBook.attach(transaction, draws);
+        stockLedger.record(List.of(transaction));
+        eventPublisher.publishEvent(new IngredientChangedEvent(List.of(ingredient.getId())));
+
+        // The id is null while a write-behind ledger has not flushed the row yet
+        StockTransactionDTO dto = new StockTransactionDTO();
+        dto.setId(transaction.getId());
+        dto.setIngredientId(ingredient.getId());
+        dto.setIngredientName(ingredient.getName());
+        dto.setType(transaction.getType());
+        dto.setQuantity(quantity);
+        dto.setPreviousStock(transaction.getPreviousStock());
+        dto.setNewStock(newStock);
+        dto.setReason(transaction.getReason());
+        dto.setPerformedBy(transaction.getPerformedBy());
+        dto.setBranchId(transaction.getBranchId());
+        dto.setCreatedAt(transaction.getCreatedAt());
+        dto.setLots(draws.stream()
+                .map(draw -> new StockLotDrawDTO(draw.lotId(), draw.quantity(), draw.expiryDate()))
+                .collect(Collectors.toList()));
+        return dto;
+    }
+
+    /**
+     * Open lots of the ingredient in the order sales draw them.
+     */
+    @Transactional(readOnly = true)
+    public List<StockLotDTO> getOpenLots(Long ingredientId) {
+        return stockLotRepository.findOpenLotDTOs(ingredientId);
+    }
+
+    /**
+     * Open lots that expire within {@code days}, already expired ones included, soonest first.
+     */
+    public List<StockLotDTO> getExpiringLots(int days, Long branchId) {
+        LocalDate until = LocalDate.now().plusDays(days);
+        if (!shardFanOut.isCrossBranch()) {
+            return stockLotRepository.findExpiringLotDTOs(until, branchId);
+        }
+        List<StockLotDTO> lots = shardFanOut.queryAll(() -> stockLotRepository.findExpiringLotDTOs(until, branchId));
+        lots.sort(Comparator.comparing(StockLotDTO::getExpiryDate).thenComparing(StockLotDTO::getId));
+        return lots;
+    }
+
+    /**
+     * Must run after the lock stripe is taken, so the row read is the current one.
+     */
+    private Ingredient findIngredient(Long id) {
+        return ingredientRepository.findById(id)
+                .filter(ingredient -> !ingredient.getDeleted())
+                .orElseThrow(() -> new ResourceNotFoundException("Ingredient", "id", id));
+    }
+
+    private static StockTransaction stockTransaction(Ingredient ingredient, TransactionType type, double quantity,
+                                                     double previousStock, double newStock, String reason) {
+        StockTransaction transaction = new StockTransaction();
+        transaction.setIngredient(ingredient);
+        transaction.setType(type);
+        transaction.setQuantity(quantity);
+        transaction.setPreviousStock(previousStock);
+        transaction.setNewStock(newStock);
+        transaction.setReason(reason);
+        transaction.setPerformedBy(SecurityContextHolder.getContext().getAuthentication().getName());
+        transaction.setBranchId(ingredient.getBranchId());
+        transaction.setDeleted(false);
+        return transaction;
+    }
+}
@@ -0,0 +1,93 @@
+package com.restaurant.stockmanagement.service;
+
+import com.restaurant.stockmanagement.dto.CursorPage;
+import com.restaurant.stockmanagement.dto.StockLotDrawDTO;
+import com.restaurant.stockmanagement.dto.StockTransactionDTO;
+import com.restaurant.stockmanagement.model.StockTransaction;
+import com.restaurant.stockmanagement.pagination.KeysetCursor;
+import com.restaurant.stockmanagement.repository.StockTransactionLotRepository;
+import com.restaurant.stockmanagement.repository.StockTransactionRepository;
+import org.springframework.data.domain.KeysetScrollPosition;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.domain.Window;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+@Service
+public class StockTransactionService {
+
+    private static final KeysetCursor TRANSACTION_CURSOR = new KeysetCursor("createdAt");
+
+    private final StockTransactionRepository stockTransactionRepository;
+    private final StockTransactionLotRepository stockTransactionLotRepository;
+
+    public StockTransactionService(StockTransactionRepository stockTransactionRepository,
+                                   StockTransactionLotRepository stockTransactionLotRepository) {
+        this.stockTransactionRepository = stockTransactionRepository;
+        this.stockTransactionLotRepository = stockTransactionLotRepository;
+    }
+
+    /**
+     * Newest transactions first, optionally for one ingredient, continuing after {@code cursor}.
+     * The lots of the whole page are read with one query.
+     */
+    @Transactional(readOnly = true)
+    public CursorPage<StockTransactionDTO> scrollTransactions(Long ingredientId, String cursor, int size) {
+        Window<StockTransaction> window = window(ingredientId, TRANSACTION_CURSOR.decode(cursor), size);
+
+        List<StockTransactionDTO> transactions = window.stream()
+                .map(this::mapToDTO)
+                .collect(Collectors.toList());
+        if (!transactions.isEmpty()) {
+            Map<Long, List<StockLotDrawDTO>> lots = new HashMap<>();
+            for (Object[] row : stockTransactionLotRepository.findLotsByTransactionIds(transactions.stream()
+                    .map(StockTransactionDTO::getId)
+                    .collect(Collectors.toList()))) {
+                lots.computeIfAbsent((Long) row[0], id -> new ArrayList<>())
+                        .add(new StockLotDrawDTO((Long) row[1], (Double) row[2], (LocalDate) row[3]));
+            }
+            transactions.forEach(transaction -> transaction.setLots(lots.getOrDefault(transaction.getId(), List.of())));
+        }
+        return new CursorPage<>(transactions, TRANSACTION_CURSOR.nextCursor(window), window.hasNext());
+    }
+
+    private Window<StockTransaction> window(Long ingredientId, KeysetScrollPosition position, int size) {
+        Sort sort = TRANSACTION_CURSOR.sort();
+        Limit limit = TRANSACTION_CURSOR.limit(size);
+        LocalDateTime until = TRANSACTION_CURSOR.until(position);
+        if (ingredientId == null) {
+            return until == null
+                    ? stockTransactionRepository.findByDeletedFalse(position, sort, limit)
+                    : stockTransactionRepository.findByDeletedFalseAndCreatedAtLessThanEqual(until, position, sort, limit);
+        }
+        return until == null
+                ? stockTransactionRepository.findByIngredientIdAndDeletedFalse(ingredientId, position, sort, limit)
+                : stockTransactionRepository.findByIngredientIdAndDeletedFalseAndCreatedAtLessThanEqual(
+                        ingredientId, until, position, sort, limit);
+    }
+
+    private StockTransactionDTO mapToDTO(StockTransaction transaction) {
+        StockTransactionDTO dto = new StockTransactionDTO();
+        dto.setId(transaction.getId());
+        dto.setIngredientId(transaction.getIngredient().getId());
+        dto.setIngredientName(transaction.getIngredient().getName());
+        dto.setType(transaction.getType());
+        dto.setQuantity(transaction.getQuantity());
+        dto.setPreviousStock(transaction.getPreviousStock());
+        dto.setNewStock(transaction.getNewStock());
+        dto.setReason(transaction.getReason());
+        dto.setPerformedBy(transaction.getPerformedBy());
+        dto.setBranchId(transaction.getBranchId());
+        dto.setCreatedAt(transaction.getCreatedAt());
+        return dto;
+    }
+}
@@ -0,0 +1,474 @@
+package com.restaurant.stockmanagement.service;
+
+import com.restaurant.stockmanagement.datasource.BranchContext;
+import com.restaurant.stockmanagement.datasource.ShardingProperties;
+import com.restaurant.stockmanagement.dto.StockTransferDTO;
+import com.restaurant.stockmanagement.dto.StockTransferLineDTO;
+import com.restaurant.stockmanagement.dto.StockTransferRequest;
+import com.restaurant.stockmanagement.event.IngredientChangedEvent;
+import com.restaurant.stockmanagement.exception.InsufficientStockException;
+import com.restaurant.stockmanagement.exception.InvalidTransferException;
+import com.restaurant.stockmanagement.exception.ResourceNotFoundException;
+import com.restaurant.stockmanagement.exception.TransferConflictException;
+import com.restaurant.stockmanagement.ledger.StockLedger;
+import com.restaurant.stockmanagement.lot.LotDraw;
+import com.restaurant.stockmanagement.lot.StockLotBook;
+import com.restaurant.stockmanagement.model.*;
+import com.restaurant.stockmanagement.repository.IngredientRepository;
+import com.restaurant.stockmanagement.repository.StockTransferRepository;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.*;
+import java.util.function.BiFunction;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Moves stock between branches in two phases.
+ *
+ * <p>Reserving a transfer holds its quantities at the source ingredients
+ * ({@code reservedStock}), which sales can no longer take. Committing moves the stock and writes
+ * one outbound and one inbound TRANSFER transaction per line; the source's first-expiring lots
+ * move to the destination with their dates. Cancelling releases the reservation.
+ * A submission may reserve and commit in one go.
+ *
+ * <p>Each step handles the whole manifest in one transaction: the ingredients are read with one
+ * query, every quantity is checked in memory, and the updates and inserts are flushed as JDBC
+ * batches. The step first takes the sales lock stripes of all ingredients involved, so the stock
+ * it reads stays current until it commits; the versioned ingredient rows catch writers in other
+ * application instances. The client-chosen transfer id makes every step idempotent. Both
+ * branches must be stored in the same database, and every step runs against it whatever shard
+ * the request was routed to, so commit, cancel and lookup take the source branch as well.
+ */
+@Service
+public class StockTransferService {
+
+    private final StockTransferRepository transferRepository;
+    private final IngredientRepository ingredientRepository;
+    private final StockReservationService stockReservationService;
+    private final StockLotBook stockLotBook;
+    private final StockLedger stockLedger;
+    private final ShardingProperties sharding;
+    private final ApplicationEventPublisher eventPublisher;
+    private final TransactionTemplate transaction;
+    private final TransactionTemplate readTransaction;
+
+    public StockTransferService(StockTransferRepository transferRepository,
+                                IngredientRepository ingredientRepository,
+                                StockReservationService stockReservationService,
+                                StockLotBook stockLotBook,
+                                StockLedger stockLedger,
+                                ShardingProperties sharding,
+                                ApplicationEventPublisher eventPublisher,
+                                PlatformTransactionManager transactionManager) {
+        this.transferRepository = transferRepository;
+        this.ingredientRepository = ingredientRepository;
+        this.stockReservationService = stockReservationService;
+        this.stockLotBook = stockLotBook;
+        this.stockLedger = stockLedger;
+        this.sharding = sharding;
+        this.eventPublisher = eventPublisher;
+        this.transaction = new TransactionTemplate(transactionManager);
+        this.readTransaction = new TransactionTemplate(transactionManager);
+        this.readTransaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        this.readTransaction.setReadOnly(true);
+    }
+
+    /**
+     * Reserves the manifest's stock at the source branch and, unless {@code commit} is false,
+     * moves it right away. Resubmitting a known transfer id returns that transfer, committing it
+     * first if it is still reserved and the request asks for a commit.
+     */
+    public StockTransferDTO submit(StockTransferRequest request) {
+        if (request.getSourceBranchId().equals(request.getDestinationBranchId())) {
+            throw new InvalidTransferException("Source and destination branch must differ");
+        }
+        String sourceShard = sharding.shardFor(request.getSourceBranchId());
+        if (!Objects.equals(sourceShard, sharding.shardFor(request.getDestinationBranchId()))) {
+            throw new InvalidTransferException(String.format(
+                    "Branches %d and %d are stored in different databases and cannot exchange stock",
+                    request.getSourceBranchId(), request.getDestinationBranchId()));
+        }
+        String username = SecurityContextHolder.getContext().getAuthentication().getName();
+
+        return BranchContext.callOnShard(sourceShard, () -> {
+            StockTransferDTO existing = resubmit(request);
+            if (existing != null) {
+                return existing;
+            }
+            List<Long> destinations = readTransaction.execute(status -> resolveDestinations(request));
+            try {
+                return transaction.execute(status -> create(request, destinations, username));
+            } catch (DataIntegrityViolationException e) {
+                // A concurrent submission with the same transfer id inserted first
+                existing = resubmit(request);
+                if (existing == null) {
+                    throw e;
+                }
+                return existing;
+            }
+        });
+    }
+
+    /**
+     * Moves the stock of a reserved transfer. Committing a committed transfer is a no-op.
+     */
+    public StockTransferDTO commit(Long sourceBranchId, String transferId) {
+        return onSourceShard(sourceBranchId, transferId, (transfer, ingredientIds) -> {
+            switch (transfer.getStatus()) {
+                case COMMITTED -> {
+                    return mapToDTO(transfer);
+                }
+                case CANCELLED -> throw new TransferConflictException(
+                        "Transfer " + transferId + " was cancelled and cannot be committed");
+                default -> {
+                    move(transfer, loadIngredients(ingredientIds));
+                    return mapToDTO(transferRepository.save(transfer));
+                }
+            }
+        });
+    }
+
+    /**
+     * Releases the stock held by a reserved transfer. Cancelling a cancelled transfer is a no-op.
+     */
+    public StockTransferDTO cancel(Long sourceBranchId, String transferId) {
+        return onSourceShard(sourceBranchId, transferId, (transfer, ingredientIds) -> {
+            switch (transfer.getStatus()) {
+                case CANCELLED -> {
+                    return mapToDTO(transfer);
+                }
+                case COMMITTED -> throw new TransferConflictException(
+                        "Transfer " + transferId + " is already committed and cannot be cancelled");
+                default -> {
+                    Map<Long, Ingredient> ingredients = loadIngredients(ingredientIds);
+                    for (StockTransferLine line : transfer.getLines()) {
+                        Ingredient source = ingredients.get(line.getSourceIngredient().getId());
+                        source.setReservedStock(Math.max(0.0, source.getReservedStock() - line.getQuantity()));
+                    }
+                    transfer.setStatus(TransferStatus.CANCELLED);
+                    transfer.setCompletedAt(LocalDateTime.now());
+                    eventPublisher.publishEvent(new IngredientChangedEvent(ingredients.keySet()));
+                    return mapToDTO(transferRepository.save(transfer));
+                }
+            }
+        });
+    }
+
+    public StockTransferDTO getTransfer(Long sourceBranchId, String transferId) {
+        return BranchContext.callOnShard(sharding.shardFor(sourceBranchId),
+                () -> readTransaction.execute(status -> mapToDTO(findTransfer(sourceBranchId, transferId))));
+    }
+
+    /**
+     * Runs {@code step} in one transaction on the source branch's database, with the lock
+     * stripes of all the transfer's ingredients taken before the transfer is read.
+     */
+    private StockTransferDTO onSourceShard(Long sourceBranchId, String transferId,
+                                           BiFunction<StockTransfer, List<Long>, StockTransferDTO> step) {
+        return BranchContext.callOnShard(sharding.shardFor(sourceBranchId), () -> {
+            List<Long> ingredientIds = findIngredientIds(transferId);
+            return transaction.execute(status -> {
+                stockReservationService.lock(ingredientIds);
+                return step.apply(findTransfer(sourceBranchId, transferId), ingredientIds);
+            });
+        });
+    }
+
+    /**
+     * The existing transfer for the request's id, or null when it is new.
+     */
+    private StockTransferDTO resubmit(StockTransferRequest request) {
+        StockTransferDTO existing = readTransaction.execute(status -> transferRepository
+                .findByTransferIdAndDeletedFalse(request.getTransferId())
+                .map(this::mapToDTO)
+                .orElse(null));
+        if (existing == null) {
+            return null;
+        }
+        if (!sameManifest(existing, request)) {
+            throw new TransferConflictException(
+                    "Transfer " + request.getTransferId() + " already exists with a different manifest");
+        }
+        if (request.isCommit() && existing.getStatus() == TransferStatus.RESERVED) {
+            return commit(request.getSourceBranchId(), request.getTransferId());
+        }
+        return existing;
+    }
+
+    private StockTransferDTO create(StockTransferRequest request, List<Long> destinations, String username) {
+        Set<Long> ingredientIds = new TreeSet<>(destinations);
+        request.getLines().forEach(line -> ingredientIds.add(line.getIngredientId()));
+        stockReservationService.lock(ingredientIds);
+        Map<Long, Ingredient> ingredients = loadIngredients(ingredientIds);
+
+        // Sum demand per source ingredient so repeated lines are checked together
+        Map<Long, Double> demand = new TreeMap<>();
+        for (StockTransferLineDTO line : request.getLines()) {
+            demand.merge(line.getIngredientId(), line.getQuantity(), Double::sum);
+        }
+        for (Map.Entry<Long, Double> entry : demand.entrySet()) {
+            Ingredient source = ingredients.get(entry.getKey());
+            double available = source.getCurrentStock() - source.getReservedStock();
+            if (available < entry.getValue()) {
+                throw new InsufficientStockException(
+                    String.format("Insufficient stock for ingredient: %s. Required: %.2f %s, Available: %.2f %s",
+                        source.getName(), entry.getValue(), source.getUnit(), available, source.getUnit())
+                );
+            }
+            source.setReservedStock(source.getReservedStock() + entry.getValue());
+        }
+
+        StockTransfer transfer = new StockTransfer();
+        transfer.setTransferId(request.getTransferId());
+        transfer.setSourceBranchId(request.getSourceBranchId());
+        transfer.setDestinationBranchId(request.getDestinationBranchId());
+        transfer.setStatus(TransferStatus.RESERVED);
+        transfer.setRequestedBy(username);
+        transfer.setNotes(request.getNotes());
+        transfer.setDeleted(false);
+        for (int i = 0; i < request.getLines().size(); i++) {
+            StockTransferLineDTO lineRequest = request.getLines().get(i);
+            StockTransferLine line = new StockTransferLine();
+            line.setTransfer(transfer);
+            line.setSourceIngredient(ingredients.get(lineRequest.getIngredientId()));
+            line.setDestinationIngredient(ingredients.get(destinations.get(i)));
+            line.setQuantity(lineRequest.getQuantity());
+            line.setDeleted(false);
+            transfer.getLines().add(line);
+        }
+
+        if (request.isCommit()) {
+            move(transfer, ingredients);
+        } else {
+            eventPublisher.publishEvent(new IngredientChangedEvent(demand.keySet()));
+        }
+        return mapToDTO(transferRepository.save(transfer));
+    }
+
+    /**
+     * Turns the reservation into paired outbound and inbound movements.
+     */
+    private void move(StockTransfer transfer, Map<Long, Ingredient> ingredients) {
+        String performedBy = SecurityContextHolder.getContext().getAuthentication().getName();
+        List<StockTransaction> transactions = new ArrayList<>(transfer.getLines().size() * 2);
+        for (StockTransferLine line : transfer.getLines()) {
+            Ingredient source = ingredients.get(line.getSourceIngredient().getId());
+            Ingredient destination = ingredients.get(line.getDestinationIngredient().getId());
+            double quantity = line.getQuantity();
+
+            double sourceStock = source.getCurrentStock();
+            source.setCurrentStock(sourceStock - quantity);
+            source.setReservedStock(Math.max(0.0, source.getReservedStock() - quantity));
+            StockTransaction outbound = transferTransaction(source, quantity, sourceStock, source.getCurrentStock(),
+                    "Transfer " + transfer.getTransferId() + " to branch " + transfer.getDestinationBranchId(),
+                    performedBy);
+            List<LotDraw> draws = stockLotBook.draw(source.getId(), quantity);
+            stockLotBook.attach(outbound, draws);
+            transactions.add(outbound);
+
+            double destinationStock = destination.getCurrentStock();
+            destination.setCurrentStock(destinationStock + quantity);
+            StockTransaction inbound = transferTransaction(destination, quantity, destinationStock,
+                    destination.getCurrentStock(),
+                    "Transfer " + transfer.getTransferId() + " from branch " + transfer.getSourceBranchId(),
+                    performedBy);
+            receiveLots(inbound, source, draws);
+            transactions.add(inbound);
+        }
+        stockLedger.record(transactions);
+
+        transfer.setStatus(TransferStatus.COMMITTED);
+        transfer.setCompletedAt(LocalDateTime.now());
+        eventPublisher.publishEvent(new IngredientChangedEvent(ingredients.keySet()));
+    }
+
+    /**
+     * The destination receives the lots the source drew from with their dates and cost, plus one
+     * lot dated by the source for any part of the quantity the source held outside of lots.
+     */
+    private void receiveLots(StockTransaction inbound, Ingredient source, List<LotDraw> draws) {
+        Ingredient destination = inbound.getIngredient();
+        double unlotted = inbound.getQuantity();
+        for (LotDraw draw : draws) {
+            inbound.addLot(stockLotBook.receive(destination, draw.quantity(), draw.receivedDate(),
+                    draw.expiryDate(), draw.costPerUnit()), draw.quantity());
+            unlotted -= draw.quantity();
+        }
+        if (unlotted > 1e-9) {
+            inbound.addLot(stockLotBook.receive(destination, unlotted, LocalDate.now(), source.getExpiryDate(),
+                    source.getCostPerUnit()), unlotted);
+        }
+    }
+
+    private static StockTransaction transferTransaction(Ingredient ingredient, double quantity, double previousStock,
+                                                        double newStock, String reason, String performedBy) {
+        StockTransaction transaction = new StockTransaction();
+        transaction.setIngredient(ingredient);
+        transaction.setType(TransactionType.TRANSFER);
+        transaction.setQuantity(quantity);
+        transaction.setPreviousStock(previousStock);
+        transaction.setNewStock(newStock);
+        transaction.setReason(reason);
+        transaction.setPerformedBy(performedBy);
+        transaction.setBranchId(ingredient.getBranchId());
+        transaction.setDeleted(false);
+        return transaction;
+    }
+
+    /**
+     * Destination ingredient id for each line: the given one, or the destination branch's
+     * ingredient of the same name. Units must match on both sides.
+     */
+    private List<Long> resolveDestinations(StockTransferRequest request) {
+        Set<Long> ids = new HashSet<>();
+        for (StockTransferLineDTO line : request.getLines()) {
+            ids.add(line.getIngredientId());
+            if (line.getDestinationIngredientId() != null) {
+                ids.add(line.getDestinationIngredientId());
+            }
+        }
+        Map<Long, Ingredient> ingredients = ingredientRepository.findAllById(ids).stream()
+                .filter(ingredient -> !ingredient.getDeleted())
+                .collect(Collectors.toMap(Ingredient::getId, Function.identity()));
+
+        Set<String> unmappedNames = new HashSet<>();
+        for (StockTransferLineDTO line : request.getLines()) {
+            Ingredient source = ingredients.get(line.getIngredientId());
+            if (source == null) {
+                throw new ResourceNotFoundException("Ingredient", "id", line.getIngredientId());
+            }
+            if (!request.getSourceBranchId().equals(source.getBranchId())) {
+                throw new InvalidTransferException(String.format(
+                        "Ingredient %d does not belong to branch %d", source.getId(), request.getSourceBranchId()));
+            }
+            if (line.getDestinationIngredientId() == null) {
+                unmappedNames.add(source.getName().toLowerCase(Locale.ROOT));
+            }
+        }
+        Map<String, Ingredient> byName = new HashMap<>();
+        if (!unmappedNames.isEmpty()) {
+            for (Ingredient ingredient : ingredientRepository.findByBranchIdAndNameIn(
+                    request.getDestinationBranchId(), unmappedNames)) {
+                if (byName.putIfAbsent(ingredient.getName().toLowerCase(Locale.ROOT), ingredient) != null) {
+                    throw new InvalidTransferException(String.format(
+                            "Branch %d has several ingredients named %s; give destinationIngredientId",
+                            request.getDestinationBranchId(), ingredient.getName()));
+                }
+            }
+        }
+
+        List<Long> destinations = new ArrayList<>(request.getLines().size());
+        for (StockTransferLineDTO line : request.getLines()) {
+            Ingredient source = ingredients.get(line.getIngredientId());
+            Ingredient destination = line.getDestinationIngredientId() == null
+                    ? byName.get(source.getName().toLowerCase(Locale.ROOT))
+                    : ingredients.get(line.getDestinationIngredientId());
+            if (destination == null) {
+                throw line.getDestinationIngredientId() == null
+                        ? new ResourceNotFoundException("Ingredient", "name", source.getName())
+                        : new ResourceNotFoundException("Ingredient", "id", line.getDestinationIngredientId());
+            }
+            if (!request.getDestinationBranchId().equals(destination.getBranchId())) {
+                throw new InvalidTransferException(String.format("Ingredient %d does not belong to branch %d",
+                        destination.getId(), request.getDestinationBranchId()));
+            }
+            if (!source.getUnit().equalsIgnoreCase(destination.getUnit())) {
+                throw new InvalidTransferException(String.format(
+                        "Unit mismatch for %s: %s at the source, %s at the destination",
+                        source.getName(), source.getUnit(), destination.getUnit()));
+            }
+            destinations.add(destination.getId());
+        }
+        return destinations;
+    }
+
+    /**
+     * Must run after the lock stripes are taken, so the rows read are the current ones.
+     */
+    private Map<Long, Ingredient> loadIngredients(Collection<Long> ids) {
+        Map<Long, Ingredient> ingredients = ingredientRepository.findAllById(ids).stream()
+                .collect(Collectors.toMap(Ingredient::getId, Function.identity()));
+        for (Long id : ids) {
+            if (!ingredients.containsKey(id)) {
+                throw new ResourceNotFoundException("Ingredient", "id", id);
+            }
+        }
+        return ingredients;
+    }
+
+    private List<Long> findIngredientIds(String transferId) {
+        List<Object[]> rows = readTransaction.execute(
+                status -> transferRepository.findIngredientIdsByTransferId(transferId));
+        if (rows.isEmpty()) {
+            throw new ResourceNotFoundException("Transfer", "transferId", transferId);
+        }
+        Set<Long> ids = new TreeSet<>();
+        for (Object[] row : rows) {
+            ids.add((Long) row[0]);
+            ids.add((Long) row[1]);
+        }
+        return new ArrayList<>(ids);
+    }
+
+    /**
+     * A transfer out of another branch is reported as missing, as it is on other databases.
+     */
+    private StockTransfer findTransfer(Long sourceBranchId, String transferId) {
+        return transferRepository.findByTransferIdAndDeletedFalse(transferId)
+                .filter(transfer -> transfer.getSourceBranchId().equals(sourceBranchId))
+                .orElseThrow(() -> new ResourceNotFoundException("Transfer", "transferId", transferId));
+    }
+
+    private static boolean sameManifest(StockTransferDTO existing, StockTransferRequest request) {
+        if (!existing.getSourceBranchId().equals(request.getSourceBranchId())
+                || !existing.getDestinationBranchId().equals(request.getDestinationBranchId())
+                || existing.getLines().size() != request.getLines().size()) {
+            return false;
+        }
+        for (int i = 0; i < existing.getLines().size(); i++) {
+            StockTransferLineDTO stored = existing.getLines().get(i);
+            StockTransferLineDTO requested = request.getLines().get(i);
+            if (!stored.getIngredientId().equals(requested.getIngredientId())
+                    || !stored.getQuantity().equals(requested.getQuantity())
+                    || (requested.getDestinationIngredientId() != null
+                        && !requested.getDestinationIngredientId().equals(stored.getDestinationIngredientId()))) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private StockTransferDTO mapToDTO(StockTransfer transfer) {
+        StockTransferDTO dto = new StockTransferDTO();
+        dto.setTransferId(transfer.getTransferId());
+        dto.setSourceBranchId(transfer.getSourceBranchId());
+        dto.setDestinationBranchId(transfer.getDestinationBranchId());
+        dto.setStatus(transfer.getStatus());
+        dto.setRequestedBy(transfer.getRequestedBy());
+        dto.setCreatedAt(transfer.getCreatedAt());
+        dto.setCompletedAt(transfer.getCompletedAt());
+        dto.setNotes(transfer.getNotes());
+        dto.setLines(transfer.getLines().stream()
+                .map(this::mapLineToDTO)
+                .collect(Collectors.toList()));
+        return dto;
+    }
+
+    private StockTransferLineDTO mapLineToDTO(StockTransferLine line) {
+        StockTransferLineDTO dto = new StockTransferLineDTO();
+        dto.setIngredientId(line.getSourceIngredient().getId());
+        dto.setIngredientName(line.getSourceIngredient().getName());
+        dto.setDestinationIngredientId(line.getDestinationIngredient().getId());
+        dto.setQuantity(line.getQuantity());
+        return dto;
+    }
+}
@@ -0,0 +1,66 @@
+package com.restaurant.stockmanagement.service;
+
+import com.restaurant.stockmanagement.dto.UserResponse;
+import com.restaurant.stockmanagement.model.User;
+import com.restaurant.stockmanagement.repository.UserRepository;
+import com.restaurant.stockmanagement.search.SearchIndexService;
+import com.restaurant.stockmanagement.search.SearchResult;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.Pageable;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+@Service
+public class UserService {
+
+    private final UserRepository userRepository;
+    private final SearchIndexService searchIndexService;
+
+    public UserService(UserRepository userRepository,
+                       SearchIndexService searchIndexService) {
+        this.userRepository = userRepository;
+        this.searchIndexService = searchIndexService;
+    }
+
+    /**
+     * Ranked search on username, full name and email through the in-memory index. Falls back
+     * to the LIKE query while the index loads.
+     */
+    @Transactional(readOnly = true)
+    public Page<UserResponse> searchUsers(String search, Long branchId, Pageable pageable) {
+        if (!searchIndexService.isReady()) {
+            return userRepository.searchUsers(search, branchId, pageable)
+                    .map(this::mapToResponse);
+        }
+
+        SearchResult result = searchIndexService.searchUsers(search, branchId, pageable);
+        Map<Long, User> users = userRepository.findAllById(result.ids()).stream()
+                .collect(Collectors.toMap(User::getId, Function.identity()));
+        List<UserResponse> content = result.ids().stream()
+                .map(users::get)
+                .filter(Objects::nonNull)
+                .map(this::mapToResponse)
+                .collect(Collectors.toList());
+        return new PageImpl<>(content, pageable, result.total());
+    }
+
+    private UserResponse mapToResponse(User user) {
+        return new UserResponse(
+                user.getId(),
+                user.getUsername(),
+                user.getEmail(),
+                user.getFullName(),
+                user.getPhoneNumber(),
+                user.getBranchId(),
+                user.getRoles(),
+                user.getActive()
+        );
+    }
+}
@@ -0,0 +1,127 @@
+package db.migration;
+
+import org.flywaydb.core.api.migration.BaseJavaMigration;
+import org.flywaydb.core.api.migration.Context;
+
+import java.sql.Connection;
+import java.sql.DatabaseMetaData;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+
+/**
+ * Pooled sequence ids (BaseEntity, allocationSize 50), optimistic versioning on ingredients and
+ * the daily analytics rollup tables.
+ *
+ * <p>Written in Java because databases that ran under {@code ddl-auto=update} after the entities
+ * gained these mappings already have some of it: Hibernate created {@code entity_seq} with an
+ * initial value of 1, and possibly a nullable {@code ingredients.version}. Everything here is
+ * applied only where it is missing.
+ */
+public class V2__sequence_ids_versioning_and_rollups extends BaseJavaMigration {
+
+    private static final String[] ENTITY_TABLES = {
+            "users", "ingredients", "foods", "recipe_ingredients", "sales", "sale_items",
+            "stock_transactions", "stock_alerts"
+    };
+
+    @Override
+    public void migrate(Context context) throws Exception {
+        Connection connection = context.getConnection();
+        try (Statement statement = connection.createStatement()) {
+            createSequence(statement);
+            addIngredientVersion(connection, statement);
+            createRollupTables(statement);
+        }
+    }
+
+    private static void createSequence(Statement statement) throws SQLException {
+        statement.execute("""
+                CREATE TABLE IF NOT EXISTS entity_seq (
+                    next_val BIGINT
+                ) ENGINE = InnoDB""");
+        // Start above every id handed out by AUTO_INCREMENT so pooled blocks never collide. An
+        // existing table is raised rather than only seeded.
+        statement.execute("""
+                INSERT INTO entity_seq (next_val)
+                SELECT 0 FROM DUAL
+                WHERE NOT EXISTS (SELECT 1 FROM entity_seq)""");
+        StringBuilder maxIds = new StringBuilder();
+        for (String table : ENTITY_TABLES) {
+            maxIds.append(maxIds.isEmpty() ? "" : ", ")
+                    .append("COALESCE((SELECT MAX(id) FROM ").append(table).append("), 0)");
+        }
+        statement.execute("UPDATE entity_seq SET next_val = GREATEST(next_val, GREATEST(" + maxIds + ") + 100)");
+    }
+
+    private static void addIngredientVersion(Connection connection, Statement statement) throws SQLException {
+        if (!hasColumn(connection, "ingredients", "version")) {
+            statement.execute("ALTER TABLE ingredients ADD COLUMN version BIGINT NOT NULL DEFAULT 0");
+            return;
+        }
+        statement.execute("UPDATE ingredients SET version = 0 WHERE version IS NULL");
+        statement.execute("ALTER TABLE ingredients MODIFY COLUMN version BIGINT NOT NULL DEFAULT 0");
+    }
+
+    private static void createRollupTables(Statement statement) throws SQLException {
+        statement.execute("""
+                CREATE TABLE IF NOT EXISTS daily_sales_rollups (
+                    id            BIGINT       NOT NULL,
+                    created_at    DATETIME(6)  NOT NULL,
+                    updated_at    DATETIME(6)  NOT NULL,
+                    deleted       BIT          NOT NULL,
+                    created_by    VARCHAR(255),
+                    updated_by    VARCHAR(255),
+                    rollup_date   DATE         NOT NULL,
+                    branch_id     BIGINT       NOT NULL,
+                    sale_count    BIGINT       NOT NULL,
+                    total_amount  FLOAT(53)    NOT NULL,
+                    PRIMARY KEY (id),
+                    CONSTRAINT uk_daily_sales_rollups UNIQUE (branch_id, rollup_date)
+                ) ENGINE = InnoDB""");
+        statement.execute("""
+                CREATE TABLE IF NOT EXISTS daily_food_sales_rollups (
+                    id           BIGINT       NOT NULL,
+                    created_at   DATETIME(6)  NOT NULL,
+                    updated_at   DATETIME(6)  NOT NULL,
+                    deleted      BIT          NOT NULL,
+                    created_by   VARCHAR(255),
+                    updated_by   VARCHAR(255),
+                    rollup_date  DATE         NOT NULL,
+                    branch_id    BIGINT       NOT NULL,
+                    food_id      BIGINT       NOT NULL,
+                    quantity     BIGINT       NOT NULL,
+                    revenue      FLOAT(53)    NOT NULL,
+                    PRIMARY KEY (id),
+                    CONSTRAINT uk_daily_food_sales_rollups UNIQUE (branch_id, rollup_date, food_id)
+                ) ENGINE = InnoDB""");
+        statement.execute("""
+                CREATE TABLE IF NOT EXISTS daily_ingredient_usage_rollups (
+                    id             BIGINT       NOT NULL,
+                    created_at     DATETIME(6)  NOT NULL,
+                    updated_at     DATETIME(6)  NOT NULL,
+                    deleted        BIT          NOT NULL,
+                    created_by     VARCHAR(255),
+                    updated_by     VARCHAR(255),
+                    rollup_date    DATE         NOT NULL,
+                    branch_id      BIGINT       NOT NULL,
+                    ingredient_id  BIGINT       NOT NULL,
+                    quantity       FLOAT(53)    NOT NULL,
+                    usage_count    BIGINT       NOT NULL,
+                    PRIMARY KEY (id),
+                    CONSTRAINT uk_daily_ingredient_usage_rollups UNIQUE (branch_id, rollup_date, ingredient_id)
+                ) ENGINE = InnoDB""");
+    }
+
+    private static boolean hasColumn(Connection connection, String table, String column) throws SQLException {
+        DatabaseMetaData metaData = connection.getMetaData();
+        try (ResultSet columns = metaData.getColumns(connection.getCatalog(), connection.getSchema(), table, null)) {
+            while (columns.next()) {
+                if (column.equalsIgnoreCase(columns.getString("COLUMN_NAME"))) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+}
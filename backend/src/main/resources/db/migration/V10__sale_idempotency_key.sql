@@ -0,0 +1,7 @@
+-- Sales posted in bulk by offline tills carry the till's idempotency key, so a replayed batch
+-- is recognised instead of posted twice. Sales entered online have no key.
+
+ALTER TABLE sales ADD COLUMN idempotency_key VARCHAR(64);
+ALTER TABLE sales ADD CONSTRAINT uk_sales_idempotency_key UNIQUE (idempotency_key);
+
+ALTER TABLE sales_archive ADD COLUMN idempotency_key VARCHAR(64);
@@ -0,0 +1,53 @@
+-- Stock lots: each delivery of an ingredient with its own received date, expiry date and cost.
+-- Sales, waste and outbound transfers draw from the first-expiring lots first, and
+-- stock_transaction_lots records which lots each stock transaction drew from or created.
+-- ingredients.expiry_date now follows the earliest expiry of the open lots.
+
+CREATE TABLE IF NOT EXISTS stock_lots (
+    id                  BIGINT       NOT NULL,
+    created_at          DATETIME(6)  NOT NULL,
+    updated_at          DATETIME(6)  NOT NULL,
+    deleted             BIT          NOT NULL,
+    created_by          VARCHAR(255),
+    updated_by          VARCHAR(255),
+    ingredient_id       BIGINT       NOT NULL,
+    branch_id           BIGINT,
+    quantity            FLOAT(53)    NOT NULL,
+    remaining_quantity  FLOAT(53)    NOT NULL,
+    received_date       DATE         NOT NULL,
+    expiry_date         DATE,
+    cost_per_unit       FLOAT(53)    NOT NULL,
+    PRIMARY KEY (id),
+    CONSTRAINT fk_stock_lots_ingredient FOREIGN KEY (ingredient_id) REFERENCES ingredients (id)
+) ENGINE = InnoDB;
+
+CREATE INDEX idx_stock_lots_ingredient ON stock_lots (ingredient_id, remaining_quantity);
+CREATE INDEX idx_stock_lots_expiry ON stock_lots (expiry_date, remaining_quantity);
+
+-- No foreign key to stock_transactions: the rows stay when LedgerArchiver moves the transaction
+-- to stock_transactions_archive.
+CREATE TABLE IF NOT EXISTS stock_transaction_lots (
+    id                    BIGINT       NOT NULL,
+    created_at            DATETIME(6)  NOT NULL,
+    updated_at            DATETIME(6)  NOT NULL,
+    deleted               BIT          NOT NULL,
+    created_by            VARCHAR(255),
+    updated_by            VARCHAR(255),
+    stock_transaction_id  BIGINT       NOT NULL,
+    stock_lot_id          BIGINT       NOT NULL,
+    quantity              FLOAT(53)    NOT NULL,
+    PRIMARY KEY (id),
+    CONSTRAINT fk_stock_transaction_lots_lot FOREIGN KEY (stock_lot_id) REFERENCES stock_lots (id)
+) ENGINE = InnoDB;
+
+CREATE INDEX idx_stock_transaction_lots_transaction ON stock_transaction_lots (stock_transaction_id);
+
+-- Stock on hand becomes one opening lot per ingredient, dated by the ingredient's old expiry
+-- date. The lot reuses the ingredient's id: it is unique in stock_lots, and entity_seq is
+-- already past every existing id.
+INSERT INTO stock_lots (id, created_at, updated_at, deleted, created_by, updated_by, ingredient_id, branch_id,
+                        quantity, remaining_quantity, received_date, expiry_date, cost_per_unit)
+SELECT id, NOW(6), NOW(6), FALSE, 'migration', 'migration', id, branch_id,
+       current_stock, current_stock, CAST(created_at AS DATE), expiry_date, cost_per_unit
+FROM ingredients
+WHERE deleted = FALSE AND current_stock > 0;
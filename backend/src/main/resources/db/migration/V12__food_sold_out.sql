@@ -0,0 +1,5 @@
+-- Marks foods that SellablePortionsService took off sale because their stock ran out, as opposed
+-- to foods disabled by hand. Only marked foods go back on sale when the stock returns. Foods
+-- sold out before this column existed stay off sale until they are enabled again.
+
+ALTER TABLE foods ADD COLUMN sold_out BIT NOT NULL DEFAULT FALSE;
@@ -0,0 +1,152 @@
+-- Baseline schema as previously generated by hibernate ddl-auto=update.
+-- Existing databases are baselined at this version (spring.flyway.baseline-on-migrate).
+
+CREATE TABLE users (
+    id            BIGINT       NOT NULL AUTO_INCREMENT,
+    created_at    DATETIME(6)  NOT NULL,
+    updated_at    DATETIME(6)  NOT NULL,
+    deleted       BIT          NOT NULL,
+    created_by    VARCHAR(255),
+    updated_by    VARCHAR(255),
+    username      VARCHAR(255) NOT NULL,
+    password      VARCHAR(255) NOT NULL,
+    email         VARCHAR(255) NOT NULL,
+    full_name     VARCHAR(255) NOT NULL,
+    phone_number  VARCHAR(255),
+    branch_id     BIGINT,
+    active        BIT          NOT NULL,
+    PRIMARY KEY (id),
+    CONSTRAINT uk_users_username UNIQUE (username),
+    CONSTRAINT uk_users_email UNIQUE (email)
+) ENGINE = InnoDB;
+
+CREATE TABLE user_roles (
+    user_id BIGINT NOT NULL,
+    role    ENUM ('ROLE_OWNER','ROLE_BRANCH_MANAGER','ROLE_CASHIER','ROLE_CHEF','ROLE_STOCK_MANAGER'),
+    CONSTRAINT fk_user_roles_user FOREIGN KEY (user_id) REFERENCES users (id)
+) ENGINE = InnoDB;
+
+CREATE TABLE ingredients (
+    id             BIGINT       NOT NULL AUTO_INCREMENT,
+    created_at     DATETIME(6)  NOT NULL,
+    updated_at     DATETIME(6)  NOT NULL,
+    deleted        BIT          NOT NULL,
+    created_by     VARCHAR(255),
+    updated_by     VARCHAR(255),
+    name           VARCHAR(255) NOT NULL,
+    description    VARCHAR(255),
+    unit           VARCHAR(255) NOT NULL,
+    current_stock  FLOAT(53)    NOT NULL,
+    minimum_stock  FLOAT(53)    NOT NULL,
+    reorder_level  FLOAT(53),
+    cost_per_unit  FLOAT(53)    NOT NULL,
+    expiry_date    DATE,
+    category       VARCHAR(255),
+    image_url      VARCHAR(255),
+    branch_id      BIGINT,
+    PRIMARY KEY (id)
+) ENGINE = InnoDB;
+
+CREATE TABLE foods (
+    id                BIGINT       NOT NULL AUTO_INCREMENT,
+    created_at        DATETIME(6)  NOT NULL,
+    updated_at        DATETIME(6)  NOT NULL,
+    deleted           BIT          NOT NULL,
+    created_by        VARCHAR(255),
+    updated_by        VARCHAR(255),
+    name              VARCHAR(255) NOT NULL,
+    description       VARCHAR(255),
+    price             FLOAT(53)    NOT NULL,
+    category          VARCHAR(255),
+    image_url         VARCHAR(255),
+    available         BIT          NOT NULL,
+    preparation_time  INTEGER,
+    branch_id         BIGINT,
+    PRIMARY KEY (id)
+) ENGINE = InnoDB;
+
+CREATE TABLE recipe_ingredients (
+    id             BIGINT       NOT NULL AUTO_INCREMENT,
+    created_at     DATETIME(6)  NOT NULL,
+    updated_at     DATETIME(6)  NOT NULL,
+    deleted        BIT          NOT NULL,
+    created_by     VARCHAR(255),
+    updated_by     VARCHAR(255),
+    food_id        BIGINT       NOT NULL,
+    ingredient_id  BIGINT       NOT NULL,
+    quantity       FLOAT(53)    NOT NULL,
+    notes          VARCHAR(255),
+    PRIMARY KEY (id),
+    CONSTRAINT fk_recipe_ingredients_food FOREIGN KEY (food_id) REFERENCES foods (id),
+    CONSTRAINT fk_recipe_ingredients_ingredient FOREIGN KEY (ingredient_id) REFERENCES ingredients (id)
+) ENGINE = InnoDB;
+
+CREATE TABLE sales (
+    id                BIGINT       NOT NULL AUTO_INCREMENT,
+    created_at        DATETIME(6)  NOT NULL,
+    updated_at        DATETIME(6)  NOT NULL,
+    deleted           BIT          NOT NULL,
+    created_by        VARCHAR(255),
+    updated_by        VARCHAR(255),
+    sale_date         DATETIME(6)  NOT NULL,
+    total_amount      FLOAT(53)    NOT NULL,
+    cashier_username  VARCHAR(255) NOT NULL,
+    payment_method    VARCHAR(255),
+    notes             VARCHAR(255),
+    branch_id         BIGINT,
+    PRIMARY KEY (id)
+) ENGINE = InnoDB;
+
+CREATE TABLE sale_items (
+    id          BIGINT       NOT NULL AUTO_INCREMENT,
+    created_at  DATETIME(6)  NOT NULL,
+    updated_at  DATETIME(6)  NOT NULL,
+    deleted     BIT          NOT NULL,
+    created_by  VARCHAR(255),
+    updated_by  VARCHAR(255),
+    sale_id     BIGINT       NOT NULL,
+    food_id     BIGINT       NOT NULL,
+    quantity    INTEGER      NOT NULL,
+    unit_price  FLOAT(53)    NOT NULL,
+    subtotal    FLOAT(53)    NOT NULL,
+    PRIMARY KEY (id),
+    CONSTRAINT fk_sale_items_sale FOREIGN KEY (sale_id) REFERENCES sales (id),
+    CONSTRAINT fk_sale_items_food FOREIGN KEY (food_id) REFERENCES foods (id)
+) ENGINE = InnoDB;
+
+CREATE TABLE stock_transactions (
+    id              BIGINT       NOT NULL AUTO_INCREMENT,
+    created_at      DATETIME(6)  NOT NULL,
+    updated_at      DATETIME(6)  NOT NULL,
+    deleted         BIT          NOT NULL,
+    created_by      VARCHAR(255),
+    updated_by      VARCHAR(255),
+    ingredient_id   BIGINT       NOT NULL,
+    type            ENUM ('PURCHASE','SALE','WASTE','ADJUSTMENT','RETURN','TRANSFER') NOT NULL,
+    quantity        FLOAT(53)    NOT NULL,
+    previous_stock  FLOAT(53)    NOT NULL,
+    new_stock       FLOAT(53)    NOT NULL,
+    reason          VARCHAR(255),
+    performed_by    VARCHAR(255),
+    branch_id       BIGINT,
+    PRIMARY KEY (id),
+    CONSTRAINT fk_stock_transactions_ingredient FOREIGN KEY (ingredient_id) REFERENCES ingredients (id)
+) ENGINE = InnoDB;
+
+CREATE TABLE stock_alerts (
+    id               BIGINT       NOT NULL AUTO_INCREMENT,
+    created_at       DATETIME(6)  NOT NULL,
+    updated_at       DATETIME(6)  NOT NULL,
+    deleted          BIT          NOT NULL,
+    created_by       VARCHAR(255),
+    updated_by       VARCHAR(255),
+    ingredient_id    BIGINT       NOT NULL,
+    alert_type       ENUM ('LOW_STOCK','OUT_OF_STOCK','EXPIRING_SOON','EXPIRED') NOT NULL,
+    message          VARCHAR(255) NOT NULL,
+    acknowledged     BIT          NOT NULL,
+    acknowledged_by  VARCHAR(255),
+    acknowledged_at  DATETIME(6),
+    branch_id        BIGINT,
+    PRIMARY KEY (id),
+    CONSTRAINT fk_stock_alerts_ingredient FOREIGN KEY (ingredient_id) REFERENCES ingredients (id)
+) ENGINE = InnoDB;
@@ -0,0 +1,33 @@
+-- Composite indexes for the hot repository queries. Leading columns follow the
+-- equality predicates (soft-delete flag, foreign keys, enum type) before the
+-- range column (dates), so range scans stay inside one index prefix.
+-- Plain foreign key columns (sale_items.sale_id/food_id, recipe_ingredients.ingredient_id)
+-- are already indexed by InnoDB for their constraints.
+
+CREATE INDEX idx_ingredients_branch   ON ingredients (deleted, branch_id);
+CREATE INDEX idx_ingredients_expiry   ON ingredients (deleted, expiry_date);
+CREATE INDEX idx_ingredients_category ON ingredients (deleted, category);
+
+CREATE INDEX idx_foods_branch    ON foods (deleted, branch_id);
+CREATE INDEX idx_foods_available ON foods (deleted, available);
+CREATE INDEX idx_foods_category  ON foods (deleted, category);
+
+CREATE INDEX idx_recipe_ingredients_food ON recipe_ingredients (food_id, deleted);
+
+CREATE INDEX idx_sales_sale_date ON sales (deleted, sale_date);
+CREATE INDEX idx_sales_branch    ON sales (deleted, branch_id, sale_date);
+CREATE INDEX idx_sales_cashier   ON sales (deleted, cashier_username);
+
+CREATE INDEX idx_stock_tx_ingredient_type ON stock_transactions (ingredient_id, type, deleted);
+CREATE INDEX idx_stock_tx_created         ON stock_transactions (deleted, created_at);
+CREATE INDEX idx_stock_tx_type_created    ON stock_transactions (type, created_at);
+
+CREATE INDEX idx_stock_alerts_open       ON stock_alerts (deleted, acknowledged, branch_id);
+CREATE INDEX idx_stock_alerts_ingredient ON stock_alerts (ingredient_id, alert_type, deleted);
+CREATE INDEX idx_stock_alerts_created    ON stock_alerts (deleted, created_at);
+
+CREATE INDEX idx_users_branch ON users (deleted, branch_id);
+
+CREATE INDEX idx_daily_sales_rollups_date            ON daily_sales_rollups (rollup_date);
+CREATE INDEX idx_daily_food_sales_rollups_date       ON daily_food_sales_rollups (rollup_date);
+CREATE INDEX idx_daily_ingredient_usage_rollups_date ON daily_ingredient_usage_rollups (rollup_date);
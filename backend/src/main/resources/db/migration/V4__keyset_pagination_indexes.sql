@@ -0,0 +1,4 @@
+-- Keyset listing of one ingredient's transactions seeks on (created_at, id) within the ingredient.
+-- InnoDB appends the primary key to secondary indexes, so id needs no column of its own.
+
+CREATE INDEX idx_stock_tx_ingredient_created ON stock_transactions (ingredient_id, deleted, created_at);
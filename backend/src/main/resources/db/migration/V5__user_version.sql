@@ -0,0 +1,4 @@
+-- Versioning users makes Hibernate bump the row when only the user_roles collection changes,
+-- so entity listeners (cached credentials, issued tokens) see role changes as updates.
+
+ALTER TABLE users ADD COLUMN version BIGINT NOT NULL DEFAULT 0;
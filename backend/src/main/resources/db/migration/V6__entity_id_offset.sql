@@ -0,0 +1,5 @@
+-- In a sharded deployment every database hands out entity ids from its own range
+-- (app.sharding.shards.<name>.id-offset), so ids stay unique across databases and the
+-- in-memory indexes can key on them. The default database uses 0, which changes nothing.
+
+UPDATE entity_seq SET next_val = ${id_offset} WHERE next_val < ${id_offset};
@@ -0,0 +1,42 @@
+-- Inter-branch stock transfers: stock reserved at the source until the transfer commits,
+-- and the transfer manifests keyed by the client's transfer id.
+
+ALTER TABLE ingredients ADD COLUMN reserved_stock FLOAT(53) NOT NULL DEFAULT 0;
+
+CREATE TABLE IF NOT EXISTS stock_transfers (
+    id                     BIGINT       NOT NULL,
+    created_at             DATETIME(6)  NOT NULL,
+    updated_at             DATETIME(6)  NOT NULL,
+    deleted                BIT          NOT NULL,
+    created_by             VARCHAR(255),
+    updated_by             VARCHAR(255),
+    transfer_id            VARCHAR(64)  NOT NULL,
+    source_branch_id       BIGINT       NOT NULL,
+    destination_branch_id  BIGINT       NOT NULL,
+    status                 ENUM ('RESERVED','COMMITTED','CANCELLED') NOT NULL,
+    requested_by           VARCHAR(255) NOT NULL,
+    completed_at           DATETIME(6),
+    notes                  VARCHAR(255),
+    version                BIGINT       NOT NULL,
+    PRIMARY KEY (id),
+    CONSTRAINT uk_stock_transfers_transfer_id UNIQUE (transfer_id)
+) ENGINE = InnoDB;
+
+CREATE INDEX idx_stock_transfers_status ON stock_transfers (deleted, status, created_at);
+
+CREATE TABLE IF NOT EXISTS stock_transfer_lines (
+    id                         BIGINT       NOT NULL,
+    created_at                 DATETIME(6)  NOT NULL,
+    updated_at                 DATETIME(6)  NOT NULL,
+    deleted                    BIT          NOT NULL,
+    created_by                 VARCHAR(255),
+    updated_by                 VARCHAR(255),
+    stock_transfer_id          BIGINT       NOT NULL,
+    source_ingredient_id       BIGINT       NOT NULL,
+    destination_ingredient_id  BIGINT       NOT NULL,
+    quantity                   FLOAT(53)    NOT NULL,
+    PRIMARY KEY (id),
+    CONSTRAINT fk_stock_transfer_lines_transfer FOREIGN KEY (stock_transfer_id) REFERENCES stock_transfers (id),
+    CONSTRAINT fk_stock_transfer_lines_source FOREIGN KEY (source_ingredient_id) REFERENCES ingredients (id),
+    CONSTRAINT fk_stock_transfer_lines_destination FOREIGN KEY (destination_ingredient_id) REFERENCES ingredients (id)
+) ENGINE = InnoDB;
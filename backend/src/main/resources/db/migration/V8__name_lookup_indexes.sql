@@ -0,0 +1,5 @@
+-- Bulk imports and transfers match ingredients and foods by name within a branch. The columns use
+-- the default case-insensitive collation, so a plain index serves case-insensitive lookups.
+
+CREATE INDEX idx_ingredients_branch_name ON ingredients (branch_id, name);
+CREATE INDEX idx_foods_branch_name       ON foods (branch_id, name);
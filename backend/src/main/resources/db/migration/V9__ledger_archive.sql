@@ -0,0 +1,84 @@
+-- Archive tables for the ledger: closed months of sales, sale items and stock transactions (and
+-- soft-deleted rows past their grace period) are moved here by LedgerArchiver. They carry no
+-- foreign keys and include the date column in the primary key, so MySQL can range-partition
+-- them by month (app.archive.partitioning.enabled). sale_items_archive copies the sale date so
+-- item rows can be range-scanned and partitioned without a join.
+
+CREATE TABLE IF NOT EXISTS sales_archive (
+    id                BIGINT       NOT NULL,
+    created_at        DATETIME(6)  NOT NULL,
+    updated_at        DATETIME(6)  NOT NULL,
+    deleted           BIT          NOT NULL,
+    created_by        VARCHAR(255),
+    updated_by        VARCHAR(255),
+    sale_date         DATETIME(6)  NOT NULL,
+    total_amount      FLOAT(53)    NOT NULL,
+    cashier_username  VARCHAR(255) NOT NULL,
+    payment_method    VARCHAR(255),
+    notes             VARCHAR(255),
+    branch_id         BIGINT,
+    archived_at       DATETIME(6)  NOT NULL,
+    PRIMARY KEY (id, sale_date)
+) ENGINE = InnoDB;
+
+CREATE INDEX idx_sales_archive_sale_date ON sales_archive (deleted, sale_date);
+
+CREATE TABLE IF NOT EXISTS sale_items_archive (
+    id          BIGINT       NOT NULL,
+    created_at  DATETIME(6)  NOT NULL,
+    updated_at  DATETIME(6)  NOT NULL,
+    deleted     BIT          NOT NULL,
+    created_by  VARCHAR(255),
+    updated_by  VARCHAR(255),
+    sale_id     BIGINT       NOT NULL,
+    food_id     BIGINT       NOT NULL,
+    quantity    INTEGER      NOT NULL,
+    unit_price  FLOAT(53)    NOT NULL,
+    subtotal    FLOAT(53)    NOT NULL,
+    sale_date   DATETIME(6)  NOT NULL,
+    archived_at DATETIME(6)  NOT NULL,
+    PRIMARY KEY (id, sale_date)
+) ENGINE = InnoDB;
+
+CREATE INDEX idx_sale_items_archive_sale_date ON sale_items_archive (sale_date, sale_id);
+
+CREATE TABLE IF NOT EXISTS stock_transactions_archive (
+    id              BIGINT       NOT NULL,
+    created_at      DATETIME(6)  NOT NULL,
+    updated_at      DATETIME(6)  NOT NULL,
+    deleted         BIT          NOT NULL,
+    created_by      VARCHAR(255),
+    updated_by      VARCHAR(255),
+    ingredient_id   BIGINT       NOT NULL,
+    type            ENUM ('PURCHASE','SALE','WASTE','ADJUSTMENT','RETURN','TRANSFER') NOT NULL,
+    quantity        FLOAT(53)    NOT NULL,
+    previous_stock  FLOAT(53)    NOT NULL,
+    new_stock       FLOAT(53)    NOT NULL,
+    reason          VARCHAR(255),
+    performed_by    VARCHAR(255),
+    branch_id       BIGINT,
+    archived_at     DATETIME(6)  NOT NULL,
+    PRIMARY KEY (id, created_at)
+) ENGINE = InnoDB;
+
+CREATE INDEX idx_stock_tx_archive_created ON stock_transactions_archive (deleted, created_at);
+
+-- One row per archiving run. A run is recorded before any row moves, so readers treat
+-- everything before the newest cutoff as possibly archived while the run is still going.
+CREATE TABLE IF NOT EXISTS archive_runs (
+    id                          BIGINT       NOT NULL,
+    created_at                  DATETIME(6)  NOT NULL,
+    updated_at                  DATETIME(6)  NOT NULL,
+    deleted                     BIT          NOT NULL,
+    created_by                  VARCHAR(255),
+    updated_by                  VARCHAR(255),
+    cutoff                      DATETIME(6)  NOT NULL,
+    deleted_before              DATETIME(6)  NOT NULL,
+    sales_archived              BIGINT       NOT NULL,
+    sale_items_archived         BIGINT       NOT NULL,
+    stock_transactions_archived BIGINT       NOT NULL,
+    completed_at                DATETIME(6),
+    PRIMARY KEY (id)
+) ENGINE = InnoDB;
+
+CREATE INDEX idx_archive_runs_cutoff ON archive_runs (cutoff);
@@ -0,0 +1,23 @@
+package com.restaurant.stockmanagement;
+
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Full application context on the in-memory H2 database of the {@code test} profile. Tests
+ * sharing this annotation share one context and one database, so each creates its own rows
+ * (see {@link TestData}) and must not assume the tables are empty.
+ */
+@Target(ElementType.TYPE)
+@Retention(RetentionPolicy.RUNTIME)
+@SpringBootTest
+@ActiveProfiles("test")
+@Import(TestData.class)
+public @interface IntegrationTest {
+}
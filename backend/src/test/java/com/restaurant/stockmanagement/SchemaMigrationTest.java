@@ -0,0 +1,69 @@
+package com.restaurant.stockmanagement;
+
+import org.flywaydb.core.Flyway;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+
+import java.util.Map;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Runs the migrations over databases left behind by the old {@code ddl-auto=update} setup.
+ */
+class SchemaMigrationTest {
+
+    @Test
+    void raisesSequenceCreatedByHibernateAboveExistingIds() {
+        DriverManagerDataSource dataSource = dataSource();
+        JdbcTemplate jdbc = new JdbcTemplate(dataSource);
+
+        flyway(dataSource, "1").migrate();
+        jdbc.update("INSERT INTO ingredients (id, created_at, updated_at, deleted, name, unit, current_stock,"
+                + " minimum_stock, cost_per_unit) VALUES (4200, NOW(), NOW(), FALSE, 'Flour', 'kg', 1, 0, 0)");
+        // What Hibernate creates for the pooled generator before Flyway owned the schema
+        jdbc.execute("CREATE TABLE entity_seq (next_val BIGINT)");
+        jdbc.update("INSERT INTO entity_seq (next_val) VALUES (1)");
+
+        flyway(dataSource, "2").migrate();
+
+        assertThat(jdbc.queryForList("SELECT next_val FROM entity_seq", Long.class))
+                .singleElement()
+                .satisfies(next -> assertThat(next).isGreaterThan(4200L));
+    }
+
+    @Test
+    void keepsIngredientVersionColumnCreatedByHibernate() {
+        DriverManagerDataSource dataSource = dataSource();
+        JdbcTemplate jdbc = new JdbcTemplate(dataSource);
+
+        flyway(dataSource, "1").migrate();
+        // ddl-auto=update added the @Version column as nullable, with no value on existing rows
+        jdbc.execute("ALTER TABLE ingredients ADD COLUMN version BIGINT");
+        jdbc.update("INSERT INTO ingredients (id, created_at, updated_at, deleted, name, unit, current_stock,"
+                + " minimum_stock, cost_per_unit) VALUES (7, NOW(), NOW(), FALSE, 'Salt', 'kg', 1, 0, 0)");
+
+        flyway(dataSource, null).migrate();
+
+        assertThat(jdbc.queryForObject("SELECT version FROM ingredients WHERE id = 7", Long.class)).isZero();
+        assertThat(jdbc.queryForObject("SELECT is_nullable FROM information_schema.columns"
+                + " WHERE table_name = 'ingredients' AND column_name = 'version'", String.class)).isEqualTo("NO");
+    }
+
+    private static DriverManagerDataSource dataSource() {
+        return new DriverManagerDataSource(
+                "jdbc:h2:mem:" + UUID.randomUUID() + ";MODE=MySQL;DATABASE_TO_LOWER=TRUE;DB_CLOSE_DELAY=-1",
+                "sa", "");
+    }
+
+    private static Flyway flyway(DriverManagerDataSource dataSource, String target) {
+        return Flyway.configure()
+                .dataSource(dataSource)
+                .locations("classpath:db/migration")
+                .placeholders(Map.of("id_offset", "0"))
+                .target(target == null ? "latest" : target)
+                .load();
+    }
+}
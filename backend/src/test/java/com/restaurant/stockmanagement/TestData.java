@@ -0,0 +1,123 @@
+package com.restaurant.stockmanagement;
+
+import com.restaurant.stockmanagement.dto.SaleItemDTO;
+import com.restaurant.stockmanagement.dto.SaleRequest;
+import com.restaurant.stockmanagement.model.Food;
+import com.restaurant.stockmanagement.model.Ingredient;
+import com.restaurant.stockmanagement.model.RecipeIngredient;
+import com.restaurant.stockmanagement.model.StockLot;
+import com.restaurant.stockmanagement.repository.FoodRepository;
+import com.restaurant.stockmanagement.repository.IngredientRepository;
+import com.restaurant.stockmanagement.repository.RecipeIngredientRepository;
+import com.restaurant.stockmanagement.repository.StockLotRepository;
+import org.springframework.boot.test.context.TestComponent;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.security.core.context.SecurityContextHolder;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.Callable;
+
+/**
+ * Creates the rows a test needs. Names get a random suffix so tests sharing the database never
+ * collide on them.
+ */
+@TestComponent
+public class TestData {
+
+    private final IngredientRepository ingredientRepository;
+    private final FoodRepository foodRepository;
+    private final RecipeIngredientRepository recipeIngredientRepository;
+    private final StockLotRepository stockLotRepository;
+
+    public TestData(IngredientRepository ingredientRepository,
+                    FoodRepository foodRepository,
+                    RecipeIngredientRepository recipeIngredientRepository,
+                    StockLotRepository stockLotRepository) {
+        this.ingredientRepository = ingredientRepository;
+        this.foodRepository = foodRepository;
+        this.recipeIngredientRepository = recipeIngredientRepository;
+        this.stockLotRepository = stockLotRepository;
+    }
+
+    public static String unique(String name) {
+        return name + " " + UUID.randomUUID().toString().substring(0, 8);
+    }
+
+    /**
+     * An ingredient whose whole stock is one lot received today, without expiry.
+     */
+    public Ingredient ingredient(String name, Long branchId, double stock) {
+        Ingredient ingredient = new Ingredient();
+        ingredient.setName(unique(name));
+        ingredient.setUnit("kg");
+        ingredient.setCurrentStock(stock);
+        ingredient.setMinimumStock(0.0);
+        ingredient.setBranchId(branchId);
+        ingredient = ingredientRepository.save(ingredient);
+
+        StockLot lot = new StockLot();
+        lot.setIngredient(ingredient);
+        lot.setBranchId(branchId);
+        lot.setQuantity(stock);
+        lot.setRemainingQuantity(stock);
+        lot.setReceivedDate(LocalDate.now());
+        stockLotRepository.save(lot);
+        return ingredient;
+    }
+
+    public Food food(String name, Long branchId, double price) {
+        Food food = new Food();
+        food.setName(unique(name));
+        food.setPrice(price);
+        food.setBranchId(branchId);
+        return foodRepository.save(food);
+    }
+
+    public RecipeIngredient recipe(Food food, Ingredient ingredient, double quantity) {
+        RecipeIngredient recipeIngredient = new RecipeIngredient();
+        recipeIngredient.setFood(food);
+        recipeIngredient.setIngredient(ingredient);
+        recipeIngredient.setQuantity(quantity);
+        return recipeIngredientRepository.save(recipeIngredient);
+    }
+
+    /**
+     * A sale of one portion of each food, at list price.
+     */
+    public static SaleRequest sale(Long branchId, Food... foods) {
+        List<SaleItemDTO> items = new ArrayList<>();
+        double total = 0;
+        for (Food food : foods) {
+            SaleItemDTO item = new SaleItemDTO();
+            item.setFoodId(food.getId());
+            item.setQuantity(1);
+            item.setUnitPrice(food.getPrice());
+            items.add(item);
+            total += food.getPrice();
+        }
+        SaleRequest request = new SaleRequest();
+        request.setItems(items);
+        request.setTotalAmount(total);
+        request.setPaymentMethod("CASH");
+        request.setBranchId(branchId);
+        return request;
+    }
+
+    /**
+     * Runs {@code task} on the current thread as {@code username}, the way a request thread
+     * would see it.
+     */
+    public static <T> T as(String username, String role, Callable<T> task) throws Exception {
+        SecurityContextHolder.getContext().setAuthentication(new UsernamePasswordAuthenticationToken(
+                username, null, List.of(new SimpleGrantedAuthority(role))));
+        try {
+            return task.call();
+        } finally {
+            SecurityContextHolder.clearContext();
+        }
+    }
+}
@@ -0,0 +1,30 @@
+package com.restaurant.stockmanagement.forecast;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.within;
+
+class UsageStatisticsTest {
+
+    private static final long MONDAY = 19_723L; // 2024-01-01
+
+    @Test
+    void usageBeforeTheOpenDayIsLeftOut() {
+        UsageStatistics statistics = new UsageStatistics(0.2, 0.1, 1);
+        int slot = statistics.slotOf(1L, 1L);
+        for (long day = MONDAY; day < MONDAY + 14; day++) {
+            assertThat(statistics.observe(slot, day, 10.0)).isTrue();
+        }
+        long today = MONDAY + 14;
+        assertThat(statistics.observe(slot, today, 4.0)).isTrue();
+        double level = statistics.level(slot);
+
+        // An offline till posting sales from three days ago
+        assertThat(statistics.observe(slot, today - 3, 50.0)).isFalse();
+
+        assertThat(statistics.openUsage(slot, today)).isCloseTo(4.0, within(1e-9));
+        assertThat(statistics.level(slot)).isCloseTo(level, within(1e-9));
+        assertThat(statistics.closedDays(slot)).isEqualTo(14);
+    }
+}
@@ -0,0 +1,71 @@
+package com.restaurant.stockmanagement.ledger;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.restaurant.stockmanagement.model.TransactionType;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class LedgerJournalTest {
+
+    @TempDir
+    Path directory;
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    @Test
+    void flushedAndCancelledEntriesAreNotPending() throws IOException {
+        LedgerJournal journal = new LedgerJournal(directory, objectMapper);
+        long position = journal.append(List.of(entry(1), entry(2), entry(3)));
+        journal.sync(position);
+        journal.append(List.of(entry(4)));
+        journal.markFlushed(List.of(1L, 3L));
+        journal.markCancelled(List.of(4L));
+        journal.close();
+
+        assertThat(new LedgerJournal(directory, objectMapper).readPending())
+                .extracting(LedgerEntry::getSequence)
+                .containsExactly(2L);
+    }
+
+    @Test
+    void tornLastLineIsIgnored() throws IOException {
+        LedgerJournal journal = new LedgerJournal(directory, objectMapper);
+        journal.append(List.of(entry(1), entry(2)));
+        journal.close();
+        Files.writeString(directory.resolve("stock-ledger.journal"), "{\"sequence\":3,\"ingredientId\":",
+                StandardCharsets.UTF_8, StandardOpenOption.APPEND);
+
+        assertThat(journal.readPending()).extracting(LedgerEntry::getSequence).containsExactly(1L, 2L);
+    }
+
+    @Test
+    void legacyCheckpointCountsAsFlushedUntilTruncated() throws IOException {
+        Files.writeString(directory.resolve("stock-ledger.journal"),
+                objectMapper.writeValueAsString(entry(1)) + "\n" + objectMapper.writeValueAsString(entry(2)) + "\n");
+        Files.writeString(directory.resolve("stock-ledger.checkpoint"), "1");
+        LedgerJournal journal = new LedgerJournal(directory, objectMapper);
+
+        assertThat(journal.readPending()).extracting(LedgerEntry::getSequence).containsExactly(2L);
+
+        journal.truncate();
+        assertThat(journal.readPending()).isEmpty();
+        assertThat(directory.resolve("stock-ledger.checkpoint")).doesNotExist();
+
+        // Numbering restarts after a truncate and must not be hidden by the old checkpoint
+        journal.append(List.of(entry(1)));
+        assertThat(journal.readPending()).extracting(LedgerEntry::getSequence).containsExactly(1L);
+    }
+
+    private static LedgerEntry entry(long sequence) {
+        return new LedgerEntry(sequence, 7L, TransactionType.SALE, 1.0, 10.0, 9.0, "Sale #1", "till", 1L, null, 3L, null);
+    }
+}
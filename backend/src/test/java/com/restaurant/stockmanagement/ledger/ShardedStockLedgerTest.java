@@ -0,0 +1,162 @@
+package com.restaurant.stockmanagement.ledger;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.restaurant.stockmanagement.IntegrationTest;
+import com.restaurant.stockmanagement.TestData;
+import com.restaurant.stockmanagement.datasource.BranchContext;
+import com.restaurant.stockmanagement.metrics.StockMetrics;
+import com.restaurant.stockmanagement.model.Ingredient;
+import com.restaurant.stockmanagement.model.StockTransaction;
+import com.restaurant.stockmanagement.model.TransactionType;
+import com.restaurant.stockmanagement.repository.IngredientRepository;
+import com.restaurant.stockmanagement.repository.StockLotRepository;
+import com.restaurant.stockmanagement.repository.StockTransactionRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.nio.file.Path;
+import java.util.List;
+import java.util.UUID;
+import java.util.function.Supplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Write-behind ledger with branch sharding over two H2 databases: the default one and
+ * {@code north}, which holds branch 109. The flusher and replay run without a shard selected,
+ * as they do in production, and must still put each row in its branch's database.
+ */
+@IntegrationTest
+@TestPropertySource(properties = {
+        "spring.datasource.url=jdbc:h2:mem:ledger-default;MODE=MySQL;DATABASE_TO_LOWER=TRUE;DB_CLOSE_DELAY=-1",
+        "app.sharding.enabled=true",
+        "app.sharding.shards.north.url=jdbc:h2:mem:ledger-north;MODE=MySQL;DATABASE_TO_LOWER=TRUE;DB_CLOSE_DELAY=-1",
+        "app.sharding.shards.north.username=sa",
+        "app.sharding.shards.north.password=",
+        "app.sharding.shards.north.driver-class-name=org.h2.Driver",
+        "app.sharding.shards.north.id-offset=1000000000000",
+        "app.sharding.branches.109=north"
+})
+@DirtiesContext
+class ShardedStockLedgerTest {
+
+    private static final long BRANCH = 109L;
+    private static final String SHARD = "north";
+
+    @TempDir
+    Path journalDir;
+
+    @Autowired TestData data;
+    @Autowired StockTransactionRepository stockTransactionRepository;
+    @Autowired IngredientRepository ingredientRepository;
+    @Autowired StockLotRepository stockLotRepository;
+    @Autowired TransactionTemplate transactionTemplate;
+    @Autowired ObjectMapper objectMapper;
+    @Autowired StockMetrics stockMetrics;
+
+    private StockLedger ledger;
+
+    @AfterEach
+    void stopLedger() throws Exception {
+        if (ledger != null) {
+            ledger.stop();
+        }
+    }
+
+    @Test
+    void flushInsertsIntoTheDatabaseTheTransactionRanOn() throws Exception {
+        ledger = start();
+        Ingredient flour = onShard(() -> data.ingredient("Flour", BRANCH, 100));
+        String reason = reason();
+
+        onShard(() -> transactionTemplate.execute(status -> {
+            ingredientRepository.decrementStock(flour.getId(), 4.0);
+            ledger.record(List.of(movement(flour, reason)));
+            return null;
+        }));
+        assertThat(journal().readPending()).singleElement()
+                .satisfies(entry -> assertThat(entry.getShard()).isEqualTo(SHARD));
+
+        // Flushes on this thread, which has no shard selected
+        ledger.stop();
+        ledger = null;
+        assertThat(onShard(() -> rowsWithReason(flour, reason))).isEqualTo(1);
+        assertThat(rowsWithReason(flour, reason)).isZero();
+        assertThat(journal().readPending()).isEmpty();
+    }
+
+    @Test
+    void replayChecksVersionsInTheEntrysDatabase() throws Exception {
+        Ingredient flour = onShard(() -> data.ingredient("Flour", BRANCH, 100));
+        long version = onShard(() -> versionOf(flour));
+        String committed = reason();
+        String lost = reason();
+
+        LedgerJournal journal = journal();
+        journal.append(List.of(
+                entry(1, flour, committed, version),
+                entry(2, flour, lost, version + 1)));
+        journal.close();
+
+        ledger = start();
+
+        assertThat(onShard(() -> rowsWithReason(flour, committed))).isEqualTo(1);
+        assertThat(onShard(() -> rowsWithReason(flour, lost))).isZero();
+        assertThat(rowsWithReason(flour, committed)).isZero();
+        assertThat(journal().readPending()).isEmpty();
+    }
+
+    private StockLedger start() {
+        StockLedger started = new StockLedger(stockTransactionRepository, ingredientRepository, stockLotRepository,
+                transactionTemplate, objectMapper, stockMetrics, true, 500, 60_000, 10, 100,
+                journalDir.toString());
+        started.start();
+        return started;
+    }
+
+    private static <T> T onShard(Supplier<T> action) {
+        return BranchContext.callOnShard(SHARD, action);
+    }
+
+    private LedgerJournal journal() {
+        return new LedgerJournal(journalDir, objectMapper);
+    }
+
+    private long versionOf(Ingredient ingredient) {
+        return (Long) ingredientRepository.findVersionsByIdIn(List.of(ingredient.getId())).get(0)[1];
+    }
+
+    private long rowsWithReason(Ingredient ingredient, String reason) {
+        return stockTransactionRepository.findByIngredientIdAndDeletedFalse(ingredient.getId()).stream()
+                .filter(row -> reason.equals(row.getReason()))
+                .count();
+    }
+
+    private static String reason() {
+        return "Sale " + UUID.randomUUID();
+    }
+
+    private static StockTransaction movement(Ingredient ingredient, String reason) {
+        StockTransaction transaction = new StockTransaction();
+        transaction.setIngredient(ingredient);
+        transaction.setType(TransactionType.SALE);
+        transaction.setQuantity(4.0);
+        transaction.setPreviousStock(100.0);
+        transaction.setNewStock(96.0);
+        transaction.setReason(reason);
+        transaction.setPerformedBy("till");
+        transaction.setBranchId(ingredient.getBranchId());
+        transaction.setDeleted(false);
+        return transaction;
+    }
+
+    private static LedgerEntry entry(long sequence, Ingredient ingredient, String reason, Long version) {
+        return new LedgerEntry(sequence, ingredient.getId(), TransactionType.SALE, 1.0, 100.0, 99.0, reason,
+                "till", ingredient.getBranchId(), null, version, SHARD);
+    }
+}
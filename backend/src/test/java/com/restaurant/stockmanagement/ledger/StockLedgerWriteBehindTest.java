@@ -0,0 +1,178 @@
+package com.restaurant.stockmanagement.ledger;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.restaurant.stockmanagement.IntegrationTest;
+import com.restaurant.stockmanagement.TestData;
+import com.restaurant.stockmanagement.metrics.StockMetrics;
+import com.restaurant.stockmanagement.model.Ingredient;
+import com.restaurant.stockmanagement.model.StockTransaction;
+import com.restaurant.stockmanagement.model.TransactionType;
+import com.restaurant.stockmanagement.repository.IngredientRepository;
+import com.restaurant.stockmanagement.repository.StockLotRepository;
+import com.restaurant.stockmanagement.repository.StockTransactionRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.nio.file.Path;
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Write-behind ledger instances of their own, on the shared test database, each with a
+ * temporary journal directory.
+ */
+@IntegrationTest
+class StockLedgerWriteBehindTest {
+
+    private static final long BRANCH = 103L;
+
+    @TempDir
+    Path journalDir;
+
+    @Autowired TestData data;
+    @Autowired StockTransactionRepository stockTransactionRepository;
+    @Autowired IngredientRepository ingredientRepository;
+    @Autowired StockLotRepository stockLotRepository;
+    @Autowired TransactionTemplate transactionTemplate;
+    @Autowired ObjectMapper objectMapper;
+    @Autowired StockMetrics stockMetrics;
+
+    private StockLedger ledger;
+
+    @AfterEach
+    void stopLedger() throws Exception {
+        if (ledger != null) {
+            ledger.stop();
+        }
+    }
+
+    @Test
+    void journalsBeforeCommitAndInsertsAfterwards() throws Exception {
+        ledger = start(10);
+        Ingredient flour = data.ingredient("Flour", BRANCH, 100);
+        String reason = reason();
+
+        transactionTemplate.executeWithoutResult(status -> {
+            ingredientRepository.decrementStock(flour.getId(), 4.0);
+            ledger.record(List.of(movement(flour, reason)));
+        });
+
+        List<LedgerEntry> journaled = journal().readPending();
+        assertThat(journaled).singleElement().satisfies(entry -> {
+            assertThat(entry.getReason()).isEqualTo(reason);
+            assertThat(entry.getIngredientVersion()).isEqualTo(versionOf(flour));
+        });
+        assertThat(ledger.getQueueDepth()).isEqualTo(1);
+
+        ledger.stop();
+        ledger = null;
+        assertThat(rowsWithReason(flour, reason)).isEqualTo(1);
+        assertThat(journal().readPending()).isEmpty();
+    }
+
+    @Test
+    void rolledBackRowsAreCancelled() {
+        ledger = start(10);
+        Ingredient flour = data.ingredient("Flour", BRANCH, 100);
+        String reason = reason();
+
+        transactionTemplate.executeWithoutResult(status -> {
+            ingredientRepository.decrementStock(flour.getId(), 4.0);
+            ledger.record(List.of(movement(flour, reason)));
+            status.setRollbackOnly();
+        });
+
+        assertThat(journal().readPending()).isEmpty();
+        assertThat(ledger.getQueueDepth()).isZero();
+        assertThat(ledger.getStats()).containsEntry("queueCapacity", 10);
+    }
+
+    @Test
+    void fullBufferRollsTheTransactionBack() {
+        ledger = start(1);
+        Ingredient flour = data.ingredient("Flour", BRANCH, 100);
+        String reason = reason();
+
+        assertThatThrownBy(() -> transactionTemplate.executeWithoutResult(status -> {
+            ingredientRepository.decrementStock(flour.getId(), 4.0);
+            ledger.record(List.of(movement(flour, reason), movement(flour, reason)));
+        })).isInstanceOf(IllegalStateException.class);
+
+        assertThat(ingredientRepository.findCurrentStockById(flour.getId())).isEqualTo(100.0);
+        assertThat(journal().readPending()).isEmpty();
+    }
+
+    @Test
+    void replaySkipsEntriesWhoseTransactionNeverCommitted() throws Exception {
+        Ingredient flour = data.ingredient("Flour", BRANCH, 100);
+        long version = versionOf(flour);
+        String committed = reason();
+        String lost = reason();
+        String legacy = reason();
+
+        LedgerJournal journal = journal();
+        journal.append(List.of(
+                entry(1, flour, committed, version),
+                entry(2, flour, lost, version + 1),
+                entry(3, flour, legacy, null)));
+        journal.close();
+
+        ledger = start(10);
+
+        assertThat(rowsWithReason(flour, committed)).isEqualTo(1);
+        assertThat(rowsWithReason(flour, legacy)).isEqualTo(1);
+        assertThat(rowsWithReason(flour, lost)).isZero();
+        assertThat(journal().readPending()).isEmpty();
+    }
+
+    private StockLedger start(int capacity) {
+        StockLedger started = new StockLedger(stockTransactionRepository, ingredientRepository, stockLotRepository,
+                transactionTemplate, objectMapper, stockMetrics, true, 500, 60_000, capacity, 100,
+                journalDir.toString());
+        started.start();
+        return started;
+    }
+
+    private LedgerJournal journal() {
+        return new LedgerJournal(journalDir, objectMapper);
+    }
+
+    private long versionOf(Ingredient ingredient) {
+        return (Long) ingredientRepository.findVersionsByIdIn(List.of(ingredient.getId())).get(0)[1];
+    }
+
+    private long rowsWithReason(Ingredient ingredient, String reason) {
+        return stockTransactionRepository.findByIngredientIdAndDeletedFalse(ingredient.getId()).stream()
+                .filter(row -> reason.equals(row.getReason()))
+                .count();
+    }
+
+    private static String reason() {
+        return "Sale " + UUID.randomUUID();
+    }
+
+    private static StockTransaction movement(Ingredient ingredient, String reason) {
+        StockTransaction transaction = new StockTransaction();
+        transaction.setIngredient(ingredient);
+        transaction.setType(TransactionType.SALE);
+        transaction.setQuantity(4.0);
+        transaction.setPreviousStock(100.0);
+        transaction.setNewStock(96.0);
+        transaction.setReason(reason);
+        transaction.setPerformedBy("till");
+        transaction.setBranchId(ingredient.getBranchId());
+        transaction.setDeleted(false);
+        return transaction;
+    }
+
+    private static LedgerEntry entry(long sequence, Ingredient ingredient, String reason, Long version) {
+        return new LedgerEntry(sequence, ingredient.getId(), TransactionType.SALE, 1.0, 100.0, 99.0, reason,
+                "till", ingredient.getBranchId(), null, version, null);
+    }
+}
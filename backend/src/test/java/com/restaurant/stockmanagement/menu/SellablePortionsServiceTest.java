@@ -0,0 +1,102 @@
+package com.restaurant.stockmanagement.menu;
+
+import com.restaurant.stockmanagement.IntegrationTest;
+import com.restaurant.stockmanagement.TestData;
+import com.restaurant.stockmanagement.event.IngredientChangedEvent;
+import com.restaurant.stockmanagement.event.MenuChangedEvent;
+import com.restaurant.stockmanagement.model.Food;
+import com.restaurant.stockmanagement.model.Ingredient;
+import com.restaurant.stockmanagement.repository.FoodRepository;
+import com.restaurant.stockmanagement.repository.IngredientRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@IntegrationTest
+class SellablePortionsServiceTest {
+
+    private static final long BRANCH = 105L;
+    private static final long TIMEOUT_MS = 10_000;
+
+    @Autowired TestData testData;
+    @Autowired SellablePortionsService sellablePortionsService;
+    @Autowired FoodRepository foodRepository;
+    @Autowired IngredientRepository ingredientRepository;
+    @Autowired ApplicationEventPublisher eventPublisher;
+
+    @Test
+    void foodDisabledByHandStaysDisabledWithoutRecipe() {
+        Food food = testData.food("Soup", BRANCH, 4.0);
+
+        disable(food);
+        sellablePortionsService.onMenuChanged(new MenuChangedEvent(List.of(food.getId())));
+
+        assertThat(sellablePortionsService.getPortions(food.getId())).hasValue(SellablePortionsService.UNLIMITED);
+        assertThat(available(food)).isFalse();
+    }
+
+    @Test
+    void foodDisabledByHandStaysDisabledWhenStockReturns() throws Exception {
+        Ingredient rice = testData.ingredient("Rice", BRANCH, 10);
+        Food food = testData.food("Risotto", BRANCH, 9.0);
+        testData.recipe(food, rice, 1);
+
+        disable(food);
+        restock(rice, 20);
+        sellablePortionsService.onMenuChanged(new MenuChangedEvent(List.of(food.getId())));
+
+        awaitPortions(food, 20);
+        assertThat(available(food)).isFalse();
+    }
+
+    @Test
+    void foodSoldOutByStockGoesBackOnSaleWhenStockReturns() throws Exception {
+        Ingredient dough = testData.ingredient("Dough", BRANCH, 0);
+        Food food = testData.food("Pizza", BRANCH, 11.0);
+        testData.recipe(food, dough, 1);
+        sellablePortionsService.onMenuChanged(new MenuChangedEvent(List.of(food.getId())));
+
+        assertThat(available(food)).isFalse();
+        assertThat(foodRepository.findById(food.getId()).orElseThrow().getSoldOut()).isTrue();
+
+        restock(dough, 5);
+
+        awaitPortions(food, 5);
+        long deadline = System.currentTimeMillis() + TIMEOUT_MS;
+        while (!available(food) && System.currentTimeMillis() < deadline) {
+            Thread.sleep(50);
+        }
+        assertThat(available(food)).isTrue();
+        assertThat(foodRepository.findById(food.getId()).orElseThrow().getSoldOut()).isFalse();
+    }
+
+    private void disable(Food food) {
+        Food current = foodRepository.findById(food.getId()).orElseThrow();
+        current.setAvailable(false);
+        foodRepository.save(current);
+    }
+
+    private void restock(Ingredient ingredient, double stock) {
+        Ingredient current = ingredientRepository.findById(ingredient.getId()).orElseThrow();
+        current.setCurrentStock(stock);
+        ingredientRepository.save(current);
+        eventPublisher.publishEvent(new IngredientChangedEvent(List.of(ingredient.getId())));
+    }
+
+    private boolean available(Food food) {
+        return foodRepository.findById(food.getId()).orElseThrow().getAvailable();
+    }
+
+    private void awaitPortions(Food food, int portions) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + TIMEOUT_MS;
+        while (sellablePortionsService.getPortions(food.getId()).orElse(-1) != portions
+                && System.currentTimeMillis() < deadline) {
+            Thread.sleep(50);
+        }
+        assertThat(sellablePortionsService.getPortions(food.getId())).hasValue(portions);
+    }
+}
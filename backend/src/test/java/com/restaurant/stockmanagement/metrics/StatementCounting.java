@@ -0,0 +1,27 @@
+package com.restaurant.stockmanagement.metrics;
+
+import java.util.Map;
+
+/**
+ * Lets tests outside this package count statements with {@link SqlStatementCounter}.
+ */
+public final class StatementCounting {
+
+    private StatementCounting() {
+    }
+
+    public static void begin() {
+        SqlStatementCounter.begin();
+    }
+
+    /**
+     * Total statements prepared on this thread since {@link #begin()}.
+     */
+    public static int end() {
+        return SqlStatementCounter.end().values().stream().mapToInt(Integer::intValue).sum();
+    }
+
+    public static Map<String, Integer> endByStatement() {
+        return SqlStatementCounter.end();
+    }
+}
@@ -0,0 +1,203 @@
+package com.restaurant.stockmanagement.notification;
+
+import com.icegreen.greenmail.junit5.GreenMailExtension;
+import com.icegreen.greenmail.util.GreenMailUtil;
+import com.icegreen.greenmail.util.ServerSetupTest;
+import com.restaurant.stockmanagement.dto.StockAlertDTO;
+import com.restaurant.stockmanagement.event.StockAlertChangedEvent;
+import com.restaurant.stockmanagement.model.AlertType;
+import com.restaurant.stockmanagement.model.Role;
+import com.restaurant.stockmanagement.repository.UserRepository;
+import jakarta.mail.Address;
+import jakarta.mail.MessagingException;
+import jakarta.mail.internet.MimeMessage;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.RegisterExtension;
+import org.springframework.core.task.SimpleAsyncTaskExecutor;
+import org.springframework.mail.MailSendException;
+import org.springframework.mail.SimpleMailMessage;
+import org.springframework.mail.javamail.JavaMailSenderImpl;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BooleanSupplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Alert digests sent over SMTP to an in-process GreenMail server.
+ */
+class AlertEmailNotifierTest {
+
+    private static final String OWNER = "owner@example.com";
+    private static final String NORTH_MANAGER = "north@example.com";
+    private static final String SOUTH_MANAGER = "south@example.com";
+    private static final Duration WINDOW = Duration.ofSeconds(1);
+    private static final Duration BACKOFF = Duration.ofMillis(100);
+
+    @RegisterExtension
+    static GreenMailExtension greenMail = new GreenMailExtension(ServerSetupTest.SMTP);
+
+    private final UserRepository userRepository = mock(UserRepository.class);
+    private AlertEmailNotifier notifier;
+
+    @AfterEach
+    void stopNotifier() {
+        if (notifier != null) {
+            notifier.shutdown();
+        }
+    }
+
+    @Test
+    void alertsOfAWindowGoOutAsOneDigestPerRecipientAndBranch() throws Exception {
+        when(userRepository.findEmailsByRoleIn(any())).thenReturn(List.of(
+                new Object[]{OWNER, null, Role.ROLE_OWNER},
+                new Object[]{NORTH_MANAGER, 1L, Role.ROLE_BRANCH_MANAGER},
+                new Object[]{SOUTH_MANAGER, 2L, Role.ROLE_STOCK_MANAGER}));
+        notifier = notifier(new FlakyMailSender(0), 3);
+
+        raise(alert(1L, 1L, AlertType.OUT_OF_STOCK, "Cheese"));
+        raise(alert(2L, 1L, AlertType.LOW_STOCK, "Flour"));
+        raise(alert(3L, 1L, AlertType.LOW_STOCK, "Basil"));
+        raise(alert(4L, 2L, AlertType.EXPIRED, "Milk"));
+        raise(alert(5L, null, AlertType.EXPIRING_SOON, "Yeast"));
+        // Acknowledged before the window closes, so left out
+        StockAlertDTO basil = alert(3L, 1L, AlertType.LOW_STOCK, "Basil");
+        basil.setAcknowledged(true);
+        raise(basil);
+
+        // Branch 1 to the owner and its manager, branch 2 likewise, the branchless alert to all three
+        assertThat(greenMail.waitForIncomingEmail(WINDOW.multipliedBy(10).toMillis(), 7)).isTrue();
+        Map<String, List<String>> subjects = subjectsByRecipient();
+        assertThat(subjects.get(OWNER)).containsExactlyInAnyOrder(
+                "Stock alerts: 2 new for branch 1", "Stock alerts: 1 new for branch 2", "Stock alerts: 1 new");
+        assertThat(subjects.get(NORTH_MANAGER)).containsExactlyInAnyOrder(
+                "Stock alerts: 2 new for branch 1", "Stock alerts: 1 new");
+        assertThat(subjects.get(SOUTH_MANAGER)).containsExactlyInAnyOrder(
+                "Stock alerts: 1 new for branch 2", "Stock alerts: 1 new");
+
+        MimeMessage northDigest = received(NORTH_MANAGER, "Stock alerts: 2 new for branch 1");
+        assertThat(GreenMailUtil.getBody(northDigest).trim().lines().toList()).satisfiesExactly(
+                line -> assertThat(line).startsWith("- Flour is LOW_STOCK"),
+                line -> assertThat(line).startsWith("- Cheese is OUT_OF_STOCK"));
+        assertThat(northDigest.getFrom()).extracting(Address::toString).containsExactly("alerts@example.com");
+
+        // Nothing is sent twice in later windows
+        Thread.sleep(WINDOW.multipliedBy(2).toMillis());
+        assertThat(greenMail.getReceivedMessages()).hasSize(7);
+        assertThat(notifier.getSentCount()).isEqualTo(7);
+        assertThat(notifier.getQueueDepth()).isZero();
+    }
+
+    @Test
+    void failedSendIsRetriedUntilItGoesThrough() throws Exception {
+        ownerOnly();
+        FlakyMailSender mailSender = new FlakyMailSender(2);
+        notifier = notifier(mailSender, 5);
+
+        raise(alert(1L, 1L, AlertType.LOW_STOCK, "Flour"));
+
+        assertThat(greenMail.waitForIncomingEmail(WINDOW.multipliedBy(10).toMillis(), 1)).isTrue();
+        awaitUntil(() -> notifier.getSentCount() == 1);
+        assertThat(mailSender.attempts.get()).isEqualTo(3);
+        assertThat(notifier.getFailedCount()).isZero();
+        assertThat(greenMail.getReceivedMessages()).singleElement()
+                .satisfies(message -> assertThat(message.getSubject()).isEqualTo("Stock alerts: 1 new for branch 1"));
+    }
+
+    @Test
+    void sendIsGivenUpAfterMaxAttempts() throws Exception {
+        ownerOnly();
+        FlakyMailSender mailSender = new FlakyMailSender(Integer.MAX_VALUE);
+        notifier = notifier(mailSender, 3);
+
+        raise(alert(1L, 1L, AlertType.LOW_STOCK, "Flour"));
+
+        awaitUntil(() -> notifier.getFailedCount() == 1);
+        // One more backoff, in case a fourth attempt were scheduled
+        Thread.sleep(BACKOFF.multipliedBy(8).toMillis());
+        assertThat(mailSender.attempts.get()).isEqualTo(3);
+        assertThat(notifier.getSentCount()).isZero();
+        assertThat(greenMail.getReceivedMessages()).isEmpty();
+    }
+
+    private AlertEmailNotifier notifier(JavaMailSenderImpl mailSender, int maxAttempts) {
+        mailSender.setHost(ServerSetupTest.SMTP.getBindAddress());
+        mailSender.setPort(ServerSetupTest.SMTP.getPort());
+        return new AlertEmailNotifier(mailSender, userRepository, new SimpleAsyncTaskExecutor("alert-email-"),
+                true, "alerts@example.com", WINDOW, 100, 600, maxAttempts, BACKOFF);
+    }
+
+    private void ownerOnly() {
+        when(userRepository.findEmailsByRoleIn(any())).thenReturn(
+                List.<Object[]>of(new Object[]{OWNER, null, Role.ROLE_OWNER}));
+    }
+
+    private void raise(StockAlertDTO alert) {
+        notifier.onAlertChanged(new StockAlertChangedEvent(alert));
+    }
+
+    private static StockAlertDTO alert(Long id, Long branchId, AlertType type, String ingredient) {
+        return new StockAlertDTO(id, id, ingredient, type, ingredient + " is " + type, false, null, null,
+                branchId, LocalDateTime.of(2026, 1, 5, 9, 30));
+    }
+
+    private static Map<String, List<String>> subjectsByRecipient() throws MessagingException {
+        Map<String, List<String>> subjects = new TreeMap<>();
+        for (MimeMessage message : greenMail.getReceivedMessages()) {
+            for (Address recipient : message.getAllRecipients()) {
+                subjects.computeIfAbsent(recipient.toString(), r -> new ArrayList<>()).add(message.getSubject());
+            }
+        }
+        return subjects;
+    }
+
+    private static MimeMessage received(String recipient, String subject) throws MessagingException {
+        for (MimeMessage message : greenMail.getReceivedMessages()) {
+            for (Address to : message.getAllRecipients()) {
+                if (recipient.equals(to.toString()) && subject.equals(message.getSubject())) {
+                    return message;
+                }
+            }
+        }
+        throw new AssertionError("No email to " + recipient + " with subject " + subject);
+    }
+
+    private static void awaitUntil(BooleanSupplier condition) throws InterruptedException {
+        long deadline = System.nanoTime() + WINDOW.multipliedBy(10).toNanos();
+        while (!condition.getAsBoolean()) {
+            assertThat(System.nanoTime()).as("waited too long").isLessThan(deadline);
+            Thread.sleep(20);
+        }
+    }
+
+    /**
+     * Fails its first {@code failures} sends as an unreachable server would, then delivers.
+     */
+    private static final class FlakyMailSender extends JavaMailSenderImpl {
+
+        private final AtomicInteger attempts = new AtomicInteger();
+        private final int failures;
+
+        FlakyMailSender(int failures) {
+            this.failures = failures;
+        }
+
+        @Override
+        public void send(SimpleMailMessage... simpleMessages) {
+            if (attempts.incrementAndGet() <= failures) {
+                throw new MailSendException("Connection refused");
+            }
+            super.send(simpleMessages);
+        }
+    }
+}
@@ -0,0 +1,49 @@
+package com.restaurant.stockmanagement.report;
+
+import org.apache.poi.ss.usermodel.Cell;
+import org.apache.poi.ss.usermodel.CellType;
+import org.apache.poi.ss.usermodel.Sheet;
+import org.apache.poi.xssf.usermodel.XSSFWorkbook;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class XlsxReportWriterTest {
+
+    @Test
+    void rowsBeyondTheSheetLimitContinueOnNewSheetsUnderTheHeader() throws Exception {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        XlsxReportWriter writer = new XlsxReportWriter("A rather long stock movements report", out, 4);
+        writer.writeHeader(List.of("ID", "Amount"));
+        for (int i = 1; i <= 7; i++) {
+            writer.writeRow(new Object[]{i, i * 1.5});
+        }
+        writer.finish();
+
+        try (XSSFWorkbook workbook = new XSSFWorkbook(new ByteArrayInputStream(out.toByteArray()))) {
+            assertThat(workbook.getNumberOfSheets()).isEqualTo(3);
+            assertThat(workbook.getSheetName(0)).isEqualTo("A rather long stock movements r");
+            assertThat(workbook.getSheetName(1)).isEqualTo("A rather long stock movem (2)");
+            assertThat(workbook.getSheetName(2)).isEqualTo("A rather long stock movem (3)");
+            assertThat(ids(workbook.getSheetAt(0))).containsExactly("ID", "1", "2", "3");
+            assertThat(ids(workbook.getSheetAt(1))).containsExactly("ID", "4", "5", "6");
+            assertThat(ids(workbook.getSheetAt(2))).containsExactly("ID", "7");
+        }
+    }
+
+    private static List<String> ids(Sheet sheet) {
+        List<String> ids = new ArrayList<>();
+        sheet.forEach(row -> {
+            Cell cell = row.getCell(0);
+            ids.add(cell.getCellType() == CellType.NUMERIC
+                    ? String.valueOf((int) cell.getNumericCellValue())
+                    : cell.getStringCellValue());
+        });
+        return ids;
+    }
+}
@@ -0,0 +1,86 @@
+package com.restaurant.stockmanagement.repository;
+
+import com.restaurant.stockmanagement.IntegrationTest;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.Arguments;
+import org.junit.jupiter.params.provider.MethodSource;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Explains the SQL behind the hot repository queries against the migrated schema and fails if
+ * any of them scans a whole table, so dropping or reordering an index they rely on shows up
+ * here rather than in production.
+ */
+@IntegrationTest
+class QueryPlanTest {
+
+    @Autowired JdbcTemplate jdbcTemplate;
+
+    static Stream<Arguments> hotQueries() {
+        return Stream.of(
+                Arguments.of("sales between dates",
+                        "SELECT id, sale_date, total_amount FROM sales WHERE deleted = FALSE"
+                                + " AND sale_date BETWEEN '2026-01-01 00:00:00' AND '2026-02-01 00:00:00'"
+                                + " ORDER BY sale_date"),
+                Arguments.of("sales of a branch",
+                        "SELECT id FROM sales WHERE deleted = FALSE AND branch_id = 1"
+                                + " ORDER BY sale_date DESC, id DESC LIMIT 20"),
+                Arguments.of("sales of a cashier",
+                        "SELECT id FROM sales WHERE deleted = FALSE AND cashier_username = 'till'"),
+                Arguments.of("sales by idempotency key",
+                        "SELECT idempotency_key, id FROM sales WHERE idempotency_key IN ('a', 'b')"),
+                Arguments.of("items of a sale",
+                        "SELECT id FROM sale_items WHERE sale_id IN (1, 2)"),
+                Arguments.of("transactions of an ingredient by type",
+                        "SELECT id FROM stock_transactions WHERE deleted = FALSE AND ingredient_id = 1"
+                                + " AND type = 'SALE'"),
+                Arguments.of("transactions of an ingredient, keyset page",
+                        "SELECT id FROM stock_transactions WHERE ingredient_id = 1 AND deleted = FALSE"
+                                + " AND created_at < '2026-01-01 00:00:00' ORDER BY created_at DESC, id DESC LIMIT 20"),
+                Arguments.of("transactions between dates",
+                        "SELECT id FROM stock_transactions WHERE deleted = FALSE"
+                                + " AND created_at BETWEEN '2026-01-01 00:00:00' AND '2026-02-01 00:00:00'"),
+                Arguments.of("lots of a transaction",
+                        "SELECT stock_lot_id FROM stock_transaction_lots WHERE stock_transaction_id IN (1, 2)"),
+                Arguments.of("open lots of ingredients",
+                        "SELECT id, remaining_quantity FROM stock_lots WHERE ingredient_id IN (1, 2)"
+                                + " AND deleted = FALSE AND remaining_quantity > 0"),
+                Arguments.of("open alerts of a branch",
+                        "SELECT id FROM stock_alerts WHERE deleted = FALSE AND acknowledged = FALSE AND branch_id = 1"),
+                Arguments.of("alerts of an ingredient by type",
+                        "SELECT id FROM stock_alerts WHERE deleted = FALSE AND ingredient_id = 1"
+                                + " AND alert_type = 'LOW_STOCK'"),
+                Arguments.of("ingredients of a branch",
+                        "SELECT id FROM ingredients WHERE deleted = FALSE AND branch_id = 1"),
+                Arguments.of("ingredients by name in a branch",
+                        "SELECT id FROM ingredients WHERE deleted = FALSE AND branch_id = 1 AND name IN ('Flour', 'Salt')"),
+                Arguments.of("ingredients expiring between dates",
+                        "SELECT id FROM ingredients WHERE deleted = FALSE AND expiry_date BETWEEN '2026-01-01' AND '2026-01-08'"),
+                Arguments.of("foods by name in a branch",
+                        "SELECT id FROM foods WHERE deleted = FALSE AND branch_id = 1 AND name IN ('Burger', 'Fries')"),
+                Arguments.of("recipes of foods",
+                        "SELECT ingredient_id, quantity FROM recipe_ingredients WHERE food_id IN (1, 2) AND deleted = FALSE"),
+                Arguments.of("sales rollups between dates",
+                        "SELECT branch_id, sale_count FROM daily_sales_rollups"
+                                + " WHERE rollup_date BETWEEN '2026-01-01' AND '2026-01-31'"),
+                Arguments.of("food rollups between dates",
+                        "SELECT food_id, quantity FROM daily_food_sales_rollups"
+                                + " WHERE rollup_date BETWEEN '2026-01-01' AND '2026-01-31'"),
+                Arguments.of("ingredient usage rollups between dates",
+                        "SELECT ingredient_id, quantity FROM daily_ingredient_usage_rollups"
+                                + " WHERE rollup_date BETWEEN '2026-01-01' AND '2026-01-31'"));
+    }
+
+    @ParameterizedTest(name = "{0}")
+    @MethodSource("hotQueries")
+    void usesAnIndex(String name, String sql) {
+        String plan = jdbcTemplate.queryForObject("EXPLAIN " + sql, String.class);
+
+        assertThat(plan).as(plan).doesNotContainIgnoringCase("tableScan");
+    }
+}
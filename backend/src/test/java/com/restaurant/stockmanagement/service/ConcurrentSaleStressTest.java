@@ -0,0 +1,142 @@
+package com.restaurant.stockmanagement.service;
+
+import com.restaurant.stockmanagement.IntegrationTest;
+import com.restaurant.stockmanagement.TestData;
+import com.restaurant.stockmanagement.exception.InsufficientStockException;
+import com.restaurant.stockmanagement.model.Food;
+import com.restaurant.stockmanagement.model.Ingredient;
+import com.restaurant.stockmanagement.model.StockTransaction;
+import com.restaurant.stockmanagement.model.TransactionType;
+import com.restaurant.stockmanagement.repository.IngredientRepository;
+import com.restaurant.stockmanagement.repository.StockTransactionRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.within;
+
+/**
+ * Many tills selling the same dishes at once: no decrement may be lost, stock may never go
+ * below zero, and each ingredient's SALE transactions must form one unbroken
+ * previousStock/newStock chain.
+ */
+@IntegrationTest
+class ConcurrentSaleStressTest {
+
+    private static final long BRANCH = 102L;
+    private static final int THREADS = 8;
+
+    @Autowired SaleService saleService;
+    @Autowired TestData data;
+    @Autowired IngredientRepository ingredientRepository;
+    @Autowired StockTransactionRepository stockTransactionRepository;
+
+    @Test
+    void concurrentSalesLoseNoDecrement() throws Exception {
+        Ingredient bun = data.ingredient("Bun", BRANCH, 1000);
+        Ingredient patty = data.ingredient("Patty", BRANCH, 1000);
+        Food burger = data.food("Burger", BRANCH, 8);
+        data.recipe(burger, bun, 1);
+        data.recipe(burger, patty, 1);
+        Food doubleBurger = data.food("Double", BRANCH, 11);
+        data.recipe(doubleBurger, bun, 1);
+        data.recipe(doubleBurger, patty, 2);
+
+        int salesPerThread = 24;
+        AtomicInteger failures = new AtomicInteger();
+        runConcurrently(salesPerThread, i -> {
+            // Every other ticket has both dishes, so tickets lock overlapping sets of ingredients
+            saleService.createSale(i % 2 == 0 ? TestData.sale(BRANCH, burger) : TestData.sale(BRANCH, burger, doubleBurger));
+        }, failures);
+
+        int sales = THREADS * salesPerThread;
+        int bunsUsed = sales / 2 + (sales / 2) * 2;
+        int pattiesUsed = sales / 2 + (sales / 2) * 3;
+        assertThat(failures).hasValue(0);
+        assertThat(stockOf(bun)).isCloseTo(1000.0 - bunsUsed, within(1e-9));
+        assertThat(stockOf(patty)).isCloseTo(1000.0 - pattiesUsed, within(1e-9));
+        assertUnbrokenChain(bun, 1000, sales);
+        assertUnbrokenChain(patty, 1000, sales);
+    }
+
+    @Test
+    void concurrentSalesNeverOversell() throws Exception {
+        Ingredient cheese = data.ingredient("Cheese", BRANCH, 50);
+        Food melt = data.food("Melt", BRANCH, 6);
+        data.recipe(melt, cheese, 1);
+
+        AtomicInteger refused = new AtomicInteger();
+        runConcurrently(10, i -> saleService.createSale(TestData.sale(BRANCH, melt)), refused);
+
+        assertThat(refused).hasValue(THREADS * 10 - 50);
+        assertThat(stockOf(cheese)).isCloseTo(0.0, within(1e-9));
+        assertUnbrokenChain(cheese, 50, 50);
+    }
+
+    private void runConcurrently(int salesPerThread, SaleTask task, AtomicInteger insufficientStock)
+            throws Exception {
+        ExecutorService tills = Executors.newFixedThreadPool(THREADS);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<Void>> results = new ArrayList<>();
+        for (int t = 0; t < THREADS; t++) {
+            int till = t;
+            Callable<Void> cashier = () -> TestData.as("till" + till, "ROLE_CASHIER", () -> {
+                start.await();
+                for (int i = 0; i < salesPerThread; i++) {
+                    try {
+                        task.sell(i);
+                    } catch (InsufficientStockException e) {
+                        insufficientStock.incrementAndGet();
+                    }
+                }
+                return null;
+            });
+            results.add(tills.submit(cashier));
+        }
+        start.countDown();
+        for (Future<Void> result : results) {
+            result.get(2, TimeUnit.MINUTES);
+        }
+        tills.shutdown();
+    }
+
+    private double stockOf(Ingredient ingredient) {
+        return ingredientRepository.findCurrentStockById(ingredient.getId());
+    }
+
+    /**
+     * The SALE rows, ordered from the highest previous stock down, must each start where the
+     * one before ended and take exactly their quantity.
+     */
+    private void assertUnbrokenChain(Ingredient ingredient, double openingStock, int expectedRows) {
+        List<StockTransaction> chain = new ArrayList<>(
+                stockTransactionRepository.findByIngredientAndType(ingredient.getId(), TransactionType.SALE));
+        chain.sort(Comparator.comparing(StockTransaction::getPreviousStock).reversed());
+
+        assertThat(chain).hasSize(expectedRows);
+        double expectedPrevious = openingStock;
+        for (StockTransaction transaction : chain) {
+            assertThat(transaction.getPreviousStock()).isCloseTo(expectedPrevious, within(1e-9));
+            assertThat(transaction.getPreviousStock() - transaction.getNewStock())
+                    .isCloseTo(transaction.getQuantity(), within(1e-9));
+            expectedPrevious = transaction.getNewStock();
+        }
+        assertThat(expectedPrevious).isCloseTo(stockOf(ingredient), within(1e-9));
+    }
+
+    @FunctionalInterface
+    private interface SaleTask {
+        void sell(int index) throws Exception;
+    }
+}
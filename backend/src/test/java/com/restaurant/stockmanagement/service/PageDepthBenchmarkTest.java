@@ -0,0 +1,134 @@
+package com.restaurant.stockmanagement.service;
+
+import com.restaurant.stockmanagement.IntegrationTest;
+import com.restaurant.stockmanagement.TestData;
+import com.restaurant.stockmanagement.model.BaseEntity;
+import com.restaurant.stockmanagement.model.StockTransaction;
+import com.restaurant.stockmanagement.pagination.KeysetCursor;
+import com.restaurant.stockmanagement.repository.StockTransactionRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.KeysetScrollPosition;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.ScrollPosition;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.nio.charset.StandardCharsets;
+import java.sql.Timestamp;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Supplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Latency of page 1 and page 10,000 of the stock transaction listing, by OFFSET and by keyset
+ * cursor, over 200,100 transactions. Both run through the same repository on the same sort, the
+ * keyset side with the queries {@link StockTransactionService#scrollTransactions} issues, so the
+ * only difference is how the page is found; the offset figures include the count query the
+ * paged listing runs. Deep in the listing the keyset page must beat the offset page and cost
+ * about what the first page does. Median timings are printed. The transactions go into a
+ * database of their own, dropped with the context afterwards.
+ */
+@IntegrationTest
+@TestPropertySource(properties = "spring.datasource.url=jdbc:h2:mem:page-depth;MODE=MySQL;DATABASE_TO_LOWER=TRUE")
+@DirtiesContext
+class PageDepthBenchmarkTest {
+
+    private static final int PAGE_SIZE = 20;
+    private static final int DEEP_PAGE = 10_000;
+    private static final int TRANSACTIONS = DEEP_PAGE * PAGE_SIZE + 100;
+    private static final KeysetCursor CURSOR = new KeysetCursor("createdAt");
+    private static final int WARMUP = 200;
+    private static final int ITERATIONS = 100;
+
+    @Autowired TestData testData;
+    @Autowired StockTransactionRepository stockTransactionRepository;
+    @Autowired JdbcTemplate jdbcTemplate;
+    @Autowired PlatformTransactionManager transactionManager;
+
+    @BeforeEach
+    void insertTransactions() {
+        long ingredientId = testData.ingredient("Flour", 106L, 0).getId();
+        jdbcTemplate.update("INSERT INTO stock_transactions (id, created_at, updated_at, deleted, ingredient_id,"
+                + " type, quantity, previous_stock, new_stock, branch_id)"
+                + " SELECT 7000000 + r.n, DATEADD('SECOND', r.n, TIMESTAMP '2025-01-01 00:00:00'),"
+                + " TIMESTAMP '2025-01-01 00:00:00', FALSE, ?, 'PURCHASE', 1, r.n - 1, r.n, 106"
+                + " FROM SYSTEM_RANGE(1, ?) r(n)", ingredientId, TRANSACTIONS);
+    }
+
+    @Test
+    void keysetPageCostsTheSameAtAnyDepth() {
+        PageRequest firstPage = PageRequest.of(0, PAGE_SIZE, CURSOR.sort());
+        PageRequest deepPage = PageRequest.of(DEEP_PAGE - 1, PAGE_SIZE, CURSOR.sort());
+        // The cursor a client holds after reading page 9,999: the last row before page 10,000
+        Map<String, Object> last = jdbcTemplate.queryForMap("SELECT created_at, id FROM stock_transactions"
+                + " WHERE deleted = FALSE ORDER BY created_at DESC, id DESC LIMIT 1 OFFSET ?",
+                (DEEP_PAGE - 1) * PAGE_SIZE - 1);
+        String token = Base64.getUrlEncoder().withoutPadding().encodeToString(
+                (((Timestamp) last.get("created_at")).toLocalDateTime() + "|" + last.get("id"))
+                        .getBytes(StandardCharsets.UTF_8));
+        KeysetScrollPosition deepPosition = CURSOR.decode(token);
+
+        Supplier<List<StockTransaction>> offsetFirst = () -> stockTransactionRepository
+                .findByDeletedFalse(firstPage).getContent();
+        Supplier<List<StockTransaction>> offsetDeep = () -> stockTransactionRepository
+                .findByDeletedFalse(deepPage).getContent();
+        Supplier<List<StockTransaction>> keysetFirst = () -> stockTransactionRepository
+                .findByDeletedFalse(ScrollPosition.keyset(), CURSOR.sort(), CURSOR.limit(PAGE_SIZE)).getContent();
+        Supplier<List<StockTransaction>> keysetDeep = () -> stockTransactionRepository
+                .findByDeletedFalseAndCreatedAtLessThanEqual(CURSOR.until(deepPosition), deepPosition,
+                        CURSOR.sort(), CURSOR.limit(PAGE_SIZE)).getContent();
+
+        assertThat(ids(keysetFirst)).isEqualTo(ids(offsetFirst)).hasSize(PAGE_SIZE);
+        assertThat(ids(keysetDeep)).isEqualTo(ids(offsetDeep)).hasSize(PAGE_SIZE);
+
+        long[] medians = medianNanos(List.of(offsetFirst, offsetDeep, keysetFirst, keysetDeep));
+        long offsetFirstNanos = medians[0];
+        long offsetDeepNanos = medians[1];
+        long keysetFirstNanos = medians[2];
+        long keysetDeepNanos = medians[3];
+        System.out.printf("page 1 / page %d over %d transactions: offset %d / %d us, keyset %d / %d us%n",
+                DEEP_PAGE, TRANSACTIONS, offsetFirstNanos / 1_000, offsetDeepNanos / 1_000,
+                keysetFirstNanos / 1_000, keysetDeepNanos / 1_000);
+
+        assertThat(keysetDeepNanos).isLessThan(offsetDeepNanos);
+        // Per-call overhead dominates a 20-row page, so allow for noise rather than demand equality
+        assertThat(keysetDeepNanos).isLessThan(keysetFirstNanos * 2);
+    }
+
+    // Read-only, as in the listing services
+    private List<Long> ids(Supplier<List<StockTransaction>> page) {
+        TransactionTemplate readOnly = new TransactionTemplate(transactionManager);
+        readOnly.setReadOnly(true);
+        return readOnly.execute(status -> page.get().stream().map(BaseEntity::getId).toList());
+    }
+
+    // Rounds interleave the pages so that warm-up and background work hit all of them alike
+    private long[] medianNanos(List<Supplier<List<StockTransaction>>> pages) {
+        for (int i = 0; i < WARMUP; i++) {
+            pages.forEach(this::ids);
+        }
+        long[][] samples = new long[pages.size()][ITERATIONS];
+        for (int i = 0; i < ITERATIONS; i++) {
+            for (int p = 0; p < pages.size(); p++) {
+                long start = System.nanoTime();
+                ids(pages.get(p));
+                samples[p][i] = System.nanoTime() - start;
+            }
+        }
+        long[] medians = new long[pages.size()];
+        for (int p = 0; p < pages.size(); p++) {
+            Arrays.sort(samples[p]);
+            medians[p] = samples[p][ITERATIONS / 2];
+        }
+        return medians;
+    }
+}
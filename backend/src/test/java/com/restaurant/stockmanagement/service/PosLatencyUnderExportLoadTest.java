@@ -0,0 +1,220 @@
+package com.restaurant.stockmanagement.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.restaurant.stockmanagement.TestData;
+import com.restaurant.stockmanagement.model.Food;
+import com.restaurant.stockmanagement.model.Ingredient;
+import com.restaurant.stockmanagement.security.AuthTokenService;
+import com.restaurant.stockmanagement.security.BranchUserDetails;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.TestPropertySource;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * POS latency while report exports run, over HTTP against the embedded server. Tills post
+ * sales for a while on their own, then again while clients keep downloading a 200,000-row sales
+ * export, and the sale latency percentiles of both phases are printed. Tomcat gets 20 threads,
+ * so exports that held request threads would starve the tills; they must not, and every sale
+ * must succeed. This class runs on platform threads; {@link VirtualThreadPosLatencyUnderExportLoadTest}
+ * repeats it on virtual threads. The sales go into a database of their own, dropped with the
+ * context afterwards.
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+@ActiveProfiles("test")
+@Import(TestData.class)
+@TestPropertySource(properties = {
+        "spring.datasource.url=jdbc:h2:mem:pos-latency;MODE=MySQL;DATABASE_TO_LOWER=TRUE;LOCK_TIMEOUT=20000",
+        "server.tomcat.threads.max=20",
+        "app.security.token.enabled=true"
+})
+@DirtiesContext
+class PosLatencyUnderExportLoadTest {
+
+    private static final long BRANCH = 107L;
+    private static final int EXPORTED_SALES = 200_000;
+    private static final LocalDateTime START = LocalDateTime.of(2002, 1, 1, 0, 0);
+    private static final int TILLS = 4;
+    private static final int EXPORT_CLIENTS = 12;
+    private static final Duration WARMUP = Duration.ofSeconds(5);
+    private static final Duration PHASE = Duration.ofSeconds(15);
+    private static final Duration MAX_POS_P99 = Duration.ofSeconds(2);
+
+    @LocalServerPort int port;
+    @Autowired TestData testData;
+    @Autowired AuthTokenService authTokenService;
+    @Autowired JdbcTemplate jdbcTemplate;
+    @Autowired ObjectMapper objectMapper;
+
+    private final HttpClient http = HttpClient.newBuilder().connectTimeout(Duration.ofSeconds(10)).build();
+    private final List<Food> foods = new ArrayList<>();
+    private String cashierToken;
+    private String ownerToken;
+
+    @BeforeEach
+    void setUp() {
+        jdbcTemplate.update("INSERT INTO sales (id, created_at, updated_at, deleted, sale_date, total_amount,"
+                + " cashier_username, branch_id, payment_method)"
+                + " SELECT 8000000000 + r.n, CAST(? AS TIMESTAMP), CAST(? AS TIMESTAMP), FALSE,"
+                + " DATEADD('SECOND', r.n, CAST(? AS TIMESTAMP)), 12.5, 'bulk', ?, 'CASH'"
+                + " FROM SYSTEM_RANGE(1, ?) r(n)", START, START, START, BRANCH, EXPORTED_SALES);
+        // One dish per till, so tills do not queue on each other's stock
+        for (int till = 0; till < TILLS; till++) {
+            Ingredient flour = testData.ingredient("Flour", BRANCH, 1_000_000);
+            Food bread = testData.food("Bread", BRANCH, 4.0);
+            testData.recipe(bread, flour, 0.1);
+            foods.add(bread);
+        }
+        cashierToken = token("till", BRANCH, "ROLE_CASHIER");
+        ownerToken = token("owner", null, "ROLE_OWNER");
+    }
+
+    @Test
+    void posStaysResponsiveWhileReportsExport() throws Exception {
+        runTills(WARMUP);
+
+        Latencies idle = runTills(PHASE);
+
+        AtomicBoolean exporting = new AtomicBoolean(true);
+        AtomicInteger exports = new AtomicInteger();
+        AtomicInteger refusedExports = new AtomicInteger();
+        ExecutorService exportClients = Executors.newFixedThreadPool(EXPORT_CLIENTS);
+        List<Future<?>> downloads = new ArrayList<>();
+        for (int i = 0; i < EXPORT_CLIENTS; i++) {
+            downloads.add(exportClients.submit(() -> {
+                while (exporting.get()) {
+                    int status = export();
+                    (status == 200 ? exports : refusedExports).incrementAndGet();
+                }
+                return null;
+            }));
+        }
+        Latencies loaded;
+        try {
+            loaded = runTills(PHASE);
+        } finally {
+            exporting.set(false);
+            exportClients.shutdown();
+        }
+        for (Future<?> download : downloads) {
+            download.get(5, TimeUnit.MINUTES);
+        }
+
+        System.out.printf("%s threads, POS without exports: %s%n", mode(), idle);
+        System.out.printf("%s threads, POS during %d exports (%d refused): %s%n",
+                mode(), exports.get(), refusedExports.get(), loaded);
+        assertThat(idle.failed.get()).isZero();
+        assertThat(loaded.failed.get()).isZero();
+        assertThat(exports.get()).isPositive();
+        assertThat(loaded.percentile(99)).isLessThan(MAX_POS_P99.toNanos());
+    }
+
+    String mode() {
+        return "platform";
+    }
+
+    /**
+     * Has every till post sales back to back for {@code duration}.
+     */
+    private Latencies runTills(Duration duration) throws Exception {
+        Latencies latencies = new Latencies();
+        long deadline = System.nanoTime() + duration.toNanos();
+        ExecutorService tills = Executors.newFixedThreadPool(TILLS);
+        try {
+            List<Future<?>> running = new ArrayList<>();
+            for (Food food : foods) {
+                String body = objectMapper.writeValueAsString(TestData.sale(BRANCH, food));
+                running.add(tills.submit(() -> {
+                    while (System.nanoTime() < deadline) {
+                        long start = System.nanoTime();
+                        boolean created = sell(body);
+                        latencies.record(System.nanoTime() - start, created);
+                    }
+                    return null;
+                }));
+            }
+            for (Future<?> till : running) {
+                till.get();
+            }
+        } finally {
+            tills.shutdown();
+        }
+        return latencies;
+    }
+
+    private boolean sell(String body) throws Exception {
+        HttpRequest request = HttpRequest.newBuilder(uri("/sales"))
+                .header("Authorization", "Bearer " + cashierToken)
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString(body))
+                .build();
+        return http.send(request, HttpResponse.BodyHandlers.discarding()).statusCode() == 201;
+    }
+
+    private int export() throws Exception {
+        HttpRequest request = HttpRequest.newBuilder(uri("/reports/sales?format=CSV&startDate=" + START
+                        + "&endDate=" + START.plusYears(1)))
+                .header("Authorization", "Bearer " + ownerToken)
+                .build();
+        return http.send(request, HttpResponse.BodyHandlers.discarding()).statusCode();
+    }
+
+    private URI uri(String path) {
+        return URI.create("http://localhost:" + port + "/api" + path);
+    }
+
+    private String token(String username, Long branchId, String role) {
+        return authTokenService.issue(new BranchUserDetails(1L, branchId, username, "",
+                List.of(new SimpleGrantedAuthority(role)))).token();
+    }
+
+    private static final class Latencies {
+
+        private final List<Long> nanos = Collections.synchronizedList(new ArrayList<>());
+        private final AtomicInteger failed = new AtomicInteger();
+
+        void record(long elapsed, boolean created) {
+            nanos.add(elapsed);
+            if (!created) {
+                failed.incrementAndGet();
+            }
+        }
+
+        long percentile(int percent) {
+            List<Long> sorted = new ArrayList<>(nanos);
+            Collections.sort(sorted);
+            return sorted.get(Math.min(sorted.size() - 1, sorted.size() * percent / 100));
+        }
+
+        @Override
+        public String toString() {
+            return String.format("%d sales, p50 %d ms, p99 %d ms, %d failed", nanos.size(),
+                    percentile(50) / 1_000_000, percentile(99) / 1_000_000, failed.get());
+        }
+    }
+}
@@ -0,0 +1,101 @@
+package com.restaurant.stockmanagement.service;
+
+import com.restaurant.stockmanagement.IntegrationTest;
+import com.restaurant.stockmanagement.report.ReportFormat;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.test.context.TestPropertySource;
+
+import java.io.OutputStream;
+import java.lang.management.ManagementFactory;
+import java.time.LocalDateTime;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Exports a million sales and checks that the live heap stays flat while doing so: it is
+ * measured after a full GC every few megabytes of output. The sales go into a database of
+ * their own, which is dropped with the context afterwards.
+ */
+@IntegrationTest
+@TestPropertySource(properties = "spring.datasource.url=jdbc:h2:mem:report-export;MODE=MySQL;DATABASE_TO_LOWER=TRUE")
+@DirtiesContext
+class ReportExportMemoryTest {
+
+    private static final int ROWS = 1_000_000;
+    private static final long FIRST_ID = 9_000_000_000L;
+    private static final LocalDateTime START = LocalDateTime.of(2001, 1, 1, 0, 0);
+    private static final long MAX_HEAP_GROWTH = 64L * 1024 * 1024;
+
+    @Autowired ReportService reportService;
+    @Autowired JdbcTemplate jdbcTemplate;
+
+    @BeforeEach
+    void insertSales() {
+        jdbcTemplate.update("INSERT INTO sales (id, created_at, updated_at, deleted, sale_date, total_amount,"
+                + " cashier_username, branch_id, payment_method)"
+                + " SELECT ? + r.n, CAST(? AS TIMESTAMP), CAST(? AS TIMESTAMP), FALSE,"
+                + " DATEADD('SECOND', r.n, CAST(? AS TIMESTAMP)), 12.5, 'bulk', 104, 'CASH'"
+                + " FROM SYSTEM_RANGE(1, ?) r(n)", FIRST_ID, START, START, START, ROWS);
+    }
+
+    @Test
+    void exportsAMillionRowsInConstantMemory() throws Exception {
+        HeapSamplingOutputStream out = new HeapSamplingOutputStream(4L * 1024 * 1024);
+        long before = liveHeap();
+
+        reportService.exportSales(START, START.plusYears(1), ReportFormat.CSV, out);
+
+        assertThat(out.lines).isEqualTo(ROWS + 1);
+        assertThat(out.samples).isGreaterThan(5);
+        System.out.printf("exported %d rows (%d MB), live heap %d MB before, at most %d MB during%n",
+                ROWS, out.bytes >> 20, before >> 20, out.maxLiveHeap >> 20);
+        assertThat(out.maxLiveHeap - before).isLessThan(MAX_HEAP_GROWTH);
+    }
+
+    private static long liveHeap() {
+        System.gc();
+        return ManagementFactory.getMemoryMXBean().getHeapMemoryUsage().getUsed();
+    }
+
+    /**
+     * Discards the report, counting its lines and sampling the live heap as it goes.
+     */
+    private static final class HeapSamplingOutputStream extends OutputStream {
+
+        private final long sampleEvery;
+        private long bytes;
+        private long lines;
+        private long nextSample;
+        private int samples;
+        private long maxLiveHeap;
+
+        HeapSamplingOutputStream(long sampleEvery) {
+            this.sampleEvery = sampleEvery;
+            this.nextSample = sampleEvery;
+        }
+
+        @Override
+        public void write(int b) {
+            write(new byte[]{(byte) b}, 0, 1);
+        }
+
+        @Override
+        public void write(byte[] buffer, int offset, int length) {
+            for (int i = offset; i < offset + length; i++) {
+                if (buffer[i] == '\n') {
+                    lines++;
+                }
+            }
+            bytes += length;
+            if (bytes >= nextSample) {
+                nextSample += sampleEvery;
+                samples++;
+                maxLiveHeap = Math.max(maxLiveHeap, liveHeap());
+            }
+        }
+    }
+}
@@ -0,0 +1,179 @@
+package com.restaurant.stockmanagement.service;
+
+import com.restaurant.stockmanagement.IntegrationTest;
+import com.restaurant.stockmanagement.TestData;
+import com.restaurant.stockmanagement.dto.SaleRequest;
+import com.restaurant.stockmanagement.event.IngredientChangedEvent;
+import com.restaurant.stockmanagement.event.SaleCompletedEvent;
+import com.restaurant.stockmanagement.metrics.StatementCounting;
+import com.restaurant.stockmanagement.model.*;
+import com.restaurant.stockmanagement.repository.*;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Statements per sale and sales per second of {@link SaleService#createSale}, against the
+ * per-item checkout it replaced: one food lookup, recipe query, stock update and ledger row
+ * per item, each written as it is saved (the ids used to be AUTO_INCREMENT). Both publish the
+ * same events, so the work after commit is the same. The rollup
+ * increments that {@link RollupService} runs after the sale commits are left out of the
+ * counts; they cost one statement per food and day by design.
+ */
+@IntegrationTest
+class SaleCheckoutBenchmarkTest {
+
+    private static final long BRANCH = 101L;
+    private static final int SALES = 100;
+
+    @Autowired SaleService saleService;
+    @Autowired TestData data;
+    @Autowired FoodRepository foodRepository;
+    @Autowired IngredientRepository ingredientRepository;
+    @Autowired RecipeIngredientRepository recipeIngredientRepository;
+    @Autowired SaleRepository saleRepository;
+    @Autowired SaleItemRepository saleItemRepository;
+    @Autowired StockTransactionRepository stockTransactionRepository;
+    @Autowired TransactionTemplate transactionTemplate;
+    @Autowired ApplicationEventPublisher eventPublisher;
+
+    private final List<Food> menu = new ArrayList<>();
+
+    @BeforeEach
+    void createMenu() {
+        // Ten dishes sharing three ingredients, so a bigger ticket touches no more stock rows
+        List<Ingredient> ingredients = List.of(
+                data.ingredient("Flour", BRANCH, 1e9),
+                data.ingredient("Cheese", BRANCH, 1e9),
+                data.ingredient("Tomato", BRANCH, 1e9));
+        for (int i = 0; i < 10; i++) {
+            Food food = data.food("Pizza", BRANCH, 9.5);
+            ingredients.forEach(ingredient -> data.recipe(food, ingredient, 0.1));
+            menu.add(food);
+        }
+    }
+
+    @Test
+    void statementsPerSaleDoNotGrowWithTicketSize() throws Exception {
+        int[] batched = new int[3];
+        int[] perItem = new int[3];
+        int[] sizes = {1, 5, 10};
+        // The first sale of these foods loads their lot queues and creates the day's rollup rows
+        countStatements(() -> saleService.createSale(TestData.sale(BRANCH, ticket(1))));
+        countStatements(() -> perItemCheckout(TestData.sale(BRANCH, ticket(1))));
+        for (int i = 0; i < sizes.length; i++) {
+            SaleRequest request = TestData.sale(BRANCH, ticket(sizes[i]));
+            batched[i] = countStatements(() -> saleService.createSale(request));
+            perItem[i] = countStatements(() -> perItemCheckout(request));
+            System.out.printf("checkout %2d items: %3d statements batched, %3d per item%n",
+                    sizes[i], batched[i], perItem[i]);
+        }
+
+        assertThat(batched[2]).isEqualTo(batched[0]);
+        assertThat(perItem[2]).isGreaterThan(perItem[0]);
+        assertThat(batched[1]).isLessThan(perItem[1]);
+        assertThat(batched[2] * 3).isLessThan(perItem[2]);
+    }
+
+    @Test
+    void salesPerSecond() throws Exception {
+        SaleRequest request = TestData.sale(BRANCH, ticket(5));
+        double batched = salesPerSecond(() -> saleService.createSale(request));
+        double perItem = salesPerSecond(() -> perItemCheckout(request));
+        System.out.printf("checkout 5 items: %.0f sales/s batched, %.0f sales/s per item%n", batched, perItem);
+
+        assertThat(batched).isPositive();
+        assertThat(perItem).isPositive();
+    }
+
+    private Food[] ticket(int items) {
+        return menu.subList(0, items).toArray(Food[]::new);
+    }
+
+    private int countStatements(ThrowingRunnable sale) throws Exception {
+        return TestData.as("bench", "ROLE_CASHIER", () -> {
+            StatementCounting.begin();
+            sale.run();
+            Map<String, Integer> statements = StatementCounting.endByStatement();
+            return statements.entrySet().stream()
+                    .filter(statement -> !statement.getKey().contains("_rollups"))
+                    .mapToInt(Map.Entry::getValue)
+                    .sum();
+        });
+    }
+
+    private double salesPerSecond(ThrowingRunnable sale) throws Exception {
+        return TestData.as("bench", "ROLE_CASHIER", () -> {
+            for (int i = 0; i < SALES / 10; i++) {
+                sale.run();
+            }
+            long start = System.nanoTime();
+            for (int i = 0; i < SALES; i++) {
+                sale.run();
+            }
+            return SALES / ((System.nanoTime() - start) / 1e9);
+        });
+    }
+
+    private void perItemCheckout(SaleRequest request) {
+        transactionTemplate.executeWithoutResult(status -> {
+            Sale sale = new Sale();
+            sale.setSaleDate(LocalDateTime.now());
+            sale.setTotalAmount(request.getTotalAmount());
+            sale.setCashierUsername("bench");
+            sale.setBranchId(request.getBranchId());
+            sale = saleRepository.saveAndFlush(sale);
+
+            List<SaleItem> items = new ArrayList<>();
+            List<StockTransaction> transactions = new ArrayList<>();
+
+            for (var itemDTO : request.getItems()) {
+                Food food = foodRepository.findById(itemDTO.getFoodId()).orElseThrow();
+                SaleItem item = new SaleItem();
+                item.setSale(sale);
+                item.setFood(food);
+                item.setQuantity(itemDTO.getQuantity());
+                item.setUnitPrice(itemDTO.getUnitPrice());
+                item.setSubtotal(itemDTO.getQuantity() * itemDTO.getUnitPrice());
+                items.add(saleItemRepository.saveAndFlush(item));
+
+                for (RecipeIngredient ri : recipeIngredientRepository.findActiveRecipesByFoodId(food.getId())) {
+                    Ingredient ingredient = ri.getIngredient();
+                    double previous = ingredient.getCurrentStock();
+                    double amount = ri.getQuantity() * itemDTO.getQuantity();
+                    ingredient.setCurrentStock(previous - amount);
+                    ingredientRepository.saveAndFlush(ingredient);
+
+                    StockTransaction transaction = new StockTransaction();
+                    transaction.setIngredient(ingredient);
+                    transaction.setType(TransactionType.SALE);
+                    transaction.setQuantity(amount);
+                    transaction.setPreviousStock(previous);
+                    transaction.setNewStock(previous - amount);
+                    transaction.setReason("Sale #" + sale.getId());
+                    transaction.setPerformedBy("bench");
+                    transaction.setBranchId(ingredient.getBranchId());
+                    transactions.add(stockTransactionRepository.saveAndFlush(transaction));
+                }
+            }
+            sale.getItems().addAll(items);
+            eventPublisher.publishEvent(new IngredientChangedEvent(
+                    transactions.stream().map(t -> t.getIngredient().getId()).distinct().toList()));
+            eventPublisher.publishEvent(new SaleCompletedEvent(sale, transactions));
+        });
+    }
+
+    @FunctionalInterface
+    private interface ThrowingRunnable {
+        void run() throws Exception;
+    }
+}
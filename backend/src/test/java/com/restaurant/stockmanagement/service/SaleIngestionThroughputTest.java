@@ -0,0 +1,134 @@
+package com.restaurant.stockmanagement.service;
+
+import com.restaurant.stockmanagement.IntegrationTest;
+import com.restaurant.stockmanagement.TestData;
+import com.restaurant.stockmanagement.dto.BulkSaleRequest;
+import com.restaurant.stockmanagement.dto.BulkSaleResponse;
+import com.restaurant.stockmanagement.dto.OfflineSaleDTO;
+import com.restaurant.stockmanagement.dto.OfflineSaleResultDTO.Status;
+import com.restaurant.stockmanagement.dto.SaleRequest;
+import com.restaurant.stockmanagement.model.Food;
+import com.restaurant.stockmanagement.model.Ingredient;
+import com.restaurant.stockmanagement.repository.IngredientRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.test.context.TestPropertySource;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.within;
+
+/**
+ * Sales per second of {@link SaleIngestionService#ingest} on H2, for full 2,000-sale batches of
+ * the kind a till posts when it reconnects, spread over the last three days. The rollup, metrics
+ * and forecast updates that run after each batch commits are part of the timing. Every sale must
+ * be created and its stock deducted once, and posting a batch again must create nothing. The
+ * sales go into a database of their own, dropped with the context afterwards.
+ */
+@IntegrationTest
+@TestPropertySource(properties =
+        "spring.datasource.url=jdbc:h2:mem:sale-ingestion;MODE=MySQL;DATABASE_TO_LOWER=TRUE;DB_CLOSE_DELAY=-1")
+@DirtiesContext
+class SaleIngestionThroughputTest {
+
+    private static final long BRANCH = 112L;
+    private static final int BATCH = 2000;
+    private static final int WARMUP_BATCHES = 5;
+    private static final int BATCHES = 5;
+    private static final double PORTION = 0.1;
+    private static final double OPENING_STOCK = 1e9;
+    private static final double MIN_SALES_PER_SECOND = 1000;
+
+    @Autowired SaleIngestionService saleIngestionService;
+    @Autowired TestData data;
+    @Autowired IngredientRepository ingredientRepository;
+
+    @Test
+    void sustainsThousandsOfSalesPerSecond() throws Exception {
+        // Ten dishes sharing three ingredients
+        List<Ingredient> ingredients = List.of(
+                data.ingredient("Flour", BRANCH, OPENING_STOCK),
+                data.ingredient("Cheese", BRANCH, OPENING_STOCK),
+                data.ingredient("Tomato", BRANCH, OPENING_STOCK));
+        List<Food> menu = new ArrayList<>();
+        for (int i = 0; i < 10; i++) {
+            Food food = data.food("Pizza", BRANCH, 9.5);
+            ingredients.forEach(ingredient -> data.recipe(food, ingredient, PORTION));
+            menu.add(food);
+        }
+
+        List<BulkSaleRequest> warmup = new ArrayList<>();
+        for (int i = 0; i < WARMUP_BATCHES; i++) {
+            warmup.add(batch(menu));
+            assertThat(ingest(warmup.get(i)).getCreated()).isEqualTo(BATCH);
+        }
+        List<BulkSaleRequest> batches = new ArrayList<>();
+        for (int i = 0; i < BATCHES; i++) {
+            batches.add(batch(menu));
+        }
+        long start = System.nanoTime();
+        for (BulkSaleRequest batch : batches) {
+            assertThat(ingest(batch).getCreated()).isEqualTo(BATCH);
+        }
+        double salesPerSecond = BATCHES * BATCH / ((System.nanoTime() - start) / 1e9);
+        System.out.printf("bulk ingestion, %d-sale batches: %.0f sales/s%n", BATCH, salesPerSecond);
+
+        BulkSaleResponse replay = ingest(batches.get(0));
+        assertThat(replay.getCreated()).isZero();
+        assertThat(replay.getDuplicates()).isEqualTo(BATCH);
+        assertThat(replay.getResults()).allMatch(result -> result.getStatus() == Status.DUPLICATE
+                && result.getSaleId() != null);
+
+        // Every dish uses a portion of each ingredient
+        double used = (dishes(warmup) + dishes(batches)) * PORTION;
+        for (Ingredient ingredient : ingredients) {
+            assertThat(ingredientRepository.findById(ingredient.getId()).orElseThrow().getCurrentStock())
+                    .isCloseTo(OPENING_STOCK - used, within(1e-3));
+        }
+        assertThat(salesPerSecond).isGreaterThan(MIN_SALES_PER_SECOND);
+    }
+
+    private BulkSaleResponse ingest(BulkSaleRequest request) throws Exception {
+        return TestData.as("till", "ROLE_CASHIER", () -> saleIngestionService.ingest(request));
+    }
+
+    private static long dishes(List<BulkSaleRequest> batches) {
+        return batches.stream()
+                .flatMap(batch -> batch.getSales().stream())
+                .mapToLong(sale -> sale.getItems().size())
+                .sum();
+    }
+
+    // One to three dishes, two on average
+    private static Food[] ticket(List<Food> menu, int sale) {
+        Food[] dishes = new Food[sale % 3 + 1];
+        for (int i = 0; i < dishes.length; i++) {
+            dishes[i] = menu.get((sale + i) % menu.size());
+        }
+        return dishes;
+    }
+
+    private static BulkSaleRequest batch(List<Food> menu) {
+        LocalDateTime now = LocalDateTime.now();
+        List<OfflineSaleDTO> sales = new ArrayList<>(BATCH);
+        for (int i = 0; i < BATCH; i++) {
+            SaleRequest ticket = TestData.sale(BRANCH, ticket(menu, i));
+            OfflineSaleDTO sale = new OfflineSaleDTO();
+            sale.setIdempotencyKey(UUID.randomUUID().toString());
+            sale.setSaleDate(now.minusDays(i % 3).minusMinutes(i));
+            sale.setItems(ticket.getItems());
+            sale.setTotalAmount(ticket.getTotalAmount());
+            sale.setPaymentMethod("CASH");
+            sales.add(sale);
+        }
+        BulkSaleRequest request = new BulkSaleRequest();
+        request.setSales(sales);
+        request.setBranchId(BRANCH);
+        return request;
+    }
+}
@@ -0,0 +1,89 @@
+package com.restaurant.stockmanagement.service;
+
+import com.restaurant.stockmanagement.IntegrationTest;
+import com.restaurant.stockmanagement.dto.IngredientDTO;
+import com.restaurant.stockmanagement.repository.IngredientRepository;
+import com.restaurant.stockmanagement.search.SearchIndexService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.test.context.TestPropertySource;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Supplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Compares ingredient search through the in-memory index with the {@code LIKE} query it falls
+ * back to while the index loads, over 20,000 ingredients in four branches. Both must return the
+ * same ingredients of the requested branch; the index must also be faster. Timings are printed.
+ * The ingredients go into a database of their own, dropped with the context afterwards.
+ */
+@IntegrationTest
+@TestPropertySource(properties = "spring.datasource.url=jdbc:h2:mem:search-benchmark;MODE=MySQL;DATABASE_TO_LOWER=TRUE")
+@DirtiesContext
+class SearchBenchmarkTest {
+
+    private static final int INGREDIENTS = 20_000;
+    private static final long FIRST_ID = 5_000_000L;
+    private static final long BRANCH = 2L;
+    private static final String[] WORDS = {
+            "Tomato", "Flour", "Cheese", "Basil", "Onion", "Garlic", "Pepper", "Butter", "Cream", "Rice"
+    };
+    private static final String[] CATEGORIES = {"Produce", "Bakery", "Dairy", "Dry goods"};
+    private static final int WARMUP = 20;
+    private static final int ITERATIONS = 100;
+
+    @Autowired IngredientService ingredientService;
+    @Autowired IngredientRepository ingredientRepository;
+    @Autowired SearchIndexService searchIndexService;
+    @Autowired JdbcTemplate jdbcTemplate;
+
+    @BeforeEach
+    void insertIngredients() {
+        List<Object[]> rows = new ArrayList<>();
+        for (int i = 1; i <= INGREDIENTS; i++) {
+            rows.add(new Object[]{FIRST_ID + i, WORDS[i % WORDS.length] + " " + i,
+                    CATEGORIES[i % CATEGORIES.length], (long) (i / WORDS.length % 4 + 1)});
+        }
+        jdbcTemplate.batchUpdate("INSERT INTO ingredients (id, created_at, updated_at, deleted, name, unit,"
+                + " current_stock, minimum_stock, cost_per_unit, category, branch_id)"
+                + " VALUES (?, NOW(), NOW(), FALSE, ?, 'kg', 10, 1, 2, ?, ?)", rows);
+        searchIndexService.initialize();
+    }
+
+    @Test
+    void indexedSearchMatchesLikeQueryForTheBranchAndIsFaster() {
+        Pageable firstPage = PageRequest.of(0, 20);
+        Page<IngredientDTO> indexed = ingredientService.searchIngredients("tom", BRANCH, firstPage);
+        Page<IngredientDTO> like = ingredientRepository.searchIngredients("tom", BRANCH, firstPage);
+
+        assertThat(indexed.getTotalElements()).isEqualTo(like.getTotalElements()).isPositive();
+        assertThat(indexed.getContent()).hasSize(20).allSatisfy(dto -> assertThat(dto.getBranchId()).isEqualTo(BRANCH));
+        assertThat(like.getContent()).hasSize(20).allSatisfy(dto -> assertThat(dto.getBranchId()).isEqualTo(BRANCH));
+
+        long indexedNanos = time(() -> ingredientService.searchIngredients("tom", BRANCH, firstPage));
+        long likeNanos = time(() -> ingredientRepository.searchIngredients("tom", BRANCH, firstPage));
+        System.out.printf("search over %d ingredients: index %d us, LIKE %d us per page%n",
+                INGREDIENTS, indexedNanos / 1_000, likeNanos / 1_000);
+        assertThat(indexedNanos).isLessThan(likeNanos);
+    }
+
+    private static long time(Supplier<?> search) {
+        for (int i = 0; i < WARMUP; i++) {
+            search.get();
+        }
+        long start = System.nanoTime();
+        for (int i = 0; i < ITERATIONS; i++) {
+            search.get();
+        }
+        return (System.nanoTime() - start) / ITERATIONS;
+    }
+}
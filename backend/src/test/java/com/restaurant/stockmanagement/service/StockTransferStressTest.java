@@ -0,0 +1,196 @@
+package com.restaurant.stockmanagement.service;
+
+import com.restaurant.stockmanagement.IntegrationTest;
+import com.restaurant.stockmanagement.TestData;
+import com.restaurant.stockmanagement.datasource.BranchContext;
+import com.restaurant.stockmanagement.dto.StockTransferDTO;
+import com.restaurant.stockmanagement.dto.StockTransferLineDTO;
+import com.restaurant.stockmanagement.dto.StockTransferRequest;
+import com.restaurant.stockmanagement.exception.ResourceNotFoundException;
+import com.restaurant.stockmanagement.exception.TransferConflictException;
+import com.restaurant.stockmanagement.model.Ingredient;
+import com.restaurant.stockmanagement.model.TransactionType;
+import com.restaurant.stockmanagement.model.TransferStatus;
+import com.restaurant.stockmanagement.repository.IngredientRepository;
+import com.restaurant.stockmanagement.repository.StockTransactionRepository;
+import com.restaurant.stockmanagement.repository.StockTransferRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.test.context.TestPropertySource;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.assertj.core.api.Assertions.within;
+
+/**
+ * Owners racing each other on transfers between two branches stored in the {@code north}
+ * database, from threads with no shard selected: every transfer is reserved, then committed
+ * twice at once or committed and cancelled at once. Each transfer must end up moved exactly once
+ * or not at all, with the stock, the reservations and the ledger all agreeing, and nothing may
+ * land in the default database.
+ */
+@IntegrationTest
+@TestPropertySource(properties = {
+        "spring.datasource.url=jdbc:h2:mem:transfer-default;MODE=MySQL;DATABASE_TO_LOWER=TRUE;DB_CLOSE_DELAY=-1",
+        "app.sharding.enabled=true",
+        "app.sharding.shards.north.url=jdbc:h2:mem:transfer-north;MODE=MySQL;DATABASE_TO_LOWER=TRUE;DB_CLOSE_DELAY=-1;LOCK_TIMEOUT=20000",
+        "app.sharding.shards.north.username=sa",
+        "app.sharding.shards.north.password=",
+        "app.sharding.shards.north.driver-class-name=org.h2.Driver",
+        "app.sharding.shards.north.id-offset=1000000000000",
+        "app.sharding.branches.110=north",
+        "app.sharding.branches.111=north"
+})
+@DirtiesContext
+class StockTransferStressTest {
+
+    private static final long SOURCE = 110L;
+    private static final long DESTINATION = 111L;
+    private static final String SHARD = "north";
+    private static final int THREADS = 8;
+    private static final int TRANSFERS = 48;
+    private static final double QUANTITY = 5;
+    private static final double OPENING_STOCK = 1000;
+
+    @Autowired StockTransferService stockTransferService;
+    @Autowired TestData data;
+    @Autowired IngredientRepository ingredientRepository;
+    @Autowired StockTransactionRepository stockTransactionRepository;
+    @Autowired StockTransferRepository stockTransferRepository;
+
+    @Test
+    void racingCommitsAndCancelsMoveEachTransferAtMostOnce() throws Exception {
+        Ingredient rice = onShard(() -> data.ingredient("Rice", SOURCE, OPENING_STOCK));
+        Ingredient received = onShard(() -> data.ingredient("Rice", DESTINATION, 0));
+
+        List<String> transferIds = new ArrayList<>();
+        for (int i = 0; i < TRANSFERS; i++) {
+            transferIds.add("stress-" + UUID.randomUUID());
+        }
+        run(transferIds.stream()
+                .map(id -> (Callable<Void>) () -> {
+                    stockTransferService.submit(request(id, rice, received));
+                    return null;
+                })
+                .toList());
+        assertThat(onShard(() -> ingredientRepository.findById(rice.getId()).orElseThrow().getReservedStock()))
+                .isCloseTo(TRANSFERS * QUANTITY, within(1e-9));
+
+        // Even transfers get two commits, odd ones a commit and a cancel, all shuffled together
+        AtomicInteger conflicts = new AtomicInteger();
+        List<Callable<Void>> steps = new ArrayList<>();
+        for (int i = 0; i < TRANSFERS; i++) {
+            String id = transferIds.get(i);
+            steps.add(() -> {
+                stockTransferService.commit(SOURCE, id);
+                return null;
+            });
+            boolean cancel = i % 2 == 1;
+            steps.add(() -> {
+                try {
+                    if (cancel) {
+                        stockTransferService.cancel(SOURCE, id);
+                    } else {
+                        stockTransferService.commit(SOURCE, id);
+                    }
+                } catch (TransferConflictException e) {
+                    conflicts.incrementAndGet();
+                }
+                return null;
+            });
+        }
+        Collections.shuffle(steps);
+        AtomicInteger lostCommits = new AtomicInteger();
+        run(steps.stream()
+                .map(step -> (Callable<Void>) () -> {
+                    try {
+                        return step.call();
+                    } catch (TransferConflictException e) {
+                        // The plain commit of an odd transfer lost to its cancel
+                        lostCommits.incrementAndGet();
+                        return null;
+                    }
+                })
+                .toList());
+
+        int committed = 0;
+        for (String id : transferIds) {
+            StockTransferDTO transfer = stockTransferService.getTransfer(SOURCE, id);
+            assertThat(transfer.getStatus()).isIn(TransferStatus.COMMITTED, TransferStatus.CANCELLED);
+            if (transfer.getStatus() == TransferStatus.COMMITTED) {
+                committed++;
+            }
+        }
+        int moved = committed;
+        // Each odd transfer has exactly one loser; it stays committed when that was the cancel
+        assertThat(conflicts.get() + lostCommits.get()).isEqualTo(TRANSFERS / 2);
+        assertThat(committed).isEqualTo(TRANSFERS / 2 + conflicts.get());
+        onShard(() -> {
+            Ingredient source = ingredientRepository.findById(rice.getId()).orElseThrow();
+            Ingredient destination = ingredientRepository.findById(received.getId()).orElseThrow();
+            assertThat(source.getCurrentStock()).isCloseTo(OPENING_STOCK - moved * QUANTITY, within(1e-9));
+            assertThat(source.getReservedStock()).isCloseTo(0.0, within(1e-9));
+            assertThat(destination.getCurrentStock()).isCloseTo(moved * QUANTITY, within(1e-9));
+            assertThat(stockTransactionRepository.findByIngredientAndType(rice.getId(), TransactionType.TRANSFER))
+                    .hasSize(moved);
+            assertThat(stockTransactionRepository.findByIngredientAndType(received.getId(), TransactionType.TRANSFER))
+                    .hasSize(moved);
+            return null;
+        });
+        assertThat(stockTransferRepository.findByTransferIdAndDeletedFalse(transferIds.get(0))).isEmpty();
+        assertThatThrownBy(() -> stockTransferService.getTransfer(DESTINATION, transferIds.get(0)))
+                .isInstanceOf(ResourceNotFoundException.class);
+    }
+
+    /**
+     * Runs the tasks on {@link #THREADS} owner threads with no shard selected, all at once.
+     */
+    private void run(List<Callable<Void>> tasks) throws Exception {
+        ExecutorService owners = Executors.newFixedThreadPool(THREADS);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<Void>> results = new ArrayList<>();
+        for (Callable<Void> task : tasks) {
+            results.add(owners.submit(() -> TestData.as("owner", "ROLE_OWNER", () -> {
+                start.await();
+                return task.call();
+            })));
+        }
+        start.countDown();
+        for (Future<Void> result : results) {
+            result.get(2, TimeUnit.MINUTES);
+        }
+        owners.shutdown();
+    }
+
+    private static StockTransferRequest request(String transferId, Ingredient source, Ingredient destination) {
+        StockTransferLineDTO line = new StockTransferLineDTO();
+        line.setIngredientId(source.getId());
+        line.setDestinationIngredientId(destination.getId());
+        line.setQuantity(QUANTITY);
+        StockTransferRequest request = new StockTransferRequest();
+        request.setTransferId(transferId);
+        request.setSourceBranchId(SOURCE);
+        request.setDestinationBranchId(DESTINATION);
+        request.setLines(List.of(line));
+        request.setCommit(false);
+        return request;
+    }
+
+    private static <T> T onShard(Supplier<T> action) {
+        return BranchContext.callOnShard(SHARD, action);
+    }
+}
@@ -0,0 +1,22 @@
+package com.restaurant.stockmanagement.service;
+
+import org.junit.jupiter.api.condition.EnabledForJreRange;
+import org.junit.jupiter.api.condition.JRE;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.TestPropertySource;
+
+/**
+ * {@link PosLatencyUnderExportLoadTest} with the {@code virtual-threads} profile, so requests,
+ * bulkheads and the connection semaphore run the way they do in the Java 21 build. Skipped on
+ * older JREs, where Spring Boot ignores {@code spring.threads.virtual.enabled}.
+ */
+@ActiveProfiles("virtual-threads")
+@TestPropertySource(properties = "spring.datasource.url=jdbc:h2:mem:pos-latency-virtual;MODE=MySQL;DATABASE_TO_LOWER=TRUE;LOCK_TIMEOUT=20000")
+@EnabledForJreRange(min = JRE.JAVA_21)
+class VirtualThreadPosLatencyUnderExportLoadTest extends PosLatencyUnderExportLoadTest {
+
+    @Override
+    String mode() {
+        return "virtual";
+    }
+}
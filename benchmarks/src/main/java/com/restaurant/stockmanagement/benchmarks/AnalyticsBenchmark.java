@@ -0,0 +1,53 @@
+package com.restaurant.stockmanagement.benchmarks;
+
+import com.restaurant.stockmanagement.repository.SaleItemRepository;
+import com.restaurant.stockmanagement.repository.StockTransactionRepository;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The raw aggregation queries over the whole seeded history (the last 30 days), without the
+ * rollup tables in front of them.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Fork(1)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@State(Scope.Benchmark)
+public class AnalyticsBenchmark {
+
+    private SaleItemRepository saleItemRepository;
+    private StockTransactionRepository stockTransactionRepository;
+
+    @Setup(Level.Trial)
+    public void setUp(SeededApplication application) {
+        saleItemRepository = application.bean(SaleItemRepository.class);
+        stockTransactionRepository = application.bean(StockTransactionRepository.class);
+    }
+
+    @Benchmark
+    public List<?> mostSoldFoods() {
+        LocalDateTime now = LocalDateTime.now();
+        return saleItemRepository.findMostSoldFoods(now.minusDays(Seeder.HISTORY_DAYS), now);
+    }
+
+    @Benchmark
+    public List<?> mostUsedIngredients() {
+        LocalDateTime now = LocalDateTime.now();
+        return stockTransactionRepository.findMostUsedIngredients(now.minusDays(Seeder.HISTORY_DAYS), now);
+    }
+}
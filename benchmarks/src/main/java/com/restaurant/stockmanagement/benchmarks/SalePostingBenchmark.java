@@ -0,0 +1,90 @@
+package com.restaurant.stockmanagement.benchmarks;
+
+import com.restaurant.stockmanagement.dto.SaleItemDTO;
+import com.restaurant.stockmanagement.dto.SaleRequest;
+import com.restaurant.stockmanagement.dto.SaleResponse;
+import com.restaurant.stockmanagement.model.Food;
+import com.restaurant.stockmanagement.service.SaleService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.security.core.context.SecurityContextHolder;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Posting a ticket end to end: food and recipe lookup, stock check, striped locking, the
+ * conditional stock decrements and the SALE rows through the stock ledger. Run single-threaded
+ * and with four cashiers to see lock contention.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Fork(1)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+public class SalePostingBenchmark {
+
+    @State(Scope.Thread)
+    public static class Cashier {
+
+        private final Random random = new Random();
+        private SaleService saleService;
+        private List<List<Food>> menus;
+
+        @Setup(Level.Trial)
+        public void login(SeededApplication application) {
+            saleService = application.bean(SaleService.class);
+            menus = application.seed().foodsByBranch();
+            SecurityContextHolder.getContext().setAuthentication(new UsernamePasswordAuthenticationToken(
+                    Seeder.CASHIER, null, List.of(new SimpleGrantedAuthority("ROLE_CASHIER"))));
+        }
+
+        SaleRequest nextTicket() {
+            int branch = random.nextInt(menus.size());
+            List<Food> menu = menus.get(branch);
+            List<SaleItemDTO> items = new ArrayList<>();
+            double total = 0;
+            int lines = 1 + random.nextInt(4);
+            for (int line = 0; line < lines; line++) {
+                Food food = menu.get(random.nextInt(menu.size()));
+                SaleItemDTO item = new SaleItemDTO();
+                item.setFoodId(food.getId());
+                item.setQuantity(1 + random.nextInt(3));
+                item.setUnitPrice(food.getPrice());
+                total += item.getQuantity() * food.getPrice();
+                items.add(item);
+            }
+            SaleRequest request = new SaleRequest();
+            request.setItems(items);
+            request.setTotalAmount(total);
+            request.setPaymentMethod("CARD");
+            request.setBranchId(branch + 1L);
+            return request;
+        }
+    }
+
+    @Benchmark
+    public SaleResponse postSale(Cashier cashier) {
+        return cashier.saleService.createSale(cashier.nextTicket());
+    }
+
+    @Benchmark
+    @Threads(4)
+    public SaleResponse postSaleConcurrently(Cashier cashier) {
+        return cashier.saleService.createSale(cashier.nextTicket());
+    }
+}
@@ -0,0 +1,132 @@
+package com.restaurant.stockmanagement.benchmarks;
+
+import com.restaurant.stockmanagement.dto.CursorPage;
+import com.restaurant.stockmanagement.dto.FoodDTO;
+import com.restaurant.stockmanagement.dto.IngredientDTO;
+import com.restaurant.stockmanagement.dto.SaleResponse;
+import com.restaurant.stockmanagement.dto.StockAlertDTO;
+import com.restaurant.stockmanagement.model.Sale;
+import com.restaurant.stockmanagement.pagination.KeysetCursor;
+import com.restaurant.stockmanagement.repository.SaleRepository;
+import com.restaurant.stockmanagement.service.FoodService;
+import com.restaurant.stockmanagement.service.IngredientService;
+import com.restaurant.stockmanagement.service.SaleService;
+import com.restaurant.stockmanagement.service.StockAlertService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.data.domain.KeysetScrollPosition;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.ScrollPosition;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.domain.Window;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Entity search through the in-memory index, the alert listings and the sales listing: the
+ * first page, and a page deep in the history by keyset cursor and by offset. The two deep pages
+ * run the same repository scroll query in the same kind of transaction, with the keyset bound
+ * {@link SaleService#scrollSales} adds or with an offset, so only the way to the page differs;
+ * neither counts rows.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Fork(1)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@State(Scope.Benchmark)
+public class SearchAndListingBenchmark {
+
+    private static final int PAGE_SIZE = 20;
+    private static final int DEEP_PAGE = 500;
+    private static final KeysetCursor SALE_CURSOR = new KeysetCursor("saleDate");
+
+    private FoodService foodService;
+    private IngredientService ingredientService;
+    private SaleService saleService;
+    private SaleRepository saleRepository;
+    private StockAlertService stockAlertService;
+    private TransactionTemplate readOnlyTransaction;
+    private KeysetScrollPosition deepPosition;
+    private LocalDateTime deepUntil;
+
+    @Setup(Level.Trial)
+    public void setUp(SeededApplication application) {
+        foodService = application.bean(FoodService.class);
+        ingredientService = application.bean(IngredientService.class);
+        saleService = application.bean(SaleService.class);
+        saleRepository = application.bean(SaleRepository.class);
+        stockAlertService = application.bean(StockAlertService.class);
+        readOnlyTransaction = new TransactionTemplate(application.bean(PlatformTransactionManager.class));
+        readOnlyTransaction.setReadOnly(true);
+
+        String cursor = null;
+        for (int page = 0; page < DEEP_PAGE; page++) {
+            cursor = saleService.scrollSales(cursor, PAGE_SIZE).getNextCursor();
+        }
+        deepPosition = SALE_CURSOR.decode(cursor);
+        deepUntil = SALE_CURSOR.until(deepPosition);
+        if (!ids(salesDeepPageByCursor()).equals(ids(salesDeepPageByOffset()))) {
+            throw new IllegalStateException("The deep pages by cursor and by offset differ");
+        }
+    }
+
+    @Benchmark
+    public Page<FoodDTO> searchFoods() {
+        return foodService.searchFoods("curry spec", 2L, PageRequest.of(0, PAGE_SIZE));
+    }
+
+    @Benchmark
+    public Page<IngredientDTO> searchIngredients() {
+        return ingredientService.searchIngredients("dairy ingr", 2L, PageRequest.of(0, PAGE_SIZE));
+    }
+
+    // Inside a transaction, as the open session of a web request would be
+    @Benchmark
+    public Page<StockAlertDTO> alertsFirstPage() {
+        return readOnlyTransaction.execute(status -> stockAlertService.getAllAlerts(
+                PageRequest.of(0, PAGE_SIZE, Sort.by("createdAt").descending())));
+    }
+
+    @Benchmark
+    public List<StockAlertDTO> unacknowledgedAlerts() {
+        return stockAlertService.getUnacknowledgedAlerts();
+    }
+
+    @Benchmark
+    public CursorPage<SaleResponse> salesFirstPage() {
+        return saleService.scrollSales(null, PAGE_SIZE);
+    }
+
+    @Benchmark
+    public Window<Sale> salesDeepPageByCursor() {
+        return readOnlyTransaction.execute(status -> saleRepository.findByDeletedFalseAndSaleDateLessThanEqual(
+                deepUntil, deepPosition, SALE_CURSOR.sort(), SALE_CURSOR.limit(PAGE_SIZE)));
+    }
+
+    // Starts where the deep cursor does: Spring Data 3.2 takes the offset as the first row's index
+    @Benchmark
+    public Window<Sale> salesDeepPageByOffset() {
+        return readOnlyTransaction.execute(status -> saleRepository.findByDeletedFalse(
+                ScrollPosition.offset((long) DEEP_PAGE * PAGE_SIZE), SALE_CURSOR.sort(),
+                SALE_CURSOR.limit(PAGE_SIZE)));
+    }
+
+    private static List<Long> ids(Window<Sale> window) {
+        return window.stream().map(Sale::getId).toList();
+    }
+}
@@ -0,0 +1,81 @@
+package com.restaurant.stockmanagement.benchmarks;
+
+import com.restaurant.stockmanagement.RestaurantStockManagementApplication;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.springframework.boot.Banner;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * The application without its web server, on an in-memory H2 database in MySQL mode migrated by
+ * Flyway and filled by {@link Seeder}. One instance per fork is shared by all benchmark threads.
+ */
+@State(Scope.Benchmark)
+public class SeededApplication {
+
+    /**
+     * Multiplies the history volumes (sales, sale items, stock transactions); 1 is about a month
+     * of trading for three busy branches.
+     */
+    @Param({"1"})
+    public int scale;
+
+    private ConfigurableApplicationContext context;
+    private Seeder.Seed seed;
+
+    @Setup(Level.Trial)
+    public void start() throws IOException {
+        Path journalDir = Files.createTempDirectory("benchmark-stock-ledger");
+        Map<String, Object> properties = new HashMap<>();
+        properties.put("spring.datasource.url",
+                "jdbc:h2:mem:benchmark;MODE=MySQL;DATABASE_TO_LOWER=TRUE;LOCK_TIMEOUT=20000");
+        properties.put("spring.datasource.driver-class-name", "org.h2.Driver");
+        properties.put("spring.datasource.username", "sa");
+        properties.put("spring.datasource.password", "");
+        properties.put("spring.jpa.show-sql", "false");
+        properties.put("app.metrics.slow-query-ms", "0");
+        properties.put("app.stock-ledger.journal-dir", journalDir.toString());
+        properties.put("management.server.port", "-1");
+        properties.put("logging.level.root", "WARN");
+        properties.put("logging.level.com.restaurant", "WARN");
+        properties.put("logging.level.org.springframework.security", "WARN");
+
+        context = new SpringApplicationBuilder(RestaurantStockManagementApplication.class)
+                .web(WebApplicationType.NONE)
+                .bannerMode(Banner.Mode.OFF)
+                .run(arguments(properties));
+        seed = new Seeder(context, scale).seed();
+    }
+
+    // Command line arguments, because default properties would lose to application.yml
+    private static String[] arguments(Map<String, Object> properties) {
+        return properties.entrySet().stream()
+                .map(property -> "--" + property.getKey() + "=" + property.getValue())
+                .toArray(String[]::new);
+    }
+
+    @TearDown(Level.Trial)
+    public void stop() {
+        context.close();
+    }
+
+    public <T> T bean(Class<T> type) {
+        return context.getBean(type);
+    }
+
+    public Seeder.Seed seed() {
+        return seed;
+    }
+}
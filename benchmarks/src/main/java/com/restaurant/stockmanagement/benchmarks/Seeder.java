@@ -0,0 +1,221 @@
+package com.restaurant.stockmanagement.benchmarks;
+
+import com.restaurant.stockmanagement.model.Food;
+import com.restaurant.stockmanagement.model.Ingredient;
+import com.restaurant.stockmanagement.model.RecipeIngredient;
+import com.restaurant.stockmanagement.repository.FoodRepository;
+import com.restaurant.stockmanagement.repository.IngredientRepository;
+import org.springframework.context.ApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Fills the database with a fixed, reproducible data set. Menus and stock go through the
+ * repositories so the search index and menu caches see them the way they see real edits; the
+ * sales history is bulk inserted with plain JDBC, using ids far above the entity sequence.
+ */
+public class Seeder {
+
+    static final int BRANCHES = 3;
+    static final int INGREDIENTS_PER_BRANCH = 200;
+    static final int FOODS_PER_BRANCH = 80;
+    static final int SALES_PER_SCALE = 20_000;
+    static final int HISTORY_DAYS = 30;
+    static final int ACKNOWLEDGED_ALERTS_PER_BRANCH = 1_000;
+    static final String CASHIER = "benchmark-cashier";
+
+    private static final long HISTORY_ID_START = 1_000_000_000L;
+    private static final int JDBC_BATCH_SIZE = 1_000;
+    private static final String[] CATEGORIES = {"Vegetables", "Meat", "Dairy", "Spices", "Grains", "Seafood"};
+    private static final String[] DISHES = {"Curry", "Salad", "Soup", "Burger", "Pasta", "Risotto", "Wrap", "Stew"};
+    private static final String[] PAYMENT_METHODS = {"CASH", "CARD", "MOBILE"};
+
+    private final IngredientRepository ingredientRepository;
+    private final FoodRepository foodRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final JdbcTemplate jdbcTemplate;
+    private final int scale;
+    private final Random random = new Random(42);
+    private long nextHistoryId = HISTORY_ID_START;
+
+    public Seeder(ApplicationContext context, int scale) {
+        this.ingredientRepository = context.getBean(IngredientRepository.class);
+        this.foodRepository = context.getBean(FoodRepository.class);
+        this.transactionTemplate = context.getBean(TransactionTemplate.class);
+        this.jdbcTemplate = context.getBean(JdbcTemplate.class);
+        this.scale = scale;
+    }
+
+    /**
+     * The ids the benchmarks pick from, per branch.
+     */
+    public record Seed(List<List<Food>> foodsByBranch, List<List<Ingredient>> ingredientsByBranch) {
+
+        public long branchId(int branchIndex) {
+            return branchIndex + 1L;
+        }
+    }
+
+    public Seed seed() {
+        List<List<Food>> foodsByBranch = new ArrayList<>();
+        List<List<Ingredient>> ingredientsByBranch = new ArrayList<>();
+        for (int branch = 0; branch < BRANCHES; branch++) {
+            long branchId = branch + 1L;
+            List<Ingredient> ingredients = transactionTemplate.execute(status -> seedIngredients(branchId));
+            List<Food> foods = transactionTemplate.execute(status -> seedFoods(branchId, ingredients));
+            ingredientsByBranch.add(ingredients);
+            foodsByBranch.add(foods);
+        }
+        seedHistory(foodsByBranch);
+        seedAlerts(ingredientsByBranch);
+        return new Seed(foodsByBranch, ingredientsByBranch);
+    }
+
+    private List<Ingredient> seedIngredients(long branchId) {
+        LocalDate today = LocalDate.now();
+        List<Ingredient> ingredients = new ArrayList<>(INGREDIENTS_PER_BRANCH);
+        for (int i = 0; i < INGREDIENTS_PER_BRANCH; i++) {
+            Ingredient ingredient = new Ingredient();
+            ingredient.setName(CATEGORIES[i % CATEGORIES.length] + " ingredient " + branchId + "-" + i);
+            ingredient.setUnit(i % 3 == 0 ? "kg" : i % 3 == 1 ? "l" : "pieces");
+            ingredient.setCategory(CATEGORIES[i % CATEGORIES.length]);
+            ingredient.setMinimumStock(50.0);
+            ingredient.setReorderLevel(100.0);
+            ingredient.setCostPerUnit(1.0 + random.nextInt(2_000) / 100.0);
+            // Every tenth ingredient is running low and is kept out of recipes so it stays that way
+            ingredient.setCurrentStock(isLowStock(i) ? random.nextInt(50) : 10_000_000.0);
+            // Expiry dates from two weeks ago to two months ahead, so every scan has hits
+            ingredient.setExpiryDate(today.plusDays(random.nextInt(74) - 14));
+            ingredient.setBranchId(branchId);
+            ingredient.setDeleted(false);
+            ingredients.add(ingredient);
+        }
+        return ingredientRepository.saveAll(ingredients);
+    }
+
+    private List<Food> seedFoods(long branchId, List<Ingredient> ingredients) {
+        List<Ingredient> usable = new ArrayList<>();
+        for (int i = 0; i < ingredients.size(); i++) {
+            if (!isLowStock(i)) {
+                usable.add(ingredients.get(i));
+            }
+        }
+        List<Food> foods = new ArrayList<>(FOODS_PER_BRANCH);
+        for (int i = 0; i < FOODS_PER_BRANCH; i++) {
+            Food food = new Food();
+            food.setName(DISHES[i % DISHES.length] + " special " + branchId + "-" + i);
+            food.setCategory(i % 2 == 0 ? "Main Course" : "Appetizer");
+            food.setPrice(5.0 + random.nextInt(2_500) / 100.0);
+            food.setAvailable(true);
+            food.setPreparationTime(5 + random.nextInt(40));
+            food.setBranchId(branchId);
+            food.setDeleted(false);
+            int lines = 3 + random.nextInt(4);
+            for (int line = 0; line < lines; line++) {
+                RecipeIngredient recipeIngredient = new RecipeIngredient();
+                recipeIngredient.setFood(food);
+                recipeIngredient.setIngredient(usable.get(random.nextInt(usable.size())));
+                recipeIngredient.setQuantity(0.05 + random.nextInt(50) / 100.0);
+                recipeIngredient.setDeleted(false);
+                food.getRecipeIngredients().add(recipeIngredient);
+            }
+            foods.add(food);
+        }
+        return foodRepository.saveAll(foods);
+    }
+
+    private void seedHistory(List<List<Food>> foodsByBranch) {
+        LocalDateTime start = LocalDateTime.now().minusDays(HISTORY_DAYS);
+        long historySeconds = HISTORY_DAYS * 24L * 3600L;
+
+        List<Object[]> sales = new ArrayList<>(JDBC_BATCH_SIZE);
+        List<Object[]> items = new ArrayList<>(JDBC_BATCH_SIZE * 3);
+        List<Object[]> movements = new ArrayList<>(JDBC_BATCH_SIZE * 12);
+        int total = SALES_PER_SCALE * scale;
+        for (int n = 0; n < total; n++) {
+            int branch = random.nextInt(BRANCHES);
+            List<Food> menu = foodsByBranch.get(branch);
+            Timestamp saleDate = Timestamp.valueOf(start.plusSeconds(historySeconds * n / total));
+            long saleId = nextHistoryId++;
+
+            double amount = 0;
+            int lines = 1 + random.nextInt(4);
+            for (int line = 0; line < lines; line++) {
+                Food food = menu.get(random.nextInt(menu.size()));
+                int quantity = 1 + random.nextInt(3);
+                double subtotal = quantity * food.getPrice();
+                amount += subtotal;
+                items.add(new Object[]{nextHistoryId++, saleDate, saleDate, saleId, food.getId(), quantity,
+                        food.getPrice(), subtotal});
+                for (RecipeIngredient recipeIngredient : food.getRecipeIngredients()) {
+                    movements.add(new Object[]{nextHistoryId++, saleDate, saleDate,
+                            recipeIngredient.getIngredient().getId(), "SALE",
+                            recipeIngredient.getQuantity() * quantity, "Sale #" + saleId, CASHIER, branch + 1L});
+                }
+            }
+            sales.add(new Object[]{saleId, saleDate, saleDate, saleDate, amount, CASHIER,
+                    PAYMENT_METHODS[random.nextInt(PAYMENT_METHODS.length)], branch + 1L});
+
+            if (sales.size() == JDBC_BATCH_SIZE || n == total - 1) {
+                insertHistory(sales, items, movements);
+                sales.clear();
+                items.clear();
+                movements.clear();
+            }
+        }
+    }
+
+    private void insertHistory(List<Object[]> sales, List<Object[]> items, List<Object[]> movements) {
+        transactionTemplate.executeWithoutResult(status -> {
+            jdbcTemplate.batchUpdate("INSERT INTO sales (id, created_at, updated_at, deleted, sale_date, "
+                    + "total_amount, cashier_username, payment_method, branch_id) "
+                    + "VALUES (?, ?, ?, FALSE, ?, ?, ?, ?, ?)", sales);
+            jdbcTemplate.batchUpdate("INSERT INTO sale_items (id, created_at, updated_at, deleted, sale_id, "
+                    + "food_id, quantity, unit_price, subtotal) "
+                    + "VALUES (?, ?, ?, FALSE, ?, ?, ?, ?, ?)", items);
+            // Stock levels are seeded high enough that the history never has to be replayed onto them
+            jdbcTemplate.batchUpdate("INSERT INTO stock_transactions (id, created_at, updated_at, deleted, "
+                    + "ingredient_id, type, quantity, previous_stock, new_stock, reason, performed_by, branch_id) "
+                    + "VALUES (?, ?, ?, FALSE, ?, ?, ?, 0, 0, ?, ?, ?)", movements);
+        });
+    }
+
+    /**
+     * An open LOW_STOCK alert for every low-stock ingredient and a month of acknowledged ones.
+     */
+    private void seedAlerts(List<List<Ingredient>> ingredientsByBranch) {
+        LocalDateTime now = LocalDateTime.now();
+        List<Object[]> alerts = new ArrayList<>();
+        for (List<Ingredient> ingredients : ingredientsByBranch) {
+            for (int i = 0; i < ingredients.size(); i++) {
+                Ingredient ingredient = ingredients.get(i);
+                if (isLowStock(i)) {
+                    Timestamp createdAt = Timestamp.valueOf(now.minusMinutes(random.nextInt(600)));
+                    alerts.add(new Object[]{nextHistoryId++, createdAt, createdAt, ingredient.getId(), "LOW_STOCK",
+                            "Low stock alert: " + ingredient.getName(), false, null, null, ingredient.getBranchId()});
+                }
+            }
+            for (int n = 0; n < ACKNOWLEDGED_ALERTS_PER_BRANCH; n++) {
+                Ingredient ingredient = ingredients.get(random.nextInt(ingredients.size()));
+                Timestamp createdAt = Timestamp.valueOf(now.minusMinutes(600 + random.nextInt(HISTORY_DAYS * 24 * 60)));
+                alerts.add(new Object[]{nextHistoryId++, createdAt, createdAt, ingredient.getId(), "EXPIRING_SOON",
+                        "Expiring soon: " + ingredient.getName(), true, CASHIER, createdAt, ingredient.getBranchId()});
+            }
+        }
+        transactionTemplate.executeWithoutResult(status -> jdbcTemplate.batchUpdate(
+                "INSERT INTO stock_alerts (id, created_at, updated_at, deleted, ingredient_id, alert_type, message, "
+                        + "acknowledged, acknowledged_by, acknowledged_at, branch_id) "
+                        + "VALUES (?, ?, ?, FALSE, ?, ?, ?, ?, ?, ?, ?)", alerts));
+    }
+
+    private static boolean isLowStock(int index) {
+        return index % 10 == 0;
+    }
+}
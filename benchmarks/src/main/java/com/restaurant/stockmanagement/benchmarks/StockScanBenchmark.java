@@ -0,0 +1,55 @@
+package com.restaurant.stockmanagement.benchmarks;
+
+import com.restaurant.stockmanagement.model.Ingredient;
+import com.restaurant.stockmanagement.repository.IngredientRepository;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The scans behind the stock alert jobs and the dashboard: low stock, expiring within a week
+ * and already expired, across all branches.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Fork(1)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@State(Scope.Benchmark)
+public class StockScanBenchmark {
+
+    private IngredientRepository ingredientRepository;
+
+    @Setup(Level.Trial)
+    public void setUp(SeededApplication application) {
+        ingredientRepository = application.bean(IngredientRepository.class);
+    }
+
+    @Benchmark
+    public List<Ingredient> lowStock() {
+        return ingredientRepository.findLowStockIngredients();
+    }
+
+    @Benchmark
+    public List<Ingredient> expiringSoon() {
+        LocalDate today = LocalDate.now();
+        return ingredientRepository.findIngredientsByExpiryDateBetween(today, today.plusDays(7));
+    }
+
+    @Benchmark
+    public List<Ingredient> expired() {
+        return ingredientRepository.findExpiredIngredients(LocalDate.now());
+    }
+}
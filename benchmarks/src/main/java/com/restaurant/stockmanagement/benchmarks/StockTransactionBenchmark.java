@@ -0,0 +1,83 @@
+package com.restaurant.stockmanagement.benchmarks;
+
+import com.restaurant.stockmanagement.ledger.StockLedger;
+import com.restaurant.stockmanagement.model.Ingredient;
+import com.restaurant.stockmanagement.model.StockTransaction;
+import com.restaurant.stockmanagement.model.TransactionType;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Raw insert throughput of stock transaction rows through {@link StockLedger#record}, one row
+ * per transaction and fifty per transaction (the size of a busy ticket or a delivery). Scores
+ * are rows per second.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Fork(1)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@State(Scope.Benchmark)
+public class StockTransactionBenchmark {
+
+    private static final int BATCH = 50;
+
+    private final Random random = new Random(7);
+    private StockLedger stockLedger;
+    private TransactionTemplate transactionTemplate;
+    private List<Ingredient> ingredients;
+
+    @Setup(Level.Trial)
+    public void setUp(SeededApplication application) {
+        stockLedger = application.bean(StockLedger.class);
+        transactionTemplate = application.bean(TransactionTemplate.class);
+        ingredients = application.seed().ingredientsByBranch().get(0);
+    }
+
+    @Benchmark
+    public void recordSingle() {
+        List<StockTransaction> transactions = List.of(purchase());
+        transactionTemplate.executeWithoutResult(status -> stockLedger.record(transactions));
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(BATCH)
+    public void recordBatch() {
+        List<StockTransaction> transactions = new ArrayList<>(BATCH);
+        for (int i = 0; i < BATCH; i++) {
+            transactions.add(purchase());
+        }
+        transactionTemplate.executeWithoutResult(status -> stockLedger.record(transactions));
+    }
+
+    private synchronized StockTransaction purchase() {
+        Ingredient ingredient = ingredients.get(random.nextInt(ingredients.size()));
+        StockTransaction transaction = new StockTransaction();
+        transaction.setIngredient(ingredient);
+        transaction.setType(TransactionType.PURCHASE);
+        transaction.setQuantity(10.0);
+        transaction.setPreviousStock(ingredient.getCurrentStock());
+        transaction.setNewStock(ingredient.getCurrentStock() + 10.0);
+        transaction.setReason("Benchmark delivery");
+        transaction.setPerformedBy(Seeder.CASHIER);
+        transaction.setBranchId(ingredient.getBranchId());
+        transaction.setDeleted(false);
+        return transaction;
+    }
+}